@@ -0,0 +1,91 @@
+package com.github.chipolaris.bootforum2;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings: a compact set answering "definitely absent" or "maybe present" in O(1).
+ * Sized for an expected number of insertions and a false positive rate; elements can't be removed, so
+ * the filter is rebuilt to drop them.
+ *
+ * Concurrent reads and writes are safe (the bits are set atomically); a value is seen by mightContain
+ * once its put has returned.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+
+        int insertions = Math.max(1, expectedInsertions);
+        // optimal m = -n ln(p) / (ln 2)^2 bits and k = m/n ln 2 hash functions
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(optimalBits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    public void put(String value) {
+        long hash = hash64(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            int bitIndex = bitIndex(hash1 + i * hash2);
+            int wordIndex = bitIndex / Long.SIZE;
+            long mask = 1L << (bitIndex % Long.SIZE);
+            long word;
+            while (((word = bits.get(wordIndex)) & mask) == 0 && !bits.compareAndSet(wordIndex, word, word | mask)) {
+                // another bit of the word was set concurrently, retry
+            }
+        }
+    }
+
+    /**
+     * @return false if the value was never put, true if it probably was
+     */
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            int bitIndex = bitIndex(hash1 + i * hash2);
+            if ((bits.get(bitIndex / Long.SIZE) & (1L << (bitIndex % Long.SIZE))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private int bitIndex(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters, finalized with the MurmurHash3 mix so that both halves
+     * are well distributed (they are used as two independent hashes)
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe66aed53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
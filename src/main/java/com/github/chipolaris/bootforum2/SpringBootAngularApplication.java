@@ -6,12 +6,18 @@ import com.github.chipolaris.bootforum2.dao.FilterSpec;
 import com.github.chipolaris.bootforum2.dao.QuerySpec;
 import com.github.chipolaris.bootforum2.domain.Person;
 import com.github.chipolaris.bootforum2.domain.User;
+import com.github.chipolaris.bootforum2.rest.SearchTokenResponseAdvice;
 import com.github.chipolaris.bootforum2.security.JwtAuthenticationFilter;
+import com.github.chipolaris.bootforum2.security.MeteredPasswordEncoder;
 import com.github.chipolaris.bootforum2.service.ForumSettingService;
+import com.github.chipolaris.bootforum2.service.SearchIndexingTracker;
 import com.github.chipolaris.bootforum2.service.SystemStatistic;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -23,6 +29,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -49,6 +56,7 @@ import java.util.List;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class SpringBootAngularApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(SpringBootAngularApplication.class);
@@ -97,6 +105,7 @@ public class SpringBootAngularApplication {
                                     .requestMatchers("/api/admin/**").hasAnyRole(ADMIN_ROLES)
                                     .requestMatchers("/api/user/**").hasAnyRole(SECURED_ROLES)
                                     .requestMatchers("/api/secured/**").hasAnyRole(SECURED_ROLES)
+                                    .requestMatchers("/actuator/metrics/**").hasAnyRole(ADMIN_ROLES)
                                     // 2. Explicitly permit public API endpoints
                                     .requestMatchers(API_AUTH_PATH, "/api/public/**").permitAll()
                                     // 3. Permit all other requests (Angular routes, static assets like .js, .css, .ico)
@@ -118,6 +127,8 @@ public class SpringBootAngularApplication {
             configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD"));
             // Ensure 'Authorization' header is allowed if not using "*"
             configuration.setAllowedHeaders(List.of("*")); // Or specify headers including "Authorization", "Content-Type"
+            // read-your-writes token of search results, see SearchTokenResponseAdvice
+            configuration.setExposedHeaders(List.of(SearchTokenResponseAdvice.SEARCH_TOKEN_HEADER));
             // configuration.setAllowCredentials(true); // No longer strictly required for JWT via header, can often be removed
             UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
             source.registerCorsConfiguration("/**", configuration);
@@ -160,8 +171,13 @@ public class SpringBootAngularApplication {
      * E.g, no need to define the configureGlobal(AuthenticationManagerBuilder auth) method
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int bcryptStrength,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        // strength is the log2 of the hashing rounds, see BCryptBenchmark to size it against the login rate;
+        // existing hashes keep their own strength
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return registry != null ? new MeteredPasswordEncoder(passwordEncoder, registry) : passwordEncoder;
     }
 
     @Bean @Order(1)
@@ -240,4 +256,16 @@ public class SpringBootAngularApplication {
     public ApplicationListener<ApplicationReadyEvent> initializeSystemStatistic(SystemStatistic systemStatistic) {
         return event -> systemStatistic.initializeStatistics();
     }
+
+    /**
+     * Indexing plan synchronization strategy of Hibernate Search, referenced by name in application.yml
+     * (hibernate.search.indexing.plan.synchronization.strategy). Declared here rather than component scanned,
+     * so that the JPA slice tests, which bootstrap Hibernate Search as well, have it.
+     */
+    @Bean
+    public SearchIndexingTracker searchIndexingTracker(
+            @Value("${app.search.indexing.async:true}") boolean async,
+            @Value("${app.search.indexing.read-your-writes-timeout-ms:5000}") long readYourWritesTimeoutMs) {
+        return new SearchIndexingTracker(async, readYourWritesTimeoutMs);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.github.chipolaris.bootforum2;
+
+import java.util.*;
+
+public class TermExtractor {
+
+    // common English words, not worth trending or matching on
+    public static final Set<String> STOPWORDS = Set.of(
+            "about", "above", "after", "again", "against", "all", "also", "and", "any", "are", "because", "been",
+            "before", "being", "below", "between", "both", "but", "can", "could", "did", "does", "doing", "don",
+            "down", "during", "each", "even", "few", "for", "from", "further", "get", "got", "had", "has", "have",
+            "having", "her", "here", "hers", "herself", "him", "himself", "his", "how", "into", "its", "itself",
+            "just", "know", "like", "more", "most", "much", "must", "myself", "nbsp", "nor", "not", "now", "off",
+            "once", "one", "only", "other", "our", "ours", "ourselves", "out", "over", "own", "really", "same",
+            "she", "should", "some", "such", "than", "that", "the", "their", "theirs", "them", "themselves",
+            "then", "there", "these", "they", "this", "those", "through", "too", "under", "until", "use", "very",
+            "want", "was", "way", "well", "were", "what", "when", "where", "which", "while", "who", "whom", "why",
+            "will", "with", "would", "you", "your", "yours", "yourself", "yourselves");
+
+    // a title term counts as much as this many occurrences in the content
+    static final int TITLE_WEIGHT = 3;
+
+    /**
+     * Text of an HTML fragment: tags dropped, common entities decoded and whitespace collapsed.
+     * Example:
+     * "<p>Fish &amp; chips</p><p>today</p>"
+     * =>
+     * "Fish & chips today"
+     */
+    public static String plainText(String html) {
+
+        if (html == null || html.isBlank()) {
+            return "";
+        }
+        return html.replaceAll("<[^>]*>", " ")
+                .replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replaceAll("&(?!amp;)[a-zA-Z]+;|&#\\d+;", " ")
+                .replace("&amp;", "&")
+                .replaceAll("\\s+", " ")
+                .strip();
+    }
+
+    /**
+     * The first (at most) maxLength characters of the plain text of an HTML fragment
+     */
+    public static String abbreviate(String html, int maxLength) {
+        String text = plainText(html);
+        return text.length() > maxLength ? text.substring(0, maxLength) : text;
+    }
+
+    /**
+     * Terms of a text, in order and with repeats. Tokenized like the title_terms/content_terms fields
+     * of Discussion, without markup, numbers and stopwords.
+     * Example:
+     * "<p>Spring Boot 3 &amp; the Spring way</p>"
+     * =>
+     * ["spring", "boot", "spring"]
+     */
+    public static List<String> tokenize(String text) {
+
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : plainText(text).toLowerCase().split("[^a-zA-Z0-9]+")) {
+            if (token.length() > 2 && !token.chars().allMatch(Character::isDigit) && !STOPWORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * The (at most) limit most frequent terms of a title and its content, most frequent first,
+     * where a title term weighs {@value #TITLE_WEIGHT} content occurrences. Ties are broken alphabetically,
+     * so the result is stable for a given text.
+     */
+    public static List<String> topTerms(String title, String content, int limit) {
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(title).forEach(term -> frequencies.merge(term, TITLE_WEIGHT, Integer::sum));
+        tokenize(content).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+        return frequencies.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
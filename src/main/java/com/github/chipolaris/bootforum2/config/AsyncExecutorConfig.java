@@ -0,0 +1,243 @@
+package com.github.chipolaris.bootforum2.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Named executors for {@code @Async} methods, one per workload class, so that long running jobs
+ * (re-indexing, data simulation) can never starve latency sensitive event listeners.
+ *
+ * Every executor has a bounded queue and a rejection policy:
+ * <ul>
+ *     <li>stat events and reputation: caller runs, i.e. a full queue slows down the publisher instead of losing updates</li>
+ *     <li>indexing and simulation: abort, i.e. a new job is refused while the executor is busy (the indexing
+ *     executor has no queue: a reindex or the trending terms backfill is refused while the other runs)</li>
+ *     <li>stat reconciliation chunks: caller runs, i.e. the reconciliation job works on a chunk itself
+ *     instead of queueing more</li>
+ *     <li>password verification: abort, i.e. a login is refused (and retried by the user) rather than
+ *     piling up CPU bound hashing</li>
+ *     <li>stat pipeline consumers: abort, the pool has exactly one thread per pipeline shard</li>
+ * </ul>
+ *
+ * Each executor publishes active threads, pool size, queue size, task wait time and rejected tasks
+ * as {@code forum.executor.*} meters tagged with the executor name.
+ *
+ * With {@code spring.threads.virtual.enabled=true} (Java 21+, see the virtual-threads profile), the
+ * stat events and reputation listeners run on virtual threads instead: one virtual thread per task,
+ * with a concurrency limit in place of the pool size and queue. Those listeners mostly wait on JDBC,
+ * so the limit should stay in line with the connection pool size. Submitters block while the limit
+ * is reached, which keeps the same backpressure as the caller-runs policy. Indexing, simulation and
+ * password verification keep their platform thread pools.
+ */
+@Configuration
+public class AsyncExecutorConfig implements AsyncConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncExecutorConfig.class);
+
+    public static final String STAT_EVENTS_EXECUTOR = "statEventsExecutor";
+    public static final String REPUTATION_EXECUTOR = "reputationExecutor";
+    public static final String INDEXING_EXECUTOR = "indexingExecutor";
+    public static final String SIMULATION_EXECUTOR = "simulationExecutor";
+    public static final String RECONCILIATION_EXECUTOR = "reconciliationExecutor";
+    public static final String PASSWORD_VERIFICATION_EXECUTOR = "passwordVerificationExecutor";
+    public static final String STAT_PIPELINE_EXECUTOR = "statPipelineExecutor";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean virtualThreads;
+
+    private AsyncTaskExecutor statEventsExecutor;
+
+    public AsyncExecutorConfig(MeterRegistry meterRegistry,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.meterRegistry = meterRegistry;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Bean(name = STAT_EVENTS_EXECUTOR)
+    public AsyncTaskExecutor statEventsExecutor(
+            @Value("${app.executors.stat-events.core-size:4}") int coreSize,
+            @Value("${app.executors.stat-events.max-size:8}") int maxSize,
+            @Value("${app.executors.stat-events.queue-capacity:5000}") int queueCapacity,
+            @Value("${app.executors.stat-events.virtual-concurrency-limit:64}") int virtualConcurrencyLimit) {
+        statEventsExecutor = virtualThreads
+                ? newVirtualExecutor("stat-events", virtualConcurrencyLimit)
+                : newExecutor("stat-events", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+        return statEventsExecutor;
+    }
+
+    @Bean(name = REPUTATION_EXECUTOR)
+    public AsyncTaskExecutor reputationExecutor(
+            @Value("${app.executors.reputation.core-size:2}") int coreSize,
+            @Value("${app.executors.reputation.max-size:4}") int maxSize,
+            @Value("${app.executors.reputation.queue-capacity:5000}") int queueCapacity,
+            @Value("${app.executors.reputation.virtual-concurrency-limit:32}") int virtualConcurrencyLimit) {
+        return virtualThreads
+                ? newVirtualExecutor("reputation", virtualConcurrencyLimit)
+                : newExecutor("reputation", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Bean(name = INDEXING_EXECUTOR)
+    public ThreadPoolTaskExecutor indexingExecutor(
+            @Value("${app.executors.indexing.core-size:1}") int coreSize,
+            @Value("${app.executors.indexing.max-size:1}") int maxSize,
+            @Value("${app.executors.indexing.queue-capacity:0}") int queueCapacity) {
+        return newExecutor("indexing", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Bean(name = SIMULATION_EXECUTOR)
+    public ThreadPoolTaskExecutor simulationExecutor(
+            @Value("${app.executors.simulation.core-size:1}") int coreSize,
+            @Value("${app.executors.simulation.max-size:2}") int maxSize,
+            @Value("${app.executors.simulation.queue-capacity:4}") int queueCapacity) {
+        return newExecutor("simulation", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs a stat reconciliation and its chunks in parallel (see StatReconciliationService), not used by
+     * {@code @Async} methods. The run itself takes one thread, hence one more than the default parallelism.
+     */
+    @Bean(name = RECONCILIATION_EXECUTOR)
+    public ThreadPoolTaskExecutor reconciliationExecutor(
+            @Value("${app.executors.reconciliation.core-size:5}") int coreSize,
+            @Value("${app.executors.reconciliation.max-size:5}") int maxSize,
+            @Value("${app.executors.reconciliation.queue-capacity:4}") int queueCapacity) {
+        return newExecutor("reconciliation", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Runs the login password verifications (see PasswordVerifier), not used by {@code @Async} methods.
+     * BCrypt is CPU bound: concurrency caps the cores taken by logins, so that a burst of logins can't
+     * starve the other requests.
+     */
+    @Bean(name = PASSWORD_VERIFICATION_EXECUTOR)
+    public ThreadPoolTaskExecutor passwordVerificationExecutor(
+            @Value("${app.executors.password-verification.concurrency:2}") int concurrency,
+            @Value("${app.executors.password-verification.queue-capacity:50}") int queueCapacity) {
+        return newExecutor("password-verification", concurrency, concurrency, queueCapacity,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs the consumers of the stat event pipeline (see StatEventPipeline), one long running task per shard,
+     * not used by {@code @Async} methods.
+     */
+    @Bean(name = STAT_PIPELINE_EXECUTOR)
+    public ThreadPoolTaskExecutor statPipelineExecutor(@Value("${app.stats.pipeline.shards:4}") int shards) {
+        return newExecutor("stat-pipeline", shards, shards, 0, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Fallback for {@code @Async} methods without an executor name. All methods in the application
+     * name their executor; without this, Spring would fall back to an unbounded executor.
+     */
+    @Override
+    public Executor getAsyncExecutor() {
+        return statEventsExecutor;
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) ->
+                logger.error("Uncaught exception in async method {}.{}",
+                        method.getDeclaringClass().getSimpleName(), method.getName(), ex);
+    }
+
+    private ThreadPoolTaskExecutor newExecutor(String name, int coreSize, int maxSize, int queueCapacity,
+                                               RejectedExecutionHandler rejectionPolicy) {
+
+        Tags tags = Tags.of("name", name);
+
+        Timer waitTimer = Timer.builder("forum.executor.wait")
+                .description("Time tasks spend queued before they start running")
+                .tags(tags).register(meterRegistry);
+        Counter rejectedCounter = Counter.builder("forum.executor.rejected")
+                .description("Tasks rejected because the executor queue was full")
+                .tags(tags).register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setTaskDecorator(task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                task.run();
+            };
+        });
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejectedCounter.increment();
+            logger.warn("Executor '{}' is saturated (active: {}, queued: {})",
+                    name, pool.getActiveCount(), pool.getQueue().size());
+            rejectionPolicy.rejectedExecution(task, pool);
+        });
+
+        Gauge.builder("forum.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Threads currently running tasks")
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("forum.executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .description("Current number of threads in the pool")
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("forum.executor.queue.size", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("Tasks waiting in the executor queue")
+                .tags(tags).register(meterRegistry);
+
+        return executor;
+    }
+
+    private SimpleAsyncTaskExecutor newVirtualExecutor(String name, int concurrencyLimit) {
+
+        Tags tags = Tags.of("name", name);
+
+        Timer waitTimer = Timer.builder("forum.executor.wait")
+                .description("Time tasks spend queued before they start running")
+                .tags(tags).register(meterRegistry);
+        AtomicInteger active = new AtomicInteger();
+
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(name + "-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setTaskTerminationTimeout(TimeUnit.SECONDS.toMillis(30));
+        executor.setTaskDecorator(task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                }
+            };
+        });
+
+        Gauge.builder("forum.executor.active", active, AtomicInteger::get)
+                .description("Threads currently running tasks")
+                .tags(tags).register(meterRegistry);
+
+        logger.info("Executor '{}' runs on virtual threads (concurrency limit: {})", name, concurrencyLimit);
+        return executor;
+    }
+}
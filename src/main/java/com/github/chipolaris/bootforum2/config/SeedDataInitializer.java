@@ -22,6 +22,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * This class requires the file named seed-data.json exists in the classpath
@@ -60,14 +64,17 @@ public class SeedDataInitializer {
             SeedData seedData = objectMapper.readValue(inputStream, SeedData.class);
 
             if (seedData.users() != null) { // Use record accessor users()
-                for (SeedUser seedUser : seedData.users()) { // Iterate over SeedUser records
-                    QuerySpec userExistsQuery = QuerySpec.builder(User.class)
-                            .filter(FilterSpec.of("username", FilterSpec.Operator.EQ, seedUser.username())) // Use record accessor
-                            .build();
+                // one query for the seed users that already exist, instead of one per seed user
+                QuerySpec existingUsernamesQuery = QuerySpec.builder(String.class).rootEntityClass(User.class)
+                        .targetPath("username")
+                        .filter(FilterSpec.in("username", seedData.users().stream().map(SeedUser::username).toList()))
+                        .build();
+                Set<String> existingUsernames = new HashSet<>(dynamicDAO.<String>find(existingUsernamesQuery));
 
-                    boolean userExists = dynamicDAO.exists(userExistsQuery); // or isExistOptimized
+                List<User> newUsers = new ArrayList<>();
+                for (SeedUser seedUser : seedData.users()) { // Iterate over SeedUser records
 
-                    if (!userExists) {
+                    if (!existingUsernames.contains(seedUser.username())) {
                         logger.info("User '{}' not found. Seeding user...", seedUser.username()); // Use record accessor
 
                         User newUser = User.newUser(); // User.newUser() initializes Person, Preferences, UserStat
@@ -93,12 +100,15 @@ public class SeedDataInitializer {
                             // email will be lowercased by Person's @PrePersist/@PreUpdate
                         }
 
-                        genericDAO.persist(newUser); // Persists User and cascaded Person, Preferences, UserStat
-                        logger.info("User '{}' seeded successfully.", seedUser.username()); // Use record accessor
+                        newUsers.add(newUser);
                     } else {
                         logger.info("User '{}' already exists. Skipping.", seedUser.username()); // Use record accessor
                     }
                 }
+
+                // Persists Users and cascaded Person, Preferences, UserStat as JDBC batches
+                genericDAO.persistAll(newUsers);
+                logger.info("{} users seeded successfully.", newUsers.size());
             }
             // Seed Root Forum Groups
             if (seedData.forumGroups() != null && seedData.forumGroups().size() > 0) {
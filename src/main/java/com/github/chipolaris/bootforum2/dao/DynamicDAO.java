@@ -2,25 +2,57 @@ package com.github.chipolaris.bootforum2.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository
 public class DynamicDAO {
 
     private static final Logger logger = LoggerFactory.getLogger(DynamicDAO.class);
 
+    // alias of the root entity in compiled JPQL queries
+    private static final String ROOT_ALIAS = "e";
+
+    // shapes come from code and from sort fields checked against the metamodel, so the number of
+    // compiled queries is small; the bound only guards against unexpected growth
+    private static final int MAX_COMPILED_QUERIES = 1024;
+
     @PersistenceContext
     protected EntityManager entityManager;
 
+    // JPQL of a query shape and the parameter name of each of its filters (null for a filter without parameter)
+    private record CompiledQuery(String jpql, String[] parameters) {}
+
+    // query shape -> compiled query, see compiledQuery(...)
+    private final Map<QueryShape, CompiledQuery> compiledQueries = new ConcurrentHashMap<>();
+
     /**
      * Find entities matching specs from querySpec
      *
@@ -32,49 +64,233 @@ public class DynamicDAO {
      * @return
      * @param <E>
      */
+    @SuppressWarnings("unchecked")
     public <E> List<E> find(QuerySpec querySpec) {
 
+        TypedQuery<E> typedQuery = compiledQuery(QueryShape.Kind.SELECT, querySpec, querySpec.getTargetEntity());
+        applyCacheRegion(typedQuery, querySpec);
+        applyFetchGraph(typedQuery, querySpec);
+        applyPaging(typedQuery, querySpec);
+
+        return typedQuery.getResultList();
+    }
+
+    /**
+     * Stream the results of querySpec through a forward-only cursor, reading fetchSize rows per round-trip,
+     * for operations over more rows than fit in memory (e.g. a resync of all users).
+     *
+     * Every fetchSize rows, before the next row is read, the persistence context is flushed and cleared,
+     * so the heap stays flat however many rows are streamed: changes to streamed entities are written,
+     * and entities of earlier rows (as well as any other entity loaded in the transaction) become detached.
+     * The stream must be consumed inside a transaction and closed afterwards (try-with-resources), which
+     * closes the cursor.
+     *
+     * @param querySpec filters, orders, targetPath, paging and fetch graph of the query (cacheRegion is ignored)
+     * @param fetchSize rows per round-trip and per persistence context clear
+     */
+    @SuppressWarnings("unchecked")
+    public <E> Stream<E> stream(QuerySpec querySpec, int fetchSize) {
+
+        if(fetchSize < 1) {
+            throw new IllegalArgumentException("Streaming requires a positive fetchSize");
+        }
+
+        TypedQuery<E> typedQuery = compiledQuery(QueryShape.Kind.SELECT, querySpec, querySpec.getTargetEntity());
+        applyFetchGraph(typedQuery, querySpec);
+        applyPaging(typedQuery, querySpec);
+
+        ScrollableResults<E> results = typedQuery.unwrap(Query.class)
+                .setFetchSize(fetchSize)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        Iterator<E> iterator = new Iterator<>() {
+
+            private long rowsRead;
+            private Boolean hasNext;
+
+            @Override
+            public boolean hasNext() {
+                if(hasNext == null) {
+                    if(rowsRead > 0 && rowsRead % fetchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                    hasNext = results.next();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public E next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasNext = null;
+                rowsRead++;
+                return results.get();
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(results::close);
+    }
+
+    /**
+     * Keyset (seek) pagination: find the page of up to maxResult entities that follows querySpec.cursor,
+     * in the order of querySpec.orders.
+     *
+     * Unlike startIndex paging, the cost of a page doesn't grow with its depth: the sort key values of the
+     * previous page's last row become a "comes after" predicate, which an index on the sort keys can seek to.
+     * The entity id is appended to the orders as tie-breaker, so that rows with equal sort keys are neither
+     * skipped nor repeated. Sort keys must be non-null.
+     *
+     * @param querySpec filters, orders, maxResult and cursor of the query (targetPath and startIndex are ignored)
+     * @return the page, with the cursor of the next page if there is one
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order
+     */
+    @SuppressWarnings("unchecked")
+    public <E> KeysetSlice<E> findSlice(QuerySpec querySpec) {
+
+        Integer maxResult = querySpec.getMaxResult();
+        if(maxResult == null || maxResult < 1) {
+            throw new IllegalArgumentException("Keyset pagination requires a positive maxResult");
+        }
+
         CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<E> criteriaQuery = criteriaBuilder.createQuery(querySpec.getTargetEntity());
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
         Root<?> root = criteriaQuery.from(querySpec.getRootEntity());
 
-        // if query.targetPath is null, the selection/projection/result will default to root
-        if(querySpec.getTargetPath() != null) {
-            criteriaQuery.select((Selection<? extends E>) resolvePath(root, querySpec.getTargetPath()));
-        }
+        List<OrderSpec> orderSpecs = withIdTieBreaker(root, querySpec.getOrders());
+        List<Path<?>> keyPaths = orderSpecs.stream().<Path<?>>map(spec -> resolvePath(root, spec.field())).toList();
 
-        // if filters list is specified, apply filters to the query
-        List<FilterSpec> filters = querySpec.getFilters();
-        if(filters != null && !filters.isEmpty()) {
-            List<Predicate> predicates = buildPredicates(criteriaBuilder, root, filters);
+        // select the sort key values along with the entity, the next cursor is built from them.
+        // With a fetch plan, only the id is selected and the page is loaded with the entity graph
+        // afterwards (an entity graph doesn't apply to a tuple query)
+        String idAttribute = idAttributeName(root);
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(querySpec.getFetchGraph() != null ? root.get(idAttribute) : root);
+        selections.addAll(keyPaths);
+        criteriaQuery.multiselect(selections);
 
-            if (!predicates.isEmpty()) {
-                criteriaQuery.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
+        List<Predicate> predicates = new ArrayList<>();
+        if(querySpec.getFilters() != null) {
+            predicates.addAll(buildPredicates(criteriaBuilder, root, querySpec.getFilters()));
+        }
+        if(querySpec.getCursor() != null && !querySpec.getCursor().isBlank()) {
+            KeysetCursor cursor = KeysetCursor.decode(querySpec.getCursor(), orderSpecs);
+            predicates.add(buildSeekPredicate(criteriaBuilder, keyPaths, orderSpecs, cursor.getValues()));
+        }
+        if(!predicates.isEmpty()) {
+            criteriaQuery.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for(int i = 0; i < orderSpecs.size(); i++) {
+            orders.add(orderSpecs.get(i).ascending() ? criteriaBuilder.asc(keyPaths.get(i)) : criteriaBuilder.desc(keyPaths.get(i)));
+        }
+        criteriaQuery.orderBy(orders);
+
+        // one extra row tells whether there is a next page, without a count query
+        List<Tuple> rows = entityManager.createQuery(criteriaQuery).setMaxResults(maxResult + 1).getResultList();
+
+        boolean hasNext = rows.size() > maxResult;
+        List<Tuple> pageRows = hasNext ? rows.subList(0, maxResult) : rows;
+        List<E> content = querySpec.getFetchGraph() != null
+                ? findByIds(querySpec.getRootEntity(), idAttribute, pageRows.stream().map(row -> row.get(0)).toList(),
+                        querySpec.getFetchGraph())
+                : pageRows.stream().map(row -> (E) row.get(0)).toList();
+
+        String nextCursor = null;
+        if(hasNext) {
+            Tuple lastRow = pageRows.get(pageRows.size() - 1);
+            List<Object> keyValues = new ArrayList<>();
+            for(int i = 1; i <= keyPaths.size(); i++) {
+                keyValues.add(lastRow.get(i));
             }
+            nextCursor = new KeysetCursor(keyValues).encode(orderSpecs);
         }
 
-        // if orderSpecs are specified, apply sorting to the query
-        List<OrderSpec> orderSpecs = querySpec.getOrders();
-        if(orderSpecs != null && !orderSpecs.isEmpty()) {
-            List<Order> orders = orderSpecs.stream()
-                    .map(spec -> spec.ascending()
-                            ? criteriaBuilder.asc(resolvePath(root, spec.field()))
-                            : criteriaBuilder.desc(resolvePath(root, spec.field())))
-                    .toList();
-            criteriaQuery.orderBy(orders);
+        return new KeysetSlice<>(content, nextCursor);
+    }
+
+    /**
+     * Projection query: select only the columns of querySpec.selections, as tuples whose elements are
+     * in the order of the selections and aliased by {@link #alias(String)}. No entity is loaded, so no
+     * eager association is fetched either.
+     *
+     * Associations on selection, filter and order paths are left joined, once per path prefix, so that
+     * e.g. "stat.commentCount" and "stat.lastComment.commentDate" share the join to stat, a missing
+     * association yields null columns instead of dropping the row, and collection paths like "tags.id"
+     * can be selected or filtered on (one row per element).
+     *
+     * A SELECT DISTINCT can only be ordered by selected columns, so with distinct, order paths that are not
+     * among the selections are selected too (after them, under their alias). Order paths of single valued
+     * attributes and associations don't change which rows are distinct.
+     *
+     * @param querySpec selections, filters, orders, paging and distinct of the query (targetPath is ignored)
+     * @return the rows
+     */
+    public List<Tuple> findTuples(QuerySpec querySpec) {
+
+        List<String> selections = querySpec.getSelections();
+        if(selections == null || selections.isEmpty()) {
+            throw new IllegalArgumentException("A projection requires at least one selection");
         }
 
-        TypedQuery<E> typedQuery = entityManager.createQuery(criteriaQuery);
+        List<String> paths = new ArrayList<>(selections);
+        if(querySpec.isDistinct()) {
+            paths.addAll(unselectedOrderFields(querySpec));
+        }
 
-        // if startIndex and maxResult are specified, apply pagination to the query
-        if(querySpec.getStartIndex() != null) {
-            typedQuery.setFirstResult(querySpec.getStartIndex());
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<?> root = criteriaQuery.from(querySpec.getRootEntity());
+        Map<String, From<?, ?>> joins = new HashMap<>();
+
+        criteriaQuery.multiselect(paths.stream()
+                .<Selection<?>>map(path -> resolveJoinedPath(root, joins, path).alias(alias(path))).toList());
+
+        applyProjectionCriteria(criteriaBuilder, criteriaQuery, root, joins, querySpec);
+
+        return applyPaging(entityManager.createQuery(criteriaQuery), querySpec).getResultList();
+    }
+
+    /**
+     * Projection query straight into a DTO: like {@link #findTuples(QuerySpec)}, but each row is passed to the
+     * constructor of resultType whose parameters match querySpec.selections (e.g. a record of those columns).
+     * With distinct, the orders must be on selected paths: unlike the tuples, the constructor leaves no room
+     * for extra columns.
+     */
+    public <R> List<R> findProjection(QuerySpec querySpec, Class<R> resultType) {
+
+        List<String> paths = querySpec.getSelections();
+        if(paths == null || paths.isEmpty()) {
+            throw new IllegalArgumentException("A projection requires at least one selection");
         }
-        if(querySpec.getMaxResult() != null) {
-            typedQuery.setMaxResults(querySpec.getMaxResult());
+        if(querySpec.isDistinct() && !unselectedOrderFields(querySpec).isEmpty()) {
+            throw new IllegalArgumentException("A distinct projection can only be ordered by selected paths, not by "
+                    + unselectedOrderFields(querySpec));
         }
 
-        return typedQuery.getResultList();
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> criteriaQuery = criteriaBuilder.createQuery(resultType);
+        Root<?> root = criteriaQuery.from(querySpec.getRootEntity());
+        Map<String, From<?, ?>> joins = new HashMap<>();
+
+        criteriaQuery.select(criteriaBuilder.construct(resultType, paths.stream()
+                .map(path -> resolveJoinedPath(root, joins, path)).toArray(Selection<?>[]::new)));
+
+        applyProjectionCriteria(criteriaBuilder, criteriaQuery, root, joins, querySpec);
+
+        return applyPaging(entityManager.createQuery(criteriaQuery), querySpec).getResultList();
+    }
+
+    /**
+     * Alias of a selection path in the tuples returned by {@link #findTuples(QuerySpec)}: "stat.commentCount"
+     * is "stat_commentCount".
+     */
+    public static String alias(String path) {
+        return path.replace('.', '_');
     }
 
     /**
@@ -85,39 +301,14 @@ public class DynamicDAO {
      * @param <E>       The type of the entity.
      * @return An Optional containing the found entity, or an empty Optional if no entity matches.
      */
+    @SuppressWarnings("unchecked")
     public <E> Optional<E> findOptional(QuerySpec querySpec) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<E> criteriaQuery = criteriaBuilder.createQuery(querySpec.getTargetEntity());
-        Root<?> root = criteriaQuery.from(querySpec.getRootEntity());
-
-        // if query.targetPath is null, the selection/projection/result will default to root
-        if (querySpec.getTargetPath() != null) {
-            criteriaQuery.select((Selection<? extends E>) resolvePath(root, querySpec.getTargetPath()));
-        }
-        // If targetPath is null, JPA defaults to selecting the root entity.
 
-        // if filters list is specified, apply filters to the query
-        List<FilterSpec> filters = querySpec.getFilters();
-        if (filters != null && !filters.isEmpty()) {
-            List<Predicate> predicates = buildPredicates(criteriaBuilder, root, filters);
-            if (!predicates.isEmpty()) {
-                criteriaQuery.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
-            }
-        }
-
-        // if sortField is specified, apply sorting to the query
+        // if query.targetPath is null, the selection/projection/result will default to root.
         // Sorting is still relevant as you might want the "first" by a certain order.
-        List<OrderSpec> orderSpecs = querySpec.getOrders();
-        if(orderSpecs != null && !orderSpecs.isEmpty()) {
-            List<Order> orders = orderSpecs.stream()
-                    .map(spec -> spec.ascending()
-                            ? criteriaBuilder.asc(resolvePath(root, spec.field()))
-                            : criteriaBuilder.desc(resolvePath(root, spec.field())))
-                    .toList();
-            criteriaQuery.orderBy(orders);
-        }
-
-        TypedQuery<E> typedQuery = entityManager.createQuery(criteriaQuery);
+        TypedQuery<E> typedQuery = compiledQuery(QueryShape.Kind.SELECT, querySpec, querySpec.getTargetEntity());
+        applyCacheRegion(typedQuery, querySpec);
+        applyFetchGraph(typedQuery, querySpec);
 
         // Optimization: Only fetch the first result.
         // If startIndex is provided in QuerySpec, it will be respected.
@@ -137,29 +328,8 @@ public class DynamicDAO {
 
     public <E> long count(QuerySpec querySpec) {
 
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
-
-        Root<?> root = criteriaQuery.from(querySpec.getRootEntity());
-
-        if(querySpec.getTargetPath() != null && !querySpec.getTargetPath().isBlank()) {
-            criteriaQuery.select(criteriaBuilder.count(resolvePath(root, querySpec.getTargetPath())));
-        }
-        else {
-            criteriaQuery.select(criteriaBuilder.count(root));
-        }
-
-        // Ensure filters list is not null before checking if it's empty
-        List<FilterSpec> filters = querySpec.getFilters();
-        if(filters != null && !filters.isEmpty()) {
-            List<Predicate> predicateList = buildPredicates(criteriaBuilder, root, filters);
-            // Only add WHERE clause if there are actual predicates
-            if (!predicateList.isEmpty()) {
-                criteriaQuery.where(criteriaBuilder.and(predicateList.toArray(new Predicate[0])));
-            }
-        }
-
-        return entityManager.createQuery(criteriaQuery).getSingleResult();
+        // count of the targetPath values if specified, of the root entities otherwise
+        return compiledQuery(QueryShape.Kind.COUNT, querySpec, Long.class).getSingleResult();
     }
 
     /**
@@ -171,35 +341,186 @@ public class DynamicDAO {
      * @return true if at least one entity exists, false otherwise.
      */
     public <E> boolean exists(QuerySpec querySpec) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Object> criteriaQuery = criteriaBuilder.createQuery(Object.class);
-        Root<?> root = criteriaQuery.from(querySpec.getRootEntity());
 
-        // Select a minimal piece of data. If targetPath is specified, use it. Otherwise, select the ID or a literal.
-        if (querySpec.getTargetPath() != null && !querySpec.getTargetPath().isBlank()) {
-            criteriaQuery.select(resolvePath(root, querySpec.getTargetPath()));
-        } else {
-            // For maximum optimization for existence, a literal is best.
-            criteriaQuery.select(criteriaBuilder.literal(1)); // Select a constant value
+        // Select a minimal piece of data: the targetPath if specified, a constant otherwise
+        TypedQuery<Object> typedQuery = compiledQuery(QueryShape.Kind.EXISTS, querySpec, Object.class);
+        typedQuery.setMaxResults(1); // Crucial optimization: only need to find one record
+
+        return !typedQuery.getResultList().isEmpty();
+    }
+
+    /**
+     * Number of query shapes compiled so far (see {@link QueryShape})
+     */
+    int compiledQueryCount() {
+        return compiledQueries.size();
+    }
+
+    // ------
+    // internal methods
+
+    /*
+     * Query for querySpec from the compiled query of its shape. The JPQL is built once per shape, and
+     * Hibernate's query plan cache keeps the parsed and translated form of a JPQL string, so a repeated
+     * shape only binds the filter values. (A CriteriaQuery is a new object on every call, which Hibernate
+     * interprets and translates to SQL again each time.)
+     */
+    private <T> TypedQuery<T> compiledQuery(QueryShape.Kind kind, QuerySpec querySpec, Class<T> resultType) {
+        List<FilterSpec> filters = bindableFilters(querySpec.getFilters());
+        QueryShape shape = QueryShape.of(kind, querySpec, filters);
+
+        CompiledQuery compiledQuery = compiledQueries.get(shape);
+        if (compiledQuery == null) {
+            compiledQuery = compile(shape);
+            if (compiledQueries.size() < MAX_COMPILED_QUERIES) {
+                compiledQueries.putIfAbsent(shape, compiledQuery);
+            }
         }
 
-        // Apply filters if they exist
-        List<FilterSpec> filters = querySpec.getFilters();
-        if (filters != null && !filters.isEmpty()) {
-            List<Predicate> predicateList = buildPredicates(criteriaBuilder, root, filters);
-            if (!predicateList.isEmpty()) {
-                criteriaQuery.where(criteriaBuilder.and(predicateList.toArray(new Predicate[0])));
+        TypedQuery<T> typedQuery = entityManager.createQuery(compiledQuery.jpql(), resultType);
+        for (int i = 0; i < filters.size(); i++) {
+            String parameter = compiledQuery.parameters()[i];
+            if (parameter != null) {
+                bindParameter(typedQuery, parameter, filters.get(i));
             }
         }
+        return typedQuery;
+    }
 
-        TypedQuery<?> typedQuery = entityManager.createQuery(criteriaQuery);
-        typedQuery.setMaxResults(1); // Crucial optimization: only need to find one record
+    /*
+     * Filters whose value fits their operator, the others are skipped
+     */
+    private List<FilterSpec> bindableFilters(List<FilterSpec> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return List.of();
+        }
+        List<FilterSpec> bindable = new ArrayList<>(filters.size());
+        for (FilterSpec filter : filters) {
+            String problem = valueProblem(filter);
+            if (problem == null) {
+                bindable.add(filter);
+            } else {
+                logger.warn("Skipping invalid filter: {} due to {}", filter, problem);
+            }
+        }
+        return bindable;
+    }
 
-        return !typedQuery.getResultList().isEmpty();
+    private static String valueProblem(FilterSpec filter) {
+        Object value = filter.value();
+        return switch (filter.operator()) {
+            case GT, GTE, LT, LTE -> value instanceof Comparable<?>
+                    ? null : filter.operator() + " operator requires a Comparable value";
+            case BETWEEN, NOT_BETWEEN -> value instanceof Comparable<?> && filter.valueTo() instanceof Comparable<?>
+                    ? null : filter.operator() + " operator requires two Comparable values";
+            case IN, NOT_IN -> value instanceof Collection<?> || value instanceof Object[]
+                    ? null : filter.operator() + " operator requires a Collection or an array value";
+            default -> null;
+        };
     }
 
-    // ------
-    // internal methods
+    /*
+     * Build the JPQL of a query shape. Paths are resolved against the metamodel first: an unknown target
+     * or order path fails, a filter on an unknown path is skipped (as before, but only logged when the shape
+     * is compiled), and only attribute names of the entities ever end up in the query text.
+     */
+    private CompiledQuery compile(QueryShape shape) {
+        Root<?> root = entityManager.getCriteriaBuilder().createQuery().from(shape.rootEntity());
+
+        String target = shape.targetPath() != null ? jpqlPath(root, shape.targetPath()) : null;
+        StringBuilder jpql = new StringBuilder("select ");
+        switch (shape.kind()) {
+            case SELECT -> jpql.append(target != null ? target : ROOT_ALIAS);
+            case COUNT -> jpql.append("count(").append(target != null ? target : ROOT_ALIAS).append(')');
+            case EXISTS -> jpql.append(target != null ? target : "1");
+        }
+        jpql.append(" from ").append(entityManager.getMetamodel().entity(shape.rootEntity()).getName())
+                .append(' ').append(ROOT_ALIAS);
+
+        List<QueryShape.FilterShape> filters = shape.filters();
+        String[] parameters = new String[filters.size()];
+        List<String> predicates = new ArrayList<>();
+        for (int i = 0; i < filters.size(); i++) {
+            QueryShape.FilterShape filter = filters.get(i);
+            try {
+                predicates.add("(" + jpqlPredicate(root, filter, "p" + i) + ")");
+                if (hasParameter(filter)) {
+                    parameters[i] = "p" + i;
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping invalid filter on {} due to {}", filter.field(), e.getMessage());
+            }
+        }
+        if (!predicates.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", predicates));
+        }
+
+        if (!shape.orders().isEmpty()) {
+            jpql.append(" order by ").append(shape.orders().stream()
+                    .map(spec -> jpqlPath(root, spec.field()) + (spec.ascending() ? " asc" : " desc"))
+                    .collect(Collectors.joining(", ")));
+        }
+
+        logger.debug("Compiled query shape {} to: {}", shape, jpql);
+        return new CompiledQuery(jpql.toString(), parameters);
+    }
+
+    private String jpqlPredicate(Root<?> root, QueryShape.FilterShape filter, String parameter) {
+        String path = jpqlPath(root, filter.field());
+
+        return switch (filter.operator()) {
+            case EQ -> path + " = :" + parameter;
+            case NE -> path + " <> :" + parameter;
+            case GT -> path + " > :" + parameter;
+            case GTE -> path + " >= :" + parameter;
+            case LT -> path + " < :" + parameter;
+            case LTE -> path + " <= :" + parameter;
+            case BETWEEN -> path + " between :" + parameter + " and :" + parameter + "to";
+            case NOT_BETWEEN -> path + " not between :" + parameter + " and :" + parameter + "to";
+            case LIKE -> stringPath(root, filter.field(), path) + " like :" + parameter;
+            case NOT_LIKE -> stringPath(root, filter.field(), path) + " not like :" + parameter;
+            // an empty list can't be bound, and the outcome is known anyway
+            case IN -> filter.emptyIn() ? "1 = 0" : path + " in :" + parameter;
+            case NOT_IN -> filter.emptyIn() ? "1 = 1" : path + " not in :" + parameter;
+            case IS_NULL -> path + " is null";
+            case IS_NOT_NULL -> path + " is not null";
+        };
+    }
+
+    private static boolean hasParameter(QueryShape.FilterShape filter) {
+        return !filter.emptyIn()
+                && filter.operator() != FilterSpec.Operator.IS_NULL
+                && filter.operator() != FilterSpec.Operator.IS_NOT_NULL;
+    }
+
+    private void bindParameter(TypedQuery<?> typedQuery, String parameter, FilterSpec filter) {
+        switch (filter.operator()) {
+            case LIKE, NOT_LIKE -> typedQuery.setParameter(parameter, "%" + filter.value() + "%");
+            case IN, NOT_IN -> typedQuery.setParameter(parameter, filter.value() instanceof Object[] array
+                    ? Arrays.asList(array) : filter.value());
+            case BETWEEN, NOT_BETWEEN -> {
+                typedQuery.setParameter(parameter, filter.value());
+                typedQuery.setParameter(parameter + "to", filter.valueTo());
+            }
+            default -> typedQuery.setParameter(parameter, filter.value());
+        }
+    }
+
+    /*
+     * JPQL path of a field of the root entity, e.g. "e.forum.id" (throws IllegalArgumentException if
+     * the field is not an attribute path of the entity)
+     */
+    private String jpqlPath(Root<?> root, String field) {
+        resolvePath(root, field);
+        return ROOT_ALIAS + "." + field;
+    }
+
+    /*
+     * LIKE compares strings: other attribute types are cast, like path.as(String.class) does
+     */
+    private String stringPath(Root<?> root, String field, String path) {
+        return resolvePath(root, field).getJavaType() == String.class ? path : "cast(" + path + " as String)";
+    }
     private List<Predicate> buildPredicates(CriteriaBuilder criteriaBuilder, Root<?> root, List<FilterSpec> filters) {
         List<Predicate> predicates = new ArrayList<>();
 
@@ -215,7 +536,10 @@ public class DynamicDAO {
     }
 
     private Predicate buildPredicate(CriteriaBuilder criteriaBuilder, Root<?> root, FilterSpec filter) {
-        Path<?> path = resolvePath(root, filter.field());
+        return buildPredicate(criteriaBuilder, resolvePath(root, filter.field()), filter);
+    }
+
+    private Predicate buildPredicate(CriteriaBuilder criteriaBuilder, Path<?> path, FilterSpec filter) {
         Object value = filter.value();
         Object valueTo = filter.valueTo();
 
@@ -299,6 +623,140 @@ public class DynamicDAO {
         }
     }
 
+    private List<OrderSpec> withIdTieBreaker(Root<?> root, List<OrderSpec> orderSpecs) {
+        String idField = idAttributeName(root);
+
+        List<OrderSpec> keysetOrders = new ArrayList<>(orderSpecs != null ? orderSpecs : List.of());
+        if(keysetOrders.stream().noneMatch(spec -> spec.field().equals(idField))) {
+            boolean ascending = keysetOrders.isEmpty() || keysetOrders.get(keysetOrders.size() - 1).ascending();
+            keysetOrders.add(new OrderSpec(idField, ascending));
+        }
+        return keysetOrders;
+    }
+
+    private void applyProjectionCriteria(CriteriaBuilder criteriaBuilder, CriteriaQuery<?> criteriaQuery,
+                                         Root<?> root, Map<String, From<?, ?>> joins, QuerySpec querySpec) {
+        criteriaQuery.distinct(querySpec.isDistinct());
+
+        List<Predicate> predicates = new ArrayList<>();
+        for(FilterSpec filter : querySpec.getFilters() != null ? querySpec.getFilters() : List.<FilterSpec>of()) {
+            try {
+                predicates.add(buildPredicate(criteriaBuilder, resolveJoinedPath(root, joins, filter.field()), filter));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping invalid filter: {} due to {}", filter, e.getMessage());
+            }
+        }
+        if(!predicates.isEmpty()) {
+            criteriaQuery.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
+        }
+
+        List<OrderSpec> orderSpecs = querySpec.getOrders();
+        if(orderSpecs != null && !orderSpecs.isEmpty()) {
+            criteriaQuery.orderBy(orderSpecs.stream()
+                    .map(spec -> spec.ascending()
+                            ? criteriaBuilder.asc(resolveJoinedPath(root, joins, spec.field()))
+                            : criteriaBuilder.desc(resolveJoinedPath(root, joins, spec.field())))
+                    .toList());
+        }
+    }
+
+    private List<String> unselectedOrderFields(QuerySpec querySpec) {
+        if(querySpec.getOrders() == null) {
+            return List.of();
+        }
+        return querySpec.getOrders().stream().map(OrderSpec::field)
+                .filter(field -> !querySpec.getSelections().contains(field)).distinct().toList();
+    }
+
+    private <T> TypedQuery<T> applyPaging(TypedQuery<T> typedQuery, QuerySpec querySpec) {
+        if(querySpec.getStartIndex() != null) {
+            typedQuery.setFirstResult(querySpec.getStartIndex());
+        }
+        if(querySpec.getMaxResult() != null) {
+            typedQuery.setMaxResults(querySpec.getMaxResult());
+        }
+        return typedQuery;
+    }
+
+    /*
+     * Like resolvePath, but every association on the way is left joined (once per path prefix)
+     */
+    private Path<?> resolveJoinedPath(Root<?> root, Map<String, From<?, ?>> joins, String field) {
+        int lastDot = field.lastIndexOf('.');
+        if(lastDot < 0) {
+            return root.get(field);
+        }
+        From<?, ?> from = root;
+        String prefix = null;
+        for(String part : field.substring(0, lastDot).split("\\.")) {
+            prefix = prefix == null ? part : prefix + "." + part;
+            From<?, ?> parent = from;
+            from = joins.computeIfAbsent(prefix, key -> parent.join(part, JoinType.LEFT));
+        }
+        return from.get(field.substring(lastDot + 1));
+    }
+
+    private String idAttributeName(Root<?> root) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(root.getJavaType());
+        return entityType.getId(entityType.getIdType().getJavaType()).getName();
+    }
+
+    /*
+     * Load the entities with the given ids with a fetch graph, in the order of the ids
+     */
+    @SuppressWarnings("unchecked")
+    private <E> List<E> findByIds(Class rootEntity, String idAttribute, List<Object> ids, String fetchGraph) {
+        if(ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<E> criteriaQuery = criteriaBuilder.createQuery(rootEntity);
+        Root<E> root = criteriaQuery.from(rootEntity);
+        criteriaQuery.where(root.get(idAttribute).in(ids));
+
+        Map<Object, E> byId = entityManager.createQuery(criteriaQuery)
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(fetchGraph))
+                .getResultList().stream()
+                .collect(Collectors.toMap(entity -> entityManager.getEntityManagerFactory()
+                        .getPersistenceUnitUtil().getIdentifier(entity), Function.identity()));
+
+        return ids.stream().map(byId::get).toList();
+    }
+
+    /*
+     * Row comes after the cursor position in the sort order:
+     * (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... with < instead of > for descending keys
+     */
+    private Predicate buildSeekPredicate(CriteriaBuilder criteriaBuilder, List<Path<?>> keyPaths,
+                                         List<OrderSpec> orderSpecs, List<Object> values) {
+        List<Predicate> alternatives = new ArrayList<>();
+        for(int i = 0; i < keyPaths.size(); i++) {
+            List<Predicate> conjunction = new ArrayList<>();
+            for(int j = 0; j < i; j++) {
+                conjunction.add(criteriaBuilder.equal(keyPaths.get(j), values.get(j)));
+            }
+            Comparable<?> value = (Comparable<?>) values.get(i);
+            conjunction.add(orderSpecs.get(i).ascending()
+                    ? greaterThanComparable(criteriaBuilder, keyPaths.get(i), value)
+                    : lessThanComparable(criteriaBuilder, keyPaths.get(i), value));
+            alternatives.add(criteriaBuilder.and(conjunction.toArray(new Predicate[0])));
+        }
+        return criteriaBuilder.or(alternatives.toArray(new Predicate[0]));
+    }
+
+    private void applyFetchGraph(TypedQuery<?> typedQuery, QuerySpec querySpec) {
+        if (querySpec.getFetchGraph() != null && querySpec.getTargetPath() == null) {
+            typedQuery.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(querySpec.getFetchGraph()));
+        }
+    }
+
+    private void applyCacheRegion(TypedQuery<?> typedQuery, QuerySpec querySpec) {
+        if (querySpec.getCacheRegion() != null) {
+            typedQuery.setHint(HibernateHints.HINT_CACHEABLE, true);
+            typedQuery.setHint(HibernateHints.HINT_CACHE_REGION, querySpec.getCacheRegion());
+        }
+    }
+
     private Path<?> resolvePath(From<?, ?> root, String field) {
         String[] parts = field.split("\\.");
         Path<?> path = root;
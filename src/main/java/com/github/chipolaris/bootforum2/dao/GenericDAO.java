@@ -2,9 +2,12 @@ package com.github.chipolaris.bootforum2.dao;
 
 import jakarta.persistence.*;
 import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -18,6 +21,10 @@ public class GenericDAO {
 	
 	@PersistenceContext//(unitName = "DealPostPersistenceUnit")
 	protected EntityManager entityManager;
+
+	// entities written between two flushes of persistAll/mergeAll, same as the JDBC batch size by default
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int batchSize;
 	
 	/**
 	 * Save an entity
@@ -27,6 +34,69 @@ public class GenericDAO {
     	entityManager.persist(entity);
     } 
 
+    /**
+     * Save entities in batches: the persistence context is flushed (as JDBC batches, see
+     * hibernate.jdbc.batch_size) and cleared after every batch, so that memory use and dirty
+     * checking don't grow with the number of entities.
+     *
+     * Note: clearing detaches every managed entity, including the ones loaded before this call
+     * and the given entities once the method returns. Entities referenced by the given ones
+     * must not cascade persist, or be persisted in the same call.
+     * @param entities
+     */
+    public void persistAll(Collection<?> entities) {
+    	persistAll(entities, batchSize);
+    }
+
+    /**
+     * Save entities, flushing and clearing the persistence context every batchSize entities
+     * (see {@link #persistAll(Collection)})
+     * @param entities
+     * @param batchSize
+     */
+    public void persistAll(Collection<?> entities, int batchSize) {
+    	int count = 0;
+    	for (Object entity : entities) {
+    		entityManager.persist(entity);
+    		if (++count % batchSize == 0) {
+    			flushAndClear();
+    		}
+    	}
+    	if (count % batchSize != 0) {
+    		flushAndClear();
+    	}
+    }
+
+    /**
+     * Update entities in batches, flushing and clearing the persistence context after every batch
+     * (see {@link #persistAll(Collection)})
+     * @param entities
+     * @return the merged entities, detached when the method returns
+     */
+    public <E> List<E> mergeAll(Collection<E> entities) {
+    	return mergeAll(entities, batchSize);
+    }
+
+    /**
+     * Update entities, flushing and clearing the persistence context every batchSize entities
+     * @param entities
+     * @param batchSize
+     * @return the merged entities, detached when the method returns
+     */
+    public <E> List<E> mergeAll(Collection<E> entities, int batchSize) {
+    	List<E> merged = new ArrayList<>(entities.size());
+    	for (E entity : entities) {
+    		merged.add(entityManager.merge(entity));
+    		if (merged.size() % batchSize == 0) {
+    			flushAndClear();
+    		}
+    	}
+    	if (merged.size() % batchSize != 0) {
+    		flushAndClear();
+    	}
+    	return merged;
+    }
+
     /**
      * Delete an entity
      * @param entity
@@ -63,6 +133,15 @@ public class GenericDAO {
     public void flush() {
     	entityManager.flush();
     }
+
+    /**
+     * Write pending changes to the database, then detach all managed entities
+     * (the persistence context starts empty again)
+     */
+    public void flushAndClear() {
+    	entityManager.flush();
+    	entityManager.clear();
+    }
     
     /**
      * Find the entity given the entityType (class name, and ID)
@@ -74,6 +153,20 @@ public class GenericDAO {
         return entityManager.find(entityClass, id); 
     }
 
+	/**
+	 * Find the entity given the entityType (class name, and ID), loaded with the
+	 * given named entity graph as fetch plan (attributes outside the graph are not loaded eagerly)
+	 * @param entityClass
+	 * @param id
+	 * @param fetchGraph name of the @NamedEntityGraph
+	 * @return
+	 * @param <E>
+	 */
+	public <E> E find(Class<E> entityClass, Object id, String fetchGraph) {
+		return entityManager.find(entityClass, id,
+				Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(fetchGraph)));
+	}
+
 	/**
 	 * Find the entity given the entityType (class name, and ID, and lockModeType)
 	 * @param entityClass
@@ -0,0 +1,128 @@
+package com.github.chipolaris.bootforum2.dao;
+
+import java.io.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Position in a keyset (seek) paginated result: the sort key values of the last row of a page,
+ * the entity id (always the last key) included.
+ *
+ * Clients only see the opaque, URL safe {@link #encode(List) encoded} form. The encoded form also carries
+ * a hash of the sort order it was issued for, so that a cursor can't be replayed against a different
+ * sort (see {@link #decode(String, List)}).
+ */
+public final class KeysetCursor {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final List<Object> values;
+
+    KeysetCursor(List<Object> values) {
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Encode this cursor for the given sort order (which must include the id tie-breaker).
+     */
+    public String encode(List<OrderSpec> orders) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(bytes)) {
+
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(orderSignature(orders));
+            out.writeByte(values.size());
+            for (Object value : values) {
+                writeValue(out, value);
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decode a cursor previously returned for the given sort order.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order
+     */
+    public static KeysetCursor decode(String cursor, List<OrderSpec> orders) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+
+            if (in.readByte() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+            if (in.readInt() != orderSignature(orders)) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            int size = in.readByte();
+            if (size != orders.size()) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readValue(in));
+            }
+            return new KeysetCursor(values);
+        } catch (IOException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    private static int orderSignature(List<OrderSpec> orders) {
+        return orders.stream().map(order -> order.field() + (order.ascending() ? "+" : "-")).toList().hashCode();
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            throw new IllegalArgumentException("Keyset pagination requires non-null sort keys");
+        } else if (value instanceof Long l) {
+            out.writeByte('L'); out.writeLong(l);
+        } else if (value instanceof Integer i) {
+            out.writeByte('I'); out.writeInt(i);
+        } else if (value instanceof Short sh) {
+            out.writeByte('H'); out.writeShort(sh);
+        } else if (value instanceof Double d) {
+            out.writeByte('D'); out.writeDouble(d);
+        } else if (value instanceof Boolean b) {
+            out.writeByte('B'); out.writeBoolean(b);
+        } else if (value instanceof String str) {
+            out.writeByte('S'); out.writeUTF(str);
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte('T'); out.writeUTF(dateTime.toString());
+        } else if (value instanceof LocalDate date) {
+            out.writeByte('A'); out.writeUTF(date.toString());
+        } else if (value instanceof Instant instant) {
+            out.writeByte('N'); out.writeUTF(instant.toString());
+        } else {
+            throw new IllegalArgumentException("Unsupported keyset sort key type: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case 'L' -> in.readLong();
+            case 'I' -> in.readInt();
+            case 'H' -> in.readShort();
+            case 'D' -> in.readDouble();
+            case 'B' -> in.readBoolean();
+            case 'S' -> in.readUTF();
+            case 'T' -> LocalDateTime.parse(in.readUTF());
+            case 'A' -> LocalDate.parse(in.readUTF());
+            case 'N' -> Instant.parse(in.readUTF());
+            default -> throw new IllegalArgumentException("Malformed cursor");
+        };
+    }
+}
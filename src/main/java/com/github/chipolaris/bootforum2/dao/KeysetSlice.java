@@ -0,0 +1,24 @@
+package com.github.chipolaris.bootforum2.dao;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset paginated query (see {@link DynamicDAO#findSlice(QuerySpec)}).
+ *
+ * @param content the rows of this page
+ * @param nextCursor opaque cursor of the next page, null if this is the last page
+ */
+public record KeysetSlice<E>(List<E> content, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Same page with its content converted, e.g. entities to DTOs.
+     */
+    public <R> KeysetSlice<R> map(Function<? super E, ? extends R> converter) {
+        return new KeysetSlice<>(content.stream().<R>map(converter).toList(), nextCursor);
+    }
+}
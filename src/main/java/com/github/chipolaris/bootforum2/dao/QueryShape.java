@@ -0,0 +1,48 @@
+package com.github.chipolaris.bootforum2.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Normalized shape of a {@link QuerySpec}: everything that ends up in the query text (kind of query, entities,
+ * target path, filter fields/operators and orders), but none of the filter values, which are bound as parameters.
+ * Specs of the same shape share one compiled JPQL query in {@link DynamicDAO}.
+ *
+ * Hints (cache region, fetch graph) and paging are applied to each query, so they are not part of the shape.
+ */
+record QueryShape(Kind kind, Class<?> rootEntity, Class<?> targetEntity, String targetPath,
+                  List<FilterShape> filters, List<OrderSpec> orders) {
+
+    enum Kind { SELECT, COUNT, EXISTS }
+
+    /**
+     * @param emptyIn IN/NOT_IN with an empty collection, compiled to a constant predicate
+     */
+    record FilterShape(String field, FilterSpec.Operator operator, boolean emptyIn) {}
+
+    /**
+     * Shape of querySpec with the given (bindable) filters, see {@link DynamicDAO}.
+     */
+    static QueryShape of(Kind kind, QuerySpec querySpec, List<FilterSpec> filters) {
+        List<FilterShape> filterShapes = new ArrayList<>(filters.size());
+        for (FilterSpec filter : filters) {
+            filterShapes.add(new FilterShape(filter.field(), filter.operator(), isEmptyIn(filter)));
+        }
+        String targetPath = querySpec.getTargetPath() != null && !querySpec.getTargetPath().isBlank()
+                ? querySpec.getTargetPath() : null;
+        // orders don't change the result of a count or an existence check
+        List<OrderSpec> orders = kind == Kind.SELECT && querySpec.getOrders() != null ? querySpec.getOrders() : List.of();
+
+        return new QueryShape(kind, querySpec.getRootEntity(), kind == Kind.SELECT ? querySpec.getTargetEntity() : null,
+                targetPath, filterShapes, List.copyOf(orders));
+    }
+
+    private static boolean isEmptyIn(FilterSpec filter) {
+        if (filter.operator() != FilterSpec.Operator.IN && filter.operator() != FilterSpec.Operator.NOT_IN) {
+            return false;
+        }
+        return filter.value() instanceof Collection<?> collection
+                ? collection.isEmpty() : ((Object[]) filter.value()).length == 0;
+    }
+}
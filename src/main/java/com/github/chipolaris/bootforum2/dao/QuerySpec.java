@@ -21,6 +21,15 @@ public class QuerySpec {
     private Integer maxResult;
     private List<OrderSpec> orders;
     private List<FilterSpec> filters;
+    // when set, results are cached in this query cache region
+    private String cacheRegion;
+    // keyset pagination: opaque cursor of the page to fetch, see DynamicDAO.findSlice
+    private String cursor;
+    // fetch plan: name of the @NamedEntityGraph to load the results with (as a fetch graph)
+    private String fetchGraph;
+    // projection: paths of the columns to select, see DynamicDAO.findTuples/findProjection
+    private List<String> selections;
+    private boolean distinct;
 
     public Class getTargetEntity() {
         return targetEntity;
@@ -71,6 +80,41 @@ public class QuerySpec {
         this.filters = filters;
     }
 
+    public String getCacheRegion() {
+        return cacheRegion;
+    }
+    public void setCacheRegion(String cacheRegion) {
+        this.cacheRegion = cacheRegion;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getFetchGraph() {
+        return fetchGraph;
+    }
+    public void setFetchGraph(String fetchGraph) {
+        this.fetchGraph = fetchGraph;
+    }
+
+    public List<String> getSelections() {
+        return selections;
+    }
+    public void setSelections(List<String> selections) {
+        this.selections = selections;
+    }
+
+    public boolean isDistinct() {
+        return distinct;
+    }
+    public void setDistinct(boolean distinct) {
+        this.distinct = distinct;
+    }
+
 
     //
     public static Builder builder(Class targetEntity) {
@@ -131,6 +175,53 @@ public class QuerySpec {
             return this;
         }
 
+        /**
+         * Cache the query results in the given query cache region (requires the
+         * Hibernate query cache). Only for queries over rarely changing entities.
+         */
+        public Builder<T> cacheRegion(String cacheRegion) {
+            querySpec.cacheRegion = cacheRegion;
+            return this;
+        }
+
+        /**
+         * Keyset pagination: fetch the page after the given cursor, as returned by
+         * {@link DynamicDAO#findSlice(QuerySpec)} for the previous page (null or blank for the first page).
+         * Used instead of startIndex.
+         */
+        public Builder<T> cursor(String cursor) {
+            querySpec.cursor = cursor;
+            return this;
+        }
+
+        /**
+         * Fetch plan: load the result entities with the given named entity graph, as a fetch graph,
+         * i.e. attributes outside the graph are not loaded with the query even if mapped EAGER.
+         * Only applies when the query selects the root entity.
+         */
+        public Builder<T> fetchGraph(String fetchGraph) {
+            querySpec.fetchGraph = fetchGraph;
+            return this;
+        }
+
+        /**
+         * Projection: select only these paths (e.g. "title", "stat.commentCount", "tags.label") instead of
+         * the entity, see {@link DynamicDAO#findTuples(QuerySpec)}. Associations on the way are left joined.
+         */
+        public Builder<T> select(String... paths) {
+            querySpec.selections = List.of(paths);
+            return this;
+        }
+
+        /**
+         * Remove duplicate rows, e.g. when filtering on a collection path. With a projection,
+         * the order paths have to be among the selected paths.
+         */
+        public Builder<T> distinct() {
+            querySpec.distinct = true;
+            return this;
+        }
+
         //
         public QuerySpec build() {
             // if rootEntity is not set, set it to targetEntity
@@ -1,7 +1,11 @@
 package com.github.chipolaris.bootforum2.domain;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+
+import com.github.chipolaris.bootforum2.TermExtractor;
 
 import jakarta.persistence.Basic;
 import jakarta.persistence.CascadeType;
@@ -17,6 +21,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.OrderBy;
@@ -25,19 +31,36 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Transient;
 
+import org.hibernate.search.engine.backend.types.Aggregable;
+import org.hibernate.search.engine.backend.types.Highlightable;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.engine.backend.types.Searchable;
 import org.hibernate.search.engine.backend.types.Sortable;
+import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.ObjectPath;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.PropertyValue;
 
 @Entity
 @Table(name="COMMENT_T")
 @TableGenerator(name="CommentIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-        pkColumnValue="COMMENT_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+        pkColumnValue="COMMENT_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 @Indexed
+@NamedEntityGraph(name = Comment.PAGE_GRAPH, attributeNodes = @NamedAttributeNode("commentVote"))
 public class Comment extends BaseEntity {
 
+    /*
+     * Fetch plan of a page of comments (comment list and search hits): the vote summary is joined, replyTo is
+     * left as a proxy (only its id is read) instead of loading the whole reply chain, and attachments and images
+     * are batch fetched, one statement per collection for the whole page.
+     */
+    public static final String PAGE_GRAPH = "Comment.page";
+
     @PrePersist
     public void prePersist() {
         if (this.getCreateDate() == null) {
@@ -59,14 +82,13 @@ public class Comment extends BaseEntity {
     @JoinColumn(name="DISCUSSION_ID", foreignKey = @ForeignKey(name="FK_COMMEN_DISCUS"))
     private Discussion discussion;
 
-    @FullTextField
+    @FullTextField(projectable = Projectable.YES, highlightable = {Highlightable.PLAIN, Highlightable.UNIFIED})
     @Column(name="TITLE", length=255)
     private String title;
 
-    @FullTextField
     @Lob @Basic(fetch=FetchType.LAZY)
     @Column(name="CONTENT")
-    private String content; // content of the comment
+    private String content; // content of the comment, indexed without markup, see getPlainContent
 
     @ManyToOne(fetch=FetchType.EAGER)
     @JoinColumn(name="REPLY_TO_ID", foreignKey = @ForeignKey(name="FK_COMMEN_REPLY_TO"))
@@ -192,13 +214,62 @@ public class Comment extends BaseEntity {
         this.commentVote = commentVote;
     }
 
+    /**
+     * The fields below are to facilitate search. They are indexed like the same fields of Discussion,
+     * so that discussions and comments can be searched together (see SearchService)
+     ****************************************************************************/
+    @Override
+    @GenericField(name="createBy", projectable = Projectable.YES)
+    public String getCreateBy() {
+        return super.getCreateBy();
+    }
+
     /**
      * Override getCreateDate to add @GenericField annotation
      * @return
      */
     @Override
-    @GenericField(sortable = Sortable.YES)
+    @GenericField(name="createDate", projectable = Projectable.YES, sortable = Sortable.YES)
     public LocalDateTime getCreateDate() {
         return super.getCreateDate();
     }
+
+    /**
+     * Content without markup, indexed as the content field. Stored, so that search hits can be highlighted
+     * without loading the comment
+     */
+    @Transient
+    @FullTextField(name = "content", projectable = Projectable.YES, highlightable = {Highlightable.PLAIN, Highlightable.UNIFIED})
+    @IndexingDependency(derivedFrom = @ObjectPath(@PropertyValue(propertyName = "content")))
+    public String getPlainContent() {
+        return TermExtractor.plainText(this.content);
+    }
+
+    /**
+     * Beginning of the content without markup, stored to be shown in search results
+     */
+    @Transient
+    @GenericField(name = "contentAbbr", projectable = Projectable.YES, searchable = Searchable.NO)
+    @IndexingDependency(derivedFrom = @ObjectPath(@PropertyValue(propertyName = "content")))
+    public String getPlainContentAbbr() {
+        return TermExtractor.abbreviate(this.content, Discussion.CONTENT_ABBR_LENGTH);
+    }
+
+    // Forum and tags of the discussion, for the search facets. A comment never moves to another discussion,
+    // nor does a discussion to another forum, so the forum is indexed once
+    @Transient
+    @GenericField(name="forumId", aggregable = Aggregable.YES)
+    @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.NO)
+    public Long getForumId() {
+        return discussion != null ? discussion.getForumId() : null;
+    }
+
+    // the tags of a discussion can change: its comments are reindexed then (through Discussion.comments)
+    @Transient
+    @GenericField(name = "tagIds", aggregable = Aggregable.YES)
+    @IndexingDependency(derivedFrom = @ObjectPath({@PropertyValue(propertyName = "discussion"),
+            @PropertyValue(propertyName = "tags")}))
+    public Set<Long> getTagIds() {
+        return discussion != null ? discussion.getTagIds() : Collections.emptySet();
+    }
 }
\ No newline at end of file
@@ -49,9 +49,18 @@ public class CommentInfo extends BaseEntity {
     }
 
     private void abbreviateContent() {
-        if(this.contentAbbr != null && this.contentAbbr.length() > CONTENT_ABBR_MAX_LENGTH) {
-            this.contentAbbr = this.contentAbbr.substring(0, CONTENT_ABBR_MAX_LENGTH - 3) + "...";
+        this.contentAbbr = abbreviate(this.contentAbbr);
+    }
+
+    /**
+     * Abbreviate content to fit the CONTENT_ABBR column. Bulk (JPQL) updates bypass the
+     * entity callbacks above, so they need to abbreviate the content themselves.
+     */
+    public static String abbreviate(String content) {
+        if(content != null && content.length() > CONTENT_ABBR_MAX_LENGTH) {
+            return content.substring(0, CONTENT_ABBR_MAX_LENGTH - 3) + "...";
         }
+        return content;
     }
 
     @Id
@@ -20,7 +20,7 @@ import jakarta.persistence.TableGenerator;
 @Entity
 @Table(name="COMMENT_VOTE_T")
 @TableGenerator(name="CommentVoteIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-        pkColumnValue="COMMENT_VOTE_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+        pkColumnValue="COMMENT_VOTE_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 public class CommentVote extends BaseEntity {
 
     @Id
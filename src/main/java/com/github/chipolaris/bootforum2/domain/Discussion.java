@@ -1,7 +1,11 @@
 package com.github.chipolaris.bootforum2.domain;
 
+import com.github.chipolaris.bootforum2.TermExtractor;
 import jakarta.persistence.*;
 import org.hibernate.search.engine.backend.types.Aggregable;
+import org.hibernate.search.engine.backend.types.Highlightable;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.engine.backend.types.Searchable;
 import org.hibernate.search.engine.backend.types.Sortable;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.*;
 
@@ -16,10 +20,33 @@ import java.util.stream.Collectors;
 @Entity
 @Table(name="DISCUSSION_T")
 @TableGenerator(name="DiscussionIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-        pkColumnValue="DISCUSSION_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+        pkColumnValue="DISCUSSION_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 @Indexed
+@NamedEntityGraph(name = Discussion.SUMMARY_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "stat", subgraph = "stat"),
+        subgraphs = @NamedSubgraph(name = "stat", attributeNodes = @NamedAttributeNode("lastComment")))
+@NamedEntityGraph(name = Discussion.DETAIL_GRAPH,
+        attributeNodes = {@NamedAttributeNode(value = "stat", subgraph = "stat"), @NamedAttributeNode("tags")},
+        subgraphs = @NamedSubgraph(name = "stat", attributeNodes = @NamedAttributeNode("lastComment")))
 public class Discussion extends BaseEntity {
 
+    /*
+     * Fetch plans per view, applied as fetch graphs (attributes left out are not loaded, even the EAGER ones).
+     * Graphs used with paging only join to-one associations: joining a collection would make Hibernate
+     * paginate in memory. Collections (tags, attachments, images) are loaded by batch fetching instead,
+     * one statement per collection for the whole page. The detail graph loads a single discussion, so it
+     * joins the tags as well; it joins no other collection, as two joined collections multiply each other's
+     * rows (the stat participants are batch fetched). The forum comes from the second-level cache.
+     */
+    public static final String SUMMARY_GRAPH = "Discussion.summary";
+    public static final String DETAIL_GRAPH = "Discussion.detail";
+
+    // size of the term vector indexed as key_terms, see getKeyTerms
+    public static final int KEY_TERM_COUNT = 20;
+
+    // length of the content abbreviation stored in the index, see getPlainContentAbbr
+    public static final int CONTENT_ABBR_LENGTH = 255;
+
     public static Discussion newDiscussion() {
         Discussion discussion = new Discussion();
 
@@ -50,7 +77,7 @@ public class Discussion extends BaseEntity {
     @GeneratedValue(strategy=GenerationType.TABLE, generator="DiscussionIdGenerator")
     private Long id;
 
-    @FullTextField
+    @FullTextField(projectable = Projectable.YES, highlightable = {Highlightable.PLAIN, Highlightable.UNIFIED})
     @Column(name="TITLE", length=255, nullable=false)
     private String title;
 
@@ -63,11 +90,10 @@ public class Discussion extends BaseEntity {
     @Column(name="IMPORTANT")
     private boolean important;
 
-    @FullTextField
     @Lob
     @Basic(fetch=FetchType.LAZY)
     @Column(name="CONTENT")
-    private String content; // content of the discussion
+    private String content; // content of the discussion, indexed without markup, see getPlainContent
 
     @OneToMany(fetch=FetchType.LAZY, mappedBy="discussion", cascade=CascadeType.ALL)
     @OrderBy("id ASC")
@@ -199,7 +225,7 @@ public class Discussion extends BaseEntity {
      * The fields below are to facilitate search
      ****************************************************************************/
     @Override
-    @GenericField(name="createBy")
+    @GenericField(name="createBy", projectable = Projectable.YES)
     public String getCreateBy() {
         return super.getCreateBy();
     }
@@ -209,13 +235,13 @@ public class Discussion extends BaseEntity {
      * @return
      */
     @Override
-    @GenericField(name="createDate", sortable = Sortable.YES)
+    @GenericField(name="createDate", projectable = Projectable.YES, sortable = Sortable.YES)
     public LocalDateTime getCreateDate() {
         return super.getCreateDate();
     }
 
     // Index just the foreign key ID
-    @GenericField(name="forumId")
+    @GenericField(name="forumId", aggregable = Aggregable.YES)
     @Transient   // Tell JPA this is not a persistent column
     @IndexingDependency(derivedFrom = @ObjectPath(@PropertyValue(propertyName = "forum")))
     public Long getForumId() {
@@ -223,7 +249,7 @@ public class Discussion extends BaseEntity {
     }
 
     // Index just the foreign key IDs (multi-valued field in Lucene)
-    @GenericField(name = "tagIds")
+    @GenericField(name = "tagIds", aggregable = Aggregable.YES)
     @IndexingDependency(derivedFrom = @ObjectPath(@PropertyValue(propertyName = "tags")))
     @Transient
     public Set<Long> getTagIds() {
@@ -231,6 +257,27 @@ public class Discussion extends BaseEntity {
                 tags.stream().map(Tag::getId).collect(Collectors.toSet());
     }
 
+    /**
+     * Content without markup, indexed as the content field. Stored, so that search hits can be highlighted
+     * without loading the discussion
+     */
+    @Transient
+    @FullTextField(name = "content", projectable = Projectable.YES, highlightable = {Highlightable.PLAIN, Highlightable.UNIFIED})
+    @IndexingDependency(derivedFrom = @ObjectPath(@PropertyValue(propertyName = "content")))
+    public String getPlainContent() {
+        return TermExtractor.plainText(this.content);
+    }
+
+    /**
+     * Beginning of the content without markup, stored to be shown in search results
+     */
+    @Transient
+    @GenericField(name = "contentAbbr", projectable = Projectable.YES, searchable = Searchable.NO)
+    @IndexingDependency(derivedFrom = @ObjectPath(@PropertyValue(propertyName = "content")))
+    public String getPlainContentAbbr() {
+        return TermExtractor.abbreviate(this.content, CONTENT_ABBR_LENGTH);
+    }
+
     /**
      * Transient getter to provide tokenized terms for aggregation.
      * This creates a multi-valued field in the index.
@@ -259,4 +306,17 @@ public class Discussion extends BaseEntity {
                 .filter(s -> !s.isBlank() && s.length() > 2) // Filter out short/empty strings
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Term vector of the discussion: its KEY_TERM_COUNT most frequent terms, computed once at index time
+     * (see TermExtractor.topTerms). Similar discussions are the ones sharing key terms, each shared term
+     * weighted by its rarity across discussions (Lucene's IDF) at query time.
+     */
+    @Transient
+    @KeywordField(name = "key_terms")
+    @IndexingDependency(derivedFrom = {@ObjectPath(@PropertyValue(propertyName = "title")),
+            @ObjectPath(@PropertyValue(propertyName = "content"))})
+    public List<String> getKeyTerms() {
+        return TermExtractor.topTerms(this.title, this.content, KEY_TERM_COUNT);
+    }
+}
@@ -10,7 +10,7 @@ import jakarta.persistence.*;
 @Entity
 @Table(name="DISCUSSION_STAT_T")
 @TableGenerator(name="DiscussionStatIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-        pkColumnValue="DISCUSSION_STAT_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+        pkColumnValue="DISCUSSION_STAT_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 public class DiscussionStat extends BaseEntity {
 
     @Id
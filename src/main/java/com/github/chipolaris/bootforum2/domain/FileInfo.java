@@ -1,5 +1,6 @@
 package com.github.chipolaris.bootforum2.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -7,13 +8,17 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.TableGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 // Experimental Hibernate Search
 //import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 
 @Entity
 @Table(name="FILE_INFO_T")
 @TableGenerator(name="FileInfoIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-        pkColumnValue="FILE_INFO_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+        pkColumnValue="FILE_INFO_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
+@Cacheable(true)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "file-info")
 public class FileInfo extends BaseEntity {
 
     @Id
@@ -34,6 +39,10 @@ public class FileInfo extends BaseEntity {
     @Column(name="FILE_SIZE")
     private Long fileSize;
 
+    // hex SHA-256 of the content, null for files stored before it was recorded
+    @Column(name="CONTENT_HASH", length=64)
+    private String contentHash;
+
     @Override
     public Long getId() {
         return id;
@@ -65,4 +74,7 @@ public class FileInfo extends BaseEntity {
 
     public Long getFileSize() { return fileSize; }
     public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.github.chipolaris.bootforum2.domain;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -19,7 +20,15 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.TableGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.search.engine.backend.types.Aggregable;
+import org.hibernate.search.engine.backend.types.Highlightable;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.engine.backend.types.Searchable;
+import org.hibernate.search.engine.backend.types.Sortable;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 
 @Entity
@@ -27,6 +36,8 @@ import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 @TableGenerator(name="ForumIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
         pkColumnValue="FORUM_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
 @Indexed
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "forum")
 public class Forum extends BaseEntity {
 
     @PrePersist
@@ -61,13 +72,18 @@ public class Forum extends BaseEntity {
 
     @Id
     @GeneratedValue(strategy=GenerationType.TABLE, generator="ForumIdGenerator")
+    @GenericField(name="forumId", aggregable = Aggregable.YES) // a forum hit counts in its own forum facet
     private Long id;
 
-    @FullTextField
+    @FullTextField(projectable = Projectable.YES, highlightable = {Highlightable.PLAIN, Highlightable.UNIFIED})
     @Column(name="TITLE", length=100)
     private String title;
 
+    // the description is also indexed as the content and contentAbbr fields, like the content of
+    // Discussion and Comment, so that forums are searched together with them (see SearchService)
     @FullTextField
+    @FullTextField(name = "content", projectable = Projectable.YES, highlightable = {Highlightable.PLAIN, Highlightable.UNIFIED})
+    @GenericField(name = "contentAbbr", projectable = Projectable.YES, searchable = Searchable.NO)
     @Column(name="description", length=255)
     private String description;
 
@@ -166,4 +182,19 @@ public class Forum extends BaseEntity {
     public void setSortOrder(Integer sortOrder) {
         this.sortOrder = sortOrder;
     }
-}
\ No newline at end of file
+
+    /**
+     * The fields below are to facilitate search, indexed like the same fields of Discussion
+     ****************************************************************************/
+    @Override
+    @GenericField(name="createBy", projectable = Projectable.YES)
+    public String getCreateBy() {
+        return super.getCreateBy();
+    }
+
+    @Override
+    @GenericField(name="createDate", projectable = Projectable.YES, sortable = Sortable.YES)
+    public LocalDateTime getCreateDate() {
+        return super.getCreateDate();
+    }
+}
@@ -3,6 +3,7 @@ package com.github.chipolaris.bootforum2.domain;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -19,13 +20,27 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.TableGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name="FORUM_GROUP_T")
 @TableGenerator(name="ForumGroupIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
         pkColumnValue="FORUM_GROUP_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ForumGroup.CACHE_REGION)
 public class ForumGroup extends BaseEntity {
 
+    /*
+     * Second-level cache regions of the forum hierarchy. The forums/subGroups collections are
+     * inverse sides, which Hibernate doesn't evict when a Forum/ForumGroup changes parent, see
+     * ForumHierarchyCacheListener.
+     */
+    public static final String CACHE_REGION = "forum-group";
+    public static final String FORUMS_CACHE_REGION = "forum-group-forums";
+    public static final String SUB_GROUPS_CACHE_REGION = "forum-group-sub-groups";
+    public static final String ROOT_QUERY_CACHE_REGION = "root-forum-group";
+
     @PrePersist
     public void prePersist() {
         LocalDateTime now = LocalDateTime.now();
@@ -61,6 +76,7 @@ public class ForumGroup extends BaseEntity {
      * Note: set cascade to REMOVE to enable automatic removal of associated Forums 
      */
     @OneToMany(cascade=CascadeType.REMOVE, fetch=FetchType.LAZY, mappedBy="forumGroup")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = FORUMS_CACHE_REGION)
     //@OrderColumn(name="SORT_ORDER") // note: this SORT_ORDER column is in Forum table
     @OrderBy("sortOrder")
     private List<Forum> forums; // use List instead of Set to sort
@@ -73,6 +89,7 @@ public class ForumGroup extends BaseEntity {
      * Note: set cascade to REMOVE to enable automatic removal of sub ForumGroups 
      */
     @OneToMany(cascade=CascadeType.REMOVE, fetch=FetchType.LAZY, mappedBy="parent")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SUB_GROUPS_CACHE_REGION)
     //@OrderColumn(name="SORT_ORDER") // note: this SORT_ORDER column is in ForumGroup table
     @OrderBy("sortOrder")
     private List<ForumGroup> subGroups; // use List instead of Set to sort
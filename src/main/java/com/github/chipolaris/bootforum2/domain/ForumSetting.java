@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "FORUM_SETTING_T")
 @TableGenerator(name="ForumSettingIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-        pkColumnValue="FORUM_SETTING_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+        pkColumnValue="FORUM_SETTING_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 public class ForumSetting extends BaseEntity {
 
     public static ForumSetting newInstance(String category, String key) {
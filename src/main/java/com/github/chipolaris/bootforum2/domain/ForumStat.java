@@ -1,11 +1,13 @@
 package com.github.chipolaris.bootforum2.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name="FORUM_STAT_T")
 @TableGenerator(name="ForumStatIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
         pkColumnValue="FORUM_STAT_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+@BatchSize(size = 50) // forums served from the second-level cache load their (uncached) stats in batches
 public class ForumStat extends BaseEntity {
 
     @Id
@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 @Table(name="PERSON_T",
 		uniqueConstraints= {@UniqueConstraint(columnNames="EMAIL", name="UNIQ_PERSON_EMAIL")})
 @TableGenerator(name="PersonIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-		pkColumnValue="PERSON_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+		pkColumnValue="PERSON_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 public class Person extends BaseEntity {
 
 	@PrePersist
@@ -11,7 +11,7 @@ import jakarta.persistence.TableGenerator;
 @Entity
 @Table(name="PREFERENCES_T")
 @TableGenerator(name="PreferencesIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-        pkColumnValue="PREFERENCES_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+        pkColumnValue="PREFERENCES_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 public class Preferences extends BaseEntity {
 
     @Id
@@ -0,0 +1,117 @@
+package com.github.chipolaris.bootforum2.domain;
+
+import com.github.chipolaris.bootforum2.enumeration.ReindexStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of the mass reindexing of one indexed entity (one row per entity).
+ *
+ * Entities are reindexed in ranges of consecutive ids, in id order; lastId is the end of the last range
+ * committed to the index, so that a run can resume after lastId after a crash or a cancel.
+ */
+@Entity
+@Table(name="REINDEX_CHECKPOINT_T",
+        uniqueConstraints= {@UniqueConstraint(columnNames="ENTITY_NAME", name="UNIQ_REINDEX_ENTITY_NAME")})
+@TableGenerator(name="ReindexCheckpointIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
+        pkColumnValue="REINDEX_CHECKPOINT_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+public class ReindexCheckpoint extends BaseEntity {
+
+    public static ReindexCheckpoint newReindexCheckpoint(String entityName) {
+        ReindexCheckpoint reindexCheckpoint = new ReindexCheckpoint();
+        reindexCheckpoint.setEntityName(entityName);
+        reindexCheckpoint.setStatus(ReindexStatus.RUNNING);
+        return reindexCheckpoint;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if(this.getCreateDate() == null) {
+            this.setCreateDate(now);
+        }
+        this.setUpdateDate(now);
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.setUpdateDate(LocalDateTime.now());
+    }
+
+    @Id
+    @GeneratedValue(strategy=GenerationType.TABLE, generator="ReindexCheckpointIdGenerator")
+    private Long id;
+
+    @Column(name="ENTITY_NAME", length=50, nullable=false)
+    private String entityName; // simple class name of the indexed entity, e.g. Discussion
+
+    @Enumerated(EnumType.STRING)
+    @Column(name="STATUS", length=20, nullable=false)
+    private ReindexStatus status;
+
+    @Column(name="LAST_ID")
+    private Long lastId; // checkpoint: entities up to this id are reindexed, null if none yet
+
+    @Column(name="TOTAL")
+    private long total; // entities to reindex, counted when the run (re)starts
+
+    @Column(name="INDEXED")
+    private long indexed; // documents written to the index
+
+    @Column(name="ERROR_MESSAGE", length=255)
+    private String errorMessage;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public ReindexStatus getStatus() {
+        return status;
+    }
+    public void setStatus(ReindexStatus status) {
+        this.status = status;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getIndexed() {
+        return indexed;
+    }
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+    public void addIndexed(long value) {
+        this.indexed += value;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.chipolaris.bootforum2.domain;
+
+import com.github.chipolaris.bootforum2.enumeration.RevocationReason;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deny-list entry of JWTs revoked before their expiration. Either one token, identified by its
+ * token id (jti claim), e.g. on logout; or all tokens of a user issued before revokedAt (tokenId null),
+ * e.g. on a password change.
+ *
+ * An entry is useless once the tokens it denies are expired: expiresAt is when that happens, after which
+ * the entry is deleted.
+ */
+@Entity
+@Table(name="REVOKED_TOKEN_T",
+        indexes = {@Index(name="IDX_REVOKED_TOKEN_EXPIRES_AT", columnList="EXPIRES_AT")})
+@TableGenerator(name="RevokedTokenIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
+        pkColumnValue="REVOKED_TOKEN_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+public class RevokedToken extends BaseEntity {
+
+    public static RevokedToken newRevokedToken(String tokenId, String username, LocalDateTime expiresAt,
+                                               RevocationReason reason) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        revokedToken.setUsername(username);
+        revokedToken.setRevokedAt(LocalDateTime.now());
+        revokedToken.setExpiresAt(expiresAt);
+        revokedToken.setReason(reason);
+        return revokedToken;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if(this.getCreateDate() == null) {
+            this.setCreateDate(now);
+        }
+        this.setUpdateDate(now);
+    }
+
+    @Id
+    @GeneratedValue(strategy=GenerationType.TABLE, generator="RevokedTokenIdGenerator")
+    private Long id;
+
+    @Column(name="TOKEN_ID", length=36)
+    private String tokenId; // jti claim of the revoked token, null if all tokens of the user are revoked
+
+    @Column(name="USERNAME", length=50, nullable=false)
+    private String username;
+
+    @Column(name="REVOKED_AT", nullable=false)
+    private LocalDateTime revokedAt;
+
+    @Column(name="EXPIRES_AT", nullable=false)
+    private LocalDateTime expiresAt; // the denied tokens are all expired from then on
+
+    @Enumerated(EnumType.STRING)
+    @Column(name="REASON", length=20, nullable=false)
+    private RevocationReason reason;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public RevocationReason getReason() {
+        return reason;
+    }
+    public void setReason(RevocationReason reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.chipolaris.bootforum2.domain;
+
+import com.github.chipolaris.bootforum2.enumeration.ReconciliationPhase;
+import com.github.chipolaris.bootforum2.enumeration.ReconciliationStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of one phase of a stat reconciliation run (one row per phase).
+ *
+ * Rows are reconciled in chunks in id order; lastId is the highest id up to which all chunks are done,
+ * so that a run can resume after lastId after a crash or a cancel.
+ */
+@Entity
+@Table(name="STAT_RECONCILIATION_T",
+        uniqueConstraints= {@UniqueConstraint(columnNames="PHASE", name="UNIQ_STAT_RECON_PHASE")})
+@TableGenerator(name="StatReconciliationIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
+        pkColumnValue="STAT_RECONCILIATION_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+public class StatReconciliation extends BaseEntity {
+
+    public static StatReconciliation newStatReconciliation(ReconciliationPhase phase) {
+        StatReconciliation statReconciliation = new StatReconciliation();
+        statReconciliation.setPhase(phase);
+        statReconciliation.setStatus(ReconciliationStatus.PENDING);
+        return statReconciliation;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if(this.getCreateDate() == null) {
+            this.setCreateDate(now);
+        }
+        this.setUpdateDate(now);
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.setUpdateDate(LocalDateTime.now());
+    }
+
+    @Id
+    @GeneratedValue(strategy=GenerationType.TABLE, generator="StatReconciliationIdGenerator")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name="PHASE", length=20, nullable=false)
+    private ReconciliationPhase phase;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name="STATUS", length=20, nullable=false)
+    private ReconciliationStatus status;
+
+    @Column(name="LAST_ID")
+    private Long lastId; // checkpoint: rows up to this id are reconciled, null if none yet
+
+    @Column(name="TOTAL")
+    private long total; // rows to reconcile, counted when the phase (re)starts
+
+    @Column(name="PROCESSED")
+    private long processed;
+
+    @Column(name="CORRECTED")
+    private long corrected; // stats that had drifted and were rewritten
+
+    @Column(name="ERROR_MESSAGE", length=255)
+    private String errorMessage;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ReconciliationPhase getPhase() {
+        return phase;
+    }
+    public void setPhase(ReconciliationPhase phase) {
+        this.phase = phase;
+    }
+
+    public ReconciliationStatus getStatus() {
+        return status;
+    }
+    public void setStatus(ReconciliationStatus status) {
+        this.status = status;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+    public void addProcessed(long value) {
+        this.processed += value;
+    }
+
+    public long getCorrected() {
+        return corrected;
+    }
+    public void setCorrected(long corrected) {
+        this.corrected = corrected;
+    }
+    public void addCorrected(long value) {
+        this.corrected += value;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
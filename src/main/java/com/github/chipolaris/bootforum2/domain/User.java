@@ -35,7 +35,7 @@ import com.github.chipolaris.bootforum2.enumeration.UserRole;
 @Table(name="USER_T",
 		uniqueConstraints= {@UniqueConstraint(columnNames="USER_NAME", name="UNIQ_USER_USER_NAME")})
 @TableGenerator(name="UserIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-		pkColumnValue="USER_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+		pkColumnValue="USER_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 public class User extends BaseEntity {
 
 	public static User newUser() {
@@ -7,7 +7,7 @@ import jakarta.persistence.*;
 @Entity
 @Table(name="USER_STAT_T")
 @TableGenerator(name="UserStatIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-        pkColumnValue="USER_STAT_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+        pkColumnValue="USER_STAT_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 public class UserStat extends BaseEntity {
     public UserStat() {}
     @PrePersist
@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name="VOTE_T")
 @TableGenerator(name="VoteIdGenerator", table="ENTITY_ID_T", pkColumnName="GEN_KEY",
-        pkColumnValue="VOTE_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=10)
+        pkColumnValue="VOTE_ID", valueColumnName="GEN_VALUE", initialValue = 1000, allocationSize=100)
 public class Vote extends BaseEntity {
 
     @PrePersist
@@ -0,0 +1,27 @@
+package com.github.chipolaris.bootforum2.dto;
+
+import com.github.chipolaris.bootforum2.dao.KeysetSlice;
+
+import java.util.List;
+
+/**
+ * A page of a keyset (cursor) paginated listing.
+ *
+ * @param content the items of this page
+ * @param size the requested page size
+ * @param nextCursor opaque cursor to pass back to get the next page, null on the last page
+ * @param hasNext whether there is a next page
+ * @param totalElements total number of items, only when requested (null otherwise)
+ * @param totalExact whether totalElements was counted exactly, or comes from statistics or a cache (null without total)
+ */
+public record CursorPageDTO<T>(List<T> content,
+                               int size,
+                               String nextCursor,
+                               boolean hasNext,
+                               Long totalElements,
+                               Boolean totalExact) {
+
+    public static <T> CursorPageDTO<T> from(KeysetSlice<T> slice, int size, Long totalElements, Boolean totalExact) {
+        return new CursorPageDTO<>(slice.content(), size, slice.nextCursor(), slice.hasNext(), totalElements, totalExact);
+    }
+}
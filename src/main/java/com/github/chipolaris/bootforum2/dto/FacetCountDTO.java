@@ -0,0 +1,7 @@
+package com.github.chipolaris.bootforum2.dto;
+
+/**
+ * Number of search hits for a facet value, e.g. a forum (id and title) or a tag (id and label)
+ */
+public record FacetCountDTO(Long id, String label, long count) {
+}
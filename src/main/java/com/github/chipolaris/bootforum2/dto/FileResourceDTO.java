@@ -2,6 +2,9 @@ package com.github.chipolaris.bootforum2.dto;
 
 import org.springframework.core.io.Resource;
 
-public record FileResourceDTO (Resource resource, String originalFilename, String mimeType) {
+/**
+ * @param contentHash hex SHA-256 of the content, null if unknown
+ */
+public record FileResourceDTO (Resource resource, String originalFilename, String mimeType, String contentHash) {
 
 }
\ No newline at end of file
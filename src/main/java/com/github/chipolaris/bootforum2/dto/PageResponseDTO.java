@@ -12,11 +12,19 @@ public record PageResponseDTO<T>(List<T> content,
                                  boolean last,
                                  boolean first,
                                  int numberOfElements,
-                                 boolean empty) {
+                                 boolean empty,
+                                 boolean totalExact) {
     /*
      * This method provides an alternative to a dedicate StructMapper object mapper
      */
     public static <T> PageResponseDTO<T> from(Page<T> page) {
+        return from(page, true);
+    }
+
+    /*
+     * totalExact: false when totalElements (and totalPages) come from statistics or a cache
+     */
+    public static <T> PageResponseDTO<T> from(Page<T> page, boolean totalExact) {
         return new PageResponseDTO<>(
                 page.getContent(),
                 page.getNumber(),
@@ -26,7 +34,8 @@ public record PageResponseDTO<T>(List<T> content,
                 page.isLast(),
                 page.isFirst(),
                 page.getNumberOfElements(),
-                page.isEmpty()
+                page.isEmpty(),
+                totalExact
         );
     }
 }
@@ -0,0 +1,14 @@
+package com.github.chipolaris.bootforum2.dto;
+
+import com.github.chipolaris.bootforum2.enumeration.SearchHitType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A search hit, projected from the search index. titleHighlight and contentHighlight are HTML-escaped
+ * fragments with the matches in {@code <mark>} tags, null when the keyword doesn't match the field
+ */
+public record SearchHitDTO(SearchHitType type, Long id, String title, String titleHighlight,
+                           String contentAbbr, String contentHighlight,
+                           String createBy, LocalDateTime createDate) {
+}
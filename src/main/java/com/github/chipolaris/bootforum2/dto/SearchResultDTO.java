@@ -0,0 +1,11 @@
+package com.github.chipolaris.bootforum2.dto;
+
+import java.util.List;
+
+/**
+ * A page of search hits, with the hit counts per forum and per tag of the whole result
+ */
+public record SearchResultDTO(PageResponseDTO<SearchHitDTO> hits,
+                              List<FacetCountDTO> forumFacets,
+                              List<FacetCountDTO> tagFacets) {
+}
@@ -0,0 +1,15 @@
+package com.github.chipolaris.bootforum2.dto.admin;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the mass reindexing of one indexed entity
+ *
+ * @param lastId checkpoint, a resumed run continues after this id
+ * @param documentsPerSecond indexing rate of the run in progress, 0 if the entity isn't being reindexed
+ * @param etaSeconds estimated time left at the current rate, null if unknown
+ */
+public record ReindexProgressDTO(String entity, String status, long total, long indexed, Long lastId,
+                                 double documentsPerSecond, Long etaSeconds, LocalDateTime startDate,
+                                 LocalDateTime updateDate, String errorMessage) {
+}
@@ -0,0 +1,14 @@
+package com.github.chipolaris.bootforum2.dto.admin;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one phase of a stat reconciliation run
+ *
+ * @param lastId checkpoint, a resumed run continues after this id
+ * @param corrected stats that had drifted and were rewritten
+ */
+public record StatReconciliationProgressDTO(String phase, String status, long total, long processed,
+                                            long corrected, Long lastId, LocalDateTime startDate,
+                                            LocalDateTime updateDate, String errorMessage) {
+}
@@ -0,0 +1,10 @@
+package com.github.chipolaris.bootforum2.dto.admin;
+
+/**
+ * Number of discussions and comments that contain a term, in a period
+ *
+ * @param total sum of the counts of all sources, the terms are ranked by it
+ */
+public record TrendingTermDTO(String term, long total, long discussionTitleCount, long discussionContentCount,
+                              long commentContentCount) {
+}
@@ -0,0 +1,21 @@
+package com.github.chipolaris.bootforum2.enumeration;
+
+/**
+ * Phases of a stat reconciliation run, in the order they run, see StatReconciliationService
+ */
+public enum ReconciliationPhase {
+
+    DISCUSSION      ("Discussion stats"),
+    FORUM           ("Forum stats"),
+    USER            ("User stats");
+
+    private String label;
+
+    ReconciliationPhase(String name) {
+        this.label = name;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
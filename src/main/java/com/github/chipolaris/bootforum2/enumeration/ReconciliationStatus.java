@@ -0,0 +1,21 @@
+package com.github.chipolaris.bootforum2.enumeration;
+
+public enum ReconciliationStatus {
+
+    PENDING         ("Pending"),
+    RUNNING         ("Running"),
+    COMPLETED       ("Completed"),
+    CANCELLED       ("Cancelled"),
+    FAILED          ("Failed"),
+    INTERRUPTED     ("Interrupted"); // was running when the application stopped
+
+    private String label;
+
+    ReconciliationStatus(String name) {
+        this.label = name;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.chipolaris.bootforum2.enumeration;
+
+public enum ReindexStatus {
+
+    RUNNING         ("Running"),
+    COMPLETED       ("Completed"),
+    CANCELLED       ("Cancelled"),
+    FAILED          ("Failed"),
+    INTERRUPTED     ("Interrupted"); // was running when the application stopped
+
+    private String label;
+
+    ReindexStatus(String name) {
+        this.label = name;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
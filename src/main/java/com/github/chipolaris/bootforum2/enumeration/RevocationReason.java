@@ -0,0 +1,18 @@
+package com.github.chipolaris.bootforum2.enumeration;
+
+public enum RevocationReason {
+
+    LOGOUT          ("Logout"),
+    PASSWORD_CHANGE ("Password change"),
+    STATUS_CHANGE   ("Account status change");
+
+    private String label;
+
+    RevocationReason(String name) {
+        this.label = name;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.chipolaris.bootforum2.enumeration;
+
+/**
+ * Kind of a search hit (see SearchService), labeled with the name of the entity
+ */
+public enum SearchHitType {
+
+    DISCUSSION  ("Discussion"),
+    COMMENT     ("Comment"),
+    FORUM       ("Forum");
+
+    private String label;
+
+    SearchHitType(String name) {
+        this.label = name;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
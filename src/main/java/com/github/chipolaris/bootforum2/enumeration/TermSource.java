@@ -0,0 +1,21 @@
+package com.github.chipolaris.bootforum2.enumeration;
+
+/**
+ * Text a trending term was found in (see TrendingTermsService)
+ */
+public enum TermSource {
+
+    DISCUSSION_TITLE    ("Discussion Title"),
+    DISCUSSION_CONTENT  ("Discussion Content"),
+    COMMENT_CONTENT     ("Comment Content");
+
+    private String label;
+
+    TermSource(String name) {
+        this.label = name;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.chipolaris.bootforum2.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Set;
+
+/**
+ * Published by the statistics write paths, inside the writing transaction, when the ForumStat
+ * of one or more forums has been changed.
+ */
+public class ForumStatChangedEvent extends ApplicationEvent {
+    private final Set<Long> forumIds;
+
+    public ForumStatChangedEvent(Object source, Set<Long> forumIds) {
+        super(source);
+        this.forumIds = Set.copyOf(forumIds);
+    }
+
+    public Set<Long> getForumIds() {
+        return forumIds;
+    }
+}
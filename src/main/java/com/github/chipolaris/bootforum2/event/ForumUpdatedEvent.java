@@ -0,0 +1,17 @@
+package com.github.chipolaris.bootforum2.event;
+
+import com.github.chipolaris.bootforum2.domain.Forum;
+import org.springframework.context.ApplicationEvent;
+
+public class ForumUpdatedEvent extends ApplicationEvent {
+    private final Forum forum;
+
+    public ForumUpdatedEvent(Object source, Forum forum) {
+        super(source);
+        this.forum = forum;
+    }
+
+    public Forum getForum() {
+        return forum;
+    }
+}
@@ -1,13 +1,23 @@
 package com.github.chipolaris.bootforum2.listener;
 
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
 import com.github.chipolaris.bootforum2.dao.GenericDAO;
 import com.github.chipolaris.bootforum2.domain.*;
 import com.github.chipolaris.bootforum2.event.CommentCreatedEvent;
+import com.github.chipolaris.bootforum2.event.ForumStatChangedEvent;
+import com.github.chipolaris.bootforum2.repository.DiscussionStatRepository;
+import com.github.chipolaris.bootforum2.repository.ForumStatRepository;
 import com.github.chipolaris.bootforum2.repository.UserRepository;
+import com.github.chipolaris.bootforum2.repository.UserStatRepository;
+import com.github.chipolaris.bootforum2.service.StatEventPipeline;
+import com.github.chipolaris.bootforum2.service.StatUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
@@ -16,6 +26,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -31,6 +42,15 @@ public class CommentEventsListener {
 
     private final GenericDAO genericDAO;
     private final UserRepository userRepository;
+    private final DiscussionStatRepository discussionStatRepository;
+    private final ForumStatRepository forumStatRepository;
+    private final UserStatRepository userStatRepository;
+    private final StatEventPipeline statEventPipeline;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // when true, statistics are updated with in-database increments instead of optimistic locking
+    @Value("${app.stats.delta-updates:true}")
+    private boolean deltaUpdates;
 
     // Self-injection to allow calling a @Transactional method from a non-transactional one within the same class
     private CommentEventsListener self;
@@ -41,9 +61,19 @@ public class CommentEventsListener {
         this.self = self;
     }
 
-    public CommentEventsListener(GenericDAO genericDAO, UserRepository userRepository) {
+    public CommentEventsListener(GenericDAO genericDAO, UserRepository userRepository,
+                                 DiscussionStatRepository discussionStatRepository,
+                                 ForumStatRepository forumStatRepository,
+                                 UserStatRepository userStatRepository,
+                                 StatEventPipeline statEventPipeline,
+                                 ApplicationEventPublisher eventPublisher) {
         this.genericDAO = genericDAO;
         this.userRepository = userRepository;
+        this.discussionStatRepository = discussionStatRepository;
+        this.forumStatRepository = forumStatRepository;
+        this.userStatRepository = userStatRepository;
+        this.statEventPipeline = statEventPipeline;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -51,11 +81,21 @@ public class CommentEventsListener {
      * It delegates the actual work to a separate transactional method.
      */
     @TransactionalEventListener
-    @Async
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
     public void handleCommentCreated(CommentCreatedEvent event) {
 
         final long commentId = event.getComment().getId();
 
+        if (statEventPipeline.isEnabled()) {
+            statEventPipeline.submit(StatUpdate.ofCommentCreated(event.getComment()));
+            return;
+        }
+
+        if (deltaUpdates) {
+            applyStatisticDeltas(event.getComment());
+            return;
+        }
+
         for (int attempt = 0; attempt <= MAX_RETRIES; attempt++) {
             try {
                 // Delegate to the transactional method
@@ -90,6 +130,27 @@ public class CommentEventsListener {
         }
     }
 
+    /**
+     * Delta mode entry point. In-database increments never conflict on version, so there is no
+     * sleep-retry loop. The only possible conflict is two concurrent first comments of the same user
+     * in the same discussion inserting the same participant row, which is retried once without delay.
+     */
+    private void applyStatisticDeltas(Comment comment) {
+        try {
+            self.updateStatisticsWithDeltas(comment);
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Concurrent participant insert for comment ID {}. Retrying once.", comment.getId());
+            try {
+                self.updateStatisticsWithDeltas(comment);
+            } catch (Exception ex) {
+                logger.error("Failed to update statistics for comment ID {} after retry.", comment.getId(), ex);
+            }
+        } catch (Exception e) {
+            logger.error("An unexpected error occurred while handling CommentCreatedEvent for comment.id {}.",
+                    comment.getId(), e);
+        }
+    }
+
     /**
      * Calculates an exponential backoff delay with jitter.
      * @param attempt The current attempt number (0-based).
@@ -128,6 +189,7 @@ public class CommentEventsListener {
 
         if (forumStat != null) {
             updateForumStat(forumStat, comment);
+            eventPublisher.publishEvent(new ForumStatChangedEvent(this, Set.of(discussion.getForum().getId())));
         }
 
         if (userOpt.isPresent()) {
@@ -139,6 +201,40 @@ public class CommentEventsListener {
         // The transaction commits here. If a version mismatch is found, Spring will throw ObjectOptimisticLockingFailureException.
     }
 
+    /**
+     * Applies the statistics of a new comment as conditional in-database updates, in its own transaction.
+     * Counters are incremented in place and last comment infos use "newer wins" conditional updates,
+     * so nothing is read first and no version conflict can occur. Rows are always updated in the same
+     * order (discussion, forum, user) to avoid deadlocks between concurrent writers.
+     * @param comment The comment from the event.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateStatisticsWithDeltas(Comment comment) {
+
+        Discussion discussion = comment.getDiscussion();
+        String commentor = comment.getCreateBy();
+        int imageCount = comment.getImages() != null ? comment.getImages().size() : 0;
+        int attachmentCount = comment.getAttachments() != null ? comment.getAttachments().size() : 0;
+        String contentAbbr = CommentInfo.abbreviate(comment.getContent());
+
+        Long discussionStatId = discussion.getStat().getId();
+        discussionStatRepository.addCounts(discussionStatId, 1, imageCount, attachmentCount);
+        discussionStatRepository.addParticipant(discussionStatId, commentor, 1);
+        discussionStatRepository.updateLastCommentIfNewer(discussionStatId, comment.getId(), commentor,
+                comment.getCreateDate(), comment.getTitle(), contentAbbr);
+
+        // getId() on the (possibly uninitialized) forum proxy does not hit the database
+        Long forumId = discussion.getForum().getId();
+        forumStatRepository.addCountsByForumId(forumId, 0, 1);
+        forumStatRepository.updateLastCommentIfNewer(forumId, comment.getId(), commentor,
+                comment.getCreateDate(), comment.getTitle(), contentAbbr);
+        eventPublisher.publishEvent(new ForumStatChangedEvent(this, Set.of(forumId)));
+
+        userStatRepository.addCountsByUsername(commentor, 0, 1, imageCount, attachmentCount);
+        userStatRepository.updateLastCommentIfNewerByUsername(commentor, comment.getId(), commentor,
+                comment.getCreateDate(), comment.getTitle(), contentAbbr);
+    }
+
     private void updateUserStat(UserStat userStat, Comment comment) {
         userStat.addCommentCount(1);
         userStat.addImageCount(comment.getImages() != null ? comment.getImages().size() : 0);
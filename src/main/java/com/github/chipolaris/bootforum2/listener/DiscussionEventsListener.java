@@ -1,14 +1,25 @@
 package com.github.chipolaris.bootforum2.listener;
 
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
 import com.github.chipolaris.bootforum2.dao.GenericDAO;
 import com.github.chipolaris.bootforum2.domain.*;
 import com.github.chipolaris.bootforum2.event.DiscussionCreatedEvent;
 import com.github.chipolaris.bootforum2.event.DiscussionViewedEvent;
+import com.github.chipolaris.bootforum2.event.ForumStatChangedEvent;
+import com.github.chipolaris.bootforum2.repository.DiscussionStatRepository;
+import com.github.chipolaris.bootforum2.repository.ForumStatRepository;
 import com.github.chipolaris.bootforum2.repository.UserRepository;
+import com.github.chipolaris.bootforum2.repository.UserStatRepository;
+import com.github.chipolaris.bootforum2.service.DiscussionViewCounter;
+import com.github.chipolaris.bootforum2.service.StatEventPipeline;
+import com.github.chipolaris.bootforum2.service.StatUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
@@ -17,6 +28,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -32,6 +44,16 @@ public class DiscussionEventsListener {
 
     private final GenericDAO genericDAO;
     private final UserRepository userRepository;
+    private final DiscussionStatRepository discussionStatRepository;
+    private final ForumStatRepository forumStatRepository;
+    private final UserStatRepository userStatRepository;
+    private final DiscussionViewCounter discussionViewCounter;
+    private final StatEventPipeline statEventPipeline;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // when true, statistics are updated with in-database increments instead of optimistic locking
+    @Value("${app.stats.delta-updates:true}")
+    private boolean deltaUpdates;
 
     // Self-injection to allow calling a @Transactional method from a non-transactional one
     private DiscussionEventsListener self;
@@ -42,9 +64,21 @@ public class DiscussionEventsListener {
         this.self = self;
     }
 
-    public DiscussionEventsListener(GenericDAO genericDAO, UserRepository userRepository) {
+    public DiscussionEventsListener(GenericDAO genericDAO, UserRepository userRepository,
+                                    DiscussionStatRepository discussionStatRepository,
+                                    ForumStatRepository forumStatRepository,
+                                    UserStatRepository userStatRepository,
+                                    DiscussionViewCounter discussionViewCounter,
+                                    StatEventPipeline statEventPipeline,
+                                    ApplicationEventPublisher eventPublisher) {
         this.genericDAO = genericDAO;
         this.userRepository = userRepository;
+        this.discussionStatRepository = discussionStatRepository;
+        this.forumStatRepository = forumStatRepository;
+        this.userStatRepository = userStatRepository;
+        this.discussionViewCounter = discussionViewCounter;
+        this.statEventPipeline = statEventPipeline;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -52,10 +86,20 @@ public class DiscussionEventsListener {
      * @param event The discussion creation event.
      */
     @TransactionalEventListener
-    @Async
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
     public void handleDiscussionCreated(DiscussionCreatedEvent event) {
         final long discussionId = event.getDiscussion().getId();
 
+        if (statEventPipeline.isEnabled()) {
+            statEventPipeline.submit(StatUpdate.ofDiscussionCreated(event.getDiscussion()));
+            return;
+        }
+
+        if (deltaUpdates) {
+            applyCreationStatisticDeltas(event.getDiscussion());
+            return;
+        }
+
         for (int attempt = 0; attempt <= MAX_RETRIES; attempt++) {
             try {
                 // Delegate to the transactional method
@@ -89,6 +133,57 @@ public class DiscussionEventsListener {
         }
     }
 
+    /**
+     * Delta mode entry point. In-database increments never conflict on version, so there is no
+     * sleep-retry loop. The only possible conflict is a concurrent first-time insert of the creator's
+     * participant row, which is retried once without delay.
+     */
+    private void applyCreationStatisticDeltas(Discussion discussion) {
+        try {
+            self.updateCreationStatisticsWithDeltas(discussion);
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Concurrent participant insert for discussion ID {}. Retrying once.", discussion.getId());
+            try {
+                self.updateCreationStatisticsWithDeltas(discussion);
+            } catch (Exception ex) {
+                logger.error("Failed to update statistics for discussion ID {} after retry.", discussion.getId(), ex);
+            }
+        } catch (Exception e) {
+            logger.error("An unexpected error occurred while handling DiscussionCreatedEvent for discussion.id {}.",
+                    discussion.getId(), e);
+        }
+    }
+
+    /**
+     * Applies the creation statistics of a new discussion as conditional in-database updates, in its own
+     * transaction. Counters are incremented in place and last discussion infos use "newer wins" conditional
+     * updates, so nothing is read first and no version conflict can occur. Rows are always updated in the
+     * same order (discussion, forum, user) to avoid deadlocks between concurrent writers.
+     * @param discussion The discussion from the event.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateCreationStatisticsWithDeltas(Discussion discussion) {
+
+        String creator = discussion.getCreateBy();
+        int imageCount = discussion.getImages() != null ? discussion.getImages().size() : 0;
+        int attachmentCount = discussion.getAttachments() != null ? discussion.getAttachments().size() : 0;
+        String contentAbbr = DiscussionInfo.abbreviate(discussion.getContent());
+
+        Long discussionStatId = discussion.getStat().getId();
+        discussionStatRepository.addCounts(discussionStatId, 0, imageCount, attachmentCount);
+        discussionStatRepository.addParticipant(discussionStatId, creator, 1);
+
+        Long forumId = discussion.getForum().getId();
+        forumStatRepository.addCountsByForumId(forumId, 1, 0);
+        forumStatRepository.updateLastDiscussionIfNewer(forumId, discussion.getId(), creator,
+                discussion.getCreateDate(), discussion.getTitle(), contentAbbr);
+        eventPublisher.publishEvent(new ForumStatChangedEvent(this, Set.of(forumId)));
+
+        userStatRepository.addCountsByUsername(creator, 1, 0, imageCount, attachmentCount);
+        userStatRepository.updateLastDiscussionIfNewerByUsername(creator, discussion.getId(), creator,
+                discussion.getCreateDate(), discussion.getTitle(), contentAbbr);
+    }
+
     /**
      * This method contains the core logic for creation stats and is executed in its own new transaction.
      * It will throw an ObjectOptimisticLockingFailureException if a concurrent update is detected on commit.
@@ -114,6 +209,7 @@ public class DiscussionEventsListener {
 
         if (forumStat != null) {
             updateForumStat(forumStat, discussion);
+            eventPublisher.publishEvent(new ForumStatChangedEvent(this, Set.of(discussion.getForum().getId())));
         }
 
         if (userOpt.isPresent()) {
@@ -165,39 +261,14 @@ public class DiscussionEventsListener {
     }
 
     /**
-     * DiscussionViewedEvent listener. This is the non-transactional entry point with the retry loop.
+     * DiscussionViewedEvent listener. Views are only recorded in memory here and written to the
+     * database in batches by the {@link DiscussionViewCounter}, so no transaction (and no
+     * optimistic lock retry) is needed per view.
      * @param event The discussion view event.
      */
     @TransactionalEventListener
-    @Async
     public void handleDiscussionViewed(DiscussionViewedEvent event) {
-        final long discussionId = event.getDiscussion().getId();
-
-        for (int attempt = 0; attempt <= MAX_RETRIES; attempt++) {
-            try {
-                self.incrementViewCountWithOptimisticLocking(discussionId);
-                return; // Success
-            } catch (ObjectOptimisticLockingFailureException e) {
-                if (attempt < MAX_RETRIES) {
-                    // FIX: Use exponential backoff with jitter
-                    long backoff = getExponentialBackoff(attempt);
-                    logger.warn("Optimistic lock failure on view count for discussion ID {} on attempt #{}. Retrying in {}ms...",
-                            discussionId, attempt + 1, backoff);
-                    try {
-                        Thread.sleep(backoff);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
-                } else {
-                    logger.error("Failed to increment view count for discussion ID {} after {} attempts. Giving up.",
-                            discussionId, MAX_RETRIES + 1, e);
-                }
-            } catch (Exception e) {
-                logger.error("An unexpected error occurred while incrementing view count for discussion.id {}.",
-                        discussionId, e);
-                return; // Abort on other exceptions
-            }
-        }
+        discussionViewCounter.recordView(event.getDiscussion().getId());
     }
 
     /**
@@ -209,18 +280,4 @@ public class DiscussionEventsListener {
         long delay = (long) (INITIAL_BACKOFF_MS * Math.pow(2, attempt));
         return delay + ThreadLocalRandom.current().nextLong(JITTER_MS);
     }
-
-    /**
-     * This method contains the core logic for view count and is executed in its own new transaction.
-     * @param discussionId The ID of the discussion to update.
-     */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void incrementViewCountWithOptimisticLocking(Long discussionId) {
-        Discussion discussion = genericDAO.find(Discussion.class, discussionId);
-        if (discussion != null && discussion.getStat() != null) {
-            discussion.getStat().addViewCount(1);
-        } else {
-            logger.warn("Could not increment view count. Discussion or its stats not found for ID: {}", discussionId);
-        }
-    }
 }
\ No newline at end of file
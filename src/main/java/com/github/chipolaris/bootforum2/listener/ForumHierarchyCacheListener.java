@@ -0,0 +1,82 @@
+package com.github.chipolaris.bootforum2.listener;
+
+import com.github.chipolaris.bootforum2.domain.ForumGroup;
+import com.github.chipolaris.bootforum2.event.ForumCreatedEvent;
+import com.github.chipolaris.bootforum2.event.ForumGroupCreatedEvent;
+import com.github.chipolaris.bootforum2.event.ForumGroupUpdatedEvent;
+import com.github.chipolaris.bootforum2.event.ForumStatChangedEvent;
+import com.github.chipolaris.bootforum2.event.ForumUpdatedEvent;
+import com.github.chipolaris.bootforum2.service.ForumGroupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the second-level cache of the forum hierarchy consistent.
+ *
+ * ForumGroup and Forum entity entries are maintained by Hibernate itself (read-write strategy).
+ * The ForumGroup.forums and ForumGroup.subGroups collections are the inverse sides of the
+ * Forum.forumGroup and ForumGroup.parent associations, so Hibernate does not evict them when a
+ * forum or group is added or moved. Since the hierarchy changes rarely, any change simply evicts
+ * both collection regions and the root forum group query region after commit.
+ *
+ * It also keeps the forum tree snapshot of {@link ForumGroupService} in line: a hierarchy change
+ * drops the snapshot (after the cache eviction, so that the rebuild doesn't read stale collections),
+ * and a committed forum stat change marks the forum for the next incremental stat refresh.
+ */
+@Component
+public class ForumHierarchyCacheListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForumHierarchyCacheListener.class);
+
+    private static final String FORUMS_ROLE = ForumGroup.class.getName() + ".forums";
+    private static final String SUB_GROUPS_ROLE = ForumGroup.class.getName() + ".subGroups";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ForumGroupService forumGroupService;
+
+    public ForumHierarchyCacheListener(EntityManagerFactory entityManagerFactory, ForumGroupService forumGroupService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.forumGroupService = forumGroupService;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleForumCreated(ForumCreatedEvent event) {
+        evictHierarchy();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleForumUpdated(ForumUpdatedEvent event) {
+        evictHierarchy();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleForumGroupCreated(ForumGroupCreatedEvent event) {
+        evictHierarchy();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleForumGroupUpdated(ForumGroupUpdatedEvent event) {
+        evictHierarchy();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleForumStatChanged(ForumStatChangedEvent event) {
+        forumGroupService.markForumStatsStale(event.getForumIds());
+    }
+
+    private void evictHierarchy() {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+
+        cache.evictCollectionData(FORUMS_ROLE);
+        cache.evictCollectionData(SUB_GROUPS_ROLE);
+        cache.evictQueryRegion(ForumGroup.ROOT_QUERY_CACHE_REGION);
+
+        logger.debug("Evicted cached forum hierarchy collections and root forum group query");
+
+        forumGroupService.invalidateForumTree();
+    }
+}
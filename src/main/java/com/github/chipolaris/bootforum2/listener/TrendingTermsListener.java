@@ -0,0 +1,35 @@
+package com.github.chipolaris.bootforum2.listener;
+
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
+import com.github.chipolaris.bootforum2.event.CommentCreatedEvent;
+import com.github.chipolaris.bootforum2.event.DiscussionCreatedEvent;
+import com.github.chipolaris.bootforum2.service.TrendingTermsService;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Counts the terms of committed discussions and comments in the trending terms buckets
+ * of {@link TrendingTermsService}.
+ */
+@Component
+public class TrendingTermsListener {
+
+    private final TrendingTermsService trendingTermsService;
+
+    public TrendingTermsListener(TrendingTermsService trendingTermsService) {
+        this.trendingTermsService = trendingTermsService;
+    }
+
+    @TransactionalEventListener
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
+    public void handleDiscussionCreated(DiscussionCreatedEvent event) {
+        trendingTermsService.recordDiscussion(event.getDiscussion());
+    }
+
+    @TransactionalEventListener
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
+    public void handleCommentCreated(CommentCreatedEvent event) {
+        trendingTermsService.recordComment(event.getComment());
+    }
+}
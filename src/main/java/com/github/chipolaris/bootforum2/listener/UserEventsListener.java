@@ -1,14 +1,17 @@
 package com.github.chipolaris.bootforum2.listener; // Create this package if it doesn't exist
 
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
 import com.github.chipolaris.bootforum2.event.UserLoginSuccessEvent;
 import com.github.chipolaris.bootforum2.event.UserProfileViewedEvent;
-import com.github.chipolaris.bootforum2.repository.UserStatRepository;
+import com.github.chipolaris.bootforum2.service.StatEventPipeline;
+import com.github.chipolaris.bootforum2.service.StatUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 /**
  * Component to listen to User events
@@ -18,38 +21,28 @@ public class UserEventsListener {
 
     private static final Logger logger = LoggerFactory.getLogger(UserEventsListener.class);
 
-    private final UserStatRepository userStatRepository;
+    private final StatEventPipeline statEventPipeline;
 
-    public UserEventsListener(UserStatRepository userStatRepository) {
-        this.userStatRepository = userStatRepository;
+    public UserEventsListener(StatEventPipeline statEventPipeline) {
+        this.statEventPipeline = statEventPipeline;
     }
 
     @EventListener
-    @Transactional(readOnly = false) // Ensure the update is part of a transaction
-    @Async
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
     public void handleUserLoginSuccess(UserLoginSuccessEvent event) {
         String username = event.getUsername();
         logger.info("Handling UserLoginSuccessEvent for user: %s".formatted(username));
 
-        int updatedRows = userStatRepository.updateLastLoginToNowByUsername(username);
-
-        if(updatedRows == 0) {
-            logger.warn("Not able to update lastLogin for username '%s'".formatted(username));
-        }
+        statEventPipeline.submit(StatUpdate.ofLogin(username, LocalDateTime.now()));
     }
 
     @EventListener
-    @Transactional(readOnly = false) // Ensure the update is part of a transaction
-    @Async
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
     public void handleUserProfileViewed(UserProfileViewedEvent event) {
         String viewedUsername = event.getViewedUsername();
-        logger.info("Handling UserProfileViewedEvent for user: %s".formatted(viewedUsername));
-
-        // add 1 to user profile viewed count
-        int updatedRows = userStatRepository.addProfileViewedByUsername(viewedUsername, (short) 1);
+        logger.debug("Handling UserProfileViewedEvent for user: %s".formatted(viewedUsername));
 
-        if (updatedRows == 0) {
-            logger.warn("Not able to update profile viewed count for username '%s'".formatted(viewedUsername));
-        }
+        // add 1 to user profile viewed count, coalesced with other views of the same profile
+        statEventPipeline.submit(StatUpdate.ofProfileViewed(viewedUsername));
     }
 }
\ No newline at end of file
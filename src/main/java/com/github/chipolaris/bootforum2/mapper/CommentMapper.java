@@ -35,6 +35,7 @@ public interface CommentMapper {
     @Mapping(target = "updateDate", ignore = true) // Typically set by @PreUpdate
     @Mapping(target = "updateBy", ignore = true)   // Typically set by system/security context
     @Mapping(target = "discussion", ignore = true) // Explicitly ignore for toEntity
+    @Mapping(target = "tagIds", ignore = true)     // Derived from the discussion's tags for the search index
     Comment toEntity(CommentDTO commentDTO);
 
     List<CommentDTO> toCommentDTOs(List<Comment> comments);
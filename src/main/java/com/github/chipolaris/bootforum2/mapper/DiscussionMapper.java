@@ -51,5 +51,6 @@ public interface DiscussionMapper {
     @Mapping(target = "tags", ignore = true) // Tags are not part of the initial creation DTO
     @Mapping(target = "createDate", ignore = true) // Handled by @PrePersist
     @Mapping(target = "updateDate", ignore = true) // Handled by @PrePersist
+    @Mapping(target = "keyTerms", ignore = true) // Derived from title and content for the search index
     Discussion toEntity(DiscussionCreateDTO discussionCreateDTO);
 }
\ No newline at end of file
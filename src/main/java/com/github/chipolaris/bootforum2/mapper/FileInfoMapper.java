@@ -4,6 +4,7 @@ import com.github.chipolaris.bootforum2.domain.FileInfo;
 import com.github.chipolaris.bootforum2.dto.FileCreatedDTO;
 import com.github.chipolaris.bootforum2.dto.FileInfoDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
 
@@ -14,15 +15,17 @@ public interface FileInfoMapper {
 
     FileInfoDTO toDTO(FileInfo fileInfo);
 
+    @Mapping(target = "contentHash", ignore = true) // Recorded from the stored content at upload only
     FileInfo toEntity(FileInfoDTO fileInfoDTO);
 
     FileInfo toEntity(FileCreatedDTO fileCreatedDTO);
 
     /**
      * Updates an existing FileInfo entity from a FileInfoDTO.
-     * The ID is typically not updated from the DTO.
+     * The ID is typically not updated from the DTO, nor is the content hash (the content doesn't change).
      * @param fileInfoDTO the source DTO
      * @param fileInfo the target entity to update
      */
+    @Mapping(target = "contentHash", ignore = true)
     void updateEntityFromDto(FileInfoDTO fileInfoDTO, @MappingTarget FileInfo fileInfo);
 }
\ No newline at end of file
@@ -5,9 +5,12 @@ import com.github.chipolaris.bootforum2.domain.Discussion;
 import com.github.chipolaris.bootforum2.domain.Forum;
 import com.github.chipolaris.bootforum2.dto.*;
 import com.github.chipolaris.bootforum2.dto.admin.CountPerMonthDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
@@ -69,6 +73,14 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      */
     long countByDiscussion(Discussion discussion);
 
+    /**
+     * Counts the comments of a discussion given its ID, without loading the discussion.
+     *
+     * @param discussionId The ID of the discussion to count comments for.
+     * @return A long representing the total number of comments.
+     */
+    long countByDiscussionId(Long discussionId);
+
     /**
      * Efficiently counts the number of comments associated with a given forum
      * by traversing through the discussion.
@@ -230,4 +242,108 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      */
     @Query("SELECT COUNT(i) FROM Comment c JOIN c.images i")
     long countAllImages();
-}
\ No newline at end of file
+
+    // -- set-based aggregates over a range of ids, used by the stat reconciliation (StatReconciliationService)
+
+    /**
+     * Comment count of each discussion with an id in [fromId, toId] that has comments.
+     * @return rows of [discussionId, count]
+     */
+    @Query("""
+            SELECT c.discussion.id, COUNT(c) FROM Comment c
+            WHERE c.discussion.id BETWEEN :fromId AND :toId
+            GROUP BY c.discussion.id
+            """)
+    List<Object[]> countPerDiscussion(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Number of comment images of each discussion with an id in [fromId, toId].
+     * @return rows of [discussionId, count]
+     */
+    @Query("""
+            SELECT c.discussion.id, COUNT(i) FROM Comment c JOIN c.images i
+            WHERE c.discussion.id BETWEEN :fromId AND :toId
+            GROUP BY c.discussion.id
+            """)
+    List<Object[]> countImagesPerDiscussion(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Number of comment attachments of each discussion with an id in [fromId, toId].
+     * @return rows of [discussionId, count]
+     */
+    @Query("""
+            SELECT c.discussion.id, COUNT(a) FROM Comment c JOIN c.attachments a
+            WHERE c.discussion.id BETWEEN :fromId AND :toId
+            GROUP BY c.discussion.id
+            """)
+    List<Object[]> countAttachmentsPerDiscussion(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Comment count per commentor of each discussion with an id in [fromId, toId].
+     * @return rows of [discussionId, commentor, count]
+     */
+    @Query("""
+            SELECT c.discussion.id, c.createBy, COUNT(c) FROM Comment c
+            WHERE c.discussion.id BETWEEN :fromId AND :toId
+            GROUP BY c.discussion.id, c.createBy
+            """)
+    List<Object[]> countPerDiscussionAndCommentor(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Latest comment(s) of each discussion with an id in [fromId, toId], more than one for a discussion
+     * if comments share the latest create date.
+     * @return rows of [discussionId, commentId, createBy, createDate, title, content]
+     */
+    @Query("""
+            SELECT c.discussion.id, c.id, c.createBy, c.createDate, c.title, c.content FROM Comment c
+            WHERE c.discussion.id BETWEEN :fromId AND :toId
+                AND c.createDate = (SELECT MAX(c2.createDate) FROM Comment c2 WHERE c2.discussion = c.discussion)
+            """)
+    List<Object[]> findLatestPerDiscussion(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Comment count of each forum with an id in [fromId, toId] that has comments.
+     * @return rows of [forumId, count]
+     */
+    @Query("""
+            SELECT c.discussion.forum.id, COUNT(c) FROM Comment c
+            WHERE c.discussion.forum.id BETWEEN :fromId AND :toId
+            GROUP BY c.discussion.forum.id
+            """)
+    List<Object[]> countPerForum(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Latest comment(s) of each forum with an id in [fromId, toId].
+     * @return rows of [forumId, commentId, createBy, createDate, title, content]
+     */
+    @Query("""
+            SELECT c.discussion.forum.id, c.id, c.createBy, c.createDate, c.title, c.content FROM Comment c
+            WHERE c.discussion.forum.id BETWEEN :fromId AND :toId
+                AND c.createDate = (SELECT MAX(c2.createDate) FROM Comment c2
+                    WHERE c2.discussion.forum = c.discussion.forum)
+            """)
+    List<Object[]> findLatestPerForum(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Comment count of each user with an id in [fromId, toId] that has comments.
+     * @return rows of [userId, count]
+     */
+    @Query("""
+            SELECT u.id, COUNT(c) FROM User u JOIN Comment c ON c.createBy = u.username
+            WHERE u.id BETWEEN :fromId AND :toId
+            GROUP BY u.id
+            """)
+    List<Object[]> countPerUser(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Text of the comments created before a date, streamed for the trending terms (see TrendingTermsService).
+     * The stream must be consumed in a transaction and closed.
+     * @return rows of [createDate, content]
+     */
+    @Query("""
+            SELECT c.createDate, c.content FROM Comment c
+            WHERE c.createDate < :before
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Object[]> streamTextCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -7,47 +7,24 @@ import com.github.chipolaris.bootforum2.dto.MyRecentDiscussionDTO;
 import com.github.chipolaris.bootforum2.dto.RankedDiscussionDTO;
 import com.github.chipolaris.bootforum2.dto.RankedListItemDTO;
 import com.github.chipolaris.bootforum2.dto.admin.CountPerMonthDTO;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface DiscussionRepository extends JpaRepository<Discussion, Long> {
 
-    /**
-     * Finds a page of discussions that have at least one of the specified tags.
-     * It also fetches the associated tags for each discussion in a single query to avoid N+1 issues.
-     * @param tagIds A list of tag IDs to filter by.
-     * @param pageable Pagination and sorting information.
-     * @return A Page of Discussion entities.
-     */
-    @Query(value = "SELECT DISTINCT d FROM Discussion d JOIN d.tags t LEFT JOIN FETCH d.tags WHERE t.id IN :tagIds",
-            countQuery = "SELECT COUNT(DISTINCT d) FROM Discussion d JOIN d.tags t WHERE t.id IN :tagIds")
-    Page<Discussion> findByTagIdsWithTags(@Param("tagIds") List<Long> tagIds, Pageable pageable);
-
-    /**
-     * Finds a page of discussions, fetching their associated tags in a single query to avoid N+1 issues.
-     * @param pageable Pagination and sorting information.
-     * @return A Page of Discussion entities.
-     */
-    @Query(value = "SELECT d FROM Discussion d LEFT JOIN FETCH d.tags",
-            countQuery = "SELECT count(d) FROM Discussion d")
-    Page<Discussion> findAllWithTags(Pageable pageable);
-
-    /**
-     * Finds a page of discussions for a specific forum, fetching their associated tags in a single query.
-     * @param forumId The ID of the forum to filter by.
-     * @param pageable Pagination and sorting information.
-     * @return A Page of Discussion entities.
-     */
-    @Query(value = "SELECT d FROM Discussion d LEFT JOIN FETCH d.tags WHERE d.forum.id = :forumId",
-            countQuery = "SELECT count(d) FROM Discussion d WHERE d.forum.id = :forumId")
-    Page<Discussion> findByForumIdWithTags(@Param("forumId") Long forumId, Pageable pageable);
+    @Query("SELECT COUNT(DISTINCT d) FROM Discussion d JOIN d.tags t WHERE t.id IN :tagIds")
+    long countByTagIds(@Param("tagIds") Collection<Long> tagIds);
 
     @Query("""
             SELECT COUNT(d)
@@ -108,6 +85,12 @@ public interface DiscussionRepository extends JpaRepository<Discussion, Long> {
      */
     List<Discussion> findByOrderByStatViewCountDesc(Pageable pageable);
 
+    /**
+     * Ids of the most viewed discussions, see findByOrderByStatViewCountDesc.
+     */
+    @Query("SELECT d.id FROM Discussion d ORDER BY d.stat.viewCount DESC")
+    List<Long> findIdsOrderByViewCountDesc(Pageable pageable);
+
     /**
      * Finds all "sticky" discussions for a given forum, ordered by the most recently updated.
      * This is typically used to display pinned discussions at the top of a forum view.
@@ -228,4 +211,73 @@ public interface DiscussionRepository extends JpaRepository<Discussion, Long> {
      */
     @Query("SELECT SUM(d.stat.attachmentCount) FROM Discussion d")
     Long sumAttachmentCount();
-}
\ No newline at end of file
+
+    // -- set-based aggregates over a range of ids, used by the stat reconciliation (StatReconciliationService)
+
+    /**
+     * Number of (discussion) images of each discussion with an id in [fromId, toId].
+     * @return rows of [discussionId, count]
+     */
+    @Query("""
+            SELECT d.id, COUNT(i) FROM Discussion d JOIN d.images i
+            WHERE d.id BETWEEN :fromId AND :toId
+            GROUP BY d.id
+            """)
+    List<Object[]> countImagesPerDiscussion(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Number of (discussion) attachments of each discussion with an id in [fromId, toId].
+     * @return rows of [discussionId, count]
+     */
+    @Query("""
+            SELECT d.id, COUNT(a) FROM Discussion d JOIN d.attachments a
+            WHERE d.id BETWEEN :fromId AND :toId
+            GROUP BY d.id
+            """)
+    List<Object[]> countAttachmentsPerDiscussion(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Discussion count of each forum with an id in [fromId, toId] that has discussions.
+     * @return rows of [forumId, count]
+     */
+    @Query("""
+            SELECT d.forum.id, COUNT(d) FROM Discussion d
+            WHERE d.forum.id BETWEEN :fromId AND :toId
+            GROUP BY d.forum.id
+            """)
+    List<Object[]> countPerForum(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Latest discussion(s) of each forum with an id in [fromId, toId].
+     * @return rows of [forumId, discussionId, createBy, createDate, title, content]
+     */
+    @Query("""
+            SELECT d.forum.id, d.id, d.createBy, d.createDate, d.title, d.content FROM Discussion d
+            WHERE d.forum.id BETWEEN :fromId AND :toId
+                AND d.createDate = (SELECT MAX(d2.createDate) FROM Discussion d2 WHERE d2.forum = d.forum)
+            """)
+    List<Object[]> findLatestPerForum(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Discussion count of each user with an id in [fromId, toId] that started discussions.
+     * @return rows of [userId, count]
+     */
+    @Query("""
+            SELECT u.id, COUNT(d) FROM User u JOIN Discussion d ON d.createBy = u.username
+            WHERE u.id BETWEEN :fromId AND :toId
+            GROUP BY u.id
+            """)
+    List<Object[]> countPerUser(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Text of the discussions created before a date, streamed for the trending terms (see TrendingTermsService).
+     * The stream must be consumed in a transaction and closed.
+     * @return rows of [createDate, title, content]
+     */
+    @Query("""
+            SELECT d.createDate, d.title, d.content FROM Discussion d
+            WHERE d.createDate < :before
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Object[]> streamTextCreatedBefore(@Param("before") LocalDateTime before);
+}
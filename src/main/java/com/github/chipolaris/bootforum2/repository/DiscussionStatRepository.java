@@ -1,11 +1,19 @@
 package com.github.chipolaris.bootforum2.repository; // Or your preferred repository package
 
 import com.github.chipolaris.bootforum2.domain.DiscussionStat;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface DiscussionStatRepository extends JpaRepository<DiscussionStat, Long> {
 
@@ -27,4 +35,92 @@ public interface DiscussionStatRepository extends JpaRepository<DiscussionStat,
            "FROM DiscussionStat ds JOIN ds.votes v " +
            "WHERE ds.id = :discussionStatId AND v.voterName = :voterName")
     boolean hasUserVotedOnDiscussionStat(@Param("discussionStatId") Long discussionStatId, @Param("voterName") String voterName);
-}
\ No newline at end of file
+
+    /**
+     * Atomically adds the given deltas to the counters of a DiscussionStat.
+     * The version is bumped so that concurrent entity-based updates detect the change.
+     *
+     * @param discussionStatId The ID of the DiscussionStat entity.
+     * @return The number of entities updated (should be 1 if the DiscussionStat exists).
+     */
+    @Modifying
+    @Query("""
+            UPDATE DiscussionStat ds SET ds.commentCount = ds.commentCount + :commentCountToAdd,
+                ds.imageCount = ds.imageCount + :imageCountToAdd,
+                ds.attachmentCount = ds.attachmentCount + :attachmentCountToAdd, ds.version = ds.version + 1
+            WHERE ds.id = :discussionStatId
+            """)
+    int addCounts(@Param("discussionStatId") Long discussionStatId,
+                  @Param("commentCountToAdd") long commentCountToAdd,
+                  @Param("imageCountToAdd") long imageCountToAdd,
+                  @Param("attachmentCountToAdd") long attachmentCountToAdd);
+
+    /**
+     * Conditionally replaces the last comment info of a DiscussionStat, only if the given comment
+     * is newer than the one currently recorded ("newer wins").
+     *
+     * @return The number of entities updated (0 if the recorded last comment is newer).
+     */
+    @Modifying
+    @Query("""
+            UPDATE CommentInfo ci SET ci.commentId = :commentId, ci.commentor = :commentor,
+                ci.commentDate = :commentDate, ci.title = :title, ci.contentAbbr = :contentAbbr,
+                ci.updateDate = CURRENT_TIMESTAMP
+            WHERE ci.id = (SELECT ds.lastComment.id FROM DiscussionStat ds WHERE ds.id = :discussionStatId)
+                AND (ci.commentDate IS NULL OR ci.commentDate < :commentDate)
+            """)
+    int updateLastCommentIfNewer(@Param("discussionStatId") Long discussionStatId, @Param("commentId") Long commentId,
+                                 @Param("commentor") String commentor, @Param("commentDate") LocalDateTime commentDate,
+                                 @Param("title") String title, @Param("contentAbbr") String contentAbbr);
+
+    /**
+     * Atomically adds to the comment count of an existing participant entry of a DiscussionStat.
+     * The participants map is an element collection, hence the native query. The query space is declared
+     * so that Hibernate only invalidates what maps to that table instead of every second-level cache region.
+     *
+     * @return The number of rows updated (0 if the participant has no entry yet).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "DISC_STAT_PARTICIPANT_T"))
+    @Query(value = "UPDATE DISC_STAT_PARTICIPANT_T SET COMMENT_COUNT = COMMENT_COUNT + :countToAdd " +
+            "WHERE DISC_STAT_ID = :discussionStatId AND COMMENTOR = :commentor", nativeQuery = true)
+    int addParticipantCount(@Param("discussionStatId") Long discussionStatId, @Param("commentor") String commentor,
+                            @Param("countToAdd") int countToAdd);
+
+    /**
+     * Inserts a new participant entry for a DiscussionStat (same query space as {@link #addParticipantCount}).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "DISC_STAT_PARTICIPANT_T"))
+    @Query(value = "INSERT INTO DISC_STAT_PARTICIPANT_T (DISC_STAT_ID, COMMENTOR, COMMENT_COUNT) " +
+            "VALUES (:discussionStatId, :commentor, :count)", nativeQuery = true)
+    int insertParticipant(@Param("discussionStatId") Long discussionStatId, @Param("commentor") String commentor,
+                          @Param("count") int count);
+
+    /**
+     * Adds to a participant's count, creating the participant entry if it doesn't exist yet.
+     * Two concurrent first-time inserts for the same participant violate the primary key;
+     * callers are expected to retry in that case.
+     */
+    default void addParticipant(Long discussionStatId, String commentor, int countToAdd) {
+        if (addParticipantCount(discussionStatId, commentor, countToAdd) == 0) {
+            insertParticipant(discussionStatId, commentor, countToAdd);
+        }
+    }
+
+    /**
+     * Comment count kept in the DiscussionStat of a discussion (maintained incrementally, may lag slightly).
+     */
+    @Query("SELECT d.stat.commentCount FROM Discussion d WHERE d.id = :discussionId")
+    Optional<Long> findCommentCountByDiscussionId(@Param("discussionId") Long discussionId);
+
+    /**
+     * DiscussionStats (with their last comment info) of the discussions with an id in [fromId, toId].
+     * @return rows of [discussionId, DiscussionStat]
+     */
+    @Query("""
+            SELECT d.id, s FROM Discussion d JOIN d.stat s LEFT JOIN FETCH s.lastComment
+            WHERE d.id BETWEEN :fromId AND :toId
+            """)
+    List<Object[]> findByDiscussionIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ForumRepository extends JpaRepository<Forum, Long> {
@@ -37,4 +38,23 @@ public interface ForumRepository extends JpaRepository<Forum, Long> {
             ORDER BY (f.stat.discussionCount + f.stat.commentCount) DESC
             """)
     List<ForumActivityDTO> findTopForumActivity(Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * All forums with their stat and the stat's last comment/last discussion infos, in one select.
+     */
+    @Query("""
+            SELECT f FROM Forum f JOIN FETCH f.stat s
+                LEFT JOIN FETCH s.lastComment LEFT JOIN FETCH s.lastDiscussion
+            """)
+    List<Forum> findAllWithStat();
+
+    /**
+     * The given forums with their stat and the stat's last comment/last discussion infos, in one select.
+     */
+    @Query("""
+            SELECT f FROM Forum f JOIN FETCH f.stat s
+                LEFT JOIN FETCH s.lastComment LEFT JOIN FETCH s.lastDiscussion
+            WHERE f.id IN :forumIds
+            """)
+    List<Forum> findWithStatByIdIn(@Param("forumIds") Collection<Long> forumIds);
+}
@@ -0,0 +1,95 @@
+package com.github.chipolaris.bootforum2.repository;
+
+import com.github.chipolaris.bootforum2.domain.ForumStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ForumStatRepository extends JpaRepository<ForumStat, Long> {
+
+    /**
+     * Atomically adds the given deltas to the counters of the ForumStat of a given forum.
+     * The version is bumped so that concurrent entity-based updates detect the change.
+     *
+     * @param forumId The ID of the Forum whose ForumStat is to be updated.
+     * @param discussionCountToAdd The value to add to the discussion count.
+     * @param commentCountToAdd The value to add to the comment count.
+     * @return The number of entities updated (should be 1 if the forum exists).
+     */
+    @Modifying
+    @Query("""
+            UPDATE ForumStat fs SET fs.discussionCount = fs.discussionCount + :discussionCountToAdd,
+                fs.commentCount = fs.commentCount + :commentCountToAdd, fs.version = fs.version + 1
+            WHERE fs.id = (SELECT f.stat.id FROM Forum f WHERE f.id = :forumId)
+            """)
+    int addCountsByForumId(@Param("forumId") Long forumId,
+                           @Param("discussionCountToAdd") long discussionCountToAdd,
+                           @Param("commentCountToAdd") long commentCountToAdd);
+
+    /**
+     * Conditionally replaces the last comment info of a forum's ForumStat, only if the given comment
+     * is newer than the one currently recorded ("newer wins"). Concurrent writers therefore never
+     * need to read the current value first.
+     *
+     * @return The number of entities updated (0 if the recorded last comment is newer).
+     */
+    @Modifying
+    @Query("""
+            UPDATE CommentInfo ci SET ci.commentId = :commentId, ci.commentor = :commentor,
+                ci.commentDate = :commentDate, ci.title = :title, ci.contentAbbr = :contentAbbr,
+                ci.updateDate = CURRENT_TIMESTAMP
+            WHERE ci.id = (SELECT f.stat.lastComment.id FROM Forum f WHERE f.id = :forumId)
+                AND (ci.commentDate IS NULL OR ci.commentDate < :commentDate)
+            """)
+    int updateLastCommentIfNewer(@Param("forumId") Long forumId, @Param("commentId") Long commentId,
+                                 @Param("commentor") String commentor, @Param("commentDate") LocalDateTime commentDate,
+                                 @Param("title") String title, @Param("contentAbbr") String contentAbbr);
+
+    /**
+     * Conditionally replaces the last discussion info of a forum's ForumStat, only if the given
+     * discussion is newer than the one currently recorded ("newer wins").
+     *
+     * @return The number of entities updated (0 if the recorded last discussion is newer).
+     */
+    @Modifying
+    @Query("""
+            UPDATE DiscussionInfo di SET di.discussionId = :discussionId, di.discussionCreator = :discussionCreator,
+                di.discussionCreateDate = :discussionCreateDate, di.title = :title, di.contentAbbr = :contentAbbr,
+                di.updateDate = CURRENT_TIMESTAMP
+            WHERE di.id = (SELECT f.stat.lastDiscussion.id FROM Forum f WHERE f.id = :forumId)
+                AND (di.discussionCreateDate IS NULL OR di.discussionCreateDate < :discussionCreateDate)
+            """)
+    int updateLastDiscussionIfNewer(@Param("forumId") Long forumId, @Param("discussionId") Long discussionId,
+                                    @Param("discussionCreator") String discussionCreator,
+                                    @Param("discussionCreateDate") LocalDateTime discussionCreateDate,
+                                    @Param("title") String title, @Param("contentAbbr") String contentAbbr);
+
+    /**
+     * Discussion count kept in the ForumStat of a forum (maintained incrementally, may lag slightly).
+     */
+    @Query("SELECT f.stat.discussionCount FROM Forum f WHERE f.id = :forumId")
+    Optional<Long> findDiscussionCountByForumId(@Param("forumId") Long forumId);
+
+    /**
+     * Sum of the discussion counts of all ForumStats, i.e. the total number of discussions.
+     */
+    @Query("SELECT COALESCE(SUM(fs.discussionCount), 0) FROM ForumStat fs")
+    long sumDiscussionCount();
+
+    /**
+     * ForumStats (with their last comment/discussion infos) of the forums with an id in [fromId, toId].
+     * @return rows of [forumId, ForumStat]
+     */
+    @Query("""
+            SELECT f.id, s FROM Forum f JOIN f.stat s LEFT JOIN FETCH s.lastComment LEFT JOIN FETCH s.lastDiscussion
+            WHERE f.id BETWEEN :fromId AND :toId
+            """)
+    List<Object[]> findByForumIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
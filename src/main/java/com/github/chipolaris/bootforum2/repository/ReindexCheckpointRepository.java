@@ -0,0 +1,16 @@
+package com.github.chipolaris.bootforum2.repository;
+
+import com.github.chipolaris.bootforum2.domain.ReindexCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReindexCheckpointRepository extends JpaRepository<ReindexCheckpoint, Long> {
+
+    /**
+     * Checkpoint of the reindexing of an entity, empty if it was never reindexed.
+     */
+    Optional<ReindexCheckpoint> findByEntityName(String entityName);
+}
@@ -0,0 +1,29 @@
+package com.github.chipolaris.bootforum2.repository;
+
+import com.github.chipolaris.bootforum2.domain.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * Entries still denying tokens at the given time
+     */
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * Deletes the entries whose denied tokens are all expired at the given time
+     *
+     * @return the number of entries deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken rt WHERE rt.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,17 @@
+package com.github.chipolaris.bootforum2.repository;
+
+import com.github.chipolaris.bootforum2.domain.StatReconciliation;
+import com.github.chipolaris.bootforum2.enumeration.ReconciliationPhase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StatReconciliationRepository extends JpaRepository<StatReconciliation, Long> {
+
+    /**
+     * Checkpoint of a reconciliation phase, empty if the phase never ran.
+     */
+    Optional<StatReconciliation> findByPhase(ReconciliationPhase phase);
+}
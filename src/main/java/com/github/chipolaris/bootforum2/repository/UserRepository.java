@@ -20,6 +20,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
 
+    /**
+     * Account status and roles of a user, one row per role: [accountStatus, userRole] (userRole is null if the
+     * user has no role). Unlike findByUsername, the person, preferences and stat of the user are not loaded.
+     */
+    @Query("SELECT u.accountStatus, r FROM User u LEFT JOIN u.userRoles r WHERE u.username = :username")
+    List<Object[]> findAccountStatusAndRolesByUsername(@Param("username") String username);
+
     @Query("""
             SELECT new com.github.chipolaris.bootforum2.dto.RankedListItemDTO(u.id, u.username, u.person.email, COUNT(d.id))
             FROM User u JOIN Discussion d ON u.username = d.createBy
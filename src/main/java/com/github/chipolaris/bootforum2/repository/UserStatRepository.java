@@ -7,6 +7,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface UserStatRepository extends JpaRepository<UserStat, Long> {
 
@@ -42,4 +45,106 @@ public interface UserStatRepository extends JpaRepository<UserStat, Long> {
     @Modifying
     @Query("UPDATE UserStat us SET us.lastLogin = CURRENT_TIMESTAMP WHERE us.id = (SELECT u.stat.id FROM User u WHERE u.username = :username)")
     int updateLastLoginToNowByUsername(@Param("username") String username);
-}
\ No newline at end of file
+
+    /**
+     * Updates the lastLogin timestamp of a user's UserStat, unless a later login is already recorded.
+     *
+     * @param username The username of the User whose UserStat is to be updated.
+     * @param lastLogin The login time to record.
+     * @return The number of entities updated (0 if no matching user or a later login is recorded).
+     */
+    @Modifying
+    @Query("""
+            UPDATE UserStat us SET us.lastLogin = :lastLogin
+            WHERE us.id = (SELECT u.stat.id FROM User u WHERE u.username = :username)
+                AND (us.lastLogin IS NULL OR us.lastLogin < :lastLogin)
+            """)
+    int updateLastLoginIfNewerByUsername(@Param("username") String username,
+                                         @Param("lastLogin") LocalDateTime lastLogin);
+
+    /**
+     * Atomically adds the given deltas to the content counters of a UserStat entity associated with a specific username.
+     * The version is bumped so that concurrent entity-based updates detect the change.
+     *
+     * @param username The username of the User whose UserStat is to be updated.
+     * @return The number of entities updated (should be 1 if a matching user is found).
+     */
+    @Modifying
+    @Query("""
+            UPDATE UserStat us SET us.discussionCount = us.discussionCount + :discussionCountToAdd,
+                us.commentCount = us.commentCount + :commentCountToAdd,
+                us.imageCount = us.imageCount + :imageCountToAdd,
+                us.attachmentCount = us.attachmentCount + :attachmentCountToAdd, us.version = us.version + 1
+            WHERE us.id = (SELECT u.stat.id FROM User u WHERE u.username = :username)
+            """)
+    int addCountsByUsername(@Param("username") String username,
+                            @Param("discussionCountToAdd") long discussionCountToAdd,
+                            @Param("commentCountToAdd") long commentCountToAdd,
+                            @Param("imageCountToAdd") long imageCountToAdd,
+                            @Param("attachmentCountToAdd") long attachmentCountToAdd);
+
+    /**
+     * Conditionally replaces the last comment info of a user's UserStat, only if the given comment
+     * is newer than the one currently recorded ("newer wins").
+     *
+     * @return The number of entities updated (0 if the recorded last comment is newer).
+     */
+    @Modifying
+    @Query("""
+            UPDATE CommentInfo ci SET ci.commentId = :commentId, ci.commentor = :commentor,
+                ci.commentDate = :commentDate, ci.title = :title, ci.contentAbbr = :contentAbbr,
+                ci.updateDate = CURRENT_TIMESTAMP
+            WHERE ci.id = (SELECT u.stat.lastComment.id FROM User u WHERE u.username = :username)
+                AND (ci.commentDate IS NULL OR ci.commentDate < :commentDate)
+            """)
+    int updateLastCommentIfNewerByUsername(@Param("username") String username, @Param("commentId") Long commentId,
+                                           @Param("commentor") String commentor,
+                                           @Param("commentDate") LocalDateTime commentDate,
+                                           @Param("title") String title, @Param("contentAbbr") String contentAbbr);
+
+    /**
+     * Conditionally replaces the last discussion info of a user's UserStat, only if the given
+     * discussion is newer than the one currently recorded ("newer wins").
+     *
+     * @return The number of entities updated (0 if the recorded last discussion is newer).
+     */
+    @Modifying
+    @Query("""
+            UPDATE DiscussionInfo di SET di.discussionId = :discussionId, di.discussionCreator = :discussionCreator,
+                di.discussionCreateDate = :discussionCreateDate, di.title = :title, di.contentAbbr = :contentAbbr,
+                di.updateDate = CURRENT_TIMESTAMP
+            WHERE di.id = (SELECT u.stat.lastDiscussion.id FROM User u WHERE u.username = :username)
+                AND (di.discussionCreateDate IS NULL OR di.discussionCreateDate < :discussionCreateDate)
+            """)
+    int updateLastDiscussionIfNewerByUsername(@Param("username") String username,
+                                              @Param("discussionId") Long discussionId,
+                                              @Param("discussionCreator") String discussionCreator,
+                                              @Param("discussionCreateDate") LocalDateTime discussionCreateDate,
+                                              @Param("title") String title, @Param("contentAbbr") String contentAbbr);
+
+    /**
+     * Content counters of the UserStats of the users with an id in [fromId, toId].
+     * @return rows of [userId, userStatId, discussionCount, commentCount, version]
+     */
+    @Query("""
+            SELECT u.id, s.id, s.discussionCount, s.commentCount, s.version
+            FROM User u JOIN u.stat s WHERE u.id BETWEEN :fromId AND :toId
+            """)
+    List<Object[]> findCountsByUserIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Sets the discussion and comment counts of a UserStat, provided it is still at the given version.
+     * Only these columns are written, so the other counters (reputation, profile views, last login)
+     * updated concurrently are kept. The version is bumped like the other content counter updates.
+     *
+     * @return The number of entities updated (0 if the UserStat changed since the version was read).
+     */
+    @Modifying
+    @Query("""
+            UPDATE UserStat us SET us.discussionCount = :discussionCount, us.commentCount = :commentCount,
+                us.version = us.version + 1
+            WHERE us.id = :userStatId AND us.version = :version
+            """)
+    int setCountsIfVersion(@Param("userStatId") Long userStatId, @Param("version") Integer version,
+                           @Param("discussionCount") long discussionCount, @Param("commentCount") long commentCount);
+}
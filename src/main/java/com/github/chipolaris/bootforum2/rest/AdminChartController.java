@@ -7,11 +7,14 @@ import com.github.chipolaris.bootforum2.service.AdminChartService;
 import com.github.chipolaris.bootforum2.service.ServiceResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/admin")
 public class AdminChartController {
@@ -46,10 +49,12 @@ public class AdminChartController {
     @GetMapping("/charts/top-terms")
     public ApiResponse<?> getTopTermsChartData(
             @RequestParam(defaultValue = "25") int limit,
-            @RequestParam(defaultValue = "all") String period) {
-        logger.info("Getting top terms chart data with limit {} and period {}", limit, period);
+            @RequestParam(defaultValue = "all") String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("Getting top terms chart data with limit {} and period {} ({} - {})", limit, period, from, to);
         try {
-            ServiceResponse<ChartDataDTO> response = adminChartService.getTopTermsChartData(limit, period);
+            ServiceResponse<ChartDataDTO> response = adminChartService.getTopTermsChartData(limit, period, from, to);
 
             if(response.isSuccess()) {
                 return ApiResponse.success(response.getDataObject());
@@ -3,9 +3,15 @@ package com.github.chipolaris.bootforum2.rest;
 import com.github.chipolaris.bootforum2.dto.ApiResponse;
 import com.github.chipolaris.bootforum2.dto.admin.DiscussionSimulationConfigDTO;
 import com.github.chipolaris.bootforum2.service.DataSimulationService;
+import com.github.chipolaris.bootforum2.dto.admin.ReindexProgressDTO;
+import com.github.chipolaris.bootforum2.dto.admin.StatReconciliationProgressDTO;
 import com.github.chipolaris.bootforum2.service.IndexingService;
+import com.github.chipolaris.bootforum2.service.ServiceResponse;
+import com.github.chipolaris.bootforum2.service.StatReconciliationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -22,11 +28,14 @@ public class AdminController {
 
     private final IndexingService indexingService;
     private final DataSimulationService dataSimulationService;
+    private final StatReconciliationService statReconciliationService;
 
     public AdminController(IndexingService indexingService,
-                           DataSimulationService dataSimulationService) {
+                           DataSimulationService dataSimulationService,
+                           StatReconciliationService statReconciliationService) {
         this.indexingService = indexingService;
         this.dataSimulationService = dataSimulationService;
+        this.statReconciliationService = statReconciliationService;
     }
 
     /**
@@ -45,7 +54,12 @@ public class AdminController {
             return ApiResponse.error("User count must be between 1 and 5,000.");
         }
 
-        dataSimulationService.generateSimulatedUsers(count);
+        try {
+            dataSimulationService.generateSimulatedUsers(count);
+        } catch (TaskRejectedException e) {
+            logger.warn("Rejected user simulation request, executor is busy");
+            return ApiResponse.error("Too many simulations are already queued. Please try again later.");
+        }
 
         String message = String.format("%d simulated users are being generated in the background. " +
                 "This may take a few moments. Check server logs for progress.", count);
@@ -64,7 +78,12 @@ public class AdminController {
         logger.info("Admin request received to generate simulated discussion with config: {}", config);
 
         // Call the async service method. This call returns immediately.
-        dataSimulationService.generateSimulatedDiscussions(config);
+        try {
+            dataSimulationService.generateSimulatedDiscussions(config);
+        } catch (TaskRejectedException e) {
+            logger.warn("Rejected discussion simulation request, executor is busy");
+            return ApiResponse.error("Too many simulations are already queued. Please try again later.");
+        }
 
         String message = "Simulated data generation has been started in the background. " +
                 "This may take several minutes. Check server logs for progress and completion status.";
@@ -81,7 +100,12 @@ public class AdminController {
     public ApiResponse<?> triggerVoteSimulation() {
         logger.info("Admin request received to generate simulated votes");
 
-        dataSimulationService.generateSimulatedVotes();
+        try {
+            dataSimulationService.generateSimulatedVotes();
+        } catch (TaskRejectedException e) {
+            logger.warn("Rejected vote simulation request, executor is busy");
+            return ApiResponse.error("Too many simulations are already queued. Please try again later.");
+        }
 
         String message = "Simulated vote generation has been started in the background. " +
                 "This may take a few moments. Check server logs for progress.";
@@ -92,24 +116,102 @@ public class AdminController {
      * Endpoint to trigger a full re-index of the database.
      * This is a long-running process that will execute in the background.
      *
-     * @param target The target to re-index. Can be "all", "Discussion", or "Comment".
+     * @param target The target to re-index. Can be "all", "Forum", "Discussion", or "Comment".
+     * @param resume true to continue the last run from its checkpoints, false to start over
      * @return An ApiResponse confirming that the process has started.
      */
     @PostMapping("/indexing/reindex")
-    public ApiResponse<?> triggerReindex(@RequestParam(defaultValue = "all") String target) {
+    public ApiResponse<?> triggerReindex(@RequestParam(defaultValue = "all") String target,
+                                         @RequestParam(defaultValue = "false") boolean resume) {
 
-        logger.info("Admin request received to re-index target: '{}'", target);
+        logger.info("Admin request received to re-index target: '{}' (resume: {})", target, resume);
 
         // Basic validation for user feedback
-        List<String> validTargets = List.of("all", "discussion", "comment");
+        List<String> validTargets = List.of("all", "forum", "discussion", "comment");
         if (!validTargets.contains(target.toLowerCase())) {
             return ApiResponse.error("Invalid target specified. Valid targets are: " + validTargets);
         }
 
-        // Call the async service method. This call returns immediately.
-        indexingService.reindex(target);
+        // The re-indexing runs in the background, this call returns immediately.
+        ServiceResponse<Void> serviceResponse = indexingService.reindex(target, resume);
+        if (serviceResponse.isFailure()) {
+            return ApiResponse.error(serviceResponse.getMessages(), "Re-indexing could not be started");
+        }
 
-        String message = String.format("Re-indexing process for target '%s' has been started in the background. Check server logs for progress and completion status.", target);
+        String message = String.format("Re-indexing process for target '%s' has been started in the background. " +
+                "Check /api/admin/indexing/reindex for progress.", target);
         return ApiResponse.success(message);
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint to cancel a running re-index. It can be resumed later.
+     */
+    @PostMapping("/indexing/reindex/cancel")
+    public ApiResponse<?> cancelReindex() {
+
+        ServiceResponse<Void> serviceResponse = indexingService.cancel();
+        if (serviceResponse.isFailure()) {
+            return ApiResponse.error(serviceResponse.getMessages(), "Re-indexing could not be cancelled");
+        }
+
+        return ApiResponse.success("Re-indexing is being cancelled.");
+    }
+
+    /**
+     * Endpoint to get the progress of the current (or last) re-index, per entity:
+     * documents indexed, indexing rate and estimated time left.
+     */
+    @GetMapping("/indexing/reindex")
+    public ApiResponse<?> getReindexProgress() {
+
+        ServiceResponse<List<ReindexProgressDTO>> serviceResponse = indexingService.getProgress();
+
+        return ApiResponse.success(serviceResponse.getDataObject(), "Re-indexing progress retrieved");
+    }
+
+    /**
+     * Endpoint to trigger a reconciliation of the discussion, forum and user stats, i.e. recompute them
+     * from the discussions and comments. This is a long-running process that will execute in the background.
+     *
+     * @param resume true to continue the last run from its checkpoints, false to start over
+     * @return An ApiResponse confirming that the process has started.
+     */
+    @PostMapping("/stats/reconcile")
+    public ApiResponse<?> triggerStatReconciliation(@RequestParam(defaultValue = "false") boolean resume) {
+
+        logger.info("Admin request received to reconcile stats (resume: {})", resume);
+
+        ServiceResponse<Void> serviceResponse = statReconciliationService.start(resume);
+        if (serviceResponse.isFailure()) {
+            return ApiResponse.error(serviceResponse.getMessages(), "Stat reconciliation could not be started");
+        }
+
+        return ApiResponse.success("Stat reconciliation has been started in the background. " +
+                "Check /api/admin/stats/reconcile for progress.");
+    }
+
+    /**
+     * Endpoint to cancel a running stat reconciliation. It can be resumed later.
+     */
+    @PostMapping("/stats/reconcile/cancel")
+    public ApiResponse<?> cancelStatReconciliation() {
+
+        ServiceResponse<Void> serviceResponse = statReconciliationService.cancel();
+        if (serviceResponse.isFailure()) {
+            return ApiResponse.error(serviceResponse.getMessages(), "Stat reconciliation could not be cancelled");
+        }
+
+        return ApiResponse.success("Stat reconciliation is being cancelled.");
+    }
+
+    /**
+     * Endpoint to get the progress of the current (or last) stat reconciliation, per phase.
+     */
+    @GetMapping("/stats/reconcile")
+    public ApiResponse<?> getStatReconciliationProgress() {
+
+        ServiceResponse<List<StatReconciliationProgressDTO>> serviceResponse = statReconciliationService.getProgress();
+
+        return ApiResponse.success(serviceResponse.getDataObject(), "Stat reconciliation progress retrieved");
+    }
+}
@@ -1,66 +1,130 @@
 package com.github.chipolaris.bootforum2.rest;
 
+import com.github.chipolaris.bootforum2.dto.ApiResponse;
 import com.github.chipolaris.bootforum2.dto.JwtAuthenticationResponse;
 import com.github.chipolaris.bootforum2.dto.LoginRequest;
 import com.github.chipolaris.bootforum2.event.UserLoginSuccessEvent; // Import the new event
+import com.github.chipolaris.bootforum2.enumeration.RevocationReason;
 import com.github.chipolaris.bootforum2.security.JwtTokenProvider;
+import com.github.chipolaris.bootforum2.security.LoginRateLimiter;
+import com.github.chipolaris.bootforum2.security.PasswordVerifier;
+import com.github.chipolaris.bootforum2.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher; // Import ApplicationEventPublisher
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api")
 public class AuthController {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
-    private final AuthenticationManager authenticationManager;
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final PasswordVerifier passwordVerifier;
+    private final LoginRateLimiter loginRateLimiter;
     private final JwtTokenProvider tokenProvider;
     private final ApplicationEventPublisher eventPublisher; // Inject ApplicationEventPublisher
+    private final TokenRevocationService tokenRevocationService;
 
-    public AuthController(AuthenticationManager authenticationManager,
+    public AuthController(PasswordVerifier passwordVerifier,
+                          LoginRateLimiter loginRateLimiter,
                           JwtTokenProvider tokenProvider,
-                          ApplicationEventPublisher eventPublisher) { // Add to constructor
-        this.authenticationManager = authenticationManager;
+                          ApplicationEventPublisher eventPublisher, // Add to constructor
+                          TokenRevocationService tokenRevocationService) {
+        this.passwordVerifier = passwordVerifier;
+        this.loginRateLimiter = loginRateLimiter;
         this.tokenProvider = tokenProvider;
         this.eventPublisher = eventPublisher; // Initialize
+        this.tokenRevocationService = tokenRevocationService;
     }
 
+    /**
+     * Verifies the credentials asynchronously (see PasswordVerifier): the request thread is released
+     * while the password is hashed. Attempts over the rate limit (see LoginRateLimiter) are answered
+     * with 429, attempts over the verification capacity with 503, both with a Retry-After header.
+     */
     @PostMapping("/authenticate")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                                 HttpServletRequest request) {
 
         logger.info(String.format("Authentication attempt for user: %s", loginRequest.username()));
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.username(),
-                        loginRequest.password()
-                )
-        );
+        if (!loginRateLimiter.tryAcquire(request.getRemoteAddr(), loginRequest.username())) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(ApiResponse.error("Too many login attempts, please try again later.")));
+        }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return passwordVerifier.authenticate(loginRequest.username(), loginRequest.password())
+                .<ResponseEntity<?>>thenApply(authentication -> {
 
-        String jwt = tokenProvider.generateToken(authentication);
+                    String jwt = tokenProvider.generateToken(authentication);
 
-        // Publish the login success event
-        try {
-            eventPublisher.publishEvent(new UserLoginSuccessEvent(this, loginRequest.username()));
-            logger.info(String.format("UserLoginSuccessEvent published for user: %s", loginRequest.username()));
-        } catch (Exception e) {
-            // Log the exception, but don't let it fail the login process
-            logger.error(String.format("Error publishing UserLoginSuccessEvent for user %s: ", loginRequest.username()), e);
-        }
+                    // Publish the login success event
+                    try {
+                        eventPublisher.publishEvent(new UserLoginSuccessEvent(this, loginRequest.username()));
+                        logger.info(String.format("UserLoginSuccessEvent published for user: %s", loginRequest.username()));
+                    } catch (Exception e) {
+                        // Log the exception, but don't let it fail the login process
+                        logger.error(String.format("Error publishing UserLoginSuccessEvent for user %s: ", loginRequest.username()), e);
+                    }
+
+                    return ResponseEntity.ok(new JwtAuthenticationResponse(jwt));
+                })
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
 
-        return ResponseEntity.ok(new JwtAuthenticationResponse(jwt));
+                    if (cause instanceof AuthenticationException) {
+                        logger.info(String.format("Authentication failed for user: %s", loginRequest.username()));
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(ApiResponse.error("Invalid username or password."));
+                    }
+                    if (cause instanceof TaskRejectedException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                                .body(ApiResponse.error("Too many logins in progress, please try again later."));
+                    }
+                    logger.error(String.format("Error authenticating user %s: ", loginRequest.username()), cause);
+                    return ResponseEntity.internalServerError().body(ApiResponse.error("Error logging in."));
+                });
+    }
+
+    /**
+     * Revokes the token of the request, so that it can't be used anymore even if it leaked.
+     * Succeeds for a missing, invalid or expired token too: there is nothing to revoke then.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            Claims claims = tokenProvider.parseClaims(authorization.substring(7));
+            if (claims != null && claims.getId() != null) {
+                try {
+                    tokenRevocationService.revokeToken(claims.getId(), claims.getSubject(),
+                            claims.getExpiration(), RevocationReason.LOGOUT);
+                } catch (Exception e) {
+                    logger.error(String.format("Error revoking the token of user %s: ", claims.getSubject()), e);
+                    return ResponseEntity.internalServerError().body(ApiResponse.error("Error logging out."));
+                }
+            }
+        }
+        return ResponseEntity.ok(ApiResponse.success("Logged out successfully."));
     }
-}
\ No newline at end of file
+}
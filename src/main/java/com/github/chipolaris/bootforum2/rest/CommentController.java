@@ -68,22 +68,34 @@ public class CommentController {
     /**
      * Retrieves a paginated list of comments for a specific discussion.
      *
+     * Without a cursor parameter, pages are addressed by page number (offset paging, with a total count).
+     * With a cursor parameter (empty for the first page), keyset paging is used: each page returns the
+     * cursor of the next one and the total is only included when includeTotal is true.
+     * Totals come from the discussion statistics (reported with totalExact=false) unless exactTotal is true.
+     *
      * @param discussionId The ID of the discussion whose comments are to be retrieved.
+     * @param cursor       Keyset paging cursor returned with the previous page (optional).
+     * @param includeTotal In keyset paging, whether to include the total number of comments.
+     * @param exactTotal   Whether to count the total instead of using the discussion statistics.
      * @param pageable     Spring Data Pageable object for pagination and sorting.
      *                     Defaults: size=10, sort='createDate' ASC.
-     * @return ApiResponse containing a PageResponseDTO of CommentDTOs or error details.
+     * @return ApiResponse containing a PageResponseDTO (or CursorPageDTO) of CommentDTOs or error details.
      */
     @GetMapping("/public/comments/by-discussion/{discussionId}")
     public ApiResponse<?> listCommentsByDiscussion(
             @PathVariable Long discussionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "false") boolean exactTotal,
             @PageableDefault(size = 10, sort = "createDate", direction = Sort.Direction.ASC) Pageable pageable) {
 
         logger.info("Received request to list comments for discussion ID: {}. Pageable: {}", discussionId, pageable);
 
         // @PathVariable ensures discussionId is not null if path is matched
         try {
-            ServiceResponse<PageResponseDTO<CommentDTO>> serviceResponse =
-                    commentService.findPaginatedComments(discussionId, pageable);
+            ServiceResponse<?> serviceResponse = cursor != null
+                    ? commentService.findCommentsAfter(discussionId, cursor, pageable, includeTotal, exactTotal)
+                    : commentService.findPaginatedComments(discussionId, pageable, exactTotal);
 
             if (serviceResponse.isSuccess()) {
                 return ApiResponse.success(serviceResponse.getDataObject(), "Comments retrieved successfully.");
@@ -3,6 +3,7 @@ package com.github.chipolaris.bootforum2.rest;
 import com.github.chipolaris.bootforum2.dto.*;
 import com.github.chipolaris.bootforum2.service.DiscussionService;
 import com.github.chipolaris.bootforum2.service.ServiceResponse;
+import com.github.chipolaris.bootforum2.service.SimilarDiscussionService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,9 +23,12 @@ public class DiscussionController {
     private static final Logger logger = LoggerFactory.getLogger(DiscussionController.class);
 
     private final DiscussionService discussionService;
+    private final SimilarDiscussionService similarDiscussionService;
 
-    public DiscussionController(DiscussionService discussionService) {
+    public DiscussionController(DiscussionService discussionService,
+                                SimilarDiscussionService similarDiscussionService) {
         this.discussionService = discussionService;
+        this.similarDiscussionService = similarDiscussionService;
     }
 
     /**
@@ -65,23 +69,47 @@ public class DiscussionController {
         }
     }
 
+    /**
+     * Lists discussion summaries, for a forum or for all forums.
+     *
+     * Without a cursor parameter, pages are addressed by page number (offset paging, with a total count).
+     * With a cursor parameter (empty for the first page), keyset paging is used: each page returns the
+     * cursor of the next one, deep pages cost the same as the first one, and the total is only included
+     * when includeTotal is true.
+     *
+     * Totals come from the forum statistics (reported with totalExact=false) unless exactTotal is true.
+     */
     @GetMapping("/public/discussions/list")
     public ApiResponse<?> listDiscussions(
             @RequestParam(required = false) Long forumId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "false") boolean exactTotal,
             @PageableDefault(size = 10, sort = "createDate", direction = Sort.Direction.DESC) Pageable pageable) {
 
         logger.info("Received request to list discussions. ForumId: {}, Pageable: {}",
                 forumId == null ? "all" : forumId, pageable);
 
         try {
+            if (cursor != null) {
+                ServiceResponse<CursorPageDTO<DiscussionSummaryDTO>> cursorResponse =
+                        discussionService.findDiscussionSummariesAfter(forumId, cursor, pageable, includeTotal, exactTotal);
+
+                if (cursorResponse.isSuccess()) {
+                    return ApiResponse.success(cursorResponse.getDataObject(), "Discussions retrieved successfully.");
+                } else {
+                    return ApiResponse.error(cursorResponse.getMessages(), "Failed to retrieve discussions.");
+                }
+            }
+
             ServiceResponse<PageResponseDTO<DiscussionSummaryDTO>> serviceResponse;
 
             if (forumId != null) {
                 // If forumId is provided, get discussions for that specific forum
-                serviceResponse = discussionService.findPaginatedDiscussionSummariesForForum(forumId, pageable);
+                serviceResponse = discussionService.findPaginatedDiscussionSummariesForForum(forumId, pageable, exactTotal);
             } else {
                 // Otherwise, get all discussions
-                serviceResponse = discussionService.findPaginatedDiscussionSummaries(pageable);
+                serviceResponse = discussionService.findPaginatedDiscussionSummaries(pageable, exactTotal);
             }
 
             if (serviceResponse.isSuccess()) {
@@ -98,19 +126,21 @@ public class DiscussionController {
     /**
      * Lists discussions filtered by a list of tag IDs.
      * @param tagIds A list of tag IDs to filter discussions by.
+     * @param exactTotal Whether to count the total instead of using a cached count.
      * @param pageable Pageable object, defaults to sorting by createDate descending.
      * @return ApiResponse containing a paginated list of discussion summaries.
      */
     @GetMapping("/public/discussions/by-tags")
     public ApiResponse<?> listDiscussionsByTags(
             @RequestParam List<Long> tagIds,
+            @RequestParam(defaultValue = "false") boolean exactTotal,
             @PageableDefault(size = 25, sort = "createDate", direction = Sort.Direction.DESC) Pageable pageable) {
 
         logger.info("Received request to list discussions by tags. TagIds: {}, Pageable: {}", tagIds, pageable);
 
         try {
             ServiceResponse<PageResponseDTO<DiscussionSummaryDTO>> serviceResponse =
-                    discussionService.findPaginatedDiscussionSummariesForTags(tagIds, pageable);
+                    discussionService.findPaginatedDiscussionSummariesForTags(tagIds, pageable, exactTotal);
 
             if (serviceResponse.isSuccess()) {
                 return ApiResponse.success(serviceResponse.getDataObject(), "Discussions for tags retrieved successfully.");
@@ -164,7 +194,7 @@ public class DiscussionController {
         logger.info("Received request to get similar discussions for ID: {}", discussionId);
 
         try {
-            ServiceResponse<List<DiscussionSummaryDTO>> response = discussionService.findSimilarDiscussions(discussionId, 10);
+            ServiceResponse<List<DiscussionSummaryDTO>> response = similarDiscussionService.findSimilarDiscussions(discussionId, 10);
 
             if (response.isSuccess()) {
                 return ApiResponse.success(response.getDataObject(), "Similar discussions retrieved successfully.");
@@ -230,12 +260,14 @@ public class DiscussionController {
      *
      * @param keyword  The keyword to search for in discussion titles and content.
      * @param pageable Spring Data Pageable object for pagination. Note: Sorting is handled by relevance in the service.
+     * @param searchToken Optional X-Search-Token header value of a previous write: the results include that write.
      * @return ApiResponse containing a PageResponseDTO of matching DiscussionInfoDTOs.
      */
     @GetMapping("/public/discussions/search")
     public ApiResponse<?> searchDiscussions(
             @RequestParam("keyword") String keyword,
-            @PageableDefault(size = 10) Pageable pageable) {
+            @PageableDefault(size = 10) Pageable pageable,
+            @RequestParam(value = "searchToken", required = false) Long searchToken) {
 
         logger.info("Received request to search discussions with keyword: '{}'", keyword);
 
@@ -245,7 +277,7 @@ public class DiscussionController {
 
         try {
             ServiceResponse<PageResponseDTO<DiscussionInfoDTO>> serviceResponse =
-                    discussionService.searchDiscussions(keyword, pageable);
+                    discussionService.searchDiscussions(keyword, pageable, searchToken);
 
             if (serviceResponse.isSuccess()) {
                 return ApiResponse.success(serviceResponse.getDataObject(), "Search completed successfully.");
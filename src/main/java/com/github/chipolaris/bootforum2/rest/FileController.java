@@ -6,8 +6,14 @@ import com.github.chipolaris.bootforum2.service.ServiceResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,22 +22,46 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Serves uploaded files. A file id always denotes the same content (a new upload gets a new FileInfo), so
+ * responses are cacheable by id:
+ * - the ETag is the SHA-256 of the content recorded at upload; files stored before the hash was recorded
+ *   get a weak ETag from their size and modification time, and are revalidated instead of cached for good;
+ * - If-None-Match / If-Modified-Since are answered with 304, a single byte range with 206 (If-Range is
+ *   honoured), an unsatisfiable one with 416. Multiple ranges are ignored, the whole file is sent;
+ * - when the container supports it (Tomcat's NIO connector: "org.apache.tomcat.sendfile.support"), files of
+ *   at least sendfile-min-size bytes are handed over to the container, which sends them with
+ *   FileChannel.transferTo instead of copying them through the JVM heap.
+ */
 @Controller
 @RequestMapping("/api/public/files")
 public class FileController {
 
     private static final Logger logger = LoggerFactory.getLogger(FileController.class);
 
+    // request attributes of Tomcat's sendfile support (see org.apache.catalina.Globals)
+    static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     private final FileService fileService;
+    private final long sendfileMinSize;
 
-    public FileController(FileService fileService) {
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public FileController(FileService fileService,
+                          @Value("${app.files.sendfile-min-size:49152}") long sendfileMinSize) {
         this.fileService = fileService;
+        this.sendfileMinSize = sendfileMinSize;
     }
 
     @GetMapping("/{fileId}")
-    public ResponseEntity<Resource> serveFile(@PathVariable Long fileId) {
+    public ResponseEntity<?> serveFile(@PathVariable Long fileId, HttpServletRequest request) {
         logger.debug("Received request to serve file with ID: {}", fileId);
 
         ServiceResponse<FileResourceDTO> serviceResponse =
@@ -49,13 +79,33 @@ public class FileController {
         FileResourceDTO fileResourceDTO = serviceResponse.getDataObject();
         Resource resource = fileResourceDTO.resource();
 
-        long contentLength = 0;
+        long contentLength;
+        long lastModified;
         try {
             contentLength = resource.contentLength();
+            lastModified = resource.lastModified();
         } catch (IOException e) {
+            logger.error("Error reading attributes of file with ID {}", fileId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
 
+        String contentHash = fileResourceDTO.contentHash();
+        String eTag = contentHash != null ? "\"" + contentHash + "\""
+                : "W/\"" + fileId + "-" + contentLength + "-" + lastModified + "\"";
+
+        HttpHeaders validatorHeaders = new HttpHeaders();
+        validatorHeaders.setETag(eTag);
+        validatorHeaders.setLastModified(lastModified);
+        validatorHeaders.setCacheControl(contentHash != null
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic());
+
+        // conditional GET first: a 304 must not carry the file, so no sendfile attributes may be set before
+        if (isNotModified(request, eTag, lastModified)) {
+            logger.debug("File with ID {} not modified", fileId);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(validatorHeaders).build();
+        }
+
         String originalFilename = fileResourceDTO.originalFilename();
 
         String mimeType = fileResourceDTO.mimeType();
@@ -65,12 +115,150 @@ public class FileController {
             mimeType = "application/octet-stream";
         }
 
-        logger.info("Serving file '{}' with content type '{}'", originalFilename, mimeType);
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(validatorHeaders);
+        headers.setContentType(MediaType.parseMediaType(mimeType));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + originalFilename + "\"");
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        HttpRange range = null;
+        if (request.getHeader(HttpHeaders.RANGE) != null && isIfRangeSatisfied(request, eTag, lastModified)) {
+            range = parseSingleRange(request.getHeader(HttpHeaders.RANGE));
+        }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(mimeType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + originalFilename + "\"")
-                .contentLength(contentLength)
-                .body(resource);
+        long start = 0;
+        long end = contentLength - 1;
+        if (range != null) {
+            try {
+                start = range.getRangeStart(contentLength);
+                end = range.getRangeEnd(contentLength);
+                if (end < start) { // suffix range of an empty file
+                    throw new IllegalArgumentException("Empty range");
+                }
+            } catch (IllegalArgumentException e) {
+                logger.debug("Unsatisfiable range {} for file with ID {} of {} bytes",
+                        request.getHeader(HttpHeaders.RANGE), fileId, contentLength);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .headers(validatorHeaders)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength)
+                        .build();
+            }
+        }
+        long length = end - start + 1;
+        HttpStatus status = range != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK;
+
+        logger.info("Serving file '{}' with content type '{}' ({} bytes from {})", originalFilename, mimeType, length, start);
+
+        File file = sendfileCandidate(request, resource, length);
+        if (file != null) {
+            // no body: the container sends [start, end + 1) of the file after the headers
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.getAbsolutePath());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+
+            headers.setContentLength(length);
+            if (range != null) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength);
+            }
+            return ResponseEntity.status(status).headers(headers).build();
+        }
+
+        if (range != null) {
+            // ResourceRegionHttpMessageConverter sets Content-Range and Content-Length
+            return ResponseEntity.status(status).headers(headers).body(new ResourceRegion(resource, start, length));
+        }
+
+        try {
+            // Spring would apply the Range header to any other Resource body, even one ignored above
+            // (multiple ranges, stale If-Range): InputStreamResource is exempt from that
+            headers.setContentLength(contentLength);
+            return ResponseEntity.status(status).headers(headers).body(new InputStreamResource(resource.getInputStream()));
+        } catch (IOException e) {
+            logger.error("Error opening file with ID {}", fileId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * @return the file to hand over to the container, null to stream the resource instead
+     */
+    private File sendfileCandidate(HttpServletRequest request, Resource resource, long length) {
+
+        if (length < sendfileMinSize || HttpMethod.HEAD.matches(request.getMethod())
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR)) || !resource.isFile()) {
+            return null;
+        }
+        try {
+            return resource.getFile();
+        } catch (IOException e) {
+            logger.debug("Resource {} is not accessible as a file, streaming it", resource, e);
+            return null;
+        }
+    }
+
+    /**
+     * If-None-Match takes precedence over If-Modified-Since (RFC 9110, 13.1.3); If-None-Match uses the
+     * weak comparison.
+     */
+    static boolean isNotModified(HttpServletRequest request, String eTag, long lastModified) {
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String opaqueTag = stripWeakPrefix(eTag);
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*") || stripWeakPrefix(tag).equals(opaqueTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince = parseDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        // HTTP dates have a precision of seconds
+        return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * A Range header applies unless If-Range names another version: an entity tag (strong comparison, a weak
+     * ETag never matches) or a date, which has to be the Last-Modified date.
+     */
+    static boolean isIfRangeSatisfied(HttpServletRequest request, String eTag, long lastModified) {
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return !eTag.startsWith("W/") && ifRange.equals(eTag);
+        }
+        long date = parseDateHeader(request, HttpHeaders.IF_RANGE);
+        return date != -1 && date / 1000 == lastModified / 1000;
+    }
+
+    /**
+     * @return the range of a single range Range header, null (serve the whole file) for a malformed header
+     * or multiple ranges
+     */
+    static HttpRange parseSingleRange(String rangeHeader) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String stripWeakPrefix(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long parseDateHeader(HttpServletRequest request, String headerName) {
+        try {
+            return request.getDateHeader(headerName);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
     }
 }
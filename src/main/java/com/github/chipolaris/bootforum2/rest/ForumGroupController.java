@@ -7,7 +7,10 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Objects;
@@ -117,21 +120,33 @@ public class ForumGroupController {
         }
     }
 
+    /**
+     * Retrieve the forum tree table (home page). The tree is served from an in-memory snapshot
+     * whose version is sent as ETag: a request with a matching If-None-Match header gets
+     * 304 Not Modified without a body.
+     */
     @GetMapping("/public/forum-tree-table") // Path for retrieving all forums and forum groups
-    public ApiResponse<?> getForumTreeTable() {
+    public ResponseEntity<?> getForumTreeTable(WebRequest webRequest) {
         try {
-            ServiceResponse<ForumTreeTableDTO> serviceResponse = forumGroupService.getForumTreeTable();
+            ServiceResponse<ForumGroupService.ForumTreeSnapshot> serviceResponse = forumGroupService.getForumTreeSnapshot();
 
             if(serviceResponse.getAckCode() == ServiceResponse.AckCodeType.FAILURE) {
-                return ApiResponse.error("Error retrieving forum tree table");
+                return ResponseEntity.ok(ApiResponse.error("Error retrieving forum tree table"));
             }
-            else {
-                return ApiResponse.success(serviceResponse.getDataObject(), "Forum tree table retrieved successfully");
+
+            ForumGroupService.ForumTreeSnapshot snapshot = serviceResponse.getDataObject();
+            if(webRequest.checkNotModified(snapshot.etag())) {
+                // the ETag and 304 status are already set on the response
+                return null;
             }
 
+            // clients may keep the tree but must revalidate it, since stats change continuously
+            return ResponseEntity.ok().eTag(snapshot.etag()).cacheControl(CacheControl.noCache())
+                    .body(ApiResponse.success(snapshot.forumTreeTable(), "Forum tree table retrieved successfully"));
+
         } catch (Exception e) {
             logger.error("Error retrieving forum tree table", e);
-            return ApiResponse.error("An unexpected error occurred while retrieving forum tree table: " + e.getMessage());
+            return ResponseEntity.ok(ApiResponse.error("An unexpected error occurred while retrieving forum tree table: " + e.getMessage()));
         }
     }
 }
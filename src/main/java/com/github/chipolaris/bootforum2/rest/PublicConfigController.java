@@ -18,6 +18,15 @@ public class PublicConfigController {
         this.forumSettingService = forumSettingService;
     }
 
+    /**
+     * Version of the settings, changed by every settings update: clients poll it and refetch
+     * their cached settings only when it changes.
+     */
+    @GetMapping("/version")
+    public ApiResponse<?> getSettingsVersion() {
+        return ApiResponse.success(forumSettingService.getSnapshot().getVersion());
+    }
+
     @PostMapping("/settings")
     public ApiResponse<?> getSettings(@RequestBody List<String> keys) {
         if (keys == null || keys.isEmpty()) {
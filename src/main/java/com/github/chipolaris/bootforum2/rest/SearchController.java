@@ -0,0 +1,71 @@
+package com.github.chipolaris.bootforum2.rest;
+
+import com.github.chipolaris.bootforum2.dto.ApiResponse;
+import com.github.chipolaris.bootforum2.dto.SearchResultDTO;
+import com.github.chipolaris.bootforum2.enumeration.SearchHitType;
+import com.github.chipolaris.bootforum2.service.SearchService;
+import com.github.chipolaris.bootforum2.service.ServiceResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api")
+public class SearchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchController.class);
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Searches discussions, comments and forums together.
+     *
+     * @param keyword  The keyword to search for in titles and content.
+     * @param types    Optional kinds of hits (DISCUSSION, COMMENT, FORUM), all by default.
+     * @param forumId  Optional forum facet value to narrow the hits to.
+     * @param tagId    Optional tag facet value to narrow the hits to.
+     * @param pageable Spring Data Pageable object for pagination. Note: Sorting is handled by relevance in the service.
+     * @param searchToken Optional X-Search-Token header value of a previous write: the results include that write.
+     * @return ApiResponse containing a SearchResultDTO: a page of highlighted hits and the forum and tag facets.
+     */
+    @GetMapping("/public/search")
+    public ApiResponse<?> search(
+            @RequestParam("keyword") String keyword,
+            @RequestParam(value = "types", required = false) Set<SearchHitType> types,
+            @RequestParam(value = "forumId", required = false) Long forumId,
+            @RequestParam(value = "tagId", required = false) Long tagId,
+            @PageableDefault(size = 10) Pageable pageable,
+            @RequestParam(value = "searchToken", required = false) Long searchToken) {
+
+        logger.info("Received request to search with keyword: '{}'", keyword);
+
+        if (keyword == null || keyword.isBlank()) {
+            return ApiResponse.error("Search keyword cannot be empty.");
+        }
+
+        try {
+            ServiceResponse<SearchResultDTO> serviceResponse =
+                    searchService.search(keyword, types, forumId, tagId, pageable, searchToken);
+
+            if (serviceResponse.isSuccess()) {
+                return ApiResponse.success(serviceResponse.getDataObject(), "Search completed successfully.");
+            } else {
+                return ApiResponse.error(serviceResponse.getMessages(), "Failed to perform search.");
+            }
+        } catch (Exception e) {
+            logger.error(String.format("Unexpected error while searching for keyword '%s': ", keyword), e);
+            return ApiResponse.error("An unexpected error occurred during the search.");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.chipolaris.bootforum2.rest;
+
+import com.github.chipolaris.bootforum2.service.SearchIndexingTracker;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the read-your-writes search token to the responses of write requests (anything but GET/HEAD).
+ *
+ * Search indexing is asynchronous (see {@link SearchIndexingTracker}), so a discussion just created may not be
+ * found by a search right away. Passing the token of the write as the searchToken parameter of a search makes the
+ * search wait until the write is searchable.
+ */
+@RestControllerAdvice
+public class SearchTokenResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String SEARCH_TOKEN_HEADER = "X-Search-Token";
+
+    private final SearchIndexingTracker searchIndexingTracker;
+
+    public SearchTokenResponseAdvice(SearchIndexingTracker searchIndexingTracker) {
+        this.searchIndexingTracker = searchIndexingTracker;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+
+        HttpMethod method = request.getMethod();
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+            // the write transaction of this request has committed, so its indexing plan (if any) is at or
+            // before the last token
+            response.getHeaders().set(SEARCH_TOKEN_HEADER, Long.toString(searchIndexingTracker.getLastToken()));
+        }
+        return body;
+    }
+}
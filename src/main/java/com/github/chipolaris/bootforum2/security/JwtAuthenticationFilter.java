@@ -1,6 +1,8 @@
 package com.github.chipolaris.bootforum2.security; // Adjust package
 
-import com.github.chipolaris.bootforum2.service.AppUserDetailsService;
+import com.github.chipolaris.bootforum2.service.TokenRevocationService;
+import com.github.chipolaris.bootforum2.service.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
 import jakarta.annotation.Resource;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,6 +19,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component // Make it a Spring bean so it can be injected
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -28,7 +31,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenProvider tokenProvider;
 
     @Resource
-    private AppUserDetailsService userDetailsService; // Your existing UserDetailsService
+    private UserPrincipalCache userPrincipalCache;
+
+    @Resource
+    private TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -37,19 +43,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt);
+            // Verify the token and read its claims in one parse
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseClaims(jwt) : null;
+
+            if (claims != null && tokenRevocationService.isRevoked(claims.getId(), claims.getSubject(),
+                    claims.getIssuedAt())) {
+                logger.debug("Revoked JWT of user '{}', URI: {}", claims.getSubject(), request.getRequestURI());
+            } else if (claims != null) {
+                String username = claims.getSubject();
 
-                // Load user details (authorities)
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                // Create authentication object
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                // Principal built from the claims, as long as they still hold (no database access when cached)
+                Optional<UserDetails> userDetails = userPrincipalCache.getPrincipal(username,
+                        tokenProvider.getAuthorities(claims));
 
-                // Set authentication in security context
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.debug("Set SecurityContext for user '{}', URI: {}", username, request.getRequestURI());
+                if (userDetails.isPresent()) {
+                    // Create authentication object
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails.get(), null, userDetails.get().getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    // Set authentication in security context
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    logger.debug("Set SecurityContext for user '{}', URI: {}", username, request.getRequestURI());
+                } else {
+                    logger.debug("JWT of user '{}' no longer matches the account, URI: {}", username,
+                            request.getRequestURI());
+                }
             } else {
                 if (StringUtils.hasText(jwt)) {
                     logger.debug("JWT validation failed for token prefix: {}", jwt.substring(0, Math.min(jwt.length(), 10)) + "...");
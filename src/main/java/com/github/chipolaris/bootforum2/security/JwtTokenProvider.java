@@ -12,7 +12,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
@@ -20,15 +23,21 @@ public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    @Value("${app.jwt.secret}") // Define in application.properties/yml
-    private String jwtSecret;
+    // claim with the comma separated authorities (roles) of the user
+    public static final String AUTHORITIES_CLAIM = "auth";
 
-    @Value("${app.jwt.expiration-ms}") // Define in application.properties/yml
-    private int jwtExpirationMs;
+    private final int jwtExpirationMs;
 
-    private SecretKey key() {
+    // The key and parser are immutable and thread-safe: they're built once, rather than for each token
+    private final SecretKey key;
+    private final JwtParser parser;
+
+    public JwtTokenProvider(@Value("${app.jwt.secret}") String jwtSecret, // Define in application.properties/yml
+                            @Value("${app.jwt.expiration-ms}") int jwtExpirationMs) {
+        this.jwtExpirationMs = jwtExpirationMs;
         // Ensure the secret is Base64 encoded and long enough for the algorithm
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parser().verifyWith(key).build();
     }
 
     public String generateToken(Authentication authentication) {
@@ -42,36 +51,35 @@ public class JwtTokenProvider {
                 .collect(Collectors.joining(","));
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString()) // token id (jti), to revoke this token alone
                 .subject(userPrincipal.getUsername())
-                .claim("auth", authorities) // Custom claim for authorities
+                .claim(AUTHORITIES_CLAIM, authorities) // Custom claim for authorities
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(key(), Jwts.SIG.HS512) // Use a strong algorithm like HS512
+                .signWith(key, Jwts.SIG.HS512) // Use a strong algorithm like HS512
                 .compact();
     }
 
     public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
+        return getClaimsFromJWT(token).getSubject();
     }
 
     public Claims getClaimsFromJWT(String token) {
-        return Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean validateToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies a token and reads its claims in one parse.
+     *
+     * @return the claims of the token, or null if the token is invalid or expired
+     */
+    public Claims parseClaims(String authToken) {
         try {
-            Jwts.parser().verifyWith(key()).build().parseSignedClaims(authToken);
-            return true;
+            return parser.parseSignedClaims(authToken).getPayload();
         } catch (MalformedJwtException ex) {
             logger.error("Invalid JWT token");
         } catch (ExpiredJwtException ex) {
@@ -83,7 +91,20 @@ public class JwtTokenProvider {
         } catch (JwtException ex) { // Catch broader JWT exceptions
             logger.error("JWT validation error: {}", ex.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * The authorities carried by the AUTHORITIES_CLAIM of a token
+     */
+    public Set<String> getAuthorities(Claims claims) {
+        String authorities = claims.get(AUTHORITIES_CLAIM, String.class);
+        if (authorities == null || authorities.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(authorities.split(","))
+                .map(String::trim)
+                .filter(authority -> !authority.isEmpty())
+                .collect(Collectors.toSet());
     }
 }
-    
\ No newline at end of file
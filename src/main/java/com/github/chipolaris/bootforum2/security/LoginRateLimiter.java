@@ -0,0 +1,93 @@
+package com.github.chipolaris.bootforum2.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Rate limit of login attempts, with in-memory token buckets (see TokenBucket) per client IP address and
+ * per username: a client can't try many passwords (or many accounts) in a row, and an account can't be
+ * guessed at from many addresses at once. Attempts refused here never reach the password verification.
+ *
+ * Buckets of clients and usernames idle for idle-minutes are dropped (they are full again by then).
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private final long ipCapacity;
+    private final long ipRefillPerMinute;
+    private final long usernameCapacity;
+    private final long usernameRefillPerMinute;
+
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> usernameBuckets;
+
+    private final Counter ipLimitedCounter;
+    private final Counter usernameLimitedCounter;
+
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${app.login.rate-limit.ip.capacity:20}") long ipCapacity,
+                            @Value("${app.login.rate-limit.ip.refill-per-minute:20}") long ipRefillPerMinute,
+                            @Value("${app.login.rate-limit.username.capacity:10}") long usernameCapacity,
+                            @Value("${app.login.rate-limit.username.refill-per-minute:5}") long usernameRefillPerMinute,
+                            @Value("${app.login.rate-limit.idle-minutes:30}") long idleMinutes,
+                            @Value("${app.login.rate-limit.max-buckets:100000}") long maxBuckets) {
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerMinute = ipRefillPerMinute;
+        this.usernameCapacity = usernameCapacity;
+        this.usernameRefillPerMinute = usernameRefillPerMinute;
+        this.ipBuckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .maximumSize(maxBuckets)
+                .build();
+        this.usernameBuckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .maximumSize(maxBuckets)
+                .build();
+        this.ipLimitedCounter = Counter.builder("forum.login.rate.limited")
+                .description("Login attempts refused by the rate limit")
+                .tag("key", "ip").register(meterRegistry);
+        this.usernameLimitedCounter = Counter.builder("forum.login.rate.limited")
+                .description("Login attempts refused by the rate limit")
+                .tag("key", "username").register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from the bucket of the client, then from the bucket of the username.
+     *
+     * @return false if either bucket is empty: the attempt is refused
+     */
+    public boolean tryAcquire(String clientIp, String username) {
+
+        long now = System.nanoTime();
+
+        TokenBucket ipBucket = ipBuckets.get(clientIp,
+                key -> new TokenBucket(ipCapacity, ipRefillPerMinute, Duration.ofMinutes(1), now));
+        if (!ipBucket.tryConsume(now)) {
+            ipLimitedCounter.increment();
+            logger.warn("Login attempts from {} exceed the rate limit", clientIp);
+            return false;
+        }
+
+        String usernameKey = username == null ? "" : username.toLowerCase(Locale.ROOT);
+        TokenBucket usernameBucket = usernameBuckets.get(usernameKey,
+                key -> new TokenBucket(usernameCapacity, usernameRefillPerMinute, Duration.ofMinutes(1), now));
+        if (!usernameBucket.tryConsume(now)) {
+            usernameLimitedCounter.increment();
+            logger.warn("Login attempts for user '{}' exceed the rate limit", username);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.chipolaris.bootforum2.security;
+
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Verifies login credentials on the bounded password verification executor (see AsyncExecutorConfig)
+ * instead of the request thread: the BCrypt hashing runs on at most concurrency threads, and the request
+ * thread is released while it waits. When the executor queue is full, the verification fails right away
+ * with a TaskRejectedException.
+ *
+ * Queue wait is published as forum.executor.wait{name=password-verification}, hashing time as
+ * forum.password.hash (see MeteredPasswordEncoder).
+ */
+@Component
+public class PasswordVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordVerifier.class);
+
+    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolTaskExecutor passwordVerificationExecutor;
+
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public PasswordVerifier(AuthenticationManager authenticationManager,
+                            @Qualifier(AsyncExecutorConfig.PASSWORD_VERIFICATION_EXECUTOR)
+                            ThreadPoolTaskExecutor passwordVerificationExecutor) {
+        this.authenticationManager = authenticationManager;
+        this.passwordVerificationExecutor = passwordVerificationExecutor;
+    }
+
+    /**
+     * @return the authentication, completed exceptionally with an AuthenticationException for bad
+     * credentials or a TaskRejectedException if too many verifications are pending
+     */
+    public CompletableFuture<Authentication> authenticate(String username, String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(username, password)), passwordVerificationExecutor);
+        } catch (TaskRejectedException e) {
+            logger.warn("Password verification of user '{}' rejected, too many verifications pending", username);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
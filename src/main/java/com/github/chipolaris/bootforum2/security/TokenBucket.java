@@ -0,0 +1,51 @@
+package com.github.chipolaris.bootforum2.security;
+
+import java.time.Duration;
+
+/**
+ * Token bucket rate limit: holds up to capacity tokens, refilled continuously at refillTokens per
+ * refillPeriod; an attempt takes one token and is refused when the bucket is empty. Bursts of up to
+ * capacity attempts pass, then attempts pass at the refill rate.
+ *
+ * Times are System.nanoTime() values, passed in so that the bucket can be tested without waiting.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, long refillTokens, Duration refillPeriod, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) refillTokens / refillPeriod.toNanos();
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * @return true if a token was taken, false if the bucket is empty
+     */
+    public synchronized boolean tryConsume(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized double getTokens(long nowNanos) {
+        refill(nowNanos);
+        return tokens;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -30,15 +30,17 @@ public class AdminChartService {
     private final UserRepository userRepository;
     private final ForumRepository forumRepository;
     private final DiscussionService discussionService;
+    private final TrendingTermsService trendingTermsService;
 
     public AdminChartService(DiscussionRepository discussionRepository, CommentRepository commentRepository,
                              UserRepository userRepository, ForumRepository forumRepository,
-                             DiscussionService discussionService) {
+                             DiscussionService discussionService, TrendingTermsService trendingTermsService) {
         this.discussionRepository = discussionRepository;
         this.commentRepository = commentRepository;
         this.userRepository = userRepository;
         this.forumRepository = forumRepository;
         this.discussionService = discussionService;
+        this.trendingTermsService = trendingTermsService;
     }
 
     public ServiceResponse<AdminChartDTO> getChartData() {
@@ -58,12 +60,27 @@ public class AdminChartService {
     }
     /**
      * Gets only the data for the top terms chart.
+     *
+     * @param period "week", "month", "year", "all" or "custom"
+     * @param from first day of a custom period
+     * @param to last day of a custom period
      */
-    public ServiceResponse<ChartDataDTO> getTopTermsChartData(int limit, String period) {
+    public ServiceResponse<ChartDataDTO> getTopTermsChartData(int limit, String period, LocalDate from, LocalDate to) {
         logger.info("Fetching data for top terms chart");
         try {
-            ChartDataDTO topTerms = buildDiscussionTopTermsChart(limit, period);
-            return ServiceResponse.success("Top terms chart data retrieved successfully", topTerms);
+            if (!trendingTermsService.isReady()) {
+                // trending terms are still being built, aggregate the discussions in the search index
+                ChartDataDTO topTerms = buildDiscussionTopTermsChart(limit, period);
+                return ServiceResponse.success("Top terms chart data retrieved successfully", topTerms);
+            }
+
+            ServiceResponse<List<TrendingTermDTO>> trendingTermsResponse =
+                    trendingTermsService.getTrendingTerms(limit, period, from, to);
+            if (trendingTermsResponse.isFailure()) {
+                return ServiceResponse.failure(String.join(" ", trendingTermsResponse.getMessages()));
+            }
+            return ServiceResponse.success("Top terms chart data retrieved successfully",
+                    buildTrendingTermsChart(trendingTermsResponse.getDataObject()));
         } catch (Exception e) {
             logger.error("Failed to retrieve top terms chart data", e);
             return ServiceResponse.failure("An unexpected error occurred while retrieving top terms chart data.");
@@ -139,6 +156,29 @@ public class AdminChartService {
         return new ChartDataDTO(labels, datasets);
     }
 
+    private ChartDataDTO buildTrendingTermsChart(List<TrendingTermDTO> trendingTerms) {
+
+        List<String> labels = new ArrayList<>();
+        List<Number> titleData = new ArrayList<>();
+        List<Number> contentData = new ArrayList<>();
+        List<Number> commentData = new ArrayList<>();
+
+        for (TrendingTermDTO trendingTerm : trendingTerms) {
+            labels.add(trendingTerm.term());
+            titleData.add(trendingTerm.discussionTitleCount());
+            contentData.add(trendingTerm.discussionContentCount());
+            commentData.add(trendingTerm.commentContentCount());
+        }
+
+        List<ChartDataSetDTO> datasets = List.of(
+                new ChartDataSetDTO("DiscussionTitle", titleData),
+                new ChartDataSetDTO("DiscussionContent", contentData),
+                new ChartDataSetDTO("CommentContent", commentData)
+        );
+
+        return new ChartDataDTO(labels, datasets);
+    }
+
     private ChartDataDTO buildDiscussionTopTermsChart(int limit, String period) {
 
         // 1. Get top terms for Discussion from "title" and "content" fields
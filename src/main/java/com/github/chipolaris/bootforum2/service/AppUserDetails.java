@@ -14,7 +14,7 @@ import java.util.stream.Collectors; // Import Collectors
 
 public class AppUserDetails implements UserDetails {
 
-	private static final String ROLE_PREFIX = "ROLE_";
+	static final String ROLE_PREFIX = "ROLE_";
 	/**
 	 *
 	 */
@@ -129,7 +129,7 @@ public class AvatarService {
             return ServiceResponse.success("Found avatar resource for user %s".formatted(username), fileResourceDTO);
         }).orElseGet(() -> {
             return ServiceResponse.success("Avatar not found for user %s. Return the default avatar".formatted(username),
-                new FileResourceDTO(new ClassPathResource("static/images/default-avatar.png"), "default-avatar.png", "image/png"));
+                new FileResourceDTO(new ClassPathResource("static/images/default-avatar.png"), "default-avatar.png", "image/png", null));
         }
         );
     }
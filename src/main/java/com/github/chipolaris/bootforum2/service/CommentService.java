@@ -11,6 +11,7 @@ import com.github.chipolaris.bootforum2.mapper.CommentMapper;
 import com.github.chipolaris.bootforum2.mapper.DiscussionMapper;
 import com.github.chipolaris.bootforum2.mapper.FileInfoMapper;
 import jakarta.persistence.EntityManager;
+import org.hibernate.graph.GraphSemantic;
 import org.hibernate.search.mapper.orm.Search;
 import org.hibernate.search.mapper.orm.session.SearchSession;
 import org.slf4j.Logger;
@@ -44,6 +45,7 @@ public class CommentService {
     private final AuthenticationFacade authenticationFacade;
     private final ApplicationEventPublisher eventPublisher;
     private final ForumSettingService forumSettingService;
+    private final CountProvider countProvider;
 
     // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
     public CommentService(EntityManager entityManager,
@@ -54,7 +56,8 @@ public class CommentService {
                           FileInfoMapper fileInfoMapper,
                           AuthenticationFacade authenticationFacade,
                           ApplicationEventPublisher eventPublisher,
-                          ForumSettingService forumSettingService) {
+                          ForumSettingService forumSettingService,
+                          CountProvider countProvider) {
         this.entityManager = entityManager;
         this.genericDAO = genericDAO;
         this.dynamicDAO = dynamicDAO;
@@ -65,6 +68,7 @@ public class CommentService {
         this.authenticationFacade = authenticationFacade;
         this.eventPublisher = eventPublisher;
         this.forumSettingService = forumSettingService;
+        this.countProvider = countProvider;
     }
 
     @Transactional(readOnly = false)
@@ -243,9 +247,17 @@ public class CommentService {
         return fileInfos;
     }
 
+    /**
+     * Offset paginated comments of a discussion. The total comes from the discussion's stat
+     * (approximate) unless exactTotal is set, so that no count query runs with each page.
+     * @param discussionId The ID of the discussion.
+     * @param pageable Pagination and sorting information.
+     * @param exactTotal Whether to count the comments instead of using the DiscussionStat.
+     * @return A page of comments.
+     */
     @Transactional(readOnly = true)
     public ServiceResponse<PageResponseDTO<CommentDTO>> findPaginatedComments(
-            Long discussionId, Pageable pageable) {
+            Long discussionId, Pageable pageable, boolean exactTotal) {
 
         if (discussionId == null) {
             logger.warn("Attempted to fetch comments with null discussionId.");
@@ -253,11 +265,7 @@ public class CommentService {
         }
 
         try {
-            // Count query for total elements
-            QuerySpec countQuerySpec = QuerySpec.builder(Comment.class)
-                    .filter(FilterSpec.eq("discussion.id", discussionId))
-                    .build();
-            long totalElements = dynamicDAO.count(countQuerySpec);
+            CountProvider.TotalCount total = countProvider.commentsInDiscussion(discussionId, exactTotal);
 
             // Data query with pagination and sorting
             int page = pageable.getPageNumber();
@@ -273,24 +281,78 @@ public class CommentService {
             // If orderSpecs is empty and a default is strictly needed here, it could be added.
             // For now, relying on Pageable to carry the sort info.
 
+            // one extra row tells whether there is a next page
             QuerySpec dataQuerySpec = QuerySpec.builder(Comment.class)
                     .filter(FilterSpec.eq("discussion.id", discussionId))
                     .startIndex(page * size)
-                    .maxResult(size)
+                    .maxResult(size + 1)
                     .orders(orderSpecs)
+                    .fetchGraph(Comment.PAGE_GRAPH)
                     .build();
 
             List<Comment> comments = dynamicDAO.find(dataQuerySpec);
+            boolean hasNext = comments.size() > size;
 
-            List<CommentDTO> commentDTOs = comments.stream()
+            List<CommentDTO> commentDTOs = comments.stream().limit(size)
                     .map(commentMapper::toCommentDTO)
                     .collect(Collectors.toList());
 
-            Page<CommentDTO> pageResult = new PageImpl<>(commentDTOs, pageable, totalElements);
+            Page<CommentDTO> pageResult = CountProvider.toPage(commentDTOs, pageable, hasNext, total);
+
+            return ServiceResponse.success("Fetched comments for discussion ID: %d".formatted(discussionId),
+                    PageResponseDTO.from(pageResult, total.exact()));
+
+        } catch (Exception e) {
+            logger.error(String.format("Error fetching comments for discussion ID %d: ", discussionId), e);
+            return ServiceResponse.failure("An unexpected error occurred while fetching comments.");
+        }
+    }
+
+    /**
+     * Keyset (cursor) paginated comments of a discussion. Each page costs the same whatever its depth,
+     * and the total is only included when asked for.
+     * @param discussionId The ID of the discussion.
+     * @param cursor The cursor returned with the previous page, null or blank for the first page.
+     * @param pageable Page size and sorting information (the page number is ignored).
+     * @param includeTotal Whether to include the total number of comments.
+     * @param exactTotal Whether that total must be counted instead of taken from the DiscussionStat.
+     * @return A page of comments with the cursor of the next page.
+     */
+    @Transactional(readOnly = true)
+    public ServiceResponse<CursorPageDTO<CommentDTO>> findCommentsAfter(
+            Long discussionId, String cursor, Pageable pageable, boolean includeTotal, boolean exactTotal) {
+
+        if (discussionId == null) {
+            logger.warn("Attempted to fetch comments with null discussionId.");
+            return ServiceResponse.failure("Discussion ID cannot be null.");
+        }
+
+        try {
+            List<OrderSpec> orderSpecs = pageable.getSort().stream()
+                    .map(order -> order.getDirection().isAscending() ?
+                            OrderSpec.asc(order.getProperty()) : OrderSpec.desc(order.getProperty()))
+                    .collect(Collectors.toList());
+
+            QuerySpec dataQuerySpec = QuerySpec.builder(Comment.class)
+                    .filter(FilterSpec.eq("discussion.id", discussionId))
+                    .orders(orderSpecs)
+                    .maxResult(pageable.getPageSize())
+                    .cursor(cursor)
+                    .fetchGraph(Comment.PAGE_GRAPH)
+                    .build();
+
+            KeysetSlice<CommentDTO> slice = dynamicDAO.<Comment>findSlice(dataQuerySpec).map(commentMapper::toCommentDTO);
+
+            CountProvider.TotalCount total = includeTotal
+                    ? countProvider.commentsInDiscussion(discussionId, exactTotal) : null;
 
             return ServiceResponse.success("Fetched comments for discussion ID: %d".formatted(discussionId),
-                    PageResponseDTO.from(pageResult));
+                    CursorPageDTO.from(slice, pageable.getPageSize(),
+                            total != null ? total.value() : null, total != null ? total.exact() : null));
 
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid comment list request for discussion ID {}: {}", discussionId, e.getMessage());
+            return ServiceResponse.failure("Invalid cursor or sort: %s".formatted(e.getMessage()));
         } catch (Exception e) {
             logger.error(String.format("Error fetching comments for discussion ID %d: ", discussionId), e);
             return ServiceResponse.failure("An unexpected error occurred while fetching comments.");
@@ -341,6 +403,7 @@ public class CommentService {
                     .where(f -> f.match()
                             .fields("title", "content")
                             .matching(keyword))
+                    .loading(o -> o.graph(Comment.PAGE_GRAPH, GraphSemantic.FETCH))
                     .fetch((int) pageable.getOffset(), pageable.getPageSize());
 
             List<Comment> comments = searchResult.hits();
@@ -0,0 +1,138 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.chipolaris.bootforum2.repository.CommentRepository;
+import com.github.chipolaris.bootforum2.repository.DiscussionRepository;
+import com.github.chipolaris.bootforum2.repository.DiscussionStatRepository;
+import com.github.chipolaris.bootforum2.repository.ForumStatRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Total counts for paginated listings, so that listing a page doesn't have to count all matching rows.
+ *
+ * By default, totals are served from the statistics rows (ForumStat.discussionCount, DiscussionStat.commentCount),
+ * which are maintained incrementally and can lag the data by the stat pipeline delay, or from a short-TTL cache
+ * of exact counts for listings without a stat row. Such totals are reported as approximate. An exact count query
+ * is only run when the caller asks for it (or when nothing is cached yet).
+ */
+@Component
+public class CountProvider {
+
+    /**
+     * A total count and whether it is exact (counted just now) or approximate (from stats or cache).
+     */
+    public record TotalCount(long value, boolean exact) {}
+
+    private record CacheKey(String listing, Object parameters) {}
+
+    private final ForumStatRepository forumStatRepository;
+    private final DiscussionStatRepository discussionStatRepository;
+    private final DiscussionRepository discussionRepository;
+    private final CommentRepository commentRepository;
+
+    private final Cache<CacheKey, Long> countCache;
+
+    public CountProvider(ForumStatRepository forumStatRepository,
+                         DiscussionStatRepository discussionStatRepository,
+                         DiscussionRepository discussionRepository,
+                         CommentRepository commentRepository,
+                         @Value("${app.counts.cache-ttl-ms:30000}") long cacheTtlMs,
+                         @Value("${app.counts.cache-max-size:10000}") long cacheMaxSize) {
+        this.forumStatRepository = forumStatRepository;
+        this.discussionStatRepository = discussionStatRepository;
+        this.discussionRepository = discussionRepository;
+        this.commentRepository = commentRepository;
+        this.countCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .maximumSize(cacheMaxSize)
+                .build();
+    }
+
+    /**
+     * Number of discussions in a forum, from the forum's ForumStat unless exact is requested.
+     */
+    public TotalCount discussionsInForum(long forumId, boolean exact) {
+        if (!exact) {
+            Optional<Long> statCount = forumStatRepository.findDiscussionCountByForumId(forumId);
+            if (statCount.isPresent()) {
+                return new TotalCount(statCount.get(), false);
+            }
+        }
+        return new TotalCount(discussionRepository.countDiscussionsByForumId(forumId), true);
+    }
+
+    /**
+     * Number of comments in a discussion, from the discussion's DiscussionStat unless exact is requested.
+     */
+    public TotalCount commentsInDiscussion(long discussionId, boolean exact) {
+        if (!exact) {
+            Optional<Long> statCount = discussionStatRepository.findCommentCountByDiscussionId(discussionId);
+            if (statCount.isPresent()) {
+                return new TotalCount(statCount.get(), false);
+            }
+        }
+        return new TotalCount(commentRepository.countByDiscussionId(discussionId), true);
+    }
+
+    /**
+     * Number of discussions in all forums: the sum of the ForumStat discussion counts
+     * (cached for the TTL) unless exact is requested.
+     */
+    public TotalCount allDiscussions(boolean exact) {
+        if (exact) {
+            return new TotalCount(discussionRepository.count(), true);
+        }
+        // a sum of stat rows is approximate even when just computed
+        return cached(new CacheKey("all-discussions", null), forumStatRepository::sumDiscussionCount, false);
+    }
+
+    /**
+     * Number of discussions having at least one of the given tags. There is no stat row for tag
+     * combinations, so the exact count is cached for the TTL and reused unless exact is requested.
+     */
+    public TotalCount discussionsWithTags(Collection<Long> tagIds, boolean exact) {
+        // same tags in any order share the cache entry
+        CacheKey key = new CacheKey("discussions-with-tags", List.copyOf(new TreeSet<>(tagIds)));
+
+        if (exact) {
+            long count = discussionRepository.countByTagIds(tagIds);
+            countCache.put(key, count);
+            return new TotalCount(count, true);
+        }
+        return cached(key, () -> discussionRepository.countByTagIds(tagIds), true);
+    }
+
+    /**
+     * Build a page from content fetched without a count query (with one extra row to know whether
+     * there is a next page) and a total from this provider. An approximate total is corrected with
+     * what the page itself shows: it is at least the rows seen so far, and on a non-empty last page
+     * it is known exactly.
+     */
+    public static <T> Page<T> toPage(List<T> content, Pageable pageable, boolean hasNext, TotalCount total) {
+        long seen = pageable.getOffset() + content.size();
+        long value = !hasNext && !content.isEmpty() ? seen : Math.max(total.value(), seen + (hasNext ? 1 : 0));
+        return new PageImpl<>(content, pageable, value);
+    }
+
+    private TotalCount cached(CacheKey key, LongSupplier counter, boolean counterIsExact) {
+        Long cachedCount = countCache.getIfPresent(key);
+        if (cachedCount != null) {
+            return new TotalCount(cachedCount, false);
+        }
+        long count = counter.getAsLong();
+        countCache.put(key, count);
+        return new TotalCount(count, counterIsExact);
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.chipolaris.bootforum2.service;
 
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
 import com.github.chipolaris.bootforum2.dao.DynamicDAO;
 import com.github.chipolaris.bootforum2.dao.FilterSpec;
 import com.github.chipolaris.bootforum2.dao.GenericDAO;
@@ -29,11 +30,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class DataSimulationService {
@@ -57,9 +61,15 @@ public class DataSimulationService {
     // NEW: For programmatic transaction management
     private final TransactionTemplate transactionTemplate;
 
-    // NEW: Batch size for processing votes
+    // Rows streamed per round-trip (and persistence context clear) when generating votes
     private static final int VOTE_BATCH_SIZE = 100;
 
+    // simulated users are the ones with the _fake username suffix
+    private static final FilterSpec FAKE_USER_FILTER = FilterSpec.like("username", "%_fake");
+
+    // Users persisted per GenericDAO.persistAll call
+    private static final int USER_BATCH_SIZE = 100;
+
     public DataSimulationService(GenericDAO genericDAO, DynamicDAO dynamicDAO, FileService fileService,
                                  StatService statService, SystemStatistic systemStatistic,
                                  FileInfoMapper fileInfoMapper, ApplicationEventPublisher eventPublisher,
@@ -104,13 +114,17 @@ public class DataSimulationService {
      * Generates a specified number of simulated users.
      * @param count The number of users to create.
      */
-    @Async
+    @Async(AsyncExecutorConfig.SIMULATION_EXECUTOR)
     @Transactional
     public void generateSimulatedUsers(int count) {
         logger.info("Starting simulated user generation for {} users...", count);
         final String fakePassword = "fake123";
         final String encodedPassword = passwordEncoder.encode(fakePassword);
 
+        // users are persisted in batches (see GenericDAO.persistAll); usernames of the pending batch
+        // aren't in the database yet, so they are checked in memory
+        Set<String> generatedUsernames = new HashSet<>();
+        List<User> batch = new ArrayList<>(USER_BATCH_SIZE);
         for (int i = 0; i < count; i++) {
             User user = User.newUser(); // Factory method sets defaults (roles, status, etc.)
             String baseUsername = faker.name().username();
@@ -118,10 +132,11 @@ public class DataSimulationService {
 
             // Ensure username is unique to avoid database constraint violations
             int attempt = 0;
-            while (userRepository.existsByUsername(finalUsername)) {
+            while (generatedUsernames.contains(finalUsername) || userRepository.existsByUsername(finalUsername)) {
                 attempt++;
                 finalUsername = baseUsername + attempt + "_fake";
             }
+            generatedUsernames.add(finalUsername);
 
             user.setUsername(finalUsername);
             user.setPassword(encodedPassword);
@@ -132,10 +147,14 @@ public class DataSimulationService {
             person.setLastName(faker.name().lastName());
             person.setEmail(faker.internet().safeEmailAddress(finalUsername));
 
-            genericDAO.persist(user);
-            eventPublisher.publishEvent(new UserCreatedEvent(this, user));
+            batch.add(user);
 
-            if ((i + 1) % 100 == 0) {
+            if (batch.size() == USER_BATCH_SIZE || i == count - 1) {
+                genericDAO.persistAll(batch);
+                for (User persistedUser : batch) {
+                    eventPublisher.publishEvent(new UserCreatedEvent(this, persistedUser));
+                }
+                batch.clear();
                 logger.info("Generated {}/{} users...", i + 1, count);
             }
         }
@@ -143,7 +162,7 @@ public class DataSimulationService {
         logger.info("Successfully completed simulated user generation for {} users.", count);
     }
 
-    @Async
+    @Async(AsyncExecutorConfig.SIMULATION_EXECUTOR)
     @Transactional
     public void generateSimulatedDiscussions(DiscussionSimulationConfigDTO config) {
         logger.info("Starting generation of simulated discussion with config: {}", config);
@@ -158,9 +177,9 @@ public class DataSimulationService {
 
         // Step 1: Fetch all fake users to use as authors for discussions and comments
         logger.info("Fetching fake users for content creation...");
-        QuerySpec userQuery = QuerySpec.builder(User.class).filter(FilterSpec.like("username", "%_fake")).build();
-        List<User> fakeUsers = dynamicDAO.find(userQuery);
-        List<String> fakeUsernames = fakeUsers.stream().map(User::getUsername).collect(Collectors.toList());
+        QuerySpec fakeUsernameQuery = QuerySpec.builder(String.class).rootEntityClass(User.class)
+                .targetPath("username").filter(FAKE_USER_FILTER).build();
+        List<String> fakeUsernames = dynamicDAO.find(fakeUsernameQuery);
 
         // Step 2: Fetch root forum group
         logger.info("Fetching root forum group...");
@@ -186,19 +205,27 @@ public class DataSimulationService {
                 genericDAO.persist(forum);
                 eventPublisher.publishEvent(new ForumCreatedEvent(this, forum));
 
-                int discussionsInForum = random.nextInt(config.maxDiscussionsPerForum() - config.minDiscussionsPerForum() + 1) + config.minDiscussionsPerForum();
-                for (int k = 0; k < discussionsInForum; k++) {
+                // the discussions and comments of a forum are persisted together, in JDBC batches
+                // (a discussion precedes its comments, and a comment the comments replying to it)
+                List<Discussion> discussionsInForum = new ArrayList<>();
+                List<Object> forumContent = new ArrayList<>();
+                int discussionCount = random.nextInt(config.maxDiscussionsPerForum() - config.minDiscussionsPerForum() + 1) + config.minDiscussionsPerForum();
+                for (int k = 0; k < discussionCount; k++) {
                     Discussion discussion = createDiscussion(forum, fakeUsernames);
-                    genericDAO.persist(discussion);
+                    discussionsInForum.add(discussion);
+                    forumContent.add(discussion);
 
                     List<Comment> commentsInDiscussion = new ArrayList<>();
                     int commentCount = random.nextInt(config.maxCommentsPerDiscussion() - config.minCommentsPerDiscussion() + 1) + config.minCommentsPerDiscussion();
                     for (int l = 0; l < commentCount; l++) {
                         Comment comment = createComment(discussion, commentsInDiscussion, fakeUsernames);
-                        genericDAO.persist(comment);
-
                         commentsInDiscussion.add(comment);
                     }
+                    forumContent.addAll(commentsInDiscussion);
+                }
+                genericDAO.persistAll(forumContent);
+
+                for (Discussion discussion : discussionsInForum) {
                     statService.syncDiscussionStat(discussion);
                 }
                 statService.syncForumStat(forum);
@@ -207,9 +234,7 @@ public class DataSimulationService {
 
         this.systemStatistic.initializeStatistics(); // re-initialize SystemStatistic
 
-        for(User user : fakeUsers) {
-            statService.syncUserStat(user);
-        }
+        statService.syncUserStats(QuerySpec.builder(User.class).filter(FAKE_USER_FILTER).build());
 
         logger.info("Successfully completed simulated data generation.");
     }
@@ -217,77 +242,68 @@ public class DataSimulationService {
     /**
      * Generates simulated up/down votes for all existing discussions and comments.
      * This method is designed to be run after other data simulation methods.
-     * This method orchestrates batch processing and is NOT transactional itself.
+     * Discussions, comments and users are streamed (see {@link DynamicDAO#stream}), one transaction
+     * per pass, so memory use doesn't grow with the amount of content. Only the usernames, which
+     * are needed for every discussion and comment, are held in memory.
      */
-    @Async
+    @Async(AsyncExecutorConfig.SIMULATION_EXECUTOR)
     public void generateSimulatedVotes() {
         logger.info("Starting simulated vote generation...");
 
-        // Fetch all users once, as they are needed for every vote check.
-        // This is acceptable as the number of users is likely manageable.
-        List<User> allUsers = genericDAO.all(User.class);
+        List<String> usernames = dynamicDAO.find(QuerySpec.builder(String.class).rootEntityClass(User.class)
+                .targetPath("username").build());
+        long discussionCount = genericDAO.count(Discussion.class);
+        long commentCount = genericDAO.count(Comment.class);
 
-        // Fetch only IDs to save memory.
-        List<Long> allDiscussionIds = genericDAO.all(Discussion.class).stream().map(Discussion::getId).collect(Collectors.toList());
-        List<Long> allCommentIds = genericDAO.all(Comment.class).stream().map(Comment::getId).collect(Collectors.toList());
-
-        if (allUsers.isEmpty() || (allDiscussionIds.isEmpty() && allCommentIds.isEmpty())) {
+        if (usernames.isEmpty() || (discussionCount == 0 && commentCount == 0)) {
             logger.warn("Not enough data to generate votes. Need at least one user and one discussion/comment.");
             return;
         }
 
-        // Partition discussion IDs into batches
-        List<List<Long>> discussionIdBatches = partitionList(allDiscussionIds, VOTE_BATCH_SIZE);
-        logger.info("Generating votes for {} discussions in {} batches...", allDiscussionIds.size(), discussionIdBatches.size());
-
-        for (int i = 0; i < discussionIdBatches.size(); i++) {
-            List<Long> batchIds = discussionIdBatches.get(i);
-            // Use TransactionTemplate to process each batch in a separate transaction
-            transactionTemplate.executeWithoutResult(status -> {
-                QuerySpec discussionBatchQuery = QuerySpec.builder(Discussion.class).filter(FilterSpec.in("id", batchIds)).build();
-                List<Discussion> discussionBatch = dynamicDAO.find(discussionBatchQuery);
-
-                for (Discussion discussion : discussionBatch) {
-                    for (User user : allUsers) {
-                        if (user.getUsername().equals(discussion.getCreateBy())) continue;
+        logger.info("Generating votes for {} discussions...", discussionCount);
+        transactionTemplate.executeWithoutResult(status -> {
+            long processed = 0;
+            try (Stream<Discussion> discussions = dynamicDAO.stream(QuerySpec.builder(Discussion.class).build(), VOTE_BATCH_SIZE)) {
+                for (Iterator<Discussion> iterator = discussions.iterator(); iterator.hasNext(); ) {
+                    Discussion discussion = iterator.next();
+                    for (String username : usernames) {
+                        if (username.equals(discussion.getCreateBy())) continue;
                         if (random.nextBoolean()) { // 50% chance
-                            addVoteOnDiscussion(discussion, user.getUsername());
+                            addVoteOnDiscussion(discussion, username);
                         }
                     }
+                    if (++processed % VOTE_BATCH_SIZE == 0) {
+                        logger.info("Generated votes for {}/{} discussions", processed, discussionCount);
+                    }
                 }
-            });
-            logger.info("Completed discussion vote batch {}/{}", i + 1, discussionIdBatches.size());
-        }
-
-        // Partition comment IDs into batches
-        List<List<Long>> commentIdBatches = partitionList(allCommentIds, VOTE_BATCH_SIZE);
-        logger.info("Generating votes for {} comments in {} batches...", allCommentIds.size(), commentIdBatches.size());
-
-        for (int i = 0; i < commentIdBatches.size(); i++) {
-            List<Long> batchIds = commentIdBatches.get(i);
-            transactionTemplate.executeWithoutResult(status -> {
-                QuerySpec commentBatchQuery = QuerySpec.builder(Comment.class).filter(FilterSpec.in("id", batchIds)).build();
-                List<Comment> commentBatch = dynamicDAO.find(commentBatchQuery);
+            }
+        });
 
-                for (Comment comment : commentBatch) {
-                    for (User user : allUsers) {
-                        if (user.getUsername().equals(comment.getCreateBy())) continue;
+        logger.info("Generating votes for {} comments...", commentCount);
+        transactionTemplate.executeWithoutResult(status -> {
+            long processed = 0;
+            try (Stream<Comment> comments = dynamicDAO.stream(QuerySpec.builder(Comment.class).build(), VOTE_BATCH_SIZE)) {
+                for (Iterator<Comment> iterator = comments.iterator(); iterator.hasNext(); ) {
+                    Comment comment = iterator.next();
+                    for (String username : usernames) {
+                        if (username.equals(comment.getCreateBy())) continue;
                         if (random.nextInt(100) < 30) { // 30% chance
-                            addVoteOnComment(comment, user.getUsername());
+                            addVoteOnComment(comment, username);
                         }
                     }
+                    if (++processed % VOTE_BATCH_SIZE == 0) {
+                        logger.info("Generated votes for {}/{} comments", processed, commentCount);
+                    }
                 }
-            });
-            logger.info("Completed comment vote batch {}/{}", i + 1, commentIdBatches.size());
-        }
+            }
+        });
 
         logger.info("Vote generation complete. Starting user reputation synchronization...");
 
         // Final step: synchronize all user reputations in a single transaction
         transactionTemplate.executeWithoutResult(status -> {
-            List<User> allUsersForReputation = genericDAO.all(User.class);
-            Map<String, Long> reputationMap = allUsersForReputation.stream()
-                    .collect(Collectors.toMap(User::getUsername, u -> 0L));
+            // reputation of the users with content, others have 0
+            Map<String, Long> reputationMap = new HashMap<>();
 
             List<Object[]> discussionReputations = discussionRepository.getReputationFromDiscussions();
             for (Object[] result : discussionReputations) {
@@ -307,9 +323,8 @@ public class DataSimulationService {
                 }
             }
 
-            for (User user : allUsersForReputation) {
-                long finalReputation = reputationMap.getOrDefault(user.getUsername(), 0L);
-                user.getStat().setReputation(finalReputation);
+            try (Stream<User> users = dynamicDAO.stream(QuerySpec.builder(User.class).build(), VOTE_BATCH_SIZE)) {
+                users.forEach(user -> user.getStat().setReputation(reputationMap.getOrDefault(user.getUsername(), 0L)));
             }
         });
 
@@ -456,8 +471,8 @@ public class DataSimulationService {
 
         ServiceResponse<FileCreatedDTO> response = fileService.storeFile(multipartFile);
         if (response.isSuccess() && response.getDataObject() != null) {
+            // persisted with the discussion or comment (attachments cascade)
             FileInfo fileInfo = fileInfoMapper.toEntity(response.getDataObject());
-            genericDAO.persist(fileInfo);
             attachments.add(fileInfo);
         }
     }
@@ -469,15 +484,6 @@ public class DataSimulationService {
         return list.get(random.nextInt(list.size()));
     }
 
-    // NEW: Helper method to partition a list into batches
-    private <T> List<List<T>> partitionList(List<T> list, int batchSize) {
-        List<List<T>> partitions = new ArrayList<>();
-        for (int i = 0; i < list.size(); i += batchSize) {
-            partitions.add(list.subList(i, Math.min(i + batchSize, list.size())));
-        }
-        return partitions;
-    }
-
     /**
      * A simple in-memory implementation of MultipartFile for data generation.
      */
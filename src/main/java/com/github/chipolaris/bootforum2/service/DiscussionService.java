@@ -13,6 +13,7 @@ import com.github.chipolaris.bootforum2.mapper.FileInfoMapper;
 import com.github.chipolaris.bootforum2.repository.DiscussionRepository;
 import com.github.chipolaris.bootforum2.repository.TagRepository;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
 import org.hibernate.search.engine.search.aggregation.AggregationKey;
 import org.hibernate.search.engine.search.query.SearchResult;
 import org.hibernate.search.mapper.orm.Search;
@@ -38,6 +39,10 @@ public class DiscussionService {
 
     private static final Logger logger = LoggerFactory.getLogger(DiscussionService.class);
 
+    // columns of a discussion summary projection, see findSummaryPage
+    private static final String[] SUMMARY_COLUMNS = {"id", "title", "stat.commentCount", "stat.viewCount",
+            "createDate", "createBy", "stat.lastComment.commentDate", "forum.id", "forum.title"};
+
     private final EntityManager entityManager;
     private final GenericDAO genericDAO;
     private final DynamicDAO dynamicDAO;
@@ -49,6 +54,8 @@ public class DiscussionService {
     private final AuthenticationFacade authenticationFacade;
     private final ApplicationEventPublisher eventPublisher;
     private final ForumSettingService forumSettingService;
+    private final CountProvider countProvider;
+    private final SearchIndexingTracker searchIndexingTracker;
 
     // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
     public DiscussionService(EntityManager entityManager, GenericDAO genericDAO,
@@ -56,7 +63,8 @@ public class DiscussionService {
                              TagRepository tagRepository, DiscussionMapper discussionMapper,
                              FileService fileService, FileInfoMapper fileInfoMapper,
                              AuthenticationFacade authenticationFacade, ApplicationEventPublisher eventPublisher,
-                             ForumSettingService forumSettingService) {
+                             ForumSettingService forumSettingService, CountProvider countProvider,
+                             SearchIndexingTracker searchIndexingTracker) {
         this.entityManager = entityManager;
         this.genericDAO = genericDAO;
         this.dynamicDAO = dynamicDAO;
@@ -68,6 +76,8 @@ public class DiscussionService {
         this.authenticationFacade = authenticationFacade;
         this.eventPublisher = eventPublisher;
         this.forumSettingService = forumSettingService;
+        this.countProvider = countProvider;
+        this.searchIndexingTracker = searchIndexingTracker;
     }
 
     @Transactional(rollbackFor = Exception.class, readOnly = false)
@@ -257,14 +267,16 @@ public class DiscussionService {
     }
 
     /**
-     * Find all discussions associated with the given tags, with their own tags eagerly fetched.
+     * Find all discussions associated with the given tags, as summary projections with their own tags.
+     * The total is a cached count unless exactTotal is set.
      * @param tagIds A list of tag IDs to filter by.
      * @param pageable Pagination and sorting information.
+     * @param exactTotal Whether to count the discussions instead of using a cached total.
      * @return A paginated list of discussion summaries for the specified tags.
      */
     @Transactional(readOnly = true)
     public ServiceResponse<PageResponseDTO<DiscussionSummaryDTO>> findPaginatedDiscussionSummariesForTags(
-            List<Long> tagIds, Pageable pageable) {
+            List<Long> tagIds, Pageable pageable, boolean exactTotal) {
 
         // If no tags are provided, return an empty page to avoid unnecessary queries.
         if (tagIds == null || tagIds.isEmpty()) {
@@ -273,9 +285,10 @@ public class DiscussionService {
         }
 
         try {
-            Page<Discussion> discussionPage = discussionRepository.findByTagIdsWithTags(tagIds, pageable);
-            Page<DiscussionSummaryDTO> dtoPage = discussionPage.map(discussionMapper::toSummaryDTO);
-            return ServiceResponse.success("Fetched Discussion Summaries for tags", PageResponseDTO.from(dtoPage));
+            // a discussion with several of the tags would come once per tag without distinct
+            CountProvider.TotalCount total = countProvider.discussionsWithTags(tagIds, exactTotal);
+            return ServiceResponse.success("Fetched Discussion Summaries for tags",
+                    findSummaryPage(List.of(FilterSpec.in("tags.id", tagIds)), true, pageable, total));
         }
         catch (Exception e) {
             logger.error("Error fetching Discussion Summaries for tags: " + tagIds, e);
@@ -284,16 +297,19 @@ public class DiscussionService {
     }
 
     /**
-     * Find all discussions in the system, with tags eagerly fetched.
+     * Find all discussions in the system, as summary projections with their tags.
+     * The total is the (cached) sum of the forum stats unless exactTotal is set.
      * @param pageable Pagination and sorting information.
+     * @param exactTotal Whether to count the discussions instead of using the forum stats.
      * @return A paginated list of discussion summaries.
      */
     @Transactional(readOnly = true)
-    public ServiceResponse<PageResponseDTO<DiscussionSummaryDTO>> findPaginatedDiscussionSummaries(Pageable pageable) {
+    public ServiceResponse<PageResponseDTO<DiscussionSummaryDTO>> findPaginatedDiscussionSummaries(
+            Pageable pageable, boolean exactTotal) {
         try {
-            Page<Discussion> discussionPage = discussionRepository.findAllWithTags(pageable);
-            Page<DiscussionSummaryDTO> dtoPage = discussionPage.map(discussionMapper::toSummaryDTO);
-            return ServiceResponse.success("Fetched Discussion Summaries", PageResponseDTO.from(dtoPage));
+            CountProvider.TotalCount total = countProvider.allDiscussions(exactTotal);
+            return ServiceResponse.success("Fetched Discussion Summaries",
+                    findSummaryPage(List.of(), false, pageable, total));
         }
         catch (Exception e) {
             logger.error("Error fetching Discussion Summaries:", e);
@@ -302,20 +318,21 @@ public class DiscussionService {
     }
 
     /**
-     * Find all discussions in a given forum, with tags eagerly fetched.
+     * Find all discussions in a given forum, as summary projections with their tags.
+     * The total comes from the forum's stat unless exactTotal is set.
      * @param forumId The ID of the forum to filter by.
      * @param pageable Pagination and sorting information.
+     * @param exactTotal Whether to count the discussions instead of using the ForumStat.
      * @return A paginated list of discussion summaries for the specified forum.
      */
     @Transactional(readOnly = true)
     public ServiceResponse<PageResponseDTO<DiscussionSummaryDTO>> findPaginatedDiscussionSummariesForForum(
-            long forumId, Pageable pageable) {
+            long forumId, Pageable pageable, boolean exactTotal) {
 
         try {
-            Page<Discussion> discussionPage = discussionRepository.findByForumIdWithTags(forumId, pageable);
-            Page<DiscussionSummaryDTO> dtoPage = discussionPage.map(discussionMapper::toSummaryDTO);
+            CountProvider.TotalCount total = countProvider.discussionsInForum(forumId, exactTotal);
             return ServiceResponse.success("Fetched Discussion Summaries for forum: %d".formatted(forumId),
-                    PageResponseDTO.from(dtoPage));
+                    findSummaryPage(List.of(FilterSpec.eq("forum.id", forumId)), false, pageable, total));
         }
         catch (Exception e) {
             logger.error("Error fetching Discussion Summaries for forum: " + forumId, e);
@@ -323,17 +340,68 @@ public class DiscussionService {
         }
     }
 
+    /**
+     * Keyset (cursor) paginated discussion summaries, optionally restricted to a forum.
+     * Each page costs the same whatever its depth, and the total is only included when asked for.
+     * @param forumId The ID of the forum to filter by, null for all discussions.
+     * @param cursor The cursor returned with the previous page, null or blank for the first page.
+     * @param pageable Page size and sorting information (the page number is ignored).
+     * @param includeTotal Whether to include the total number of discussions.
+     * @param exactTotal Whether that total must be counted instead of taken from the forum stats.
+     * @return A page of discussion summaries with the cursor of the next page.
+     */
     @Transactional(readOnly = true)
-    public ServiceResponse<PageResponseDTO<DiscussionDTO>> findPaginatedDiscussions(
-            long forumId, Pageable pageable) {
+    public ServiceResponse<CursorPageDTO<DiscussionSummaryDTO>> findDiscussionSummariesAfter(
+            Long forumId, String cursor, Pageable pageable, boolean includeTotal, boolean exactTotal) {
 
         try {
-            // Fetch total elements for pagination
-            QuerySpec countQuerySpec = QuerySpec.builder(Discussion.class)
-                    .filter(FilterSpec.eq("forum.id", forumId))
-                    .build();
+            List<FilterSpec> filters = forumId != null ? List.of(FilterSpec.eq("forum.id", forumId)) : List.of();
+
+            List<OrderSpec> orderSpecs = pageable.getSort().stream().map(
+                            order -> order.getDirection().isAscending() ?
+                                    OrderSpec.asc(order.getProperty()) : OrderSpec.desc(order.getProperty()))
+                    .collect(Collectors.toList());
 
-            long totalElements = dynamicDAO.count(countQuerySpec);
+            QuerySpec querySpec = QuerySpec.builder(Discussion.class).filters(filters).orders(orderSpecs)
+                    .maxResult(pageable.getPageSize()).cursor(cursor).fetchGraph(Discussion.SUMMARY_GRAPH).build();
+
+            KeysetSlice<DiscussionSummaryDTO> slice = dynamicDAO.<Discussion>findSlice(querySpec)
+                    .map(discussionMapper::toSummaryDTO);
+
+            CountProvider.TotalCount total = null;
+            if (includeTotal) {
+                total = forumId != null
+                        ? countProvider.discussionsInForum(forumId, exactTotal) : countProvider.allDiscussions(exactTotal);
+            }
+
+            return ServiceResponse.success("Fetched Discussion Summaries",
+                    CursorPageDTO.from(slice, pageable.getPageSize(),
+                            total != null ? total.value() : null, total != null ? total.exact() : null));
+        }
+        catch (IllegalArgumentException e) {
+            logger.warn("Invalid discussion list request: {}", e.getMessage());
+            return ServiceResponse.failure("Invalid cursor or sort: %s".formatted(e.getMessage()));
+        }
+        catch (Exception e) {
+            logger.error("Error fetching Discussion Summaries after cursor", e);
+            return ServiceResponse.failure("An unexpected error occurred while fetching discussion summary.");
+        }
+    }
+
+    /**
+     * Offset paginated discussions of a forum. The total comes from the forum's stat unless exactTotal is set.
+     * @param forumId The ID of the forum.
+     * @param pageable Pagination and sorting information.
+     * @param exactTotal Whether to count the discussions instead of using the ForumStat.
+     * @return A page of discussions.
+     */
+    @Transactional(readOnly = true)
+    public ServiceResponse<PageResponseDTO<DiscussionDTO>> findPaginatedDiscussions(
+            long forumId, Pageable pageable, boolean exactTotal) {
+
+        try {
+            // Total elements for pagination, without a count query unless asked for
+            CountProvider.TotalCount total = countProvider.discussionsInForum(forumId, exactTotal);
 
             // Fetch discussions with pagination
             // Assuming page is 1-indexed from the client, convert to 0-indexed for QuerySpec if needed
@@ -346,20 +414,23 @@ public class DiscussionService {
                                     OrderSpec.asc(order.getProperty()) : OrderSpec.desc(order.getProperty()))
                     .collect(Collectors.toList());
 
+            // one extra row tells whether there is a next page
             QuerySpec querySpec = QuerySpec.builder(Discussion.class)
                     .filter(FilterSpec.eq("forum.id", forumId))
-                    .startIndex(page * size).maxResult(size).orders(orderSpecs).build();
+                    .startIndex(page * size).maxResult(size + 1).orders(orderSpecs)
+                    .fetchGraph(Discussion.SUMMARY_GRAPH).build();
 
             List<Discussion> discussions = dynamicDAO.find(querySpec);
+            boolean hasNext = discussions.size() > size;
 
-            List<DiscussionDTO> discussionDTOs = discussions.stream()
+            List<DiscussionDTO> discussionDTOs = discussions.stream().limit(size)
                     .map(discussionMapper::toDiscussionDTO)
                     .collect(Collectors.toList());
 
-            Page<DiscussionDTO> pageResult = new PageImpl<>(discussionDTOs, pageable, totalElements);
+            Page<DiscussionDTO> pageResult = CountProvider.toPage(discussionDTOs, pageable, hasNext, total);
 
             return ServiceResponse.success("Fetched discussions for forum %d".formatted(forumId),
-                    PageResponseDTO.from(pageResult));
+                    PageResponseDTO.from(pageResult, total.exact()));
         }
         catch (Exception e) {
             logger.error("Error fetching discussions for forum: " + forumId, e);
@@ -367,6 +438,83 @@ public class DiscussionService {
         }
     }
 
+    /*
+     * A page of discussion summaries as projection: only the summary columns are selected (no entity,
+     * so none of the eager images, attachments and stat graphs), and the tags of the page are loaded
+     * with a second query keyed by discussion id. One extra row tells whether there is a next page.
+     */
+    private PageResponseDTO<DiscussionSummaryDTO> findSummaryPage(List<FilterSpec> filters, boolean distinct,
+                                                                  Pageable pageable, CountProvider.TotalCount total) {
+
+        List<OrderSpec> orderSpecs = pageable.getSort().stream().map(
+                        order -> order.getDirection().isAscending() ?
+                                OrderSpec.asc(order.getProperty()) : OrderSpec.desc(order.getProperty()))
+                .collect(Collectors.toList());
+
+        QuerySpec.Builder<?> builder = QuerySpec.builder(Discussion.class).select(SUMMARY_COLUMNS)
+                .filters(filters).orders(orderSpecs)
+                .startIndex((int) pageable.getOffset()).maxResult(pageable.getPageSize() + 1);
+        if (distinct) {
+            builder.distinct();
+        }
+
+        List<Tuple> rows = dynamicDAO.findTuples(builder.build());
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<Tuple> pageRows = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        Map<Long, Set<TagDTO>> tagsByDiscussionId = findTagsByDiscussionIds(
+                pageRows.stream().map(row -> row.get(DynamicDAO.alias("id"), Long.class)).toList());
+
+        List<DiscussionSummaryDTO> content = pageRows.stream()
+                .map(row -> toSummaryDTO(row, tagsByDiscussionId))
+                .collect(Collectors.toList());
+
+        return PageResponseDTO.from(CountProvider.toPage(content, pageable, hasNext, total), total.exact());
+    }
+
+    private Map<Long, Set<TagDTO>> findTagsByDiscussionIds(List<Long> discussionIds) {
+        if (discussionIds.isEmpty()) {
+            return Map.of();
+        }
+
+        QuerySpec querySpec = QuerySpec.builder(Discussion.class)
+                .select("id", "tags.id", "tags.label", "tags.icon", "tags.iconColor", "tags.disabled", "tags.sortOrder")
+                .filter(FilterSpec.in("id", discussionIds))
+                .filter(FilterSpec.isNotNull("tags.id"))
+                .build();
+
+        Map<Long, Set<TagDTO>> tagsByDiscussionId = new HashMap<>();
+        for (Tuple row : dynamicDAO.findTuples(querySpec)) {
+            TagDTO tag = new TagDTO(
+                    row.get(DynamicDAO.alias("tags.id"), Long.class),
+                    row.get(DynamicDAO.alias("tags.label"), String.class),
+                    row.get(DynamicDAO.alias("tags.icon"), String.class),
+                    row.get(DynamicDAO.alias("tags.iconColor"), String.class),
+                    Boolean.TRUE.equals(row.get(DynamicDAO.alias("tags.disabled"), Boolean.class)),
+                    row.get(DynamicDAO.alias("tags.sortOrder"), Integer.class));
+            tagsByDiscussionId.computeIfAbsent(row.get(DynamicDAO.alias("id"), Long.class),
+                    id -> new LinkedHashSet<>()).add(tag);
+        }
+        return tagsByDiscussionId;
+    }
+
+    private DiscussionSummaryDTO toSummaryDTO(Tuple row, Map<Long, Set<TagDTO>> tagsByDiscussionId) {
+        Long id = row.get(DynamicDAO.alias("id"), Long.class);
+        Long commentCount = row.get(DynamicDAO.alias("stat.commentCount"), Long.class);
+        Long viewCount = row.get(DynamicDAO.alias("stat.viewCount"), Long.class);
+
+        return new DiscussionSummaryDTO(id,
+                row.get(DynamicDAO.alias("title"), String.class),
+                commentCount != null ? commentCount : 0L,
+                viewCount != null ? viewCount : 0L,
+                row.get(DynamicDAO.alias("createDate"), LocalDateTime.class),
+                row.get(DynamicDAO.alias("createBy"), String.class),
+                row.get(DynamicDAO.alias("stat.lastComment.commentDate"), LocalDateTime.class),
+                row.get(DynamicDAO.alias("forum.id"), Long.class),
+                row.get(DynamicDAO.alias("forum.title"), String.class),
+                tagsByDiscussionId.getOrDefault(id, Set.of()));
+    }
+
     /**
      * Retrieves a single discussion by its ID for a detailed view,
      * including its comments.
@@ -383,7 +531,7 @@ public class DiscussionService {
         }
 
         try {
-            Discussion discussion = genericDAO.find(Discussion.class, discussionId);
+            Discussion discussion = genericDAO.find(Discussion.class, discussionId, Discussion.DETAIL_GRAPH);
 
             if (discussion == null) {
                 logger.warn("No discussion found with ID: {}", discussionId);
@@ -410,84 +558,6 @@ public class DiscussionService {
         }
     }
 
-    /**
-     * Finds discussions similar to a given source discussion using a hybrid scoring model.
-     * @param sourceDiscussionId The ID of the discussion to find similar items for.
-     * @param limit The maximum number of similar discussions to return.
-     * @return A ServiceResponse containing a list of DiscussionSummaryDTOs.
-     */
-    @Transactional(readOnly = true)
-    public ServiceResponse<List<DiscussionSummaryDTO>> findSimilarDiscussions(Long sourceDiscussionId, int limit) {
-        logger.info("Finding similar discussions for discussion ID: {}", sourceDiscussionId);
-
-        Discussion sourceDiscussion = genericDAO.find(Discussion.class, sourceDiscussionId);
-        if (sourceDiscussion == null) {
-            return ServiceResponse.failure("Source discussion with ID " + sourceDiscussionId + " not found.");
-        }
-
-        SearchSession searchSession = Search.session(entityManager);
-
-        try {
-            List<Discussion> similarDiscussions = searchSession.search(Discussion.class)
-                    .where(f -> f.bool(b -> {
-                        b.mustNot(f.id().matching(sourceDiscussionId));
-
-                        // --- Text similarity replacement ---
-                        if (sourceDiscussion.getTitle() != null && !sourceDiscussion.getTitle().isBlank()) {
-                            b.should(f.match()
-                                    .field("title")
-                                    .matching(sourceDiscussion.getTitle())
-                                    .boost(2.0f));
-                        }
-                        if (sourceDiscussion.getContent() != null && !sourceDiscussion.getContent().isBlank()) {
-                            b.should(f.match()
-                                    .field("content")
-                                    .matching(sourceDiscussion.getContent())
-                                    .boost(1.5f));
-                        }
-
-                        // Forum similarity
-                        if (sourceDiscussion.getForum() != null) {
-                            b.should(f.match()
-                                    .field("forumId")
-                                    .matching(sourceDiscussion.getForum().getId())
-                                    .boost(3.0f));
-                        }
-
-                        // Tag similarity
-                        if (sourceDiscussion.getTags() != null) {
-                            for (Tag tag : sourceDiscussion.getTags()) {
-                                b.should(f.match()
-                                        .field("tagIds")
-                                        .matching(tag.getId())
-                                        .boost(2.5f));
-                            }
-                        }
-
-                        // Author similarity
-                        if (sourceDiscussion.getCreateBy() != null) {
-                            b.should(f.match()
-                                    .field("createBy")
-                                    .matching(sourceDiscussion.getCreateBy())
-                                    .boost(1.0f));
-                        }
-                    }))
-                    .sort(f -> f.score().desc())
-                    .fetch(limit)
-                    .hits();
-
-            List<DiscussionSummaryDTO> dtos = similarDiscussions.stream()
-                    .map(discussionMapper::toSummaryDTO)
-                    .collect(Collectors.toList());
-
-            return ServiceResponse.success("Successfully found similar discussions.", dtos);
-
-        } catch (Exception e) {
-            logger.error("Error finding similar discussions for ID " + sourceDiscussionId, e);
-            return ServiceResponse.failure("An unexpected error occurred while finding similar discussions.");
-        }
-    }
-
     @Transactional(readOnly = true)
     public ServiceResponse<List<DiscussionDTO>> getLatestDiscussions(int count) {
         try {
@@ -538,16 +608,40 @@ public class DiscussionService {
      *
      * @param keyword  The keyword to search for in discussion titles and content.
      * @param pageable Pagination information.
+     * @param searchToken Optional read-your-writes token (see {@link SearchIndexingTracker}): the search waits
+     *                    until the writes up to this token are searchable. Null to search the index as it is.
      * @return A ServiceResponse containing a paginated list of matching DiscussionInfoDTOs.
      */
     @Transactional(readOnly = true)
-    public ServiceResponse<PageResponseDTO<DiscussionInfoDTO>> searchDiscussions(String keyword, Pageable pageable) {
+    public ServiceResponse<PageResponseDTO<DiscussionInfoDTO>> searchDiscussions(String keyword, Pageable pageable,
+                                                                                 Long searchToken) {
         logger.info("Searching discussions with keyword: '{}', pageable: {}", keyword, pageable);
 
         SearchSession searchSession = Search.session(entityManager);
 
         try {
-            var searchResult = searchSession.search(Discussion.class)
+            if (searchToken != null) {
+                if (!searchIndexingTracker.awaitIndexed(searchToken)) {
+                    logger.warn("Writes up to search token {} are not indexed yet, searching anyway", searchToken);
+                }
+                // make the indexed changes visible now rather than at the next periodic refresh
+                searchSession.workspace(Discussion.class).refresh();
+            }
+
+            // Project the hits from the fields stored in the index (see Discussion), no discussion is loaded
+            SearchResult<DiscussionInfoDTO> searchResult = searchSession.search(Discussion.class)
+                    .select(f -> f.composite()
+                            .from(f.id(Long.class),
+                                    f.field("title", String.class),
+                                    f.field("contentAbbr", String.class),
+                                    f.field("createBy", String.class),
+                                    f.field("createDate", LocalDateTime.class))
+                            .asList(fields -> new DiscussionInfoDTO(
+                                    (Long) fields.get(0),
+                                    (String) fields.get(1),
+                                    (String) fields.get(2),
+                                    (String) fields.get(3),
+                                    (LocalDateTime) fields.get(4))))
                     .where(f -> f.bool(b -> {
                         // Search in title with a higher weight (boost)
                         b.should(f.match().field("title").boost(2.0f).matching(keyword));
@@ -558,18 +652,7 @@ public class DiscussionService {
                     .fetch((int) pageable.getOffset(), pageable.getPageSize());
 
             long totalHits = searchResult.total().hitCount();
-            List<Discussion> discussions = searchResult.hits();
-
-            // Manually project to DiscussionInfoDTO, truncating the content
-            List<DiscussionInfoDTO> discussionInfoDTOs = discussions.stream()
-                    .map(discussion -> new DiscussionInfoDTO(
-                            discussion.getId(),
-                            discussion.getTitle(),
-                            StringUtils.truncate(discussion.getContent(), 255), // Truncate content for summary
-                            discussion.getCreateBy(),
-                            discussion.getCreateDate()
-                    ))
-                    .collect(Collectors.toList());
+            List<DiscussionInfoDTO> discussionInfoDTOs = searchResult.hits();
 
             Page<DiscussionInfoDTO> pageResult = new PageImpl<>(discussionInfoDTOs, pageable, totalHits);
 
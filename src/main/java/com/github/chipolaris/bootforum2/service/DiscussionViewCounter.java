@@ -0,0 +1,192 @@
+package com.github.chipolaris.bootforum2.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind aggregator for discussion view counts.
+ *
+ * Views are absorbed in memory by a {@link LongAdder} per discussion id (lock-free and
+ * striped under contention) and periodically drained into batched
+ * {@code UPDATE DISCUSSION_STAT_T SET VIEW_COUNT = VIEW_COUNT + ?} statements, either every
+ * {@code app.stats.view-count.flush-interval-ms} or as soon as
+ * {@code app.stats.view-count.flush-threshold} views are pending, whichever comes first.
+ *
+ * Pending views are flushed one last time on shutdown. Like the previous per-view transaction
+ * (which gave up after a few optimistic lock retries), view counts are best-effort:
+ * views still pending when the JVM is killed are lost.
+ */
+@Component
+public class DiscussionViewCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscussionViewCounter.class);
+
+    /*
+     * VERSION is bumped so that a concurrent entity-based update of the same DiscussionStat
+     * row fails its optimistic lock check (and retries) instead of overwriting VIEW_COUNT
+     * with a stale value.
+     */
+    private static final String FLUSH_SQL = "UPDATE DISCUSSION_STAT_T " +
+            "SET VIEW_COUNT = VIEW_COUNT + ?, LAST_VIEWED = ?, VERSION = VERSION + 1 " +
+            "WHERE ID = (SELECT d.DISCUSSION_STAT_ID FROM DISCUSSION_T d WHERE d.ID = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMs;
+    private final long flushThreshold;
+
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final LongAdder pendingTotal = new LongAdder();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile long lastFlushMillis = System.currentTimeMillis();
+
+    private final Timer flushTimer;
+    private final Counter flushedViews;
+
+    public DiscussionViewCounter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.stats.view-count.flush-interval-ms:1000}") long flushIntervalMs,
+                                 @Value("${app.stats.view-count.flush-threshold:1000}") long flushThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushThreshold = flushThreshold;
+
+        Gauge.builder("forum.discussion.views.pending", pendingTotal, LongAdder::sum)
+                .description("Discussion views recorded in memory but not yet flushed to the database")
+                .register(meterRegistry);
+        Gauge.builder("forum.discussion.views.pending.discussions", pendingViews, Map::size)
+                .description("Number of discussions with a pending view count entry")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("forum.discussion.views.flush")
+                .description("Latency of flushing pending discussion views to the database")
+                .register(meterRegistry);
+        this.flushedViews = Counter.builder("forum.discussion.views.flushed")
+                .description("Total discussion views written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a single view of the given discussion. This never touches the database.
+     * @param discussionId id of the viewed discussion
+     */
+    public void recordView(Long discussionId) {
+        LongAdder counter = pendingViews.computeIfAbsent(discussionId, id -> new LongAdder());
+        counter.increment();
+        pendingTotal.increment();
+
+        // the counter may have been evicted by the flusher between lookup and increment
+        if (pendingViews.get(discussionId) != counter) {
+            rehome(discussionId, counter);
+        }
+    }
+
+    /**
+     * Number of views recorded but not yet flushed.
+     */
+    public long getPendingViews() {
+        return pendingTotal.sum();
+    }
+
+    /**
+     * Periodic check: flush when the interval has elapsed or when enough views are pending.
+     */
+    @Scheduled(fixedDelayString = "${app.stats.view-count.check-interval-ms:100}")
+    public void flushIfDue() {
+        if (pendingTotal.sum() >= flushThreshold
+                || System.currentTimeMillis() - lastFlushMillis >= flushIntervalMs) {
+            flush();
+        }
+    }
+
+    /**
+     * Drain all pending views into the database.
+     * @return number of views written
+     */
+    public long flush() {
+        flushLock.lock();
+        try {
+            lastFlushMillis = System.currentTimeMillis();
+
+            List<Object[]> batchArgs = drain();
+            if (batchArgs.isEmpty()) {
+                return 0;
+            }
+
+            long views = batchArgs.stream().mapToLong(args -> (Long) args[0]).sum();
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(
+                        status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batchArgs)));
+                pendingTotal.add(-views);
+                flushedViews.increment(views);
+                logger.debug("Flushed {} views for {} discussions", views, batchArgs.size());
+                return views;
+            } catch (Exception e) {
+                // put the deltas back so that they are retried on the next flush
+                logger.error("Failed to flush {} discussion views, will retry on next flush", views, e);
+                for (Object[] args : batchArgs) {
+                    pendingViews.computeIfAbsent((Long) args[2], id -> new LongAdder()).add((Long) args[0]);
+                }
+                return 0;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Flushing {} pending discussion views before shutdown", pendingTotal.sum());
+        flush();
+    }
+
+    private List<Object[]> drain() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>();
+
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            Long discussionId = entry.getKey();
+            LongAdder counter = entry.getValue();
+
+            long delta = counter.sumThenReset();
+            if (delta > 0) {
+                batchArgs.add(new Object[]{delta, now, discussionId});
+            }
+            else if (pendingViews.remove(discussionId, counter)) {
+                // idle since the last flush: evict it, keeping any increment that raced with the removal
+                long late = counter.sumThenReset();
+                if (late > 0) {
+                    batchArgs.add(new Object[]{late, now, discussionId});
+                }
+            }
+        }
+        return batchArgs;
+    }
+
+    private void rehome(Long discussionId, LongAdder evicted) {
+        long late = evicted.sumThenReset();
+        if (late > 0) {
+            pendingViews.computeIfAbsent(discussionId, id -> new LongAdder()).add(late);
+        }
+    }
+}
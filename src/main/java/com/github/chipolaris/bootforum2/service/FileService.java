@@ -22,8 +22,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Service
@@ -81,13 +85,16 @@ public class FileService {
 
             Path targetLocation = targetDirectory.resolve(uniqueFilename);
 
-            try (InputStream inputStream = multipartFile.getInputStream()) {
+            // hash the content while copying it, the hash serves as the ETag of the file
+            MessageDigest messageDigest = newContentDigest();
+            try (InputStream inputStream = new DigestInputStream(multipartFile.getInputStream(), messageDigest)) {
                 Files.copy(inputStream, targetLocation, StandardCopyOption.REPLACE_EXISTING);
             }
+            String contentHash = HexFormat.of().formatHex(messageDigest.digest());
 
             // Create FileCreatedDTO
             FileCreatedDTO fileInfo = new FileCreatedDTO(originalFilename, multipartFile.getContentType(),
-                    multipartFile.getSize(), datePartitionPath.toString() + "/" + uniqueFilename);
+                    multipartFile.getSize(), datePartitionPath.toString() + "/" + uniqueFilename, contentHash);
 
             logger.info("Stored file '{}' as '{}'", originalFilename, uniqueFilename);
 
@@ -109,6 +116,11 @@ public class FileService {
         // 1. Get FileInfo to retrieve metadata
         FileInfo fileInfo = genericDAO.find(FileInfo.class, fileId);
 
+        if (fileInfo == null) {
+            logger.warn("File metadata not found for file ID: {}", fileId);
+            return ServiceResponse.failure("File not found for ID: " + fileId);
+        }
+
         // 2. Resolve path and create resource (similar to existing loadFileAsResource)
         try {
             Path filePath = this.fileStorageLocation.resolve(fileInfo.getPath()).normalize();
@@ -117,7 +129,7 @@ public class FileService {
             if (resource.exists() && resource.isReadable()) {
                 long contentLength = resource.contentLength(); // Get content length
                 FileResourceDTO fileResourceDTO = new FileResourceDTO(resource,
-                        fileInfo.getOriginalFilename(), fileInfo.getMimeType());
+                        fileInfo.getOriginalFilename(), fileInfo.getMimeType(), fileInfo.getContentHash());
 
                 logger.debug("Prepared file for serving (original name {}): {}", fileInfo.getOriginalFilename(), filePath);
                 return ServiceResponse.success("File resource created successfully.", fileResourceDTO);
@@ -136,6 +148,15 @@ public class FileService {
         }
     }
 
+    private static MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     /**
      * Delete a file
      *
@@ -4,18 +4,27 @@ import com.github.chipolaris.bootforum2.dao.DynamicDAO;
 import com.github.chipolaris.bootforum2.dao.FilterSpec;
 import com.github.chipolaris.bootforum2.dao.GenericDAO;
 import com.github.chipolaris.bootforum2.dao.QuerySpec;
+import com.github.chipolaris.bootforum2.domain.Forum;
 import com.github.chipolaris.bootforum2.domain.ForumGroup;
-import com.github.chipolaris.bootforum2.dto.ForumGroupCreateDTO;
-import com.github.chipolaris.bootforum2.dto.ForumGroupDTO;
-import com.github.chipolaris.bootforum2.dto.ForumGroupUpdateDTO;
-import com.github.chipolaris.bootforum2.dto.ForumTreeTableDTO;
+import com.github.chipolaris.bootforum2.dto.*;
 import com.github.chipolaris.bootforum2.event.ForumGroupCreatedEvent;
+import com.github.chipolaris.bootforum2.event.ForumGroupUpdatedEvent;
 import com.github.chipolaris.bootforum2.mapper.ForumGroupMapper;
+import com.github.chipolaris.bootforum2.mapper.ForumStatMapper;
+import com.github.chipolaris.bootforum2.repository.ForumRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 @Service
 public class ForumGroupService {
@@ -26,16 +35,40 @@ public class ForumGroupService {
     private final DynamicDAO dynamicDAO;
     private final GenericDAO genericDAO;
     private final ApplicationEventPublisher eventPublisher;
+    private final ForumRepository forumRepository;
+    private final ForumStatMapper forumStatMapper;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    /*
+     * In-memory forum tree served to the home page, see getForumTreeSnapshot().
+     * Readers never lock; rebuilds, stat refreshes and invalidations are serialized on snapshotLock.
+     */
+    private final AtomicReference<ForumTreeSnapshot> forumTreeSnapshot = new AtomicReference<>();
+    private final Set<Long> staleForumStatIds = ConcurrentHashMap.newKeySet();
+    private final Object snapshotLock = new Object();
+    private long snapshotVersion;
+    // makes ETags issued before a restart never match a snapshot of this instance
+    private final String etagPrefix = Long.toString(System.currentTimeMillis(), 36);
 
     // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
     public ForumGroupService(GenericDAO genericDAO,  DynamicDAO dynamicDAO, ForumGroupMapper forumGroupMapper,
-                             ApplicationEventPublisher eventPublisher) {
+                             ApplicationEventPublisher eventPublisher, ForumRepository forumRepository,
+                             ForumStatMapper forumStatMapper, PlatformTransactionManager transactionManager) {
         this.genericDAO = genericDAO;
         this.eventPublisher = eventPublisher;
         this.forumGroupMapper = forumGroupMapper;
         this.dynamicDAO = dynamicDAO;
+        this.forumRepository = forumRepository;
+        this.forumStatMapper = forumStatMapper;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
+    /**
+     * Immutable, pre-mapped forum tree with the version tag it is served under.
+     */
+    public record ForumTreeSnapshot(ForumTreeTableDTO forumTreeTable, long version, String etag) {}
+
     @Transactional(readOnly=false)
     public ServiceResponse<ForumGroupDTO> createForumGroup(ForumGroupCreateDTO forumCreateDTO) {
 
@@ -87,6 +120,7 @@ public class ForumGroupService {
                 forumGroupMapper.mergeDTOToEntity(forumGroupUpdateDTO, forumGroup);
 
                 forumGroup = genericDAO.merge(forumGroup);
+                eventPublisher.publishEvent(new ForumGroupUpdatedEvent(this, forumGroup));
 
                 logger.info("Forum group {} updated successfully", forumGroup.getTitle());
 
@@ -121,7 +155,8 @@ public class ForumGroupService {
     @Transactional(readOnly = true)
     public ServiceResponse<ForumGroupDTO> getRootForumGroup() {
 
-        QuerySpec rooForumGroupQuery = QuerySpec.builder(ForumGroup.class).filter(FilterSpec.isNull("parent")).build();
+        QuerySpec rooForumGroupQuery = QuerySpec.builder(ForumGroup.class).filter(FilterSpec.isNull("parent"))
+                .cacheRegion(ForumGroup.ROOT_QUERY_CACHE_REGION).build();
         ForumGroup rootForumGroup = dynamicDAO.<ForumGroup>findOptional(rooForumGroupQuery).orElse(null);
 
         if(rootForumGroup == null) {
@@ -138,23 +173,165 @@ public class ForumGroupService {
 
     }
 
-    @Transactional(readOnly = true)
     public ServiceResponse<ForumTreeTableDTO> getForumTreeTable() {
 
-        QuerySpec rooForumGroupQuery = QuerySpec.builder(ForumGroup.class).filter(FilterSpec.isNull("parent")).build();
-        ForumGroup rootForumGroup = dynamicDAO.<ForumGroup>findOptional(rooForumGroupQuery).orElse(null);
+        ServiceResponse<ForumTreeSnapshot> snapshotResponse = getForumTreeSnapshot();
 
-        if(rootForumGroup == null) {
-            return ServiceResponse.failure("No root forum group found");
-        }
-        else {
+        return new ServiceResponse<ForumTreeTableDTO>().setAckCode(snapshotResponse.getAckCode())
+                .setMessages(snapshotResponse.getMessages())
+                .setDataObject(snapshotResponse.isSuccess() ? snapshotResponse.getDataObject().forumTreeTable() : null);
+    }
+
+    /**
+     * Forum tree table served from memory.
+     *
+     * The snapshot is built once, with all forums and their stats loaded in a single select, then kept
+     * until the forum hierarchy changes (see invalidateForumTree). Forum stat changes are applied to it
+     * incrementally by refreshStaleForumStats, so the snapshot lags the database by at most one refresh
+     * interval. Every new snapshot gets a new version, which clients can use as an ETag.
+     */
+    public ServiceResponse<ForumTreeSnapshot> getForumTreeSnapshot() {
+
+        ForumTreeSnapshot snapshot = forumTreeSnapshot.get();
+
+        if(snapshot == null) {
             try {
-                return ServiceResponse.success("Successfully retrieved forum tree table",
-                        forumGroupMapper.toForumTreeTableDTO(rootForumGroup));
+                snapshot = rebuildForumTree();
             } catch (Exception e) {
                 logger.error("Exception retrieving forum tree table: %s".formatted(e.getMessage()));
                 return ServiceResponse.failure("Exception retrieving forum tree table: %s".formatted(e.getMessage()));
             }
         }
+
+        if(snapshot == null) {
+            return ServiceResponse.failure("No root forum group found");
+        }
+        return ServiceResponse.success("Successfully retrieved forum tree table", snapshot);
+    }
+
+    /**
+     * Drop the forum tree snapshot, to be called after a change to the forum hierarchy
+     * has been committed. The next read builds a new one.
+     */
+    public void invalidateForumTree() {
+        synchronized (snapshotLock) {
+            forumTreeSnapshot.set(null);
+        }
+    }
+
+    /**
+     * Record that the stats of the given forums have changed (after commit).
+     * The change is applied to the snapshot on the next refreshStaleForumStats run.
+     */
+    public void markForumStatsStale(Collection<Long> forumIds) {
+        staleForumStatIds.addAll(forumIds);
+    }
+
+    /**
+     * Apply pending forum stat changes to the snapshot: only the stale forums are re-read, in one select,
+     * and only their entries are replaced. A burst of stat changes costs one refresh per interval.
+     */
+    @Scheduled(fixedDelayString = "${app.forum-tree.stat-refresh-interval-ms:1000}")
+    public void refreshStaleForumStats() {
+
+        if(staleForumStatIds.isEmpty()) {
+            return;
+        }
+
+        synchronized (snapshotLock) {
+            ForumTreeSnapshot snapshot = forumTreeSnapshot.get();
+            if(snapshot == null) {
+                // the next rebuild reads all stats anyway
+                staleForumStatIds.clear();
+                return;
+            }
+
+            Set<Long> forumIds = new HashSet<>(staleForumStatIds);
+            staleForumStatIds.removeAll(forumIds);
+
+            try {
+                Map<Long, ForumStatDTO> stats = readOnlyTransactionTemplate.execute(status ->
+                        forumRepository.findWithStatByIdIn(forumIds).stream()
+                                .collect(Collectors.toMap(Forum::getId, forum -> forumStatMapper.toDTO(forum.getStat()))));
+
+                forumTreeSnapshot.set(newSnapshot(withForumStats(snapshot.forumTreeTable(), stats)));
+                logger.debug("Refreshed stats of {} forums in the forum tree snapshot", stats.size());
+            } catch (Exception e) {
+                // retried on the next run
+                staleForumStatIds.addAll(forumIds);
+                logger.error("Exception refreshing forum stats of the forum tree snapshot", e);
+            }
+        }
+    }
+
+    private ForumTreeSnapshot rebuildForumTree() {
+
+        synchronized (snapshotLock) {
+            ForumTreeSnapshot snapshot = forumTreeSnapshot.get();
+            if(snapshot != null) {
+                // built by another reader in the meantime
+                return snapshot;
+            }
+
+            ForumTreeTableDTO forumTreeTable = readOnlyTransactionTemplate.execute(status -> {
+                // load all forums with their stats up front, so that mapping the tree doesn't select them one by one
+                forumRepository.findAllWithStat();
+
+                QuerySpec rootForumGroupQuery = QuerySpec.builder(ForumGroup.class).filter(FilterSpec.isNull("parent"))
+                        .cacheRegion(ForumGroup.ROOT_QUERY_CACHE_REGION).build();
+                return dynamicDAO.<ForumGroup>findOptional(rootForumGroupQuery)
+                        .map(forumGroupMapper::toForumTreeTableDTO).map(ForumGroupService::immutableCopy)
+                        .orElse(null);
+            });
+
+            if(forumTreeTable == null) {
+                return null;
+            }
+
+            snapshot = newSnapshot(forumTreeTable);
+            forumTreeSnapshot.set(snapshot);
+            logger.info("Built forum tree snapshot version {}", snapshot.version());
+            return snapshot;
+        }
+    }
+
+    // must be called with snapshotLock held
+    private ForumTreeSnapshot newSnapshot(ForumTreeTableDTO forumTreeTable) {
+        long version = ++snapshotVersion;
+        return new ForumTreeSnapshot(forumTreeTable, version, "\"%s-%d\"".formatted(etagPrefix, version));
+    }
+
+    private static ForumTreeTableDTO immutableCopy(ForumTreeTableDTO tree) {
+        return new ForumTreeTableDTO(copyOf(tree.forums()),
+                copyOf(tree.forumGroups()).stream().map(ForumGroupService::immutableCopy).toList());
+    }
+
+    private static ForumGroupDTO immutableCopy(ForumGroupDTO group) {
+        return new ForumGroupDTO(group.id(), group.title(), group.icon(), group.iconColor(), group.parentId(),
+                copyOf(group.forums()), copyOf(group.subGroups()).stream().map(ForumGroupService::immutableCopy).toList());
+    }
+
+    private static <T> List<T> copyOf(List<T> list) {
+        return list == null ? List.of() : List.copyOf(list);
+    }
+
+    /*
+     * Copy of the tree in which the stat of the given forums is replaced. Unchanged groups and forums are shared.
+     */
+    private static ForumTreeTableDTO withForumStats(ForumTreeTableDTO tree, Map<Long, ForumStatDTO> stats) {
+        return new ForumTreeTableDTO(withForumStats(tree.forums(), stats),
+                tree.forumGroups().stream().map(group -> withForumStats(group, stats)).toList());
+    }
+
+    private static ForumGroupDTO withForumStats(ForumGroupDTO group, Map<Long, ForumStatDTO> stats) {
+        return new ForumGroupDTO(group.id(), group.title(), group.icon(), group.iconColor(), group.parentId(),
+                withForumStats(group.forums(), stats),
+                group.subGroups().stream().map(subGroup -> withForumStats(subGroup, stats)).toList());
+    }
+
+    private static List<ForumDTO> withForumStats(List<ForumDTO> forums, Map<Long, ForumStatDTO> stats) {
+        return forums.stream().map(forum -> !stats.containsKey(forum.id()) ? forum
+                : new ForumDTO(forum.id(), forum.title(), forum.description(), forum.icon(), forum.iconColor(),
+                        forum.active(), forum.forumGroupId(), stats.get(forum.id()))).toList();
     }
 }
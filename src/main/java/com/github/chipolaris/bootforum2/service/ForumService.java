@@ -8,6 +8,7 @@ import com.github.chipolaris.bootforum2.dto.ForumDTO;
 import com.github.chipolaris.bootforum2.dto.ForumUpdateDTO;
 import com.github.chipolaris.bootforum2.dto.ForumViewDTO;
 import com.github.chipolaris.bootforum2.event.ForumCreatedEvent;
+import com.github.chipolaris.bootforum2.event.ForumUpdatedEvent;
 import com.github.chipolaris.bootforum2.mapper.ForumMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,6 +89,7 @@ public class ForumService {
             forumMapper.mergeIntoEntity(forumUpdateDTO, forum);
 
             forum = genericDAO.merge(forum);
+            eventPublisher.publishEvent(new ForumUpdatedEvent(this, forum));
 
             logger.info("Forum {} updated successfully", forum.getTitle());
 
@@ -10,6 +10,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 
@@ -18,11 +20,17 @@ public class ForumSettingService {
 
     private static final Logger logger = LoggerFactory.getLogger(ForumSettingService.class);
 
+    private static final List<String> CATEGORIES = List.of("general", "users", "content", "moderation",
+            "images", "attachments", "notifications", "analytics", "system");
+
     private final ForumSettingRepository forumSettingRepository;
     private final ForumDefaultConfig forumDefaultConfig;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // replaced as a whole, never modified (see reloadSnapshot)
+    private volatile ForumSettingsSnapshot snapshot;
+
     public ForumSettingService(ForumSettingRepository forumSettingRepository,
                                ForumDefaultConfig forumDefaultConfig) {
         this.forumSettingRepository = forumSettingRepository;
@@ -65,11 +73,21 @@ public class ForumSettingService {
         categories.put("analytics", defaults.getAnalytics());
         categories.put("system", defaults.getSystem());
 
+        // existing values are preserved: load their keys once instead of a lookup per default
+        Set<String> existingKeys = new HashSet<>();
+        for (ForumSetting setting : forumSettingRepository.findAll()) {
+            existingKeys.add(setting.getCategory() + "." + setting.getKeyName());
+        }
+
+        List<ForumSetting> missingSettings = new ArrayList<>();
         categories.forEach((category, values) -> {
             if (values != null) {
                 Map<String, Object> flatValues = SettingsFlattener.flatten(values);
 
                 flatValues.forEach((key, value) -> {
+                    if (existingKeys.contains(category + "." + key)) {
+                        return;
+                    }
                     try {
                         String jsonValue;
                         String type;
@@ -82,15 +100,12 @@ public class ForumSettingService {
                             type = "json";
                         }
 
-                        forumSettingRepository.findByCategoryAndKeyName(category, key)
-                                .orElseGet(() -> {
-                                    ForumSetting s = new ForumSetting();
-                                    s.setCategory(category);
-                                    s.setKeyName(key);
-                                    s.setValue(jsonValue);
-                                    s.setValueType(type);
-                                    return forumSettingRepository.save(s);
-                                });
+                        ForumSetting s = new ForumSetting();
+                        s.setCategory(category);
+                        s.setKeyName(key);
+                        s.setValue(jsonValue);
+                        s.setValueType(type);
+                        missingSettings.add(s);
 
                     } catch (Exception e) {
                         throw new RuntimeException("Failed to persist default setting " + key, e);
@@ -98,19 +113,27 @@ public class ForumSettingService {
                 });
             }
         });
+
+        // inserted as JDBC batches (hibernate.jdbc.batch_size)
+        forumSettingRepository.saveAll(missingSettings);
+        logger.info("Inserted {} missing default settings", missingSettings.size());
+
+        reloadSnapshotAfterCommit();
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * @return the values of the given keys ("category.key") that exist, from the settings snapshot
+     */
     public ServiceResponse<Map<String, Object>> getSettingValues(List<String> keys) {
+        ForumSettingsSnapshot snapshot = getSnapshot();
         Map<String, Object> results = new HashMap<>();
         List<String> errors = new ArrayList<>();
 
         for (String key : keys) {
             String[] parts = key.split("\\.", 2);
             if (parts.length == 2) {
-                ServiceResponse<Object> response = getSettingValue(parts[0], parts[1]);
-                if (response.isSuccess()) {
-                    results.put(key, response.getDataObject());
+                if (snapshot.contains(parts[0], parts[1])) {
+                    results.put(key, snapshot.get(parts[0], parts[1]));
                 }
                 // Even if not found, we just don't add it to the map.
                 // The frontend will handle nulls.
@@ -127,47 +150,72 @@ public class ForumSettingService {
         return ServiceResponse.success("Fetched multiple settings", results);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * @param key a leaf key ("posts.minLength") or the key of a group of settings ("posts")
+     * @return the value from the settings snapshot: saved in the database, or else the default
+     */
     public ServiceResponse<Object> getSettingValue(String category, String key) {
-        // 1. Check DB first
-        Optional<ForumSetting> dbSettingOpt = forumSettingRepository.findByCategoryAndKeyName(category, key);
-        if (dbSettingOpt.isPresent()) {
-            ForumSetting dbSetting = dbSettingOpt.get();
-            // Use the type from the DB to convert the string value back to its original object type
-            return ServiceResponse.success("Found in DB", convertStringToObject(dbSetting.getValue(), dbSetting.getValueType()));
+        ForumSettingsSnapshot snapshot = getSnapshot();
+        if (snapshot.contains(category, key)) {
+            return ServiceResponse.success("Setting found", snapshot.get(category, key));
         }
 
-        // 2. If not in DB, check default config from yml by traversing the map
-        Map<String, Object> categoryDefaults = getDefaultsForCategory(category);
-        if (categoryDefaults != null) {
-            // This logic handles both simple keys ("allowedTypes") and nested keys ("posts.minLength")
-            String[] keyParts = key.split("\\.");
-            Object currentValue = categoryDefaults;
-            boolean found = true;
-
-            for (String part : keyParts) {
-                if (currentValue instanceof Map) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> currentMap = (Map<String, Object>) currentValue;
-                    if (currentMap.containsKey(part)) {
-                        currentValue = currentMap.get(part);
-                    } else {
-                        found = false;
-                        break;
-                    }
-                } else {
-                    found = false;
-                    break;
-                }
-            }
+        logger.warn("Setting '{}.{}' not found in database or defaults.", category, key);
+        return ServiceResponse.failure(String.format("Setting '%s.%s' not found.", category, key));
+    }
+
+    /**
+     * The current settings snapshot, loaded on first use. Snapshots are never modified: a change of the
+     * settings replaces the snapshot as a whole (see reloadSnapshot), so a reader always sees a consistent set.
+     */
+    public ForumSettingsSnapshot getSnapshot() {
+        ForumSettingsSnapshot current = snapshot;
+        return current != null ? current : reloadSnapshot();
+    }
 
-            if (found) {
-                return ServiceResponse.success("Found in defaults", currentValue);
+    /**
+     * Rebuilds the snapshot from the defaults and the database and replaces the current one, with a new
+     * version. Synchronized so that snapshots are replaced in the order their database reads happened.
+     */
+    public synchronized ForumSettingsSnapshot reloadSnapshot() {
+
+        Map<String, Object> leafValues = new LinkedHashMap<>();
+        for (String category : CATEGORIES) {
+            Map<String, Object> defaults = getDefaultsForCategory(category);
+            if (defaults != null) {
+                SettingsFlattener.flatten(defaults).forEach((key, value) -> leafValues.put(category + "." + key, value));
             }
         }
+        for (ForumSetting dbSetting : forumSettingRepository.findAll()) {
+            // Use the type from the DB to convert the string value back to its original object type
+            leafValues.put(dbSetting.getCategory() + "." + dbSetting.getKeyName(),
+                    convertStringToObject(dbSetting.getValue(), dbSetting.getValueType()));
+        }
 
-        logger.warn("Setting '{}.{}' not found in database or defaults.", category, key);
-        return ServiceResponse.failure(String.format("Setting '%s.%s' not found.", category, key));
+        ForumSettingsSnapshot previous = snapshot;
+        // versions only grow, and a restart starts from a higher version than the clients have seen
+        long version = Math.max(previous != null ? previous.getVersion() + 1 : 0, System.currentTimeMillis());
+        snapshot = new ForumSettingsSnapshot(version, leafValues);
+
+        logger.info("Loaded forum settings snapshot version {} ({} settings)", version, leafValues.size());
+        return snapshot;
+    }
+
+    /**
+     * Reloads the snapshot once the current transaction commits, so that it includes the changes made in
+     * the transaction (immediately if there's no transaction)
+     */
+    private void reloadSnapshotAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadSnapshot();
+                }
+            });
+        } else {
+            reloadSnapshot();
+        }
     }
 
     private Map<String, Object> getDefaultsForCategory(String category) {
@@ -247,7 +295,8 @@ public class ForumSettingService {
         try {
             return switch (type) {
                 case "boolean" -> Boolean.parseBoolean(value);
-                case "number" -> objectMapper.readValue(value, Number.class);
+                // number types of the defaults are saved by class name (see saveAllDefaults)
+                case "number", "integer", "long", "double", "float" -> objectMapper.readValue(value, Number.class);
                 case "list", "json" -> objectMapper.readValue(value, Object.class);
                 default -> value; // It's a string
             };
@@ -286,6 +335,8 @@ public class ForumSettingService {
 
     @Transactional(readOnly = false)
     public ServiceResponse<Void> saveOrUpdate(Map<String, List<SettingDTO>> settings) {
+        // readers switch to the saved values all at once, with a new version, once they're committed
+        reloadSnapshotAfterCommit();
         for (var entry : settings.entrySet()) {
             String category = entry.getKey();
             for (SettingDTO dto : entry.getValue()) {
@@ -0,0 +1,113 @@
+package com.github.chipolaris.bootforum2.service;
+
+import java.util.*;
+
+/**
+ * Immutable view of all forum settings: the defaults of ForumDefaultConfig with the values saved in the
+ * database merged over them, already converted to their types. Values are keyed by "category.key", for
+ * leaf keys ("content.posts.minLength") as well as the nested maps above them ("content.posts").
+ *
+ * The version changes with every new snapshot, so that clients can tell whether their copy of the
+ * settings is stale.
+ */
+public final class ForumSettingsSnapshot {
+
+    private final long version;
+    private final Map<String, Object> values;
+
+    /**
+     * @param leafValues values of the leaf keys, by "category.key"
+     */
+    ForumSettingsSnapshot(long version, Map<String, Object> leafValues) {
+        this.version = version;
+        this.values = Collections.unmodifiableMap(materialize(leafValues));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean contains(String category, String key) {
+        return values.containsKey(category + "." + key);
+    }
+
+    /**
+     * @return the value (unmodifiable if it's a list or a map), null if there's no such setting
+     */
+    public Object get(String category, String key) {
+        return values.get(category + "." + key);
+    }
+
+    public Optional<Number> getNumber(String category, String key) {
+        return get(category, key) instanceof Number number ? Optional.of(number) : Optional.empty();
+    }
+
+    public Optional<Boolean> getBoolean(String category, String key) {
+        return get(category, key) instanceof Boolean bool ? Optional.of(bool) : Optional.empty();
+    }
+
+    public List<String> getStringList(String category, String key) {
+        return get(category, key) instanceof List<?> list
+                ? list.stream().map(String::valueOf).toList()
+                : List.of();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Leaf values made deeply unmodifiable, plus one entry per nested map: e.g. "content.posts.minLength"
+     * and "content.posts.maxLength" also give "content.posts" -> {minLength, maxLength}
+     */
+    private static Map<String, Object> materialize(Map<String, Object> leafValues) {
+
+        Map<String, Object> trees = new LinkedHashMap<>();
+        leafValues.forEach((path, value) -> {
+            String[] parts = path.split("\\.");
+            Map<String, Object> node = trees;
+            for (int i = 0; i < parts.length - 1; i++) {
+                Object child = node.get(parts[i]);
+                if (!(child instanceof Map)) {
+                    child = new LinkedHashMap<String, Object>();
+                    node.put(parts[i], child); // a leaf and a nested key of the same name: the nested key wins
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> childMap = (Map<String, Object>) child;
+                node = childMap;
+            }
+            node.putIfAbsent(parts[parts.length - 1], value);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        // top level keys are the categories, which aren't settings themselves
+        trees.forEach((category, tree) -> {
+            if (tree instanceof Map<?, ?> categoryTree) {
+                categoryTree.forEach((key, value) -> register(category + "." + key, value, result));
+            }
+        });
+        return result;
+    }
+
+    private static void register(String path, Object value, Map<String, Object> result) {
+        Object immutableValue = immutableCopy(value);
+        result.put(path, immutableValue);
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((key, child) -> register(path + "." + key, child, result));
+        }
+    }
+
+    private static Object immutableCopy(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, child) -> copy.put(String.valueOf(key), immutableCopy(child)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> copy = new ArrayList<>();
+            collection.forEach(element -> copy.add(immutableCopy(element)));
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+}
@@ -1,78 +1,429 @@
 package com.github.chipolaris.bootforum2.service;
 
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
+import com.github.chipolaris.bootforum2.dao.DynamicDAO;
+import com.github.chipolaris.bootforum2.dao.FilterSpec;
+import com.github.chipolaris.bootforum2.dao.OrderSpec;
+import com.github.chipolaris.bootforum2.dao.QuerySpec;
 import com.github.chipolaris.bootforum2.domain.Comment;
 import com.github.chipolaris.bootforum2.domain.Discussion;
+import com.github.chipolaris.bootforum2.domain.Forum;
+import com.github.chipolaris.bootforum2.domain.ReindexCheckpoint;
+import com.github.chipolaris.bootforum2.dto.admin.ReindexProgressDTO;
+import com.github.chipolaris.bootforum2.enumeration.ReindexStatus;
+import com.github.chipolaris.bootforum2.repository.ReindexCheckpointRepository;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.search.engine.search.query.SearchScroll;
+import org.hibernate.search.engine.search.query.SearchScrollResult;
 import org.hibernate.search.mapper.orm.Search;
 import org.hibernate.search.mapper.orm.massindexing.MassIndexer;
 import org.hibernate.search.mapper.orm.session.SearchSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Service dedicated to managing Hibernate Search indexes.
+ *
+ * A reindex run walks each target entity in ranges of consecutive ids (app.search.reindex.range-size),
+ * and mass indexes one range at a time.
+ *
+ * The index isn't purged as a whole when the run starts, which would leave searches without results until
+ * the run is done. Since the mass indexer only adds documents, the documents of a range's entities are
+ * purged right before the range is mass indexed instead: searches only miss the documents of the range in
+ * progress. Documents of entities deleted behind Hibernate's back (bulk or SQL deletes, which the automatic
+ * indexing doesn't see) are not in any range, so once all the ranges of an entity are done, the run walks
+ * the document ids in the index and purges those whose entity is no longer in the database. Until then,
+ * searches can still return such stale documents; their hits are dropped when loading the entities.
+ *
+ * After each range, the entity's checkpoint ({@link ReindexCheckpoint}) records the end of the range, so a
+ * run that crashed or was cancelled can be resumed from there. Progress, indexing rate and ETA of the run
+ * in progress come from a {@link ReindexMonitor}.
  */
 @Service
 public class IndexingService {
 
     private static final Logger logger = LoggerFactory.getLogger(IndexingService.class);
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    /**
+     * The @Indexed entities, in the order they are reindexed by a reindex of "all"
+     */
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(Forum.class, Discussion.class, Comment.class);
 
     /**
-     * Triggers a full re-index of specified entities in a background thread.
-     * This method will first purge the existing index for the target entities.
+     * Document ids checked against the database per query when purging stale documents
+     * (1000 is the limit of an IN list on some databases)
+     */
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DynamicDAO dynamicDAO;
+    private final ReindexCheckpointRepository reindexCheckpointRepository;
+    private final AsyncTaskExecutor indexingExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int threads;
+    private final int idFetchSize;
+    private final int rangeSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelRequested;
+    private volatile CompletableFuture<?> currentIndexing;
+    private volatile String currentEntity;
+    private volatile ReindexMonitor currentMonitor;
+
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public IndexingService(EntityManagerFactory entityManagerFactory, DynamicDAO dynamicDAO,
+                           ReindexCheckpointRepository reindexCheckpointRepository,
+                           @Qualifier(AsyncExecutorConfig.INDEXING_EXECUTOR) AsyncTaskExecutor indexingExecutor,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.search.reindex.batch-size:50}") int batchSize,
+                           @Value("${app.search.reindex.threads:0}") int threads,
+                           @Value("${app.search.reindex.id-fetch-size:0}") int idFetchSize,
+                           @Value("${app.search.reindex.range-size:10000}") int rangeSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.dynamicDAO = dynamicDAO;
+        this.reindexCheckpointRepository = reindexCheckpointRepository;
+        this.indexingExecutor = indexingExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        // each loading thread holds a database connection, so stay well below the connection pool size
+        this.threads = threads > 0 ? threads
+                : Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() / 2, 8));
+        // enough ids per round-trip to hand a batch to each loading thread
+        this.idFetchSize = idFetchSize > 0 ? idFetchSize : batchSize * this.threads;
+        this.rangeSize = rangeSize;
+    }
+
+    /**
+     * Starts a re-index of specified entities in the background.
      *
-     * @param target a string representing the entity to re-index ("all", "Discussion", "Comment", etc.).
+     * @param target a string representing the entity to re-index ("all", "Forum", "Discussion" or "Comment").
+     * @param resume continue from the checkpoints of the last run (entities that completed are skipped),
+     *               instead of starting over
      */
-    @Async // Ensures this long-running task doesn't block the caller's thread.
-    @Transactional
-    public void reindex(String target) {
-        logger.info("Received request to re-index target: '{}'", target);
+    public ServiceResponse<Void> reindex(String target, boolean resume) {
+        logger.info("Received request to re-index target: '{}' (resume: {})", target, resume);
+
+        List<Class<?>> entityTypes;
+        if ("all".equalsIgnoreCase(target)) {
+            entityTypes = INDEXED_ENTITIES;
+        } else {
+            try {
+                entityTypes = List.of(resolveTargetClass(target));
+            } catch (ClassNotFoundException e) {
+                logger.error("Invalid target class for re-indexing: '{}'. Please provide a valid @Indexed entity name.", target);
+                return ServiceResponse.failure("Invalid target for re-indexing: " + target);
+            }
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            return ServiceResponse.failure("A re-indexing process is already running");
+        }
+        cancelRequested = false;
 
         try {
-            SearchSession searchSession = Search.session(entityManager);
-            MassIndexer massIndexer;
-
-            // FIX: Configure the MassIndexer with the target type from the start.
-            if ("all".equalsIgnoreCase(target)) {
-                logger.info("Configuring re-indexing for ALL indexed entities...");
-                // massIndexer() with no arguments targets all indexed entities.
-                massIndexer = searchSession.massIndexer();
-            } else {
-                Class<?> targetClass = resolveTargetClass(target);
-                logger.info("Configuring re-indexing for entity: {}", targetClass.getSimpleName());
-                // massIndexer(Class) targets a specific entity.
-                massIndexer = searchSession.massIndexer(targetClass);
+            indexingExecutor.execute(() -> run(entityTypes, resume));
+        } catch (TaskRejectedException e) {
+            running.set(false);
+            logger.warn("Rejected re-index request, executor is busy");
+            return ServiceResponse.failure("The indexing executor is busy, please try again later");
+        }
+
+        return ServiceResponse.success(resume ? "Re-indexing resumed" : "Re-indexing started");
+    }
+
+    /**
+     * Stops the running re-index. The id range in progress is abandoned and the run can be resumed
+     * from the last completed range.
+     */
+    public ServiceResponse<Void> cancel() {
+
+        if (!running.get()) {
+            return ServiceResponse.failure("No re-indexing process is running");
+        }
+        cancelRequested = true;
+
+        CompletableFuture<?> indexing = currentIndexing;
+        if (indexing != null) {
+            indexing.cancel(true);
+        }
+
+        return ServiceResponse.success("Re-indexing is being cancelled");
+    }
+
+    /**
+     * Checkpoint and progress of each indexed entity, with the rate and ETA of the entity being reindexed
+     */
+    public ServiceResponse<List<ReindexProgressDTO>> getProgress() {
+
+        List<ReindexProgressDTO> progress = new ArrayList<>();
+        for (Class<?> entityType : INDEXED_ENTITIES) {
+            String entityName = entityType.getSimpleName();
+            reindexCheckpointRepository.findByEntityName(entityName).ifPresent(checkpoint -> {
+                ReindexStatus status = checkpoint.getStatus();
+                long indexed = checkpoint.getIndexed();
+                double documentsPerSecond = 0;
+                Long etaSeconds = null;
+
+                ReindexMonitor monitor = currentMonitor;
+                if (status == ReindexStatus.RUNNING && !running.get()) {
+                    // left running by a run that didn't finish, e.g. the application was stopped
+                    status = ReindexStatus.INTERRUPTED;
+                } else if (status == ReindexStatus.RUNNING && monitor != null && entityName.equals(currentEntity)) {
+                    indexed = monitor.getIndexed();
+                    documentsPerSecond = monitor.getDocumentsPerSecond();
+                    etaSeconds = monitor.getEtaSeconds();
+                }
+                progress.add(new ReindexProgressDTO(entityName, status.name(), checkpoint.getTotal(), indexed,
+                        checkpoint.getLastId(), documentsPerSecond, etaSeconds, checkpoint.getCreateDate(),
+                        checkpoint.getUpdateDate(), checkpoint.getErrorMessage()));
+            });
+        }
+
+        return ServiceResponse.success("Re-indexing progress retrieved", progress);
+    }
+
+    private void run(List<Class<?>> entityTypes, boolean resume) {
+
+        logger.info("Starting re-indexing of {} (resume: {}, batch size: {}, threads: {}, id fetch size: {}, range size: {})",
+                entityTypes.stream().map(Class::getSimpleName).toList(), resume, batchSize, threads, idFetchSize, rangeSize);
+        try {
+            for (Class<?> entityType : entityTypes) {
+                ReindexCheckpoint checkpoint = transactionTemplate.execute(status -> startEntity(entityType, resume));
+                if (checkpoint.getStatus() == ReindexStatus.COMPLETED) {
+                    logger.info("Re-indexing of {} already completed, skipping", entityType.getSimpleName());
+                    continue;
+                }
+                if (!reindexEntity(entityType, checkpoint)) {
+                    return;
+                }
             }
-            
-            // Configure and run the MassIndexer
-            massIndexer.purgeAllOnStart(true)      // Deletes existing index data before starting
-                    .batchSizeToLoadObjects(25) // Tune based on your entity size and memory
-                    .threadsToLoadObjects(4);   // Tune based on your server's core count
+            logger.info("Re-indexing completed");
+        } catch (RuntimeException e) {
+            logger.error("An unexpected error occurred during re-indexing", e);
+        } finally {
+            currentIndexing = null;
+            currentMonitor = null;
+            currentEntity = null;
+            running.set(false);
+        }
+    }
+
+    private ReindexCheckpoint startEntity(Class<?> entityType, boolean resume) {
+
+        String entityName = entityType.getSimpleName();
+        ReindexCheckpoint checkpoint = reindexCheckpointRepository.findByEntityName(entityName)
+                .orElseGet(() -> ReindexCheckpoint.newReindexCheckpoint(entityName));
 
-            logger.info("Starting re-indexing process for target '{}'...", target);
+        if (resume && checkpoint.getStatus() == ReindexStatus.COMPLETED) {
+            return checkpoint;
+        }
+        if (!resume) {
+            checkpoint.setLastId(null);
+            checkpoint.setIndexed(0);
+            checkpoint.setCreateDate(LocalDateTime.now());
+        }
+        checkpoint.setStatus(ReindexStatus.RUNNING);
+        checkpoint.setErrorMessage(null);
+        checkpoint.setTotal(dynamicDAO.count(QuerySpec.builder(entityType).build()));
 
-            // startAndWait() blocks this async thread until completion, not the web thread.
-            // It takes no arguments.
-            massIndexer.startAndWait();
+        return reindexCheckpointRepository.save(checkpoint);
+    }
 
-            logger.info("Successfully completed re-indexing for target: '{}'", target);
+    /**
+     * Reindexes the entities of entityType after the checkpoint, range by range.
+     *
+     * @return true if the entity completed
+     */
+    private boolean reindexEntity(Class<?> entityType, ReindexCheckpoint checkpoint) {
 
-        } catch (ClassNotFoundException e) {
-            logger.error("Invalid target class for re-indexing: '{}'. Please provide a valid @Indexed entity name.", target);
-        } catch (InterruptedException e) {
-            logger.error("Re-indexing process was interrupted for target: '{}'", target, e);
-            // It's good practice to re-interrupt the thread when catching InterruptedException
-            Thread.currentThread().interrupt();
-        } catch (Exception e) {
-            logger.error("An unexpected error occurred during re-indexing for target: '{}'", target, e);
+        String entityName = entityType.getSimpleName();
+        ReindexMonitor monitor = new ReindexMonitor(checkpoint.getTotal(), checkpoint.getIndexed());
+        currentEntity = entityName;
+        currentMonitor = monitor;
+
+        Long afterId = checkpoint.getLastId();
+        logger.info("Re-indexing {} {} after id {}", checkpoint.getTotal(), entityName, afterId);
+
+        try {
+            while (!cancelRequested) {
+                Long toId = rangeEnd(entityType, afterId);
+                long addedBefore = monitor.getDocumentsAdded();
+
+                purgeRange(entityType, afterId, toId);
+
+                CompletableFuture<?> indexing = newMassIndexer(entityType, afterId, toId, monitor)
+                        .start().toCompletableFuture();
+                currentIndexing = indexing;
+                if (cancelRequested) {
+                    indexing.cancel(true);
+                }
+                indexing.join();
+
+                // the mass indexer flushes and refreshes the index when done, the range is committed
+                checkpoint(entityName, toId != null ? toId : afterId, monitor.getDocumentsAdded() - addedBefore);
+                logger.info("Re-indexed {} up to id {}: {}/{} documents, {} docs/sec", entityName, toId,
+                        monitor.getIndexed(), monitor.getTotal(), Math.round(monitor.getDocumentsPerSecond()));
+
+                if (toId == null) {
+                    break;
+                }
+                afterId = toId;
+            }
+            if (!cancelRequested) {
+                long purged = purgeStaleDocuments(entityType);
+                logger.info("Purged {} stale {} documents from the index", purged, entityName);
+            }
+        } catch (CancellationException e) {
+            logger.info("Re-indexing of {} cancelled in the range after id {}", entityName, afterId);
+        } catch (CompletionException e) {
+            logger.error("Re-indexing of {} failed in the range after id {}", entityName, afterId, e.getCause());
+            finishEntity(entityName, ReindexStatus.FAILED, String.valueOf(e.getCause()));
+            return false;
+        } catch (RuntimeException e) {
+            logger.error("Purging stale {} documents failed", entityName, e);
+            finishEntity(entityName, ReindexStatus.FAILED, String.valueOf(e));
+            return false;
         }
+
+        ReindexStatus status = cancelRequested ? ReindexStatus.CANCELLED : ReindexStatus.COMPLETED;
+        finishEntity(entityName, status, null);
+        logger.info("Re-indexing of {}: {}", entityName, status);
+
+        return status == ReindexStatus.COMPLETED;
+    }
+
+    /**
+     * @return the last id of the range of rangeSize ids after afterId, null if fewer ids are left
+     * (i.e. the range is the last one)
+     */
+    private Long rangeEnd(Class<?> entityType, Long afterId) {
+
+        QuerySpec.Builder<Long> builder = QuerySpec.builder(Long.class).rootEntityClass(entityType)
+                .targetPath("id").order(OrderSpec.asc("id")).startIndex(rangeSize - 1).maxResult(1);
+        if (afterId != null) {
+            builder.filter(FilterSpec.gt("id", afterId));
+        }
+        List<Long> ids = dynamicDAO.find(builder.build());
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /**
+     * Purges the documents of the entities with an id in (afterId, toId] (either bound is open when null),
+     * which the mass indexer is about to add again.
+     */
+    private void purgeRange(Class<?> entityType, Long afterId, Long toId) {
+
+        QuerySpec.Builder<Long> builder = QuerySpec.builder(Long.class).rootEntityClass(entityType).targetPath("id");
+        if (afterId != null) {
+            builder.filter(FilterSpec.gt("id", afterId));
+        }
+        if (toId != null) {
+            builder.filter(FilterSpec.lte("id", toId));
+        }
+        List<Long> ids = dynamicDAO.find(builder.build());
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            SearchSession searchSession = Search.session(entityManager);
+            ids.forEach(id -> searchSession.indexingPlan().purge(entityType, id, null));
+            searchSession.indexingPlan().execute();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Purges the documents of entityType whose entity is no longer in the database, see class comment.
+     *
+     * @return number of documents purged
+     */
+    private long purgeStaleDocuments(Class<?> entityType) {
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            SearchSession searchSession = Search.session(entityManager);
+            long purged = 0;
+            try (SearchScroll<Long> scroll = searchSession.search(entityType)
+                    .select(f -> f.id(Long.class)).where(f -> f.matchAll()).scroll(PURGE_CHUNK_SIZE)) {
+
+                for (SearchScrollResult<Long> chunk = scroll.next(); chunk.hasHits() && !cancelRequested;
+                     chunk = scroll.next()) {
+                    List<Long> indexedIds = chunk.hits();
+                    Set<Long> existingIds = new HashSet<>(dynamicDAO.find(QuerySpec.builder(Long.class)
+                            .rootEntityClass(entityType).targetPath("id")
+                            .filter(FilterSpec.in("id", indexedIds)).build()));
+
+                    for (Long id : indexedIds) {
+                        if (!existingIds.contains(id)) {
+                            searchSession.indexingPlan().purge(entityType, id, null);
+                            purged++;
+                        }
+                    }
+                    searchSession.indexingPlan().execute();
+                }
+            }
+            return purged;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private MassIndexer newMassIndexer(Class<?> entityType, Long afterId, Long toId, ReindexMonitor monitor) {
+
+        MassIndexer massIndexer = Search.mapping(entityManagerFactory).scope(entityType).massIndexer()
+                .purgeAllOnStart(false) // the documents of the range are purged beforehand, see purgeRange
+                .dropAndCreateSchemaOnStart(false)
+                .batchSizeToLoadObjects(batchSize)
+                .threadsToLoadObjects(threads)
+                .idFetchSize(idFetchSize)
+                .monitor(monitor);
+
+        if (afterId != null && toId != null) {
+            massIndexer.type(entityType).reindexOnly("e.id > :afterId and e.id <= :toId")
+                    .param("afterId", afterId).param("toId", toId);
+        } else if (afterId != null) {
+            massIndexer.type(entityType).reindexOnly("e.id > :afterId").param("afterId", afterId);
+        } else if (toId != null) {
+            massIndexer.type(entityType).reindexOnly("e.id <= :toId").param("toId", toId);
+        }
+        return massIndexer;
+    }
+
+    private void checkpoint(String entityName, Long lastId, long indexed) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ReindexCheckpoint checkpoint = reindexCheckpointRepository.findByEntityName(entityName).orElseThrow();
+            checkpoint.setLastId(lastId);
+            checkpoint.addIndexed(indexed);
+        });
+    }
+
+    private void finishEntity(String entityName, ReindexStatus status, String errorMessage) {
+        transactionTemplate.executeWithoutResult(txStatus -> {
+            ReindexCheckpoint checkpoint = reindexCheckpointRepository.findByEntityName(entityName).orElseThrow();
+            checkpoint.setStatus(status);
+            checkpoint.setErrorMessage(errorMessage != null && errorMessage.length() > 255
+                    ? errorMessage.substring(0, 255) : errorMessage);
+        });
     }
 
     /**
@@ -86,10 +437,11 @@ public class IndexingService {
         // This can be expanded with a more dynamic mechanism if you have many entities,
         // but a switch is clear and effective for a known set.
         return switch (className.toLowerCase()) {
+            case "forum" -> Forum.class;
             case "discussion" -> Discussion.class;
             case "comment" -> Comment.class;
             // Add other @Indexed entities here as needed
             default -> throw new ClassNotFoundException("No indexed entity found for target: " + className);
         };
     }
-}
\ No newline at end of file
+}
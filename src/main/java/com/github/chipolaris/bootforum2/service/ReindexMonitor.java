@@ -0,0 +1,100 @@
+package com.github.chipolaris.bootforum2.service;
+
+import org.hibernate.search.mapper.pojo.massindexing.MassIndexingMonitor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Progress of the mass reindexing of one entity, across the id ranges it's reindexed in
+ * (see {@link IndexingService}). Hibernate Search reports to it from its loading and indexing threads.
+ */
+public class ReindexMonitor implements MassIndexingMonitor {
+
+    private final long total;
+    private final long indexedBefore;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+
+    private final LongAdder documentsAdded = new LongAdder();
+    private final LongAdder entitiesLoaded = new LongAdder();
+
+    /**
+     * @param total entities to reindex
+     * @param indexedBefore documents already indexed by the run this one resumes
+     */
+    public ReindexMonitor(long total, long indexedBefore) {
+        this(total, indexedBefore, System::nanoTime);
+    }
+
+    ReindexMonitor(long total, long indexedBefore, LongSupplier nanoClock) {
+        this.total = total;
+        this.indexedBefore = indexedBefore;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    @Override
+    public void documentsAdded(long increment) {
+        documentsAdded.add(increment);
+    }
+
+    @Override
+    public void documentsBuilt(long increment) {
+        // documents are counted once written, see documentsAdded
+    }
+
+    @Override
+    public void entitiesLoaded(long increment) {
+        entitiesLoaded.add(increment);
+    }
+
+    @Override
+    public void addToTotalCount(long increment) {
+        // the total is counted upfront for the whole run, not per id range
+    }
+
+    @Override
+    public void indexingCompleted() {
+        // ranges are checkpointed by IndexingService
+    }
+
+    /**
+     * Documents written by this run
+     */
+    public long getDocumentsAdded() {
+        return documentsAdded.sum();
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded.sum();
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Documents written, including those of the run this one resumes
+     */
+    public long getIndexed() {
+        return indexedBefore + getDocumentsAdded();
+    }
+
+    public double getDocumentsPerSecond() {
+        long elapsedNanos = nanoClock.getAsLong() - startNanos;
+        return elapsedNanos > 0 ? getDocumentsAdded() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+    }
+
+    /**
+     * @return estimated seconds left at the current rate, null before the first documents are written
+     */
+    public Long getEtaSeconds() {
+        double documentsPerSecond = getDocumentsPerSecond();
+        if (documentsPerSecond <= 0) {
+            return null;
+        }
+        return (long) Math.ceil(Math.max(0, total - getIndexed()) / documentsPerSecond);
+    }
+}
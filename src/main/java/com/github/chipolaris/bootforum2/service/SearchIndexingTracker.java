@@ -0,0 +1,161 @@
+package com.github.chipolaris.bootforum2.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.search.engine.backend.work.execution.DocumentCommitStrategy;
+import org.hibernate.search.engine.backend.work.execution.DocumentRefreshStrategy;
+import org.hibernate.search.mapper.pojo.work.IndexingPlanSynchronizationStrategy;
+import org.hibernate.search.mapper.pojo.work.IndexingPlanSynchronizationStrategyConfigurationContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexing plan synchronization strategy of Hibernate Search (configured as
+ * {@code hibernate.search.indexing.plan.synchronization.strategy: bean:searchIndexingTracker}), which keeps
+ * track of the index changes that are not applied yet.
+ *
+ * In async mode (the default), a write transaction returns as soon as its index changes are queued: the Lucene
+ * backend applies them in the background, commits every {@code io.commit_interval} and makes them searchable
+ * every {@code io.refresh_interval}. Otherwise, it waits until its changes are committed and searchable.
+ *
+ * Each indexing plan (i.e. the index changes of a transaction) gets an increasing token. A search that must see
+ * a given write (read-your-writes) waits until the write's token is indexed, see {@link #awaitIndexed(long)}.
+ * The age of the oldest pending change is published as the {@code forum.search.indexing.lag} metric.
+ *
+ * Declared as a bean in SpringBootAngularApplication.
+ */
+public class SearchIndexingTracker implements IndexingPlanSynchronizationStrategy, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexingTracker.class);
+
+    private final boolean async;
+    private final long readYourWritesTimeoutMs;
+
+    // token -> submission time (epoch ms) of the indexing plans not executed yet, oldest first
+    private final ConcurrentSkipListMap<Long, Long> pending = new ConcurrentSkipListMap<>();
+    private final Object indexedMonitor = new Object();
+    private long lastToken;
+
+    /**
+     * @param async see app.search.indexing.async
+     * @param readYourWritesTimeoutMs see app.search.indexing.read-your-writes-timeout-ms
+     */
+    public SearchIndexingTracker(boolean async, long readYourWritesTimeoutMs) {
+        this.async = async;
+        this.readYourWritesTimeoutMs = readYourWritesTimeoutMs;
+    }
+
+    @Override
+    public void apply(IndexingPlanSynchronizationStrategyConfigurationContext context) {
+
+        if (async) {
+            context.documentCommitStrategy(DocumentCommitStrategy.NONE);
+            context.documentRefreshStrategy(DocumentRefreshStrategy.NONE);
+        } else {
+            context.documentCommitStrategy(DocumentCommitStrategy.FORCE);
+            context.documentRefreshStrategy(DocumentRefreshStrategy.FORCE);
+        }
+
+        context.indexingFutureHandler(future -> {
+            long token = register();
+            future.whenComplete((report, throwable) -> {
+                if (throwable != null) {
+                    logger.error("Indexing plan {} failed", token, throwable);
+                } else {
+                    report.throwable().ifPresent(failure -> logger.error("Indexing plan {} failed for entities {}",
+                            token, report.failingEntities(), failure));
+                }
+                indexed(token);
+            });
+            if (!async) {
+                future.join();
+            }
+        });
+    }
+
+    /**
+     * Token of the last indexing plan submitted, i.e. of the last write with index changes. Once this token
+     * is indexed, all writes committed so far are searchable.
+     */
+    public synchronized long getLastToken() {
+        return lastToken;
+    }
+
+    /**
+     * @return whether the indexing plan of token, and all earlier ones, are executed
+     */
+    public boolean isIndexed(long token) {
+        Map.Entry<Long, Long> oldest = pending.firstEntry();
+        return oldest == null || oldest.getKey() > token;
+    }
+
+    /**
+     * Waits (up to app.search.indexing.read-your-writes-timeout-ms) until the indexing plan of token, and all
+     * earlier ones, are executed. The changes are searchable after the next refresh of the index, which the
+     * caller can force with {@code SearchSession.workspace(...).refresh()}.
+     *
+     * @return false if the wait timed out or was interrupted
+     */
+    public boolean awaitIndexed(long token) {
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readYourWritesTimeoutMs);
+        synchronized (indexedMonitor) {
+            while (!isIndexed(token)) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                try {
+                    indexedMonitor.wait(remainingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Age of the oldest index change not executed yet, 0 if all are
+     */
+    public long getIndexingLagMillis() {
+        Map.Entry<Long, Long> oldest = pending.firstEntry();
+        return oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.getValue());
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("forum.search.indexing.lag", this, TimeUnit.MILLISECONDS,
+                        SearchIndexingTracker::getIndexingLagMillis)
+                .description("Age of the oldest change not applied to the search index yet")
+                .register(registry);
+        Gauge.builder("forum.search.indexing.pending", this, SearchIndexingTracker::getPendingCount)
+                .description("Indexing plans (write transactions) not applied to the search index yet")
+                .register(registry);
+    }
+
+    // the token is published (lastToken) and pending in one step, so a token read by getLastToken is never
+    // reported indexed before its plan is executed
+    private synchronized long register() {
+        pending.put(++lastToken, System.currentTimeMillis());
+        return lastToken;
+    }
+
+    private void indexed(long token) {
+        pending.remove(token);
+        synchronized (indexedMonitor) {
+            indexedMonitor.notifyAll();
+        }
+    }
+}
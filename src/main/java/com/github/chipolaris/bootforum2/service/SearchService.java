@@ -0,0 +1,201 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.domain.Comment;
+import com.github.chipolaris.bootforum2.domain.Discussion;
+import com.github.chipolaris.bootforum2.domain.Forum;
+import com.github.chipolaris.bootforum2.domain.Tag;
+import com.github.chipolaris.bootforum2.dto.FacetCountDTO;
+import com.github.chipolaris.bootforum2.dto.PageResponseDTO;
+import com.github.chipolaris.bootforum2.dto.SearchHitDTO;
+import com.github.chipolaris.bootforum2.dto.SearchResultDTO;
+import com.github.chipolaris.bootforum2.enumeration.SearchHitType;
+import com.github.chipolaris.bootforum2.repository.ForumRepository;
+import com.github.chipolaris.bootforum2.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.search.engine.common.EntityReference;
+import org.hibernate.search.engine.search.aggregation.AggregationKey;
+import org.hibernate.search.engine.search.highlighter.dsl.HighlighterEncoder;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Search across discussions, comments and forums in one query. Hits are projected from fields stored in
+ * the index (title, contentAbbr, createBy, createDate and highlights of title and content): no entity is
+ * loaded from the database. The same query returns the hit counts per forum and per tag (facets).
+ *
+ * The three entities index these fields with the same names and options, see the search fields of
+ * Discussion, Comment and Forum. Documents indexed before these fields existed lack them: a reindex of
+ * "all" (see IndexingService, which reindexes the three entities) rebuilds them.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    private static final Map<SearchHitType, Class<?>> ENTITY_TYPES = Map.of(
+            SearchHitType.DISCUSSION, Discussion.class,
+            SearchHitType.COMMENT, Comment.class,
+            SearchHitType.FORUM, Forum.class);
+
+    private static final String TITLE_HIGHLIGHTER = "title";
+
+    private static final AggregationKey<Map<Long, Long>> FORUM_FACET = AggregationKey.of("forumFacet");
+    private static final AggregationKey<Map<Long, Long>> TAG_FACET = AggregationKey.of("tagFacet");
+
+    private final EntityManager entityManager;
+    private final ForumRepository forumRepository;
+    private final TagRepository tagRepository;
+    private final SearchIndexingTracker searchIndexingTracker;
+
+    private final int facetSize;
+    private final int fragmentSize;
+
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public SearchService(EntityManager entityManager,
+                         ForumRepository forumRepository,
+                         TagRepository tagRepository,
+                         SearchIndexingTracker searchIndexingTracker,
+                         @Value("${app.search.unified.facet-size:10}") int facetSize,
+                         @Value("${app.search.unified.fragment-size:150}") int fragmentSize) {
+        this.entityManager = entityManager;
+        this.forumRepository = forumRepository;
+        this.tagRepository = tagRepository;
+        this.searchIndexingTracker = searchIndexingTracker;
+        this.facetSize = facetSize;
+        this.fragmentSize = fragmentSize;
+    }
+
+    /**
+     * Searches the title and content of discussions, comments and forums.
+     *
+     * @param keyword  The keyword(s) to search for, matches in titles weigh more.
+     * @param types    The kinds of hits to search, all if null or empty.
+     * @param forumId  Optional forum facet value: only hits in this forum.
+     * @param tagId    Optional tag facet value: only hits with this tag.
+     * @param pageable Pagination information, hits are sorted by relevance, then by date.
+     * @param searchToken Optional read-your-writes token, see {@link SearchIndexingTracker}.
+     * @return A ServiceResponse containing the page of hits and the facets.
+     */
+    @Transactional(readOnly = true)
+    public ServiceResponse<SearchResultDTO> search(String keyword, Set<SearchHitType> types, Long forumId,
+                                                   Long tagId, Pageable pageable, Long searchToken) {
+
+        logger.info("Searching {} with keyword: '{}', forumId: {}, tagId: {}, pageable: {}",
+                types, keyword, forumId, tagId, pageable);
+
+        List<Class<?>> entityTypes = (types == null || types.isEmpty() ? EnumSet.allOf(SearchHitType.class) : types)
+                .stream().map(ENTITY_TYPES::get).collect(Collectors.toList());
+
+        SearchSession searchSession = Search.session(entityManager);
+
+        try {
+            if (searchToken != null) {
+                if (!searchIndexingTracker.awaitIndexed(searchToken)) {
+                    logger.warn("Writes up to search token {} are not indexed yet, searching anyway", searchToken);
+                }
+                searchSession.workspace(entityTypes).refresh();
+            }
+
+            SearchResult<SearchHitDTO> searchResult = searchSession.search(entityTypes)
+                    .select(f -> f.composite()
+                            .from(f.entityReference(),
+                                    f.field("title", String.class),
+                                    f.highlight("title").highlighter(TITLE_HIGHLIGHTER),
+                                    f.field("contentAbbr", String.class),
+                                    f.highlight("content"),
+                                    f.field("createBy", String.class),
+                                    f.field("createDate", LocalDateTime.class))
+                            .asList(this::toSearchHit))
+                    .where(f -> f.bool(b -> {
+                        b.must(f.match().field("title").boost(2.0f).field("content").matching(keyword));
+                        if (forumId != null) {
+                            b.filter(f.match().field("forumId").matching(forumId));
+                        }
+                        if (tagId != null) {
+                            b.filter(f.match().field("tagIds").matching(tagId));
+                        }
+                    }))
+                    .sort(f -> f.score().then().field("createDate").desc())
+                    // matches are HTML-escaped and marked, the client shows the fragments as HTML
+                    .highlighter(f -> f.unified()
+                            .encoder(HighlighterEncoder.HTML)
+                            .tag("<mark>", "</mark>")
+                            .fragmentSize(fragmentSize)
+                            .numberOfFragments(1))
+                    // a title (at most 255 characters) is shown whole
+                    .highlighter(TITLE_HIGHLIGHTER, f -> f.unified()
+                            .encoder(HighlighterEncoder.HTML)
+                            .tag("<mark>", "</mark>")
+                            .fragmentSize(255)
+                            .numberOfFragments(1))
+                    .aggregation(FORUM_FACET, f -> f.terms().field("forumId", Long.class)
+                            .orderByCountDescending().maxTermCount(facetSize))
+                    .aggregation(TAG_FACET, f -> f.terms().field("tagIds", Long.class)
+                            .orderByCountDescending().maxTermCount(facetSize))
+                    .fetch((int) pageable.getOffset(), pageable.getPageSize());
+
+            PageResponseDTO<SearchHitDTO> hits = PageResponseDTO.from(
+                    new PageImpl<>(searchResult.hits(), pageable, searchResult.total().hitCount()));
+
+            List<FacetCountDTO> forumFacets = toFacets(searchResult.aggregation(FORUM_FACET),
+                    ids -> forumRepository.findAllById(ids).stream()
+                            .collect(Collectors.toMap(Forum::getId, Forum::getTitle)));
+            List<FacetCountDTO> tagFacets = toFacets(searchResult.aggregation(TAG_FACET),
+                    ids -> tagRepository.findAllById(ids).stream()
+                            .collect(Collectors.toMap(Tag::getId, Tag::getLabel)));
+
+            return ServiceResponse.success("Search successful", new SearchResultDTO(hits, forumFacets, tagFacets));
+
+        } catch (Exception e) {
+            logger.error(String.format("Error during search for keyword '%s': ", keyword), e);
+            return ServiceResponse.failure("An unexpected error occurred during the search.");
+        }
+    }
+
+    private SearchHitDTO toSearchHit(List<?> projections) {
+
+        EntityReference entityReference = (EntityReference) projections.get(0);
+        SearchHitType type = Arrays.stream(SearchHitType.values())
+                .filter(hitType -> hitType.getLabel().equals(entityReference.name()))
+                .findFirst().orElse(null);
+
+        return new SearchHitDTO(type, (Long) entityReference.id(),
+                (String) projections.get(1), firstFragment(projections.get(2)),
+                (String) projections.get(3), firstFragment(projections.get(4)),
+                (String) projections.get(5), (LocalDateTime) projections.get(6));
+    }
+
+    private static String firstFragment(Object highlights) {
+        List<?> fragments = (List<?>) highlights;
+        return fragments == null || fragments.isEmpty() ? null : (String) fragments.get(0);
+    }
+
+    /**
+     * @param counts  hit count per id, most hits first
+     * @param labeler labels of the ids
+     */
+    private static List<FacetCountDTO> toFacets(Map<Long, Long> counts,
+                                                Function<Set<Long>, Map<Long, String>> labeler) {
+        if (counts.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> labels = labeler.apply(counts.keySet());
+
+        return counts.entrySet().stream()
+                .map(entry -> new FacetCountDTO(entry.getKey(), labels.get(entry.getKey()), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+}
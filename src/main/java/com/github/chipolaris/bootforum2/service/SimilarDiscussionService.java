@@ -0,0 +1,208 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.chipolaris.bootforum2.dao.GenericDAO;
+import com.github.chipolaris.bootforum2.domain.Discussion;
+import com.github.chipolaris.bootforum2.domain.Tag;
+import com.github.chipolaris.bootforum2.dto.DiscussionSummaryDTO;
+import com.github.chipolaris.bootforum2.mapper.DiscussionMapper;
+import com.github.chipolaris.bootforum2.repository.DiscussionRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.search.mapper.orm.Search;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Similar discussions of a discussion: the discussions sharing its key terms (the top terms indexed as
+ * key_terms, see Discussion.getKeyTerms), boosted when they are in the same forum, share tags or have the
+ * same author.
+ *
+ * Lists are cached per discussion id (at most cache-max-size, for cache-ttl-minutes), so the similarity query
+ * runs once per discussion and per TTL instead of once per page view. Cached lists are evicted when their
+ * discussion changes (see evict) or a tag is deleted (see evictAll); the TTL bounds how long a new discussion
+ * is missing from them. Optionally, the lists of the most viewed discussions are precomputed in the background.
+ */
+@Service
+public class SimilarDiscussionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarDiscussionService.class);
+
+    private final EntityManager entityManager;
+    private final GenericDAO genericDAO;
+    private final DiscussionRepository discussionRepository;
+    private final DiscussionMapper discussionMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int listSize;
+    private final boolean precomputeEnabled;
+    private final int precomputeCount;
+
+    private final Cache<Long, List<DiscussionSummaryDTO>> similarCache;
+
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public SimilarDiscussionService(EntityManager entityManager,
+                                    GenericDAO genericDAO,
+                                    DiscussionRepository discussionRepository,
+                                    DiscussionMapper discussionMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.similar-discussions.list-size:10}") int listSize,
+                                    @Value("${app.similar-discussions.cache-max-size:10000}") long cacheMaxSize,
+                                    @Value("${app.similar-discussions.cache-ttl-minutes:30}") long cacheTtlMinutes,
+                                    @Value("${app.similar-discussions.precompute.enabled:false}") boolean precomputeEnabled,
+                                    @Value("${app.similar-discussions.precompute.count:500}") int precomputeCount) {
+        this.entityManager = entityManager;
+        this.genericDAO = genericDAO;
+        this.discussionRepository = discussionRepository;
+        this.discussionMapper = discussionMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.listSize = listSize;
+        this.precomputeEnabled = precomputeEnabled;
+        this.precomputeCount = precomputeCount;
+        this.similarCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .maximumSize(cacheMaxSize)
+                .build();
+    }
+
+    /**
+     * Finds (at most limit) discussions similar to the given one, most similar first. Lists of up to
+     * app.similar-discussions.list-size discussions come from the cache.
+     */
+    public ServiceResponse<List<DiscussionSummaryDTO>> findSimilarDiscussions(Long sourceDiscussionId, int limit) {
+
+        try {
+            List<DiscussionSummaryDTO> similarDiscussions = limit <= listSize
+                    ? similarCache.get(sourceDiscussionId, id -> computeSimilar(id, listSize))
+                    : computeSimilar(sourceDiscussionId, limit);
+
+            if (similarDiscussions == null) {
+                return ServiceResponse.failure("Source discussion with ID " + sourceDiscussionId + " not found.");
+            }
+            return ServiceResponse.success("Successfully found similar discussions.",
+                    similarDiscussions.size() > limit ? similarDiscussions.subList(0, limit) : similarDiscussions);
+        } catch (Exception e) {
+            logger.error("Error finding similar discussions for ID " + sourceDiscussionId, e);
+            return ServiceResponse.failure("An unexpected error occurred while finding similar discussions.");
+        }
+    }
+
+    /**
+     * Evicts the cached list of a discussion, to be called when its title, content or tags change
+     */
+    public void evict(Long discussionId) {
+        similarCache.invalidate(discussionId);
+    }
+
+    /**
+     * Evicts all cached lists, e.g. when a tag is deleted (which changes the tags of many discussions)
+     */
+    public void evictAll() {
+        similarCache.invalidateAll();
+    }
+
+    public long getCachedCount() {
+        return similarCache.estimatedSize();
+    }
+
+    /**
+     * Refreshes the cached lists of the precompute.count most viewed discussions, so that the popular
+     * discussion pages never wait for the similarity query. Disabled unless precompute.enabled is true.
+     */
+    @Scheduled(initialDelayString = "${app.similar-discussions.precompute.interval-ms:600000}",
+            fixedDelayString = "${app.similar-discussions.precompute.interval-ms:600000}")
+    public void precomputeMostViewed() {
+
+        if (!precomputeEnabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+
+        List<Long> discussionIds = transactionTemplate.execute(status ->
+                discussionRepository.findIdsOrderByViewCountDesc(PageRequest.of(0, precomputeCount)));
+
+        int precomputed = 0;
+        for (Long discussionId : discussionIds) {
+            try {
+                List<DiscussionSummaryDTO> similarDiscussions = computeSimilar(discussionId, listSize);
+                if (similarDiscussions != null) {
+                    similarCache.put(discussionId, similarDiscussions);
+                    precomputed++;
+                }
+            } catch (Exception e) {
+                logger.warn("Error precomputing similar discussions for ID " + discussionId, e);
+            }
+        }
+        logger.info("Precomputed similar discussions of {} most viewed discussions in {} ms",
+                precomputed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return the similar discussions, or null if the source discussion doesn't exist
+     */
+    private List<DiscussionSummaryDTO> computeSimilar(Long sourceDiscussionId, int limit) {
+        return transactionTemplate.execute(status -> {
+            logger.info("Finding similar discussions for discussion ID: {}", sourceDiscussionId);
+
+            Discussion sourceDiscussion = genericDAO.find(Discussion.class, sourceDiscussionId);
+            if (sourceDiscussion == null) {
+                return null;
+            }
+
+            return Search.session(entityManager).search(Discussion.class)
+                    .where(f -> f.bool(b -> {
+                        b.mustNot(f.id().matching(sourceDiscussionId));
+
+                        // Term similarity: one clause per key term, so that a shared rare term
+                        // scores higher than a shared common one
+                        for (String keyTerm : sourceDiscussion.getKeyTerms()) {
+                            b.should(f.match()
+                                    .field("key_terms")
+                                    .matching(keyTerm)
+                                    .boost(2.0f));
+                        }
+
+                        // Forum similarity
+                        if (sourceDiscussion.getForum() != null) {
+                            b.should(f.match()
+                                    .field("forumId")
+                                    .matching(sourceDiscussion.getForum().getId())
+                                    .boost(3.0f));
+                        }
+
+                        // Tag similarity
+                        if (sourceDiscussion.getTags() != null) {
+                            for (Tag tag : sourceDiscussion.getTags()) {
+                                b.should(f.match()
+                                        .field("tagIds")
+                                        .matching(tag.getId())
+                                        .boost(2.5f));
+                            }
+                        }
+
+                        // Author similarity
+                        if (sourceDiscussion.getCreateBy() != null) {
+                            b.should(f.match()
+                                    .field("createBy")
+                                    .matching(sourceDiscussion.getCreateBy())
+                                    .boost(1.0f));
+                        }
+                    }))
+                    .sort(f -> f.score().desc())
+                    .fetchHits(limit)
+                    .stream()
+                    .map(discussionMapper::toSummaryDTO)
+                    .toList();
+        });
+    }
+}
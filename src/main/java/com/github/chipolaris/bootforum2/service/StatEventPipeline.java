@@ -0,0 +1,441 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
+import com.github.chipolaris.bootforum2.event.ForumStatChangedEvent;
+import com.github.chipolaris.bootforum2.repository.DiscussionStatRepository;
+import com.github.chipolaris.bootforum2.repository.ForumStatRepository;
+import com.github.chipolaris.bootforum2.repository.UserStatRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Coalescing write pipeline for statistics rows (DiscussionStat, ForumStat and UserStat).
+ *
+ * Stat events are translated into {@link StatUpdate}s and submitted here. Updates are sharded by
+ * stat row, so that all updates of a given row go through the same bounded queue and are consumed
+ * by a single thread. A consumer collects updates for up to {@code coalescing-window-ms} (or
+ * {@code max-batch-size} updates), merges the updates of the same row, and writes the merged
+ * deltas in one transaction. A burst of events on a hot forum or user therefore costs one
+ * write per row per window instead of one transaction per event.
+ *
+ * Since a row always maps to the same shard, shards never contend on rows with each other.
+ * The consumers run on the stat pipeline executor (see AsyncExecutorConfig), one per shard.
+ *
+ * Backpressure: when a shard queue is full, the submitter blocks for up to {@code offer-timeout-ms};
+ * if the queue is still full, the submitter writes its update itself, which throttles producers
+ * to the database speed.
+ *
+ * Failed writes: a batch that fails is kept by its consumer, which backs off ({@code retry-backoff-ms},
+ * doubled on each failure) and writes it again together with the updates that arrived meanwhile, up to
+ * {@code max-attempts} times. After that, its rows are written one by one, so that one bad row can't
+ * take the others down, and only the rows that still fail are dropped (counted as
+ * {@code forum.stats.pipeline.updates.failed}; a stat reconciliation restores them).
+ */
+@Component
+public class StatEventPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatEventPipeline.class);
+
+    private static final long MAX_RETRY_BACKOFF_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final Comparator<StatUpdate> WRITE_ORDER = Comparator
+            .comparing((StatUpdate update) -> update.getKey().target())
+            .thenComparing(update -> update.getKey().id().toString());
+
+    private final DiscussionStatRepository discussionStatRepository;
+    private final ForumStatRepository forumStatRepository;
+    private final UserStatRepository userStatRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AsyncTaskExecutor consumerExecutor;
+
+    private final boolean enabled;
+    private final long coalescingWindowMs;
+    private final int maxBatchSize;
+    private final long offerTimeoutMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    private final List<BlockingQueue<StatUpdate>> queues;
+    private final List<Future<?>> consumers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final Counter submittedCounter;
+    private final Counter writtenCounter;
+    private final Counter backpressureCounter;
+    private final Counter failedCounter;
+    private final Timer commitTimer;
+
+    public StatEventPipeline(DiscussionStatRepository discussionStatRepository,
+                             ForumStatRepository forumStatRepository,
+                             UserStatRepository userStatRepository,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             @Qualifier(AsyncExecutorConfig.STAT_PIPELINE_EXECUTOR) AsyncTaskExecutor consumerExecutor,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.stats.pipeline.enabled:true}") boolean enabled,
+                             @Value("${app.stats.pipeline.shards:4}") int shards,
+                             @Value("${app.stats.pipeline.queue-capacity:10000}") int queueCapacity,
+                             @Value("${app.stats.pipeline.coalescing-window-ms:200}") long coalescingWindowMs,
+                             @Value("${app.stats.pipeline.max-batch-size:2000}") int maxBatchSize,
+                             @Value("${app.stats.pipeline.offer-timeout-ms:2000}") long offerTimeoutMs,
+                             @Value("${app.stats.pipeline.max-attempts:5}") int maxAttempts,
+                             @Value("${app.stats.pipeline.retry-backoff-ms:500}") long retryBackoffMs) {
+        this.discussionStatRepository = discussionStatRepository;
+        this.forumStatRepository = forumStatRepository;
+        this.userStatRepository = userStatRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.consumerExecutor = consumerExecutor;
+        this.enabled = enabled;
+        this.coalescingWindowMs = coalescingWindowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+
+        this.queues = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+
+        Gauge.builder("forum.stats.pipeline.queue.depth", this, StatEventPipeline::getQueueDepth)
+                .description("Stat updates waiting in the pipeline queues")
+                .register(meterRegistry);
+        this.submittedCounter = Counter.builder("forum.stats.pipeline.updates.submitted")
+                .description("Stat row updates submitted to the pipeline")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("forum.stats.pipeline.updates.written")
+                .description("Coalesced stat row writes sent to the database")
+                .register(meterRegistry);
+        Gauge.builder("forum.stats.pipeline.coalescing.ratio", this, StatEventPipeline::getCoalescingRatio)
+                .description("Submitted updates per database row write")
+                .register(meterRegistry);
+        this.backpressureCounter = Counter.builder("forum.stats.pipeline.backpressure")
+                .description("Submissions that found their queue full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("forum.stats.pipeline.updates.failed")
+                .description("Stat row updates that could not be written")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("forum.stats.pipeline.commit")
+                .description("Latency of writing and committing one coalesced batch")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Stat event pipeline is disabled, stat updates are written per event");
+            return;
+        }
+        running = true;
+        for (BlockingQueue<StatUpdate> queue : queues) {
+            consumers.add(consumerExecutor.submit(() -> consume(queue)));
+        }
+        logger.info("Started stat event pipeline with {} shards", queues.size());
+    }
+
+    /**
+     * Stops the consumers once their queues are drained. From then on, submitters write their updates themselves.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Future<?> consumer : consumers) {
+            try {
+                consumer.get(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                logger.warn("Stat pipeline consumer did not stop cleanly", e);
+            }
+        }
+        consumers.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void submit(Collection<StatUpdate> updates) {
+        updates.forEach(this::submit);
+    }
+
+    /**
+     * Queue a stat update, blocking if its shard is full (see class comment for backpressure).
+     */
+    public void submit(StatUpdate update) {
+        submittedCounter.increment();
+
+        if (!running) {
+            writeDirectly(update);
+            return;
+        }
+
+        BlockingQueue<StatUpdate> queue = queues.get(Math.floorMod(update.getKey().hashCode(), queues.size()));
+        if (queue.offer(update)) {
+            writeIfStopped(queue, update);
+            return;
+        }
+
+        backpressureCounter.increment();
+        try {
+            if (queue.offer(update, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                writeIfStopped(queue, update);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        logger.warn("Stat pipeline queue still full after {}ms, writing update for {} directly",
+                offerTimeoutMs, update.getKey());
+        writeDirectly(update);
+    }
+
+    /**
+     * An update enqueued while stop() is in progress may have missed the consumers, which exit once running is
+     * cleared and their queue is drained: take it back and write it directly, unless a consumer already took it.
+     */
+    private void writeIfStopped(BlockingQueue<StatUpdate> queue, StatUpdate update) {
+        if (!running && queue.remove(update)) {
+            writeDirectly(update);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queues.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    public double getCoalescingRatio() {
+        double written = writtenCounter.count();
+        return written == 0 ? 0 : submittedCounter.count() / written;
+    }
+
+    private void consume(BlockingQueue<StatUpdate> queue) {
+        // updates of the current batch, including those of a failed batch that are written again
+        Map<StatUpdate.Key, StatUpdate> coalesced = new LinkedHashMap<>();
+        int failedAttempts = 0;
+
+        while (running || !queue.isEmpty() || !coalesced.isEmpty()) {
+            try {
+                if (coalesced.isEmpty()) {
+                    StatUpdate first = queue.poll(500, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    coalesced.put(first.getKey(), first);
+                }
+
+                int collected = 1;
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(coalescingWindowMs);
+                while (collected < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    StatUpdate next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    coalesced.merge(next.getKey(), next, (current, added) -> {
+                        current.merge(added);
+                        return current;
+                    });
+                    collected++;
+                }
+
+                if (write(coalesced.values())) {
+                    coalesced.clear();
+                    failedAttempts = 0;
+                } else if (++failedAttempts >= maxAttempts) {
+                    writeRowByRow(coalesced.values());
+                    coalesced.clear();
+                    failedAttempts = 0;
+                } else {
+                    long backoffMs = backoffMs(failedAttempts);
+                    logger.info("Writing {} stat rows again in {}ms (attempt {} of {} failed)",
+                            coalesced.size(), backoffMs, failedAttempts, maxAttempts);
+                    Thread.sleep(backoffMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // keep the consumer alive whatever happens
+                logger.error("Unexpected error in stat pipeline consumer", e);
+            }
+        }
+    }
+
+    /**
+     * Write an update in the submitter's thread, backing off between failed attempts like the consumers do.
+     */
+    private void writeDirectly(StatUpdate update) {
+        List<StatUpdate> updates = List.of(update);
+        for (int attempt = 1; !write(updates); attempt++) {
+            if (attempt >= maxAttempts) {
+                failedCounter.increment(update.getMergedCount());
+                logger.error("Dropping stat update for {} after {} failed attempts", update.getKey(), attempt);
+                return;
+            }
+            try {
+                Thread.sleep(backoffMs(attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedCounter.increment(update.getMergedCount());
+                logger.error("Interrupted while writing stat update for {}, dropping it", update.getKey());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Last resort for a batch that failed max-attempts times: write each row in its own transaction, and drop
+     * the rows that still fail.
+     */
+    private void writeRowByRow(Collection<StatUpdate> updates) {
+        for (StatUpdate update : updates) {
+            if (!write(List.of(update))) {
+                failedCounter.increment(update.getMergedCount());
+                logger.error("Dropping stat update for {} ({} updates) after {} failed attempts",
+                        update.getKey(), update.getMergedCount(), maxAttempts);
+            }
+        }
+    }
+
+    private long backoffMs(int failedAttempts) {
+        return Math.min(retryBackoffMs << Math.min(failedAttempts - 1, 16), MAX_RETRY_BACKOFF_MS);
+    }
+
+    /**
+     * Write the given (already coalesced) updates in one transaction, in a fixed row order.
+     *
+     * @return false if the transaction failed, in which case none of the updates is written
+     */
+    private boolean write(Collection<StatUpdate> updates) {
+        List<StatUpdate> ordered = new ArrayList<>(updates);
+        ordered.sort(WRITE_ORDER);
+
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                ordered.forEach(this::apply);
+                publishForumStatChanges(ordered);
+            }));
+        } catch (Exception e) {
+            logger.warn("Failed to write {} stat rows", ordered.size(), e);
+            return false;
+        }
+        writtenCounter.increment(ordered.size());
+        logger.debug("Wrote {} stat rows for {} updates", ordered.size(),
+                ordered.stream().mapToInt(StatUpdate::getMergedCount).sum());
+        return true;
+    }
+
+    private void publishForumStatChanges(List<StatUpdate> updates) {
+        Set<Long> forumIds = updates.stream()
+                .filter(update -> update.getKey().target() == StatUpdate.Target.FORUM)
+                .map(update -> (Long) update.getKey().id())
+                .collect(Collectors.toSet());
+        if (!forumIds.isEmpty()) {
+            eventPublisher.publishEvent(new ForumStatChangedEvent(this, forumIds));
+        }
+    }
+
+    private void apply(StatUpdate update) {
+        switch (update.getKey().target()) {
+            case DISCUSSION -> applyDiscussionStat((Long) update.getKey().id(), update);
+            case FORUM -> applyForumStat((Long) update.getKey().id(), update);
+            case USER -> applyUserStat((String) update.getKey().id(), update);
+        }
+    }
+
+    private void applyDiscussionStat(Long discussionStatId, StatUpdate update) {
+        if (update.hasCounts()) {
+            discussionStatRepository.addCounts(discussionStatId, update.getCommentCount(),
+                    update.getImageCount(), update.getAttachmentCount());
+        }
+        update.getParticipants().forEach((participant, count) ->
+                discussionStatRepository.addParticipant(discussionStatId, participant, count));
+
+        StatUpdate.LastComment lastComment = update.getLastComment();
+        if (lastComment != null) {
+            discussionStatRepository.updateLastCommentIfNewer(discussionStatId, lastComment.commentId(),
+                    lastComment.commentor(), lastComment.commentDate(), lastComment.title(), lastComment.contentAbbr());
+        }
+    }
+
+    private void applyForumStat(Long forumId, StatUpdate update) {
+        if (update.hasCounts()) {
+            forumStatRepository.addCountsByForumId(forumId, update.getDiscussionCount(), update.getCommentCount());
+        }
+
+        StatUpdate.LastComment lastComment = update.getLastComment();
+        if (lastComment != null) {
+            forumStatRepository.updateLastCommentIfNewer(forumId, lastComment.commentId(), lastComment.commentor(),
+                    lastComment.commentDate(), lastComment.title(), lastComment.contentAbbr());
+        }
+
+        StatUpdate.LastDiscussion lastDiscussion = update.getLastDiscussion();
+        if (lastDiscussion != null) {
+            forumStatRepository.updateLastDiscussionIfNewer(forumId, lastDiscussion.discussionId(),
+                    lastDiscussion.discussionCreator(), lastDiscussion.discussionCreateDate(),
+                    lastDiscussion.title(), lastDiscussion.contentAbbr());
+        }
+    }
+
+    private void applyUserStat(String username, StatUpdate update) {
+        if (update.hasCounts()) {
+            userStatRepository.addCountsByUsername(username, update.getDiscussionCount(), update.getCommentCount(),
+                    update.getImageCount(), update.getAttachmentCount());
+        }
+        if (update.getReputation() != 0) {
+            userStatRepository.addReputationByUsername(username, update.getReputation());
+        }
+        if (update.getProfileViewed() != 0) {
+            userStatRepository.addProfileViewedByUsername(username, update.getProfileViewed());
+        }
+        if (update.getLastLogin() != null) {
+            userStatRepository.updateLastLoginIfNewerByUsername(username, update.getLastLogin());
+        }
+
+        StatUpdate.LastComment lastComment = update.getLastComment();
+        if (lastComment != null) {
+            userStatRepository.updateLastCommentIfNewerByUsername(username, lastComment.commentId(),
+                    lastComment.commentor(), lastComment.commentDate(), lastComment.title(), lastComment.contentAbbr());
+        }
+
+        StatUpdate.LastDiscussion lastDiscussion = update.getLastDiscussion();
+        if (lastDiscussion != null) {
+            userStatRepository.updateLastDiscussionIfNewerByUsername(username, lastDiscussion.discussionId(),
+                    lastDiscussion.discussionCreator(), lastDiscussion.discussionCreateDate(),
+                    lastDiscussion.title(), lastDiscussion.contentAbbr());
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
+import com.github.chipolaris.bootforum2.dao.DynamicDAO;
+import com.github.chipolaris.bootforum2.dao.FilterSpec;
+import com.github.chipolaris.bootforum2.dao.OrderSpec;
+import com.github.chipolaris.bootforum2.dao.QuerySpec;
+import com.github.chipolaris.bootforum2.domain.*;
+import com.github.chipolaris.bootforum2.dto.admin.StatReconciliationProgressDTO;
+import com.github.chipolaris.bootforum2.enumeration.ReconciliationPhase;
+import com.github.chipolaris.bootforum2.enumeration.ReconciliationStatus;
+import com.github.chipolaris.bootforum2.event.ForumStatChangedEvent;
+import com.github.chipolaris.bootforum2.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recomputes DiscussionStat, ForumStat and UserStat from the content tables, to repair drift of the
+ * incrementally maintained stats.
+ *
+ * Unlike the per-entity syncs of {@link StatService} (several queries per entity), a run walks the
+ * discussions, forums and users (one phase each) in chunks of consecutive ids, and recomputes the stats of
+ * a chunk with a few set-based GROUP BY queries over its id range. Only the stats that differ from the
+ * recomputed values are written. Up to parallelism chunks run at the same time, each in its own transaction.
+ * The run and its chunks all run on the reconciliation executor (see AsyncExecutorConfig).
+ *
+ * After each chunk, the phase checkpoint ({@link StatReconciliation}) records the highest id up to which all
+ * chunks are done, so a run that crashed or was cancelled can be resumed from there. A chunk whose stats are
+ * changed concurrently (by the live stat updates) fails optimistic locking and is recomputed.
+ */
+@Service
+public class StatReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatReconciliationService.class);
+
+    private final DynamicDAO dynamicDAO;
+    private final CommentRepository commentRepository;
+    private final DiscussionRepository discussionRepository;
+    private final DiscussionStatRepository discussionStatRepository;
+    private final ForumStatRepository forumStatRepository;
+    private final UserStatRepository userStatRepository;
+    private final StatReconciliationRepository statReconciliationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AsyncTaskExecutor reconciliationExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxChunkAttempts;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelRequested;
+
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public StatReconciliationService(DynamicDAO dynamicDAO, CommentRepository commentRepository,
+                                     DiscussionRepository discussionRepository,
+                                     DiscussionStatRepository discussionStatRepository,
+                                     ForumStatRepository forumStatRepository, UserStatRepository userStatRepository,
+                                     StatReconciliationRepository statReconciliationRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Qualifier(AsyncExecutorConfig.RECONCILIATION_EXECUTOR) AsyncTaskExecutor reconciliationExecutor,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.stats.reconciliation.chunk-size:1000}") int chunkSize,
+                                     @Value("${app.stats.reconciliation.parallelism:4}") int parallelism,
+                                     @Value("${app.stats.reconciliation.max-chunk-attempts:3}") int maxChunkAttempts) {
+        this.dynamicDAO = dynamicDAO;
+        this.commentRepository = commentRepository;
+        this.discussionRepository = discussionRepository;
+        this.discussionStatRepository = discussionStatRepository;
+        this.forumStatRepository = forumStatRepository;
+        this.userStatRepository = userStatRepository;
+        this.statReconciliationRepository = statReconciliationRepository;
+        this.eventPublisher = eventPublisher;
+        this.reconciliationExecutor = reconciliationExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxChunkAttempts = maxChunkAttempts;
+    }
+
+    /**
+     * Starts a reconciliation run in the background.
+     *
+     * @param resume continue from the checkpoints of the last run (phases that completed are skipped),
+     *               instead of starting over
+     */
+    public ServiceResponse<Void> start(boolean resume) {
+
+        if (!running.compareAndSet(false, true)) {
+            return ServiceResponse.failure("A stat reconciliation is already running");
+        }
+        cancelRequested = false;
+
+        // the run takes one thread of the reconciliation executor, its chunks take the others
+        reconciliationExecutor.execute(() -> run(resume));
+
+        return ServiceResponse.success(resume ? "Stat reconciliation resumed" : "Stat reconciliation started");
+    }
+
+    /**
+     * Asks the running reconciliation to stop. Chunks in progress are finished and checkpointed,
+     * the run can be resumed later.
+     */
+    public ServiceResponse<Void> cancel() {
+
+        if (!running.get()) {
+            return ServiceResponse.failure("No stat reconciliation is running");
+        }
+        cancelRequested = true;
+
+        return ServiceResponse.success("Stat reconciliation is being cancelled");
+    }
+
+    /**
+     * Checkpoint and counters of each phase of the current (or last) run
+     */
+    public ServiceResponse<List<StatReconciliationProgressDTO>> getProgress() {
+
+        List<StatReconciliationProgressDTO> progress = new ArrayList<>();
+        for (ReconciliationPhase phase : ReconciliationPhase.values()) {
+            statReconciliationRepository.findByPhase(phase).ifPresent(checkpoint -> {
+                ReconciliationStatus status = checkpoint.getStatus();
+                // a phase left running by a run that didn't finish, e.g. the application was stopped
+                if (status == ReconciliationStatus.RUNNING && !running.get()) {
+                    status = ReconciliationStatus.INTERRUPTED;
+                }
+                progress.add(new StatReconciliationProgressDTO(phase.name(), status.name(), checkpoint.getTotal(),
+                        checkpoint.getProcessed(), checkpoint.getCorrected(), checkpoint.getLastId(),
+                        checkpoint.getCreateDate(), checkpoint.getUpdateDate(), checkpoint.getErrorMessage()));
+            });
+        }
+
+        return ServiceResponse.success("Stat reconciliation progress retrieved", progress);
+    }
+
+    private void run(boolean resume) {
+
+        logger.info("Starting stat reconciliation (resume: {}, chunk size: {}, parallelism: {})",
+                resume, chunkSize, parallelism);
+        try {
+            for (ReconciliationPhase phase : ReconciliationPhase.values()) {
+                StatReconciliation checkpoint = transactionTemplate.execute(status -> startPhase(phase, resume));
+                if (checkpoint.getStatus() == ReconciliationStatus.COMPLETED) {
+                    logger.info("Stat reconciliation phase {} already completed, skipping", phase);
+                    continue;
+                }
+                if (!runPhase(phase, checkpoint.getLastId())) {
+                    return;
+                }
+            }
+            logger.info("Stat reconciliation completed");
+        } catch (RuntimeException e) {
+            logger.error("Stat reconciliation failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private StatReconciliation startPhase(ReconciliationPhase phase, boolean resume) {
+
+        StatReconciliation checkpoint = statReconciliationRepository.findByPhase(phase)
+                .orElseGet(() -> StatReconciliation.newStatReconciliation(phase));
+
+        if (resume && checkpoint.getStatus() == ReconciliationStatus.COMPLETED) {
+            return checkpoint;
+        }
+        if (!resume) {
+            checkpoint.setLastId(null);
+            checkpoint.setProcessed(0);
+            checkpoint.setCorrected(0);
+            checkpoint.setCreateDate(LocalDateTime.now());
+        }
+        checkpoint.setStatus(ReconciliationStatus.RUNNING);
+        checkpoint.setErrorMessage(null);
+        checkpoint.setTotal(dynamicDAO.count(QuerySpec.builder(rootEntity(phase)).build()));
+
+        return statReconciliationRepository.save(checkpoint);
+    }
+
+    private record Chunk(Long toId, int size, CompletableFuture<Long> corrected) {}
+
+    /**
+     * Reconciles the rows of a phase after afterId, chunk by chunk.
+     * Chunks are checkpointed in id order, so the checkpoint never passes a chunk that isn't done.
+     *
+     * @return true if the phase completed
+     */
+    private boolean runPhase(ReconciliationPhase phase, Long afterId) {
+
+        logger.info("Reconciling {} after id {}", phase.getLabel(), afterId);
+
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        try {
+            while (!cancelRequested) {
+                List<Long> ids = nextChunkIds(phase, afterId);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Long fromId = ids.get(0);
+                Long toId = ids.get(ids.size() - 1);
+                inFlight.add(new Chunk(toId, ids.size(), CompletableFuture.supplyAsync(
+                        () -> reconcileChunk(phase, fromId, toId), reconciliationExecutor)));
+                afterId = toId;
+
+                if (inFlight.size() >= parallelism) {
+                    checkpoint(phase, inFlight.poll());
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                checkpoint(phase, inFlight.poll());
+            }
+        } catch (CompletionException e) {
+            // let the other chunks finish, the run is resumed from the failed chunk
+            inFlight.forEach(chunk -> chunk.corrected().exceptionally(ex -> 0L).join());
+            logger.error("Stat reconciliation of {} failed", phase.getLabel(), e.getCause());
+            finishPhase(phase, ReconciliationStatus.FAILED, String.valueOf(e.getCause()));
+            return false;
+        }
+
+        ReconciliationStatus status = cancelRequested ? ReconciliationStatus.CANCELLED : ReconciliationStatus.COMPLETED;
+        finishPhase(phase, status, null);
+        logger.info("Reconciliation of {}: {}", phase.getLabel(), status);
+
+        return status == ReconciliationStatus.COMPLETED;
+    }
+
+    private List<Long> nextChunkIds(ReconciliationPhase phase, Long afterId) {
+
+        QuerySpec.Builder<Long> builder = QuerySpec.builder(Long.class).rootEntityClass(rootEntity(phase))
+                .targetPath("id").order(OrderSpec.asc("id")).maxResult(chunkSize);
+        if (afterId != null) {
+            builder.filter(FilterSpec.gt("id", afterId));
+        }
+        return dynamicDAO.find(builder.build());
+    }
+
+    private void checkpoint(ReconciliationPhase phase, Chunk chunk) {
+
+        long corrected = chunk.corrected().join();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            StatReconciliation checkpoint = statReconciliationRepository.findByPhase(phase).orElseThrow();
+            checkpoint.setLastId(chunk.toId());
+            checkpoint.addProcessed(chunk.size());
+            checkpoint.addCorrected(corrected);
+        });
+    }
+
+    private void finishPhase(ReconciliationPhase phase, ReconciliationStatus status, String errorMessage) {
+        transactionTemplate.executeWithoutResult(txStatus -> {
+            StatReconciliation checkpoint = statReconciliationRepository.findByPhase(phase).orElseThrow();
+            checkpoint.setStatus(status);
+            checkpoint.setErrorMessage(errorMessage != null && errorMessage.length() > 255
+                    ? errorMessage.substring(0, 255) : errorMessage);
+        });
+    }
+
+    private Class<?> rootEntity(ReconciliationPhase phase) {
+        return switch (phase) {
+            case DISCUSSION -> Discussion.class;
+            case FORUM -> Forum.class;
+            case USER -> User.class;
+        };
+    }
+
+    /**
+     * Reconciles the stats of the rows with an id in [fromId, toId] in one transaction.
+     * @return number of stats corrected
+     */
+    private long reconcileChunk(ReconciliationPhase phase, Long fromId, Long toId) {
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> switch (phase) {
+                    case DISCUSSION -> reconcileDiscussionStats(fromId, toId);
+                    case FORUM -> reconcileForumStats(fromId, toId);
+                    case USER -> reconcileUserStats(fromId, toId);
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxChunkAttempts) {
+                    throw e;
+                }
+                logger.info("{} {}-{} changed concurrently, reconciling again (attempt {})",
+                        phase.getLabel(), fromId, toId, attempt + 1);
+            }
+        }
+    }
+
+    // -- discussion stats
+
+    private long reconcileDiscussionStats(Long fromId, Long toId) {
+
+        Map<Long, Long> commentCounts = toCountMap(commentRepository.countPerDiscussion(fromId, toId));
+        Map<Long, Long> imageCounts = toCountMap(discussionRepository.countImagesPerDiscussion(fromId, toId));
+        addCounts(imageCounts, commentRepository.countImagesPerDiscussion(fromId, toId));
+        Map<Long, Long> attachmentCounts = toCountMap(discussionRepository.countAttachmentsPerDiscussion(fromId, toId));
+        addCounts(attachmentCounts, commentRepository.countAttachmentsPerDiscussion(fromId, toId));
+        Map<Long, LatestContent> lastComments = toLatestMap(commentRepository.findLatestPerDiscussion(fromId, toId));
+
+        Map<Long, Map<String, Integer>> participants = new HashMap<>();
+        for (Object[] row : commentRepository.countPerDiscussionAndCommentor(fromId, toId)) {
+            participants.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                    .put((String) row[1], ((Long) row[2]).intValue());
+        }
+
+        long corrected = 0;
+        for (Object[] row : discussionStatRepository.findByDiscussionIdRange(fromId, toId)) {
+            Long discussionId = (Long) row[0];
+            DiscussionStat stat = (DiscussionStat) row[1];
+
+            long commentCount = commentCounts.getOrDefault(discussionId, 0L);
+            long imageCount = imageCounts.getOrDefault(discussionId, 0L);
+            long attachmentCount = attachmentCounts.getOrDefault(discussionId, 0L);
+            Map<String, Integer> discussionParticipants = participants.getOrDefault(discussionId, Map.of());
+            Map<String, Integer> currentParticipants = stat.getParticipants() != null ? stat.getParticipants() : Map.of();
+
+            boolean drifted = stat.getCommentCount() != commentCount || stat.getImageCount() != imageCount
+                    || stat.getAttachmentCount() != attachmentCount;
+            stat.setCommentCount(commentCount);
+            stat.setImageCount(imageCount);
+            stat.setAttachmentCount(attachmentCount);
+
+            if (!currentParticipants.equals(discussionParticipants)) {
+                drifted = true;
+                if (stat.getParticipants() == null) {
+                    stat.setParticipants(new HashMap<>());
+                }
+                stat.getParticipants().clear();
+                stat.getParticipants().putAll(discussionParticipants);
+            }
+
+            if (stat.getLastComment() == null) {
+                stat.setLastComment(new CommentInfo());
+            }
+            drifted |= reconcileCommentInfo(stat.getLastComment(), lastComments.get(discussionId));
+
+            if (drifted) {
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    // -- forum stats
+
+    private long reconcileForumStats(Long fromId, Long toId) {
+
+        Map<Long, Long> discussionCounts = toCountMap(discussionRepository.countPerForum(fromId, toId));
+        Map<Long, Long> commentCounts = toCountMap(commentRepository.countPerForum(fromId, toId));
+        Map<Long, LatestContent> lastDiscussions = toLatestMap(discussionRepository.findLatestPerForum(fromId, toId));
+        Map<Long, LatestContent> lastComments = toLatestMap(commentRepository.findLatestPerForum(fromId, toId));
+
+        Set<Long> correctedForumIds = new HashSet<>();
+        for (Object[] row : forumStatRepository.findByForumIdRange(fromId, toId)) {
+            Long forumId = (Long) row[0];
+            ForumStat stat = (ForumStat) row[1];
+
+            long discussionCount = discussionCounts.getOrDefault(forumId, 0L);
+            long commentCount = commentCounts.getOrDefault(forumId, 0L);
+
+            boolean drifted = stat.getDiscussionCount() != discussionCount || stat.getCommentCount() != commentCount;
+            stat.setDiscussionCount(discussionCount);
+            stat.setCommentCount(commentCount);
+
+            if (stat.getLastDiscussion() == null) {
+                stat.setLastDiscussion(new DiscussionInfo());
+            }
+            drifted |= reconcileDiscussionInfo(stat.getLastDiscussion(), lastDiscussions.get(forumId));
+            if (stat.getLastComment() == null) {
+                stat.setLastComment(new CommentInfo());
+            }
+            drifted |= reconcileCommentInfo(stat.getLastComment(), lastComments.get(forumId));
+
+            if (drifted) {
+                correctedForumIds.add(forumId);
+            }
+        }
+
+        if (!correctedForumIds.isEmpty()) {
+            // refresh the forum tree snapshot
+            eventPublisher.publishEvent(new ForumStatChangedEvent(this, correctedForumIds));
+        }
+        return correctedForumIds.size();
+    }
+
+    // -- user stats
+
+    private long reconcileUserStats(Long fromId, Long toId) {
+
+        Map<Long, Long> discussionCounts = toCountMap(discussionRepository.countPerUser(fromId, toId));
+        Map<Long, Long> commentCounts = toCountMap(commentRepository.countPerUser(fromId, toId));
+
+        /*
+         * The counts are written with a set-based update rather than through the UserStat entities:
+         * flushing an entity writes all of its columns, which would overwrite the reputation, profile
+         * views and last login updated concurrently by in-database increments that don't bump the version
+         */
+        long corrected = 0;
+        for (Object[] row : userStatRepository.findCountsByUserIdRange(fromId, toId)) {
+            Long userId = (Long) row[0];
+            Long userStatId = (Long) row[1];
+
+            long discussionCount = discussionCounts.getOrDefault(userId, 0L);
+            long commentCount = commentCounts.getOrDefault(userId, 0L);
+
+            if ((Long) row[2] != discussionCount || (Long) row[3] != commentCount) {
+                if (userStatRepository.setCountsIfVersion(userStatId, (Integer) row[4],
+                        discussionCount, commentCount) == 0) {
+                    throw new OptimisticLockingFailureException("UserStat %d changed concurrently".formatted(userStatId));
+                }
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    // -- helpers
+
+    /**
+     * Latest discussion or comment of an owner (discussion or forum)
+     */
+    private record LatestContent(Long id, String createBy, LocalDateTime createDate, String title, String content) {}
+
+    /**
+     * @param rows rows of [ownerId, id, createBy, createDate, title, content], of the owners' latest content;
+     *             of contents with the same (latest) create date, the one with the highest id is kept
+     */
+    private static Map<Long, LatestContent> toLatestMap(List<Object[]> rows) {
+        Map<Long, LatestContent> latest = new HashMap<>();
+        for (Object[] row : rows) {
+            LatestContent content = new LatestContent((Long) row[1], (String) row[2], (LocalDateTime) row[3],
+                    (String) row[4], (String) row[5]);
+            latest.merge((Long) row[0], content, (a, b) -> a.id() >= b.id() ? a : b);
+        }
+        return latest;
+    }
+
+    /**
+     * @return true if commentInfo didn't refer to the latest comment (and was updated)
+     */
+    private static boolean reconcileCommentInfo(CommentInfo commentInfo, LatestContent latest) {
+        Long latestId = latest != null ? latest.id() : null;
+        if (Objects.equals(commentInfo.getCommentId(), latestId)) {
+            return false;
+        }
+        commentInfo.setCommentId(latestId);
+        commentInfo.setCommentor(latest != null ? latest.createBy() : null);
+        commentInfo.setCommentDate(latest != null ? latest.createDate() : null);
+        commentInfo.setTitle(latest != null ? latest.title() : null);
+        commentInfo.setContentAbbr(latest != null ? CommentInfo.abbreviate(latest.content()) : null);
+        return true;
+    }
+
+    /**
+     * @return true if discussionInfo didn't refer to the latest discussion (and was updated)
+     */
+    private static boolean reconcileDiscussionInfo(DiscussionInfo discussionInfo, LatestContent latest) {
+        Long latestId = latest != null ? latest.id() : null;
+        if (Objects.equals(discussionInfo.getDiscussionId(), latestId)) {
+            return false;
+        }
+        discussionInfo.setDiscussionId(latestId);
+        discussionInfo.setDiscussionCreator(latest != null ? latest.createBy() : null);
+        discussionInfo.setDiscussionCreateDate(latest != null ? latest.createDate() : null);
+        discussionInfo.setTitle(latest != null ? latest.title() : null);
+        discussionInfo.setContentAbbr(latest != null ? DiscussionInfo.abbreviate(latest.content()) : null);
+        return true;
+    }
+
+    /**
+     * @param rows rows of [id, count]
+     */
+    private static Map<Long, Long> toCountMap(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        addCounts(counts, rows);
+        return counts;
+    }
+
+    private static void addCounts(Map<Long, Long> counts, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            counts.merge((Long) row[0], (Long) row[1], Long::sum);
+        }
+    }
+}
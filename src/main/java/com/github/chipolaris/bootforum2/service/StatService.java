@@ -1,33 +1,47 @@
 package com.github.chipolaris.bootforum2.service;
 
+import com.github.chipolaris.bootforum2.dao.DynamicDAO;
 import com.github.chipolaris.bootforum2.dao.GenericDAO;
+import com.github.chipolaris.bootforum2.dao.QuerySpec;
 import com.github.chipolaris.bootforum2.domain.*;
+import com.github.chipolaris.bootforum2.event.ForumStatChangedEvent;
 import com.github.chipolaris.bootforum2.repository.CommentRepository;
 import com.github.chipolaris.bootforum2.repository.DiscussionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Iterator;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class StatService {
 
     private static final Logger logger = LoggerFactory.getLogger(StatService.class);
 
+    // rows read per round-trip (and persistence context clear) when syncing many stats
+    private static final int STREAM_FETCH_SIZE = 100;
+
     private final GenericDAO genericDAO;
+    private final DynamicDAO dynamicDAO;
     private final CommentRepository commentRepository;
     private final DiscussionRepository discussionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
-    public StatService(GenericDAO genericDAO, CommentRepository commentRepository,
-                       DiscussionRepository discussionRepository) {
+    public StatService(GenericDAO genericDAO, DynamicDAO dynamicDAO, CommentRepository commentRepository,
+                       DiscussionRepository discussionRepository, ApplicationEventPublisher eventPublisher) {
         this.genericDAO = genericDAO;
+        this.dynamicDAO = dynamicDAO;
         this.commentRepository = commentRepository;
         this.discussionRepository = discussionRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     //-----
@@ -105,6 +119,7 @@ public class StatService {
         }
 
         genericDAO.merge(forumStat);
+        eventPublisher.publishEvent(new ForumStatChangedEvent(this, Set.of(forum.getId())));
 
         return forumStat;
     }
@@ -123,6 +138,23 @@ public class StatService {
         return ServiceResponse.success("Forum Stat refreshed", refreshUserStatFromDB(user));
     }
 
+    /**
+     * Sync the stats of all users matching userQuery. Users are streamed (see {@link DynamicDAO#stream}),
+     * so memory use doesn't depend on the number of users
+     * @return number of users synced
+     */
+    @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
+    public ServiceResponse<Long> syncUserStats(QuerySpec userQuery) {
+        long count = 0;
+        try (Stream<User> users = dynamicDAO.stream(userQuery, STREAM_FETCH_SIZE)) {
+            for (Iterator<User> iterator = users.iterator(); iterator.hasNext(); count++) {
+                refreshUserStatFromDB(iterator.next());
+            }
+        }
+        logger.info("Synced stats of {} users", count);
+        return ServiceResponse.success("User stats refreshed", count);
+    }
+
     private UserStat refreshUserStatFromDB(User user) {
         UserStat userStat = user.getStat();
         userStat.setDiscussionCount(discussionRepository.countByCreateBy(user.getUsername()));
@@ -0,0 +1,245 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.domain.Comment;
+import com.github.chipolaris.bootforum2.domain.CommentInfo;
+import com.github.chipolaris.bootforum2.domain.Discussion;
+import com.github.chipolaris.bootforum2.domain.DiscussionInfo;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A pending change to a single statistics row (one DiscussionStat, ForumStat or UserStat),
+ * expressed as deltas so that any number of updates to the same row can be merged into one.
+ *
+ * DiscussionStat rows are keyed by the stat id, ForumStat rows by the forum id and UserStat
+ * rows by the username, which is what the events carry and what the update queries resolve.
+ */
+public class StatUpdate {
+
+    /**
+     * Target stat table. The ordinal order is also the order in which rows are written
+     * within a transaction, so that writers always lock rows in the same order.
+     */
+    public enum Target { DISCUSSION, FORUM, USER }
+
+    /**
+     * Identity of the stat row an update applies to.
+     */
+    public record Key(Target target, Object id) {}
+
+    public record LastComment(Long commentId, String commentor, LocalDateTime commentDate,
+                              String title, String contentAbbr) {}
+
+    public record LastDiscussion(Long discussionId, String discussionCreator, LocalDateTime discussionCreateDate,
+                                 String title, String contentAbbr) {}
+
+    private final Key key;
+
+    private long discussionCount;
+    private long commentCount;
+    private long imageCount;
+    private long attachmentCount;
+    private long reputation;
+    private long profileViewed;
+    private LocalDateTime lastLogin;
+    private Map<String, Integer> participants;
+    private LastComment lastComment;
+    private LastDiscussion lastDiscussion;
+
+    // number of source updates merged into this one
+    private int mergedCount = 1;
+
+    private StatUpdate(Target target, Object id) {
+        this.key = new Key(target, id);
+    }
+
+    public static StatUpdate forDiscussionStat(Long discussionStatId) {
+        return new StatUpdate(Target.DISCUSSION, discussionStatId);
+    }
+
+    public static StatUpdate forForum(Long forumId) {
+        return new StatUpdate(Target.FORUM, forumId);
+    }
+
+    public static StatUpdate forUser(String username) {
+        return new StatUpdate(Target.USER, username);
+    }
+
+    /**
+     * Stat updates resulting from the creation of a comment.
+     */
+    public static List<StatUpdate> ofCommentCreated(Comment comment) {
+
+        Discussion discussion = comment.getDiscussion();
+        String commentor = comment.getCreateBy();
+        int images = comment.getImages() != null ? comment.getImages().size() : 0;
+        int attachments = comment.getAttachments() != null ? comment.getAttachments().size() : 0;
+        LastComment lastComment = new LastComment(comment.getId(), commentor, comment.getCreateDate(),
+                comment.getTitle(), CommentInfo.abbreviate(comment.getContent()));
+
+        StatUpdate discussionStat = forDiscussionStat(discussion.getStat().getId());
+        discussionStat.commentCount = 1;
+        discussionStat.imageCount = images;
+        discussionStat.attachmentCount = attachments;
+        discussionStat.addParticipant(commentor, 1);
+        discussionStat.lastComment = lastComment;
+
+        StatUpdate forumStat = forForum(discussion.getForum().getId());
+        forumStat.commentCount = 1;
+        forumStat.lastComment = lastComment;
+
+        StatUpdate userStat = forUser(commentor);
+        userStat.commentCount = 1;
+        userStat.imageCount = images;
+        userStat.attachmentCount = attachments;
+        userStat.lastComment = lastComment;
+
+        return List.of(discussionStat, forumStat, userStat);
+    }
+
+    /**
+     * Stat updates resulting from the creation of a discussion.
+     */
+    public static List<StatUpdate> ofDiscussionCreated(Discussion discussion) {
+
+        String creator = discussion.getCreateBy();
+        int images = discussion.getImages() != null ? discussion.getImages().size() : 0;
+        int attachments = discussion.getAttachments() != null ? discussion.getAttachments().size() : 0;
+        LastDiscussion lastDiscussion = new LastDiscussion(discussion.getId(), creator, discussion.getCreateDate(),
+                discussion.getTitle(), DiscussionInfo.abbreviate(discussion.getContent()));
+
+        StatUpdate discussionStat = forDiscussionStat(discussion.getStat().getId());
+        discussionStat.imageCount = images;
+        discussionStat.attachmentCount = attachments;
+        discussionStat.addParticipant(creator, 1);
+
+        StatUpdate forumStat = forForum(discussion.getForum().getId());
+        forumStat.discussionCount = 1;
+        forumStat.lastDiscussion = lastDiscussion;
+
+        StatUpdate userStat = forUser(creator);
+        userStat.discussionCount = 1;
+        userStat.imageCount = images;
+        userStat.attachmentCount = attachments;
+        userStat.lastDiscussion = lastDiscussion;
+
+        return List.of(discussionStat, forumStat, userStat);
+    }
+
+    public static StatUpdate ofReputation(String username, long reputationToAdd) {
+        StatUpdate userStat = forUser(username);
+        userStat.reputation = reputationToAdd;
+        return userStat;
+    }
+
+    public static StatUpdate ofProfileViewed(String username) {
+        StatUpdate userStat = forUser(username);
+        userStat.profileViewed = 1;
+        return userStat;
+    }
+
+    public static StatUpdate ofLogin(String username, LocalDateTime loginTime) {
+        StatUpdate userStat = forUser(username);
+        userStat.lastLogin = loginTime;
+        return userStat;
+    }
+
+    /**
+     * Merge another update of the same row into this one: counters are summed
+     * and, for "last" infos and last login, the newest one wins.
+     */
+    public void merge(StatUpdate other) {
+        if (!key.equals(other.key)) {
+            throw new IllegalArgumentException("Cannot merge stat update of %s into %s".formatted(other.key, key));
+        }
+
+        discussionCount += other.discussionCount;
+        commentCount += other.commentCount;
+        imageCount += other.imageCount;
+        attachmentCount += other.attachmentCount;
+        reputation += other.reputation;
+        profileViewed += other.profileViewed;
+
+        if (other.lastLogin != null && (lastLogin == null || other.lastLogin.isAfter(lastLogin))) {
+            lastLogin = other.lastLogin;
+        }
+        if (other.participants != null) {
+            other.participants.forEach(this::addParticipant);
+        }
+        if (other.lastComment != null && (lastComment == null || isAfter(other.lastComment.commentDate(), lastComment.commentDate()))) {
+            lastComment = other.lastComment;
+        }
+        if (other.lastDiscussion != null && (lastDiscussion == null
+                || isAfter(other.lastDiscussion.discussionCreateDate(), lastDiscussion.discussionCreateDate()))) {
+            lastDiscussion = other.lastDiscussion;
+        }
+
+        mergedCount += other.mergedCount;
+    }
+
+    private void addParticipant(String participant, int count) {
+        if (participants == null) {
+            participants = new HashMap<>();
+        }
+        participants.merge(participant, count, Integer::sum);
+    }
+
+    private static boolean isAfter(LocalDateTime candidate, LocalDateTime current) {
+        return current == null || (candidate != null && candidate.isAfter(current));
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public long getDiscussionCount() {
+        return discussionCount;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public long getImageCount() {
+        return imageCount;
+    }
+
+    public long getAttachmentCount() {
+        return attachmentCount;
+    }
+
+    public long getReputation() {
+        return reputation;
+    }
+
+    public long getProfileViewed() {
+        return profileViewed;
+    }
+
+    public LocalDateTime getLastLogin() {
+        return lastLogin;
+    }
+
+    public Map<String, Integer> getParticipants() {
+        return participants == null ? Map.of() : participants;
+    }
+
+    public LastComment getLastComment() {
+        return lastComment;
+    }
+
+    public LastDiscussion getLastDiscussion() {
+        return lastDiscussion;
+    }
+
+    public int getMergedCount() {
+        return mergedCount;
+    }
+
+    public boolean hasCounts() {
+        return discussionCount != 0 || commentCount != 0 || imageCount != 0 || attachmentCount != 0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.chipolaris.bootforum2.service; // Or a more suitable package
 
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
 import com.github.chipolaris.bootforum2.dao.DynamicDAO;
 import com.github.chipolaris.bootforum2.dao.GenericDAO;
 import com.github.chipolaris.bootforum2.domain.*; // Assuming your domain entities are here
@@ -263,7 +264,7 @@ public class SystemStatistic {
 
     @EventListener
     @Transactional(readOnly = true) // need this to fetch comment's discussion
-    @Async
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
     public void handleCommentCreatedEvent(CommentCreatedEvent event) {
         Comment comment = event.getComment();
 
@@ -275,7 +276,7 @@ public class SystemStatistic {
     }
 
     @EventListener
-    @Async // Uncomment for asynchronous execution (requires @EnableAsync in a config class)
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR) // Uncomment for asynchronous execution (requires @EnableAsync in a config class)
     // @Transactional // No DB operation, no need for @Transactional annotation
     public void handleDiscussionCreatedEvent(DiscussionCreatedEvent event) {
 
@@ -294,7 +295,7 @@ public class SystemStatistic {
     }
 
     @EventListener
-    @Async
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
     // @Transactional(readOnly = true) // No DB operation, no need for @Transactional annotation
     public void handleForumCreatedEvent(ForumCreatedEvent event) {
 
@@ -304,7 +305,7 @@ public class SystemStatistic {
     }
 
     @EventListener
-    @Async
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
     // @Transactional // No DB operation, no need for @Transactional annotation
     public void handleForumGroupCreatedEvent(ForumGroupCreatedEvent event) {
 
@@ -314,7 +315,7 @@ public class SystemStatistic {
     }
 
     @EventListener
-    @Async
+    @Async(AsyncExecutorConfig.STAT_EVENTS_EXECUTOR)
     // @Transactional // No DB operation, no need for @Transactional annotation
     public void handleUserCreatedEvent(UserCreatedEvent event) {
 
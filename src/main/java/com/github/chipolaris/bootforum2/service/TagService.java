@@ -25,10 +25,13 @@ public class TagService {
 
     private final TagRepository tagRepository;
     private final TagMapper tagMapper;
+    private final SimilarDiscussionService similarDiscussionService;
 
-    public TagService(TagRepository tagRepository, TagMapper tagMapper) {
+    public TagService(TagRepository tagRepository, TagMapper tagMapper,
+                      SimilarDiscussionService similarDiscussionService) {
         this.tagRepository = tagRepository;
         this.tagMapper = tagMapper;
+        this.similarDiscussionService = similarDiscussionService;
     }
 
     @Transactional(readOnly = true)
@@ -92,6 +95,8 @@ public class TagService {
             // Note: This will fail if the tag is associated with any discussions due to foreign key constraints.
             // A more robust implementation would check for associations first.
             tagRepository.deleteById(id);
+            // the deleted tag no longer relates the discussions that had it
+            similarDiscussionService.evictAll();
             return ServiceResponse.success("Successfully deleted tag");
         } catch (Exception e) {
             logger.error(String.format("Error deleting tag with ID %d", id), e);
@@ -0,0 +1,196 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.BloomFilter;
+import com.github.chipolaris.bootforum2.domain.RevokedToken;
+import com.github.chipolaris.bootforum2.enumeration.RevocationReason;
+import com.github.chipolaris.bootforum2.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation of JWTs before their expiration: one token on logout, all tokens of a user on a password or
+ * account status change. Revocations are persisted to a deny-list table (see RevokedToken) and mirrored in
+ * memory, so that checking a token (see isRevoked) never reads the database:
+ * - revoked token ids (jti) are put in a bloom filter, which rules out almost all valid tokens in O(1),
+ *   and an exact set, which confirms the bloom filter's hits;
+ * - user-wide revocations are kept as a cutoff per user: tokens issued before it are revoked.
+ *
+ * Every refresh-ms, entries whose tokens are all expired are deleted from the table and from memory, the
+ * entries added by other instances are loaded and the bloom filter is rebuilt without the evicted ids.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long jwtExpirationMs;
+    private final int bloomExpectedInsertions;
+    private final double bloomFalsePositiveRate;
+
+    // exact deny-list: revoked token id -> expiration of the token
+    private final Map<String, LocalDateTime> revokedTokenIds = new ConcurrentHashMap<>();
+
+    // user-wide revocations: username -> tokens of the user issued before this time are revoked
+    private final Map<String, LocalDateTime> userCutoffs = new ConcurrentHashMap<>();
+
+    // ids of revokedTokenIds, rebuilt on refresh (writes to it and the rebuild are synchronized)
+    private volatile BloomFilter tokenIdFilter;
+
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.jwt.expiration-ms}") long jwtExpirationMs,
+                                  @Value("${app.jwt.revocation.bloom-expected-insertions:10000}") int bloomExpectedInsertions,
+                                  @Value("${app.jwt.revocation.bloom-false-positive-rate:0.01}") double bloomFalsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.bloomExpectedInsertions = bloomExpectedInsertions;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.tokenIdFilter = new BloomFilter(bloomExpectedInsertions, bloomFalsePositiveRate);
+    }
+
+    /**
+     * Checks a (valid, unexpired) token against the in-memory deny-list.
+     *
+     * @param tokenId  jti claim of the token, null for tokens issued without one
+     * @param username subject of the token
+     * @param issuedAt iat claim of the token
+     */
+    public boolean isRevoked(String tokenId, String username, Date issuedAt) {
+
+        if (tokenId != null && tokenIdFilter.mightContain(tokenId) && revokedTokenIds.containsKey(tokenId)) {
+            return true;
+        }
+
+        LocalDateTime cutoff = userCutoffs.get(username);
+        // iat has a precision of seconds: tokens issued in the second of the revocation are kept, so that
+        // the user can log in again right away (e.g. with the new password)
+        return cutoff != null && issuedAt != null
+                && toLocalDateTime(issuedAt).isBefore(cutoff.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Revokes one token, e.g. on logout. Within a transaction, the token is denied once it commits.
+     *
+     * @param expiration exp claim of the token: the entry is kept until then
+     */
+    public void revokeToken(String tokenId, String username, Date expiration, RevocationReason reason) {
+
+        LocalDateTime expiresAt = toLocalDateTime(expiration);
+        revokedTokenRepository.save(RevokedToken.newRevokedToken(tokenId, username, expiresAt, reason));
+        afterCommit(() -> addRevokedTokenId(tokenId, expiresAt));
+
+        logger.info("Revoked token {} of user '{}' ({})", tokenId, username, reason.getLabel());
+    }
+
+    /**
+     * Revokes all tokens of a user issued until now, e.g. on a password change. Within a transaction, the
+     * tokens are denied once it commits.
+     */
+    public void revokeUserTokens(String username, RevocationReason reason) {
+
+        LocalDateTime now = LocalDateTime.now();
+        // the tokens issued until now are all expired jwtExpirationMs from now
+        RevokedToken revokedToken = RevokedToken.newRevokedToken(null, username,
+                now.plus(jwtExpirationMs, ChronoUnit.MILLIS), reason);
+        revokedToken.setRevokedAt(now);
+        revokedTokenRepository.save(revokedToken);
+        afterCommit(() -> addUserCutoff(username, now));
+
+        logger.info("Revoked tokens of user '{}' ({})", username, reason.getLabel());
+    }
+
+    /**
+     * Evicts the expired entries from the table and from memory, loads the entries of other instances
+     * and rebuilds the bloom filter. Runs at startup, then every refresh-ms.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.refresh-ms:60000}")
+    public void refresh() {
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<RevokedToken> revokedTokens = transactionTemplate.execute(status -> {
+                int deleted = revokedTokenRepository.deleteExpired(now);
+                if (deleted > 0) {
+                    logger.info("Deleted {} expired revoked token entries", deleted);
+                }
+                return revokedTokenRepository.findByExpiresAtAfter(now);
+            });
+
+            synchronized (this) {
+                for (RevokedToken revokedToken : revokedTokens) {
+                    if (revokedToken.getTokenId() != null) {
+                        revokedTokenIds.putIfAbsent(revokedToken.getTokenId(), revokedToken.getExpiresAt());
+                    } else {
+                        userCutoffs.merge(revokedToken.getUsername(), revokedToken.getRevokedAt(),
+                                (cutoff, other) -> cutoff.isAfter(other) ? cutoff : other);
+                    }
+                }
+                revokedTokenIds.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+                userCutoffs.values().removeIf(cutoff -> !cutoff.plus(jwtExpirationMs, ChronoUnit.MILLIS).isAfter(now));
+
+                BloomFilter filter = new BloomFilter(Math.max(bloomExpectedInsertions, 2 * revokedTokenIds.size()),
+                        bloomFalsePositiveRate);
+                revokedTokenIds.keySet().forEach(filter::put);
+                tokenIdFilter = filter;
+            }
+            logger.debug("Deny-list refreshed: {} revoked tokens, {} users with revoked tokens",
+                    revokedTokenIds.size(), userCutoffs.size());
+        } catch (Exception e) {
+            logger.error("Error refreshing the revoked token deny-list", e);
+        }
+    }
+
+    public int getRevokedTokenCount() {
+        return revokedTokenIds.size();
+    }
+
+    public int getRevokedUserCount() {
+        return userCutoffs.size();
+    }
+
+    private synchronized void addRevokedTokenId(String tokenId, LocalDateTime expiresAt) {
+        revokedTokenIds.put(tokenId, expiresAt);
+        tokenIdFilter.put(tokenId);
+    }
+
+    private void addUserCutoff(String username, LocalDateTime cutoff) {
+        userCutoffs.merge(username, cutoff, (existing, other) -> existing.isAfter(other) ? existing : other);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
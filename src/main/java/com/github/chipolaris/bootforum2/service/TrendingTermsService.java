@@ -0,0 +1,347 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.TermExtractor;
+import com.github.chipolaris.bootforum2.config.AsyncExecutorConfig;
+import com.github.chipolaris.bootforum2.domain.Comment;
+import com.github.chipolaris.bootforum2.domain.Discussion;
+import com.github.chipolaris.bootforum2.dto.admin.TrendingTermDTO;
+import com.github.chipolaris.bootforum2.enumeration.TermSource;
+import com.github.chipolaris.bootforum2.repository.CommentRepository;
+import com.github.chipolaris.bootforum2.repository.DiscussionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Trending terms of discussions and comments, i.e. the terms found in the most discussions/comments
+ * created in a period.
+ *
+ * Terms are counted in one bucket per day, updated as discussions and comments are created
+ * (see TrendingTermsListener): a term is counted once per discussion title, discussion content and comment
+ * content it appears in. A period is answered by merging the buckets of its days in memory, rather than
+ * aggregating the search index.
+ *
+ * Days older than app.trending-terms.retention-days are compacted into a single bucket that only serves
+ * "all time" totals. The buckets are rebuilt from the database at startup (see {@link #startBackfill()}),
+ * until then {@link #isReady()} is false.
+ */
+@Service
+public class TrendingTermsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingTermsService.class);
+
+    private static final int SOURCE_COUNT = TermSource.values().length;
+
+    private final DiscussionRepository discussionRepository;
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor indexingExecutor;
+
+    private final int retentionDays;
+    private final int maxCompactedTerms;
+    private final Set<String> extraStopwords;
+
+    private final ConcurrentSkipListMap<LocalDate, TermBucket> dailyBuckets = new ConcurrentSkipListMap<>();
+    private final TermBucket compactedBucket = new TermBucket();
+
+    // recording takes the read lock (buckets are concurrent maps), compaction the write lock,
+    // so that a period is never merged while a day moves to the compacted bucket
+    private final ReadWriteLock bucketsLock = new ReentrantReadWriteLock();
+
+    // discussions and comments created from this time on are counted as they are created,
+    // the earlier ones by the backfill
+    private volatile LocalDateTime backfillCutoff;
+    private volatile boolean ready;
+
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public TrendingTermsService(DiscussionRepository discussionRepository, CommentRepository commentRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier(AsyncExecutorConfig.INDEXING_EXECUTOR) AsyncTaskExecutor indexingExecutor,
+                                @Value("${app.trending-terms.retention-days:400}") int retentionDays,
+                                @Value("${app.trending-terms.max-compacted-terms:100000}") int maxCompactedTerms,
+                                @Value("${app.trending-terms.extra-stopwords:}") List<String> extraStopwords) {
+        this.discussionRepository = discussionRepository;
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.indexingExecutor = indexingExecutor;
+        this.retentionDays = retentionDays;
+        this.maxCompactedTerms = maxCompactedTerms;
+        this.extraStopwords = new HashSet<>();
+        extraStopwords.forEach(stopword -> this.extraStopwords.add(stopword.trim().toLowerCase()));
+    }
+
+    /**
+     * @return false until the buckets are rebuilt from the database at startup
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Rebuilds the buckets from the discussions and comments in the database, in the background
+     * (on the indexing executor), once the application is started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        try {
+            indexingExecutor.execute(this::backfill);
+        } catch (TaskRejectedException e) {
+            logger.error("Indexing executor is busy, trending terms are not built: "
+                    + "top terms are aggregated from the search index", e);
+        }
+    }
+
+    void backfill() {
+
+        backfillCutoff = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        logger.info("Building trending terms from the discussions and comments created before {}", backfillCutoff);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = discussionRepository.streamTextCreatedBefore(backfillCutoff)) {
+                    rows.forEach(row -> {
+                        LocalDateTime createDate = (LocalDateTime) row[0];
+                        record(createDate, TermSource.DISCUSSION_TITLE, (String) row[1]);
+                        record(createDate, TermSource.DISCUSSION_CONTENT, (String) row[2]);
+                    });
+                }
+                try (Stream<Object[]> rows = commentRepository.streamTextCreatedBefore(backfillCutoff)) {
+                    rows.forEach(row -> record((LocalDateTime) row[0], TermSource.COMMENT_CONTENT, (String) row[1]));
+                }
+            });
+            compactExpiredDays();
+            ready = true;
+            logger.info("Trending terms built in {} ms ({} days)", System.currentTimeMillis() - start,
+                    dailyBuckets.size());
+        } catch (RuntimeException e) {
+            logger.error("Failed to build trending terms, top terms are aggregated from the search index", e);
+        }
+    }
+
+    public void recordDiscussion(Discussion discussion) {
+        if (isLive(discussion.getCreateDate())) {
+            record(discussion.getCreateDate(), TermSource.DISCUSSION_TITLE, discussion.getTitle());
+            record(discussion.getCreateDate(), TermSource.DISCUSSION_CONTENT, discussion.getContent());
+        }
+    }
+
+    public void recordComment(Comment comment) {
+        if (isLive(comment.getCreateDate())) {
+            record(comment.getCreateDate(), TermSource.COMMENT_CONTENT, comment.getContent());
+        }
+    }
+
+    /**
+     * Moves the days older than app.trending-terms.retention-days to the compacted bucket.
+     */
+    @Scheduled(cron = "${app.trending-terms.compaction-cron:0 5 0 * * *}")
+    public void compactExpiredDays() {
+
+        LocalDate oldestRetainedDay = oldestRetainedDay();
+        bucketsLock.writeLock().lock();
+        try {
+            Map<LocalDate, TermBucket> expired = dailyBuckets.headMap(oldestRetainedDay);
+            if (expired.isEmpty()) {
+                return;
+            }
+            expired.values().forEach(bucket -> bucket.addTo(compactedBucket));
+            logger.info("Compacted {} days of trending terms", expired.size());
+            expired.clear();
+            compactedBucket.keepTopTerms(maxCompactedTerms);
+        } finally {
+            bucketsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param period "week", "month", "year", "all" or "custom" (from and to are required)
+     * @param from first day of a custom period
+     * @param to last day of a custom period
+     */
+    public ServiceResponse<List<TrendingTermDTO>> getTrendingTerms(int limit, String period, LocalDate from,
+                                                                   LocalDate to) {
+        LocalDate today = LocalDate.now();
+        LocalDate fromDay;
+        LocalDate toDay = today;
+
+        switch (period) {
+            case "week" -> fromDay = today.minusWeeks(1);
+            case "month" -> fromDay = today.minusMonths(1);
+            case "year" -> fromDay = today.minusYears(1);
+            case "all" -> fromDay = null;
+            case "custom" -> {
+                if (from == null || to == null || from.isAfter(to)) {
+                    return ServiceResponse.failure("A custom period requires a 'from' date before its 'to' date");
+                }
+                fromDay = from;
+                toDay = to;
+            }
+            default -> {
+                return ServiceResponse.failure("Invalid period: " + period);
+            }
+        }
+
+        String message = "Successfully get trending terms";
+        if (fromDay != null && fromDay.isBefore(oldestRetainedDay())) {
+            message = String.format("Trending terms are kept for %d days, terms before %s are not counted",
+                    retentionDays, oldestRetainedDay());
+        }
+
+        return ServiceResponse.success(message, topTerms(fromDay, toDay, limit));
+    }
+
+    /**
+     * @param fromDay first day of the period, null for all time
+     * @param toDay last day of the period
+     */
+    List<TrendingTermDTO> topTerms(LocalDate fromDay, LocalDate toDay, int limit) {
+
+        Map<String, long[]> merged = new HashMap<>();
+        bucketsLock.readLock().lock();
+        try {
+            if (fromDay == null) {
+                compactedBucket.mergeInto(merged);
+                dailyBuckets.headMap(toDay, true).values().forEach(bucket -> bucket.mergeInto(merged));
+            } else {
+                dailyBuckets.subMap(fromDay, true, toDay, true).values().forEach(bucket -> bucket.mergeInto(merged));
+            }
+        } finally {
+            bucketsLock.readLock().unlock();
+        }
+
+        // top limit terms by total count (then alphabetically), with a min-heap of limit entries
+        Comparator<TrendingTermDTO> ranking = Comparator.comparingLong(TrendingTermDTO::total)
+                .thenComparing(TrendingTermDTO::term, Comparator.reverseOrder());
+        PriorityQueue<TrendingTermDTO> top = new PriorityQueue<>(ranking);
+        merged.forEach((term, counts) -> {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            top.add(new TrendingTermDTO(term, total, counts[TermSource.DISCUSSION_TITLE.ordinal()],
+                    counts[TermSource.DISCUSSION_CONTENT.ordinal()], counts[TermSource.COMMENT_CONTENT.ordinal()]));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        List<TrendingTermDTO> result = new ArrayList<>(top);
+        result.sort(ranking.reversed());
+        return result;
+    }
+
+    /**
+     * Distinct terms of a text (see TermExtractor.tokenize), without the extra stopwords
+     */
+    Set<String> extractTerms(String text) {
+
+        Set<String> terms = new HashSet<>();
+        for (String term : TermExtractor.tokenize(text)) {
+            if (!extraStopwords.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private boolean isLive(LocalDateTime createDate) {
+        LocalDateTime cutoff = backfillCutoff;
+        return cutoff != null && createDate != null && !createDate.isBefore(cutoff);
+    }
+
+    private void record(LocalDateTime createDate, TermSource source, String text) {
+
+        Set<String> terms = extractTerms(text);
+        if (terms.isEmpty()) {
+            return;
+        }
+        LocalDate day = createDate.toLocalDate();
+
+        bucketsLock.readLock().lock();
+        try {
+            TermBucket bucket = day.isBefore(oldestRetainedDay()) ? compactedBucket
+                    : dailyBuckets.computeIfAbsent(day, d -> new TermBucket());
+            terms.forEach(term -> bucket.increment(term, source));
+        } finally {
+            bucketsLock.readLock().unlock();
+        }
+    }
+
+    private LocalDate oldestRetainedDay() {
+        return LocalDate.now().minusDays(retentionDays - 1);
+    }
+
+    /**
+     * Term counts per source of one day (or of the compacted days)
+     */
+    private static final class TermBucket {
+
+        private final ConcurrentHashMap<String, AtomicLongArray> counts = new ConcurrentHashMap<>();
+
+        void increment(String term, TermSource source) {
+            counts.computeIfAbsent(term, t -> new AtomicLongArray(SOURCE_COUNT)).incrementAndGet(source.ordinal());
+        }
+
+        void mergeInto(Map<String, long[]> merged) {
+            counts.forEach((term, termCounts) -> {
+                long[] mergedCounts = merged.computeIfAbsent(term, t -> new long[SOURCE_COUNT]);
+                for (int i = 0; i < SOURCE_COUNT; i++) {
+                    mergedCounts[i] += termCounts.get(i);
+                }
+            });
+        }
+
+        void addTo(TermBucket target) {
+            counts.forEach((term, termCounts) -> {
+                AtomicLongArray targetCounts = target.counts.computeIfAbsent(term, t -> new AtomicLongArray(SOURCE_COUNT));
+                for (int i = 0; i < SOURCE_COUNT; i++) {
+                    targetCounts.addAndGet(i, termCounts.get(i));
+                }
+            });
+        }
+
+        /**
+         * Drops the least frequent terms beyond maxTerms, to bound the memory of the compacted bucket
+         */
+        void keepTopTerms(int maxTerms) {
+            if (counts.size() <= maxTerms) {
+                return;
+            }
+            counts.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> total(entry.getValue())))
+                    .limit(counts.size() - maxTerms)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(counts::remove);
+        }
+
+        private static long total(AtomicLongArray termCounts) {
+            long total = 0;
+            for (int i = 0; i < SOURCE_COUNT; i++) {
+                total += termCounts.get(i);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.chipolaris.bootforum2.enumeration.AccountStatus;
+import com.github.chipolaris.bootforum2.enumeration.UserRole;
+import com.github.chipolaris.bootforum2.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Principals of authenticated requests, built from the claims of their JWT: the username (subject) and the
+ * authorities (auth claim). The database is only read to check that the claims still hold, i.e. that the
+ * account is still active and its roles haven't changed since the token was issued; that state is cached
+ * per user for ttl-ms. A token whose claims no longer hold is not authenticated, so the user logs in again
+ * and gets a token with the current roles.
+ *
+ * Cached states are invalidated when an account's status or roles change (see invalidate), so such changes
+ * apply to the next request rather than after the TTL.
+ */
+@Service
+public class UserPrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    /**
+     * Current status and authorities (ROLE_ prefixed roles) of an account
+     */
+    record PrincipalState(AccountStatus accountStatus, Set<String> authorities) {
+    }
+
+    private final UserRepository userRepository;
+
+    private final Cache<String, PrincipalState> stateCache;
+
+    // Note: in Spring version >= 4.3, @AutoWired is implied for beans with single constructor
+    public UserPrincipalCache(UserRepository userRepository,
+                              @Value("${app.jwt.principal-cache.ttl-ms:60000}") long ttlMs,
+                              @Value("${app.jwt.principal-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.stateCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * @param username    subject of a valid token
+     * @param authorities authorities claimed by the token
+     * @return the principal of the token, empty if the account doesn't exist, isn't active
+     * or has other authorities now
+     */
+    public Optional<UserDetails> getPrincipal(String username, Set<String> authorities) {
+
+        PrincipalState state = stateCache.get(username, this::loadState);
+
+        if (state == null) {
+            logger.debug("Token of unknown user '{}'", username);
+            return Optional.empty();
+        }
+        if (state.accountStatus() != AccountStatus.ACTIVE) {
+            logger.debug("Token of user '{}' whose account is {}", username, state.accountStatus());
+            return Optional.empty();
+        }
+        if (!state.authorities().equals(authorities)) {
+            logger.debug("Token of user '{}' claims {} but the user now has {}", username, authorities,
+                    state.authorities());
+            return Optional.empty();
+        }
+
+        return Optional.of(User.withUsername(username)
+                .password("") // authenticated by the token, the password is never checked
+                .authorities(authorities.toArray(String[]::new))
+                .build());
+    }
+
+    /**
+     * Invalidates the cached state of a user whose status or roles change. Within a transaction, the state
+     * is invalidated after the commit, so that a concurrent request doesn't cache the state being replaced.
+     */
+    public void invalidate(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stateCache.invalidate(username);
+                }
+            });
+        } else {
+            stateCache.invalidate(username);
+        }
+    }
+
+    public void invalidateAll() {
+        stateCache.invalidateAll();
+    }
+
+    /**
+     * @return the state of the user, null if there's no such user (which is then not cached)
+     */
+    private PrincipalState loadState(String username) {
+
+        List<Object[]> rows = userRepository.findAccountStatusAndRolesByUsername(username);
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        Set<String> authorities = new HashSet<>();
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                authorities.add(AppUserDetails.ROLE_PREFIX + ((UserRole) row[1]).name());
+            }
+        }
+        return new PrincipalState((AccountStatus) rows.get(0)[0], Set.copyOf(authorities));
+    }
+}
@@ -6,6 +6,7 @@ import com.github.chipolaris.bootforum2.dto.AdminPasswordChangeDTO;
 import com.github.chipolaris.bootforum2.dto.AdminUserUpdateDTO;
 import com.github.chipolaris.bootforum2.dto.UserSummaryDTO;
 import com.github.chipolaris.bootforum2.enumeration.AccountStatus;
+import com.github.chipolaris.bootforum2.enumeration.RevocationReason;
 import com.github.chipolaris.bootforum2.enumeration.UserRole;
 import com.github.chipolaris.bootforum2.mapper.PersonMapper;
 import com.github.chipolaris.bootforum2.mapper.UserMapper;
@@ -40,11 +41,14 @@ public class UserService {
 	private final PersonMapper personMapper;
 	private final PasswordEncoder passwordEncoder;
 	private final AuthenticationFacade authenticationFacade;
+	private final UserPrincipalCache userPrincipalCache;
+	private final TokenRevocationService tokenRevocationService;
 
 	public UserService(UserRepository userRepository, DiscussionRepository discussionRepository,
 					   CommentRepository commentRepository, UserMapper userMapper,
 					   PersonMapper personMapper, PasswordEncoder passwordEncoder,
-					   AuthenticationFacade authenticationFacade) {
+					   AuthenticationFacade authenticationFacade, UserPrincipalCache userPrincipalCache,
+					   TokenRevocationService tokenRevocationService) {
 		this.userRepository = userRepository;
 		this.discussionRepository = discussionRepository;
 		this.commentRepository = commentRepository;
@@ -52,6 +56,8 @@ public class UserService {
 		this.personMapper = personMapper;
 		this.passwordEncoder = passwordEncoder;
 		this.authenticationFacade = authenticationFacade;
+		this.userPrincipalCache = userPrincipalCache;
+		this.tokenRevocationService = tokenRevocationService;
 	}
 
 	@Transactional(readOnly = true)
@@ -90,9 +96,16 @@ public class UserService {
 			user.setUserRoles(newRoles);
 
 			// Update status
+			AccountStatus oldStatus = user.getAccountStatus();
 			user.setAccountStatus(AccountStatus.valueOf(updateDTO.accountStatus()));
 			user.setUpdateBy(adminUsername);
 			userRepository.save(user);
+			// the user's tokens are checked against the new roles and status from the next request on
+			userPrincipalCache.invalidate(user.getUsername());
+			if (user.getAccountStatus() != oldStatus) {
+				// tokens issued before the change stay revoked, e.g. after a lock and a later unlock
+				tokenRevocationService.revokeUserTokens(user.getUsername(), RevocationReason.STATUS_CHANGE);
+			}
 			logger.info("Admin '{}' updated user '{}'", adminUsername, user.getUsername());
 			return ServiceResponse.success("User updated successfully.");
 
@@ -114,6 +127,8 @@ public class UserService {
 		user.setPassword(passwordEncoder.encode(passwordDTO.newPassword()));
 		user.setUpdateBy(adminUsername);
 		userRepository.save(user);
+		// sessions opened with the old password end
+		tokenRevocationService.revokeUserTokens(user.getUsername(), RevocationReason.PASSWORD_CHANGE);
 		logger.info("Admin '{}' changed password for user '{}'", adminUsername, user.getUsername());
 
 		return ServiceResponse.success("Password changed successfully.");
@@ -184,6 +199,8 @@ public class UserService {
 		user.setUpdateBy(username); // Set the updater
 
 		userRepository.save(user);
+		// sessions opened with the old password end, this one included: the client logs in again
+		tokenRevocationService.revokeUserTokens(username, RevocationReason.PASSWORD_CHANGE);
 		logger.info("Successfully updated password for user '{}'", username);
 
 		return ServiceResponse.success("Password updated successfully.");
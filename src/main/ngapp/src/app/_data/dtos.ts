@@ -93,6 +93,7 @@ export interface Page<T> {
   last: boolean;         // True if this is the last page
   numberOfElements: number; // Number of elements in the current page
   empty: boolean;        // True if the content array is empty
+  totalExact?: boolean;  // False if totalElements comes from statistics or a cache
 }
 
 // Model for TagDTO, corresponding to Java's TagDTO
@@ -196,6 +197,31 @@ export interface DiscussionInfoDTO {
   discussionCreateDate: Date;
 }
 
+// Hit of the unified search (SearchController). The highlights are HTML-escaped fragments with the
+// matches in <mark> tags, null when the keyword doesn't match that field
+export interface SearchHitDTO {
+  type: 'DISCUSSION' | 'COMMENT' | 'FORUM';
+  id: number;
+  title: string;
+  titleHighlight: string | null;
+  contentAbbr: string | null;
+  contentHighlight: string | null;
+  createBy: string | null;
+  createDate: Date | null;
+}
+
+export interface FacetCountDTO {
+  id: number;
+  label: string | null;
+  count: number;
+}
+
+export interface SearchResultDTO {
+  hits: Page<SearchHitDTO>;
+  forumFacets: FacetCountDTO[];
+  tagFacets: FacetCountDTO[];
+}
+
 export interface DiscussionSummaryDTO {
   id?: number;
   title: string;
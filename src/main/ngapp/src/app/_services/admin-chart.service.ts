@@ -14,10 +14,13 @@ export class AdminChartService {
     return this.http.get<ApiResponse<AdminChartDTO>>(this.apiUrl);
   }
 
-  getTopTermsChartData(limit: number, period: string): Observable<ApiResponse<ChartDataDTO>> {
-    const params = new HttpParams()
+  getTopTermsChartData(limit: number, period: string, from?: string, to?: string): Observable<ApiResponse<ChartDataDTO>> {
+    let params = new HttpParams()
       .set('limit', limit.toString())
       .set('period', period);
+    if (period === 'custom' && from && to) {
+      params = params.set('from', from).set('to', to);
+    }
     return this.http.get<ApiResponse<ChartDataDTO>>(`${this.apiUrl}/top-terms`, { params });
   }
 }
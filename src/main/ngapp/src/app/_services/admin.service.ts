@@ -12,7 +12,7 @@ export class AdminService {
 
   /**
    * Triggers a backend re-indexing process.
-   * @param target The entity to re-index ('all', 'Discussion', 'Comment').
+   * @param target The entity to re-index ('all', 'Forum', 'Discussion', 'Comment').
    * @returns An Observable of the API response containing a confirmation message.
    */
   triggerReindex(target: string): Observable<ApiResponse<string>> {
@@ -16,6 +16,7 @@ export class AuthenticationService {
 	public currentUser: Observable<UserDTO | null>;
 
 	private authUrl = '/api/authenticate';
+	private logoutUrl = '/api/logout';
 	private profileUrl = '/api/user/my-profile';
 	private readonly TOKEN_KEY = 'authToken';
 
@@ -115,12 +116,23 @@ export class AuthenticationService {
 				catchError(error => {
 					console.error("Login failed:", error);
 					this.removeToken();
+					// 429: rate limited, 503: too many logins in progress
+					if (error.status === 429 || error.status === 503) {
+						return throwError(() => new Error(error.error?.message || 'Too many login attempts, please try again later.'));
+					}
 					return throwError(() => new Error('Invalid username or password.'));
 				})
 			);
 	}
 
 	logout(): void {
+		const token = this.getCurrentUserToken();
+		if (token) {
+			// Revoke the token server side (fire and forget), so that it can't be used anymore
+			this.http.post(this.logoutUrl, {}, { headers: { Authorization: `Bearer ${token}` } }).subscribe({
+				error: error => console.warn("Failed to revoke token on logout:", error.status)
+			});
+		}
 		this.removeToken();
 		this.currentUserSubject.next(null);
 		console.log("User logged out (token removed).");
@@ -1,7 +1,7 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable, of } from 'rxjs';
-import { catchError, map, tap } from 'rxjs/operators';
+import { catchError, map, switchMap, tap } from 'rxjs/operators';
 import { ApiResponse } from '../_data/dtos';
 
 @Injectable({
@@ -13,12 +13,22 @@ export class ConfigService {
 
   private settingsCache = new Map<string, any>();
 
+  // Version of the cached settings: the cache is cleared when the server reports another version,
+  // checked at most once per VERSION_CHECK_INTERVAL_MS
+  private static readonly VERSION_CHECK_INTERVAL_MS = 60000;
+  private settingsVersion: number | null = null;
+  private lastVersionCheck = 0;
+
   /**
    * Fetches multiple settings, utilizing the cache to minimize network requests.
    * @param keys An array of setting keys to retrieve.
    * @returns An Observable that emits a map of the requested key-value pairs.
    */
   getSettings(keys: string[]): Observable<Map<string, any>> {
+    return this.checkVersion().pipe(switchMap(() => this.getSettingsFromCache(keys)));
+  }
+
+  private getSettingsFromCache(keys: string[]): Observable<Map<string, any>> {
     const cachedSettings = new Map<string, any>();
     const keysToFetch: string[] = [];
 
@@ -65,6 +75,10 @@ export class ConfigService {
    * to use the getSettings() method above
    */
   getSetting(key: string): Observable<any> {
+    return this.checkVersion().pipe(switchMap(() => this.getSettingFromCache(key)));
+  }
+
+  private getSettingFromCache(key: string): Observable<any> {
     if (this.settingsCache.has(key)) {
       return of(this.settingsCache.get(key));
     }
@@ -85,4 +99,33 @@ export class ConfigService {
         })
       );
   }
+
+  /**
+   * Clears the cache if the settings changed on the server since they were cached.
+   * Errors are ignored: the cached settings are used until the next check.
+   */
+  private checkVersion(): Observable<void> {
+    const now = Date.now();
+    if (now - this.lastVersionCheck < ConfigService.VERSION_CHECK_INTERVAL_MS) {
+      return of(undefined);
+    }
+    this.lastVersionCheck = now;
+
+    return this.http.get<ApiResponse<number>>(`${this.basePublicApiUrl}/version`)
+      .pipe(
+        map(response => {
+          if (response.success && response.data != null) {
+            if (this.settingsVersion !== null && this.settingsVersion !== response.data) {
+              console.log(`Settings changed (version ${this.settingsVersion} -> ${response.data}), clearing cache`);
+              this.settingsCache.clear();
+            }
+            this.settingsVersion = response.data;
+          }
+        }),
+        catchError(err => {
+          console.error('Error checking settings version', err);
+          return of(undefined);
+        })
+      );
+  }
 }
@@ -0,0 +1,72 @@
+import { Injectable, inject } from '@angular/core';
+import { HttpClient, HttpErrorResponse, HttpParams } from '@angular/common/http';
+import { Observable, throwError } from 'rxjs';
+import { catchError, tap } from 'rxjs/operators';
+import { ApiResponse, SearchResultDTO } from '../_data/dtos';
+
+@Injectable({
+  providedIn: 'root'
+})
+export class SearchService {
+  private http = inject(HttpClient);
+  private basePublicApiUrl = '/api/public';
+
+  constructor() { }
+
+  /**
+   * Searches discussions, comments and forums together.
+   * @param keyword The search term.
+   * @param page The page number to retrieve (0-indexed).
+   * @param size The number of hits per page.
+   * @param forumId Optional forum facet to narrow the hits to.
+   * @param tagId Optional tag facet to narrow the hits to.
+   * @returns An Observable of ApiResponse containing the page of highlighted hits and the forum and tag facets.
+   */
+  search(
+    keyword: string,
+    page: number = 0,
+    size: number = 10,
+    forumId: number | null = null,
+    tagId: number | null = null
+  ): Observable<ApiResponse<SearchResultDTO>> {
+    let params = new HttpParams()
+      .set('keyword', keyword)
+      .set('page', page.toString())
+      .set('size', size.toString());
+    if (forumId !== null) {
+      params = params.set('forumId', forumId.toString());
+    }
+    if (tagId !== null) {
+      params = params.set('tagId', tagId.toString());
+    }
+
+    return this.http.get<ApiResponse<SearchResultDTO>>(`${this.basePublicApiUrl}/search`, { params })
+      .pipe(
+        tap(response => {
+          if (response.success) {
+            console.log('Searched successfully via service', response.data);
+          } else {
+            console.error('Failed to search via service', response.message, response.errors);
+          }
+        }),
+        catchError(this.handleError)
+      );
+  }
+
+  private handleError(error: HttpErrorResponse): Observable<never> {
+    console.error('An error occurred in SearchService:', error);
+    let errorMessage = 'Something bad happened; please try again later.';
+
+    if (error.error instanceof ErrorEvent) {
+      errorMessage = `An error occurred: ${error.error.message}`;
+    } else if (error.error && error.error.message) {
+      errorMessage = `Error ${error.status}: ${error.error.message}`;
+      if (error.error.errors && Array.isArray(error.error.errors)) {
+        errorMessage += ` Details: ${error.error.errors.join(', ')}`;
+      }
+    } else {
+      errorMessage = `Server returned code ${error.status}, error message is: ${error.message}`;
+    }
+    return throwError(() => new Error(errorMessage));
+  }
+}
@@ -43,6 +43,9 @@ export class AdminChartsComponent implements OnInit, OnDestroy {
   // Properties for the filter controls
   topTermsLimit: number = 25;
   topTermsPeriod: string = 'all';
+  // First and last day (yyyy-MM-dd) of the 'custom' period
+  topTermsFrom: string = '';
+  topTermsTo: string = '';
 
   limitOptions = [
     { label: 'Top 25', value: 25 },
@@ -54,7 +57,8 @@ export class AdminChartsComponent implements OnInit, OnDestroy {
     { label: 'All Time', value: 'all' },
     { label: 'Last Year', value: 'year' },
     { label: 'Last Month', value: 'month' },
-    { label: 'Last Week', value: 'week' }
+    { label: 'Last Week', value: 'week' },
+    { label: 'Custom', value: 'custom' }
   ];
 
   ngOnInit(): void {
@@ -97,7 +101,8 @@ export class AdminChartsComponent implements OnInit, OnDestroy {
     const estimatedHeight = (this.topTermsLimit * pixelsPerBar) + chartPadding;
     this.topTermsChartHeight = Math.max(400, estimatedHeight); // Use a minimum height
 
-    const sub = this.chartService.getTopTermsChartData(this.topTermsLimit, this.topTermsPeriod).subscribe({
+    const sub = this.chartService.getTopTermsChartData(this.topTermsLimit, this.topTermsPeriod,
+      this.topTermsFrom, this.topTermsTo).subscribe({
       next: response => {
         if (response.success && response.data) {
           this.setupTopTermsChart(response.data);
@@ -259,7 +264,14 @@ export class AdminChartsComponent implements OnInit, OnDestroy {
           backgroundColor: documentStyle.getPropertyValue('--p-pink-500'),
           borderColor: documentStyle.getPropertyValue('--p-pink-500'),
           data: data.datasets[1].data
-        }
+        },
+        // Comment content counts, not available while the trending terms are being built on the server
+        ...(data.datasets[2] ? [{
+          label: data.datasets[2].label,
+          backgroundColor: documentStyle.getPropertyValue('--p-teal-500'),
+          borderColor: documentStyle.getPropertyValue('--p-teal-500'),
+          data: data.datasets[2].data
+        }] : [])
       ]
     };
     this.topTermsOptions = {
@@ -16,7 +16,7 @@ export class AdminIndexComponent {
   private messageService = inject(MessageService);
 
   isLoading = false;
-  reindexTarget: 'all' | 'Discussion' | 'Comment' = 'all';
+  reindexTarget: 'all' | 'Forum' | 'Discussion' | 'Comment' = 'all';
 
   constructor() {}
 
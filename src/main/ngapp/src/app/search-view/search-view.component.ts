@@ -4,7 +4,8 @@ import { FormsModule } from '@angular/forms';
 import { RouterModule } from '@angular/router';
 import { DiscussionService } from '../_services/discussion.service';
 import { CommentService } from '../_services/comment.service';
-import { Page, DiscussionInfoDTO, CommentDTO } from '../_data/dtos';
+import { SearchService } from '../_services/search.service';
+import { Page, DiscussionInfoDTO, CommentDTO, SearchHitDTO, SearchResultDTO } from '../_data/dtos';
 import { NgIcon, provideIcons } from '@ng-icons/core';
 import { HighlightPipe } from '../_pipes/highlight.pipe';
 
@@ -18,17 +19,23 @@ import { HighlightPipe } from '../_pipes/highlight.pipe';
 export class SearchViewComponent {
   private discussionService = inject(DiscussionService);
   private commentService = inject(CommentService); // <-- INJECT
+  private searchService = inject(SearchService);
   private cdr = inject(ChangeDetectorRef);
 
   // Search form state
   keyword: string = '';
-  searchType: 'discussion' | 'comment' = 'discussion';
+  searchType: 'discussion' | 'comment' | 'all' = 'discussion';
+
+  // Facets selected in the 'all' search
+  selectedForumId: number | null = null;
+  selectedTagId: number | null = null;
 
   // Results state
   isLoading = false;
   error: string | null = null;
   discussionResultsPage: Page<DiscussionInfoDTO> | null = null;
   commentResultsPage: Page<CommentDTO> | null = null;
+  allResult: SearchResultDTO | null = null;
   displayablePageNumbers: number[] = [];
 
   // To track if a search has been performed, so we can show "No results" message correctly
@@ -41,9 +48,45 @@ export class SearchViewComponent {
    * This simplifies the template logic for pagination and result display.
    */
   get activeResultsPage(): Page<any> | null {
+    if (this.searchType === 'all') {
+      return this.allResult ? this.allResult.hits : null;
+    }
     return this.searchType === 'discussion' ? this.discussionResultsPage : this.commentResultsPage;
   }
 
+  /**
+   * Starts a new search from the form: facets selected for the previous keyword no longer apply.
+   */
+  newSearch(): void {
+    this.selectedForumId = null;
+    this.selectedTagId = null;
+    this.performSearch();
+  }
+
+  /**
+   * Narrows the 'all' search to a forum (or tag) facet, or widens it again when the facet is already selected.
+   */
+  toggleForumFacet(forumId: number): void {
+    this.selectedForumId = this.selectedForumId === forumId ? null : forumId;
+    this.performSearch();
+  }
+
+  toggleTagFacet(tagId: number): void {
+    this.selectedTagId = this.selectedTagId === tagId ? null : tagId;
+    this.performSearch();
+  }
+
+  /**
+   * Route of an 'all' search hit: the discussion, the comment in its thread, or the forum.
+   */
+  hitLink(hit: SearchHitDTO): any[] {
+    switch (hit.type) {
+      case 'DISCUSSION': return ['/app/discussions', hit.id, 'view'];
+      case 'COMMENT': return ['/app/comments', hit.id, 'thread'];
+      default: return ['/app/forums', hit.id, 'view'];
+    }
+  }
+
   performSearch(page: number = 0): void {
     if (!this.keyword.trim()) {
       this.error = 'Please enter a keyword to search.';
@@ -54,6 +97,7 @@ export class SearchViewComponent {
     this.error = null;
     this.discussionResultsPage = null; // Reset both
     this.commentResultsPage = null;  // Reset both
+    this.allResult = null;
     this.searchPerformed = true;
 
     if (this.searchType === 'discussion') {
@@ -92,6 +136,24 @@ export class SearchViewComponent {
           this.cdr.detectChanges();
         }
       });
+    } else if (this.searchType === 'all') {
+      this.searchService.search(this.keyword, page, 10, this.selectedForumId, this.selectedTagId).subscribe({
+        next: (response) => {
+          if (response.success && response.data) {
+            this.allResult = response.data;
+            this.displayablePageNumbers = this._calculateDisplayablePageNumbers(this.allResult.hits);
+          } else {
+            this.error = response.message || 'Failed to fetch search results.';
+          }
+          this.isLoading = false;
+          this.cdr.detectChanges();
+        },
+        error: (err) => {
+          this.error = err.message || 'An unexpected error occurred during the search.';
+          this.isLoading = false;
+          this.cdr.detectChanges();
+        }
+      });
     }
   }
 
@@ -202,6 +202,13 @@ export class UserAccountComponent implements OnInit {
         next: response => {
           if (response.success) {
             this.messageService.add({ severity: 'success', summary: 'Success', detail: 'Your password has been changed.' });
+            // The password change revokes the tokens issued so far (this session's included): log in again
+            const username = this.authService.currentUserValue?.username;
+            if (username) {
+              this.authService.login(username, this.passwordForm.value.newPassword).subscribe({
+                error: () => this.messageService.add({ severity: 'warn', summary: 'Session Ended', detail: 'Please log in with your new password.' })
+              });
+            }
             this.passwordForm.reset();
           } else {
             const errorMessage = errorMessageFromApiResponse(response);
@@ -0,0 +1,56 @@
+package com.github.chipolaris.bootforum2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterUnitTest {
+
+    @Test
+    void mightContain_shouldBeTrueForEveryValuePut() {
+        // Arrange
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        String[] values = new String[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = UUID.randomUUID().toString();
+            bloomFilter.put(values[i]);
+        }
+
+        // Act & Assert
+        for (String value : values) {
+            assertTrue(bloomFilter.mightContain(value));
+        }
+    }
+
+    @Test
+    void mightContain_shouldRarelyBeTrueForValuesNeverPut() {
+        // Arrange
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put(UUID.randomUUID().toString());
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (bloomFilter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        // Assert: about 1% expected, a wide margin keeps the test stable
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void constructor_shouldSizeForTheFalsePositiveRate() {
+        // Act
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+
+        // Assert: about 9.6 bits and 7 hash functions per element for 1%
+        assertEquals(9586, bloomFilter.getBitCount());
+        assertEquals(7, bloomFilter.getHashCount());
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.chipolaris.bootforum2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermExtractorUnitTest {
+
+    @Test
+    void plainText_shouldDropTagsAndDecodeEntities() {
+        // Act & Assert
+        assertEquals("Fish & chips <today>", TermExtractor.plainText("<p>Fish &amp; chips</p>\n<p>&lt;today&gt;</p>"));
+        assertEquals("&lt;", TermExtractor.plainText("&amp;lt;"));
+    }
+
+    @Test
+    void abbreviate_shouldCutThePlainText() {
+        // Act & Assert
+        assertEquals("Fish", TermExtractor.abbreviate("<b>Fish</b> and chips", 4));
+    }
+
+    @Test
+    void tokenize_shouldDropMarkupNumbersShortWordsAndStopwords() {
+        // Act
+        List<String> terms = TermExtractor.tokenize("<p>Spring Boot 3 &amp; the Spring way, in 2024</p>");
+
+        // Assert
+        assertEquals(List.of("spring", "boot", "spring"), terms);
+    }
+
+    @Test
+    void topTerms_shouldRankByFrequencyWithTitleTermsWeighted() {
+        // Arrange
+        String title = "Hibernate caching";
+        String content = "query query query query cache caching hibernate lucene";
+
+        // Act
+        List<String> topTerms = TermExtractor.topTerms(title, content, 3);
+
+        // Assert: hibernate and caching get 3 (title) + 1, query 4, ties sorted alphabetically
+        assertEquals(List.of("caching", "hibernate", "query"), topTerms);
+    }
+
+    @Test
+    void topTerms_shouldBeEmptyForBlankText() {
+        // Act & Assert
+        assertTrue(TermExtractor.topTerms(null, " ", 5).isEmpty());
+    }
+}
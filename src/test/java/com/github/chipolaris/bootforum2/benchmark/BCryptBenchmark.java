@@ -0,0 +1,60 @@
+package com.github.chipolaris.bootforum2.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of a BCrypt password verification per strength, to size app.security.bcrypt-strength against
+ * the target login rate: one password-verification thread verifies 1000 / t logins per second, where t
+ * is the score in ms, so the executor needs
+ * <pre>
+ *   app.executors.password-verification.concurrency >= target logins per second * t / 1000
+ * </pre>
+ * cores. E.g. 50 logins/s at strength 10 (t about 60 ms on a typical core) needs 3 cores; pick the highest
+ * strength whose concurrency the host can spare. Run on the production hardware, with the benchmark profile:
+ * <pre>
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.includes=BCryptBenchmark
+ * </pre>
+ * (add -t with the planned concurrency to check that the cores scale, e.g. on shared CPUs).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BCryptBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"8", "10", "11", "12", "13"})
+    private int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String encodedPassword;
+
+    @Setup(Level.Trial)
+    public void encodePassword() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        encodedPassword = passwordEncoder.encode(PASSWORD);
+    }
+
+    /**
+     * What a login costs: the hash of the given password with the salt and strength of the stored one
+     */
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, encodedPassword);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BCryptBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.chipolaris.bootforum2.benchmark;
+
+import com.github.chipolaris.bootforum2.SpringBootAngularApplication;
+import com.github.chipolaris.bootforum2.dao.DynamicDAO;
+import com.github.chipolaris.bootforum2.dao.FilterSpec;
+import com.github.chipolaris.bootforum2.dao.QuerySpec;
+import com.github.chipolaris.bootforum2.domain.User;
+import com.github.chipolaris.bootforum2.service.AppUserDetailsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation of a DynamicDAO lookup by username, the query behind
+ * {@link AppUserDetailsService#loadUserByUsername(String)}:
+ * <ul>
+ *   <li>criteriaQuery: the query built as a CriteriaQuery on every call (what DynamicDAO did before
+ *       compiled query shapes), the baseline</li>
+ *   <li>compiledQuery: {@link DynamicDAO#findOptional(QuerySpec)}, JPQL compiled once per query shape</li>
+ *   <li>loadUserByUsername: the whole user details lookup</li>
+ * </ul>
+ * Each invocation runs in its own read-only transaction against the in-memory H2 database of the test
+ * profile, with the seeded users. Not part of the regular build, run with the benchmark profile
+ * (the gc profiler reports the allocation rate per operation as gc.alloc.rate.norm):
+ * <pre>
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.includes=DynamicDAOBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DynamicDAOBenchmark {
+
+    private static final String USERNAME = "admin";
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private DynamicDAO dynamicDAO;
+    private AppUserDetailsService appUserDetailsService;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SpringBootAngularApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                // SQL logging would dominate the measurements
+                .properties("spring.jpa.show-sql=false", "logging.level.org.hibernate=WARN")
+                .run();
+
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        entityManager = context.getBean(EntityManager.class);
+        dynamicDAO = context.getBean(DynamicDAO.class);
+        appUserDetailsService = context.getBean(AppUserDetailsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> criteriaQuery() {
+        return transactionTemplate.execute(status -> {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<User> criteriaQuery = criteriaBuilder.createQuery(User.class);
+            Root<User> root = criteriaQuery.from(User.class);
+
+            Path<?> path = root;
+            for (String part : "username".split("\\.")) {
+                path = path.get(part);
+            }
+            List<Predicate> predicates = List.of(criteriaBuilder.equal(path, USERNAME));
+            criteriaQuery.where(criteriaBuilder.and(predicates.toArray(new Predicate[0])));
+
+            List<User> results = entityManager.createQuery(criteriaQuery).setMaxResults(1).getResultList();
+            return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+        });
+    }
+
+    @Benchmark
+    public Optional<User> compiledQuery() {
+        return transactionTemplate.execute(status -> dynamicDAO.findOptional(
+                QuerySpec.builder(User.class).filter(FilterSpec.eq("username", USERNAME)).build()));
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return appUserDetailsService.loadUserByUsername(USERNAME);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DynamicDAOBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
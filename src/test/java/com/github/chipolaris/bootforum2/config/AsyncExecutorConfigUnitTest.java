@@ -0,0 +1,86 @@
+package com.github.chipolaris.bootforum2.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncExecutorConfigUnitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AsyncExecutorConfig config;
+    private ThreadPoolTaskExecutor executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        config = new AsyncExecutorConfig(meterRegistry, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void indexingExecutor_whenBusy_shouldRejectAndCount() throws InterruptedException {
+        // Arrange
+        executor = config.indexingExecutor(1, 1, 1);
+        executor.initialize();
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(this::awaitRelease); // queued
+
+        // Act & Assert
+        assertThrows(TaskRejectedException.class, () -> executor.execute(this::awaitRelease));
+        assertEquals(1.0, meterRegistry.get("forum.executor.rejected").tag("name", "indexing").counter().count());
+        assertEquals(1.0, meterRegistry.get("forum.executor.active").tag("name", "indexing").gauge().value());
+        assertEquals(1.0, meterRegistry.get("forum.executor.queue.size").tag("name", "indexing").gauge().value());
+    }
+
+    @Test
+    void statEventsExecutor_whenFull_shouldRunTaskInCaller() throws InterruptedException {
+        // Arrange
+        executor = (ThreadPoolTaskExecutor) config.statEventsExecutor(1, 1, 1, 1);
+        executor.initialize();
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(this::awaitRelease); // queued
+
+        // Act
+        Thread[] runner = new Thread[1];
+        executor.execute(() -> runner[0] = Thread.currentThread());
+
+        // Assert
+        assertSame(Thread.currentThread(), runner[0]);
+        assertSame(executor, config.getAsyncExecutor());
+        assertEquals(1.0, meterRegistry.get("forum.executor.rejected").tag("name", "stat-events").counter().count());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.github.chipolaris.bootforum2.service.SystemStatistic;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,8 +16,10 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -222,4 +225,197 @@ class DynamicDAOTest {
         assertEquals(1, results.size());
         assertEquals(25, results.get(0).getAge());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindSlice() {
+        // first page
+        QuerySpec firstPageQuery = QuerySpec.builder(UserEntity.class)
+                .order(OrderSpec.asc("age")).maxResult(2).build();
+        KeysetSlice<UserEntity> firstPage = dynamicDAO.findSlice(firstPageQuery);
+        assertEquals(2, firstPage.content().size());
+        assertEquals("Charlie", firstPage.content().get(0).getName());
+        assertEquals("Alice", firstPage.content().get(1).getName());
+        assertTrue(firstPage.hasNext());
+
+        // next (last) page
+        QuerySpec secondPageQuery = QuerySpec.builder(UserEntity.class)
+                .order(OrderSpec.asc("age")).maxResult(2).cursor(firstPage.nextCursor()).build();
+        KeysetSlice<UserEntity> secondPage = dynamicDAO.findSlice(secondPageQuery);
+        assertEquals(1, secondPage.content().size());
+        assertEquals("Bob", secondPage.content().get(0).getName());
+        assertFalse(secondPage.hasNext());
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    void testFindSliceWithEqualSortKeysAndFilter() {
+        entityManager.persist(new UserEntity("Dave", 30, "ACTIVE"));
+        entityManager.persist(new UserEntity("Eve", 30, "ACTIVE"));
+        entityManager.flush();
+
+        // page through the ACTIVE users one at a time: the id tie-breaker must neither skip nor repeat
+        // users sharing the same age
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            QuerySpec querySpec = QuerySpec.builder(UserEntity.class)
+                    .filter(FilterSpec.eq("status", "ACTIVE"))
+                    .order(OrderSpec.desc("age")).maxResult(1).cursor(cursor).build();
+            KeysetSlice<UserEntity> page = dynamicDAO.findSlice(querySpec);
+            page.content().forEach(user -> names.add(user.getName()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(3, names.size());
+        assertTrue(names.containsAll(List.of("Alice", "Dave", "Eve")));
+    }
+
+    @Test
+    void testFindSliceWithCursorOfAnotherSort() {
+        QuerySpec ageQuery = QuerySpec.builder(UserEntity.class)
+                .order(OrderSpec.asc("age")).maxResult(1).build();
+        String cursor = dynamicDAO.findSlice(ageQuery).nextCursor();
+
+        QuerySpec nameQuery = QuerySpec.builder(UserEntity.class)
+                .order(OrderSpec.asc("name")).maxResult(1).cursor(cursor).build();
+        assertThrows(IllegalArgumentException.class, () -> dynamicDAO.findSlice(nameQuery));
+
+        QuerySpec malformedQuery = QuerySpec.builder(UserEntity.class)
+                .order(OrderSpec.asc("age")).maxResult(1).cursor("not-a-cursor").build();
+        assertThrows(IllegalArgumentException.class, () -> dynamicDAO.findSlice(malformedQuery));
+    }
+
+    record NameAndAge(String name, Integer age) {}
+
+    @Test
+    void testFindTuples() {
+        QuerySpec querySpec = QuerySpec.builder(UserEntity.class)
+                .select("name", "age")
+                .filter(FilterSpec.isNotNull("status"))
+                .order(OrderSpec.asc("age")).build();
+
+        List<Tuple> rows = dynamicDAO.findTuples(querySpec);
+
+        assertEquals(2, rows.size());
+        assertEquals("Alice", rows.get(0).get(DynamicDAO.alias("name"), String.class));
+        assertEquals(30, rows.get(0).get(DynamicDAO.alias("age"), Integer.class));
+        assertEquals("Bob", rows.get(1).get(0));
+    }
+
+    @Test
+    void testFindProjection() {
+        QuerySpec querySpec = QuerySpec.builder(UserEntity.class)
+                .select("name", "age")
+                .order(OrderSpec.desc("age")).startIndex(1).maxResult(1).build();
+
+        List<NameAndAge> rows = dynamicDAO.findProjection(querySpec, NameAndAge.class);
+
+        assertEquals(List.of(new NameAndAge("Alice", 30)), rows);
+    }
+
+    @Test
+    void testFindTuplesWithDistinct() {
+        entityManager.persist(new UserEntity("Alice", 50, "ACTIVE"));
+
+        QuerySpec querySpec = QuerySpec.builder(UserEntity.class)
+                .select("name").filter(FilterSpec.eq("status", "ACTIVE")).distinct().build();
+
+        assertEquals(1, dynamicDAO.findTuples(querySpec).size());
+    }
+
+    @Test
+    void testFindTuplesWithDistinctOrderedByUnselectedPath() {
+        entityManager.persist(new UserEntity("Alice", 30, "ACTIVE"));
+
+        QuerySpec querySpec = QuerySpec.builder(UserEntity.class)
+                .select("name").order(OrderSpec.asc("age")).distinct().build();
+
+        List<Tuple> rows = dynamicDAO.findTuples(querySpec);
+
+        assertEquals(List.of("Charlie", "Alice", "Bob"),
+                rows.stream().map(row -> row.get(DynamicDAO.alias("name"), String.class)).toList());
+    }
+
+    @Test
+    void testFindProjectionWithDistinctOrderedByUnselectedPath() {
+        QuerySpec querySpec = QuerySpec.builder(UserEntity.class)
+                .select("name", "age").order(OrderSpec.asc("status")).distinct().build();
+
+        assertThrows(IllegalArgumentException.class, () -> dynamicDAO.findProjection(querySpec, NameAndAge.class));
+    }
+
+    @Test
+    void testSameShapeCompiledOnce() {
+        QuerySpec alice = QuerySpec.builder(UserEntity.class)
+                .filter(FilterSpec.eq("name", "Alice")).order(OrderSpec.asc("age")).build();
+        QuerySpec bob = QuerySpec.builder(UserEntity.class)
+                .filter(FilterSpec.eq("name", "Bob")).order(OrderSpec.asc("age")).build();
+
+        assertEquals("Alice", dynamicDAO.<UserEntity>findOptional(alice).orElseThrow().getName());
+        int compiledQueries = dynamicDAO.compiledQueryCount();
+
+        // same shape, other value: the compiled query is reused with the new value bound
+        assertEquals("Bob", dynamicDAO.<UserEntity>findOptional(bob).orElseThrow().getName());
+        assertEquals(compiledQueries, dynamicDAO.compiledQueryCount());
+
+        // another operator is another shape
+        QuerySpec notBob = QuerySpec.builder(UserEntity.class)
+                .filter(FilterSpec.ne("name", "Bob")).order(OrderSpec.asc("age")).build();
+        assertEquals(2, dynamicDAO.find(notBob).size());
+        assertEquals(compiledQueries + 1, dynamicDAO.compiledQueryCount());
+    }
+
+    @Test
+    void testCompiledQueryFilters() {
+        // LIKE, BETWEEN and an empty IN list
+        QuerySpec like = QuerySpec.builder(UserEntity.class).filter(FilterSpec.like("name", "li")).build();
+        assertEquals(2, dynamicDAO.count(like)); // Alice, Charlie
+
+        QuerySpec between = QuerySpec.builder(UserEntity.class).filter(FilterSpec.between("age", 26, 40)).build();
+        assertEquals(2, dynamicDAO.count(between));
+
+        QuerySpec emptyIn = QuerySpec.builder(UserEntity.class).filter(FilterSpec.in("name", List.of())).build();
+        assertFalse(dynamicDAO.exists(emptyIn));
+
+        QuerySpec emptyNotIn = QuerySpec.builder(UserEntity.class).filter(FilterSpec.notIn("name", List.of())).build();
+        assertEquals(3, dynamicDAO.count(emptyNotIn));
+    }
+
+    @Test
+    void testInvalidFiltersSkipped() {
+        // a filter on an unknown field and a GT filter without a Comparable value are skipped
+        QuerySpec querySpec = QuerySpec.builder(UserEntity.class)
+                .filter(FilterSpec.eq("unknownField", "x"))
+                .filter(FilterSpec.gt("age", new Object()))
+                .filter(FilterSpec.eq("status", "ACTIVE")).build();
+
+        List<UserEntity> results = dynamicDAO.find(querySpec);
+        assertEquals(1, results.size());
+        assertEquals("Alice", results.get(0).getName());
+
+        // and skipped again when the compiled shape is reused
+        assertEquals(1, dynamicDAO.find(querySpec).size());
+    }
+
+    @Test
+    void testFindTargetPath() {
+        QuerySpec querySpec = QuerySpec.builder(String.class).rootEntityClass(UserEntity.class)
+                .targetPath("name").filter(FilterSpec.lt("age", 35)).order(OrderSpec.asc("name")).build();
+
+        assertEquals(List.of("Alice", "Charlie"), dynamicDAO.<String>find(querySpec));
+    }
+
+    @Test
+    void testStream() {
+        QuerySpec querySpec = QuerySpec.builder(UserEntity.class).order(OrderSpec.asc("name")).build();
+
+        List<UserEntity> streamed;
+        try (Stream<UserEntity> stream = dynamicDAO.stream(querySpec, 1)) {
+            streamed = stream.toList();
+        }
+
+        assertEquals(List.of("Alice", "Bob", "Charlie"), streamed.stream().map(UserEntity::getName).toList());
+        // the persistence context is cleared every fetchSize rows, earlier rows are detached
+        assertFalse(entityManager.getEntityManager().contains(streamed.get(0)));
+    }
+}
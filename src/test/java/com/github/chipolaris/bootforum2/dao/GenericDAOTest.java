@@ -0,0 +1,76 @@
+package com.github.chipolaris.bootforum2.dao;
+
+import com.github.chipolaris.bootforum2.test.DataJpaTestWithApplicationMocks;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch writes of GenericDAO, in a JPA slice test like the repository tests
+ */
+@DataJpaTestWithApplicationMocks
+@Import(GenericDAO.class)
+class GenericDAOTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GenericDAO genericDAO;
+
+    @Entity
+    static class BatchItem {
+        @Id @GeneratedValue
+        private Long id;
+        private String name;
+
+        public BatchItem() {}
+
+        public BatchItem(String name) {
+            this.name = name;
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+    }
+
+    @Test
+    void testPersistAll() {
+        List<BatchItem> items = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            items.add(new BatchItem("item" + i));
+        }
+
+        genericDAO.persistAll(items, 10);
+
+        assertEquals(25, genericDAO.count(BatchItem.class));
+        // written and detached: the persistence context doesn't grow with the number of entities
+        assertTrue(items.stream().allMatch(item -> item.getId() != null));
+        assertFalse(entityManager.getEntityManager().contains(items.get(24)));
+    }
+
+    @Test
+    void testMergeAll() {
+        List<BatchItem> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(new BatchItem("item" + i));
+        }
+        genericDAO.persistAll(items);
+        items.forEach(item -> item.setName(item.getName() + "-updated"));
+
+        List<BatchItem> merged = genericDAO.mergeAll(items, 2);
+
+        assertEquals(5, merged.size());
+        assertEquals("item3-updated", genericDAO.find(BatchItem.class, items.get(3).getId()).getName());
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.chipolaris.bootforum2.loadtest;
+
+import com.github.chipolaris.bootforum2.dao.GenericDAO;
+import com.github.chipolaris.bootforum2.domain.Comment;
+import com.github.chipolaris.bootforum2.domain.Discussion;
+import com.github.chipolaris.bootforum2.domain.Forum;
+import com.github.chipolaris.bootforum2.domain.ForumGroup;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput of comments: {@link GenericDAO#persistAll(java.util.Collection)} (JDBC batches, flush and
+ * clear per batch, pooled-lo id blocks) against one flush per comment, i.e. a round-trip per row.
+ *
+ * Reports rows/sec and the number of JDBC statements prepared per 1000 rows for each mode. Full-text indexing
+ * is switched off, so that the database writes are measured, not Lucene.
+ *
+ * Not part of the regular build, run with:
+ * <pre>
+ *   mvn test -Pload-test -Dtest=BulkInsertLoadTest
+ * </pre>
+ * Row counts can be overridden with {@code -Dloadtest.bulk-insert.rows=...} (1M by default) and
+ * {@code -Dloadtest.bulk-insert.baseline-rows=...} (the slow per-row mode, 20K by default).
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.orm.jdbc.bind=INFO",
+        "spring.jpa.properties.hibernate.search.indexing.listeners.enabled=false"
+})
+@ActiveProfiles("test")
+class BulkInsertLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkInsertLoadTest.class);
+
+    // comments per transaction
+    private static final int ROWS_PER_TRANSACTION = 10_000;
+
+    @Autowired
+    private GenericDAO genericDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${loadtest.bulk-insert.rows:1000000}")
+    private int rows;
+
+    @Value("${loadtest.bulk-insert.baseline-rows:20000}")
+    private int baselineRows;
+
+    private TransactionTemplate transactionTemplate;
+    private Discussion discussion;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        discussion = transactionTemplate.execute(status -> {
+            ForumGroup forumGroup = new ForumGroup();
+            forumGroup.setTitle("Bulk insert group");
+            genericDAO.persist(forumGroup);
+
+            Forum forum = Forum.newForum();
+            forum.setTitle("Bulk insert forum");
+            forum.setForumGroup(forumGroup);
+            genericDAO.persist(forum);
+
+            Discussion newDiscussion = Discussion.newDiscussion();
+            newDiscussion.setTitle("Bulk insert discussion");
+            newDiscussion.setContent("Discussion of the bulk insert load test");
+            newDiscussion.setForum(forum);
+            genericDAO.persist(newDiscussion);
+            return newDiscussion;
+        });
+    }
+
+    @Test
+    void insertComments() {
+        Result baseline = insert("persist, flush per row", baselineRows, comments -> {
+            for (Comment comment : comments) {
+                genericDAO.persist(comment);
+                genericDAO.flush();
+            }
+        });
+        Result batched = insert("persistAll", rows, genericDAO::persistAll);
+
+        logger.info(String.format("%-24s %10s %12s %16s", "mode", "rows", "rows/sec", "statements/1000"));
+        for (Result result : List.of(baseline, batched)) {
+            logger.info(String.format("%-24s %10d %12.0f %16.1f", result.mode(), result.rows(),
+                    result.rowsPerSecond(), result.statementsPerThousandRows()));
+        }
+
+        assertTrue(batched.statementsPerThousandRows() < baseline.statementsPerThousandRows(),
+                "persistAll should send fewer statements per row than one flush per row");
+    }
+
+    private Result insert(String mode, int rowCount, Consumer<List<Comment>> writer) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < rowCount; inserted += ROWS_PER_TRANSACTION) {
+            int first = inserted;
+            int count = Math.min(ROWS_PER_TRANSACTION, rowCount - inserted);
+            transactionTemplate.executeWithoutResult(status -> writer.accept(newComments(first, count)));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        return new Result(mode, rowCount, rowCount / seconds,
+                statistics.getPrepareStatementCount() * 1000.0 / rowCount);
+    }
+
+    private List<Comment> newComments(int first, int count) {
+        List<Comment> comments = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            Comment comment = new Comment();
+            comment.setDiscussion(discussion);
+            comment.setTitle("Bulk comment " + i);
+            comment.setContent("Content of bulk comment " + i);
+            comment.setCreateBy("user" + (i % 100));
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    private record Result(String mode, int rows, double rowsPerSecond, double statementsPerThousandRows) {}
+}
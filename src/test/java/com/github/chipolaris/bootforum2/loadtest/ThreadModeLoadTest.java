@@ -0,0 +1,252 @@
+package com.github.chipolaris.bootforum2.loadtest;
+
+import com.github.chipolaris.bootforum2.domain.ForumGroup;
+import com.github.chipolaris.bootforum2.dto.ForumCreateDTO;
+import com.github.chipolaris.bootforum2.dto.ForumDTO;
+import com.github.chipolaris.bootforum2.repository.ForumGroupRepository;
+import com.github.chipolaris.bootforum2.service.ForumService;
+import com.github.chipolaris.bootforum2.service.ServiceResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test comparing platform and virtual thread modes on a read endpoint
+ * ({@code GET /api/public/discussions/{id}}) and a write endpoint ({@code POST /api/user/comments/create}).
+ *
+ * Each endpoint is driven by an increasing number of concurrent clients. For every level the test
+ * reports throughput, p50/p99 latency, error count and the peak number of threads waiting for a
+ * pooled JDBC connection: once that number stays above zero, the connection pool (not the request
+ * threads) is the bottleneck and more concurrency only adds latency.
+ *
+ * Not part of the regular build. Run once per mode and compare the reports:
+ * <pre>
+ *   mvn test -Pload-test
+ *   mvn test -Pload-test,virtual-threads     (Java 21+)
+ * </pre>
+ * Concurrency levels and duration can be overridden with {@code -Dloadtest.concurrency-levels=...}
+ * and {@code -Dloadtest.duration-seconds=...}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ThreadModeLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadModeLoadTest.class);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ForumGroupRepository forumGroupRepository;
+
+    @Autowired
+    private ForumService forumService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${loadtest.concurrency-levels:25,50,100,200,400}")
+    private int[] concurrencyLevels;
+
+    @Value("${loadtest.duration-seconds:10}")
+    private int durationSeconds;
+
+    private String accessToken;
+    private long discussionId;
+
+    @BeforeEach
+    void setUp() {
+        // user1 is created by the seed data initializer
+        ResponseEntity<Map> login = restTemplate.postForEntity("/api/authenticate",
+                Map.of("username", "user1", "password", "secret123"), Map.class);
+        assertTrue(login.getStatusCode().is2xxSuccessful(), "Login of seed user failed");
+        accessToken = (String) login.getBody().get("accessToken");
+
+        // the seed data only has the root forum group
+        ForumGroup rootGroup = forumGroupRepository.findAll().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Seed data has no forum group"));
+        ServiceResponse<ForumDTO> forum = forumService.createForum(new ForumCreateDTO("Load test forum",
+                "Forum used by the thread mode load test", "heroHomeSolid", "#333333", true, rootGroup.getId()));
+
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("forumId", forum.getDataObject().id());
+        form.add("title", "Load test discussion");
+        form.add("content", "Discussion used by the thread mode load test");
+        ResponseEntity<Map> created = restTemplate.postForEntity("/api/user/discussions/create",
+                new HttpEntity<>(form, multipartHeaders()), Map.class);
+        Map<?, ?> data = (Map<?, ?>) created.getBody().get("data");
+        assertNotNull(data, "Creating the load test discussion failed: " + created.getBody());
+        discussionId = ((Number) data.get("id")).longValue();
+    }
+
+    @Test
+    void readDiscussion() throws InterruptedException {
+        List<Result> results = run("GET /api/public/discussions/{id}", requestNumber ->
+                restTemplate.getForEntity("/api/public/discussions/{id}", String.class, discussionId)
+                        .getStatusCode().is2xxSuccessful());
+
+        assertTrue(results.stream().allMatch(result -> result.requests() > 0));
+    }
+
+    @Test
+    void createComment() throws InterruptedException {
+        HttpHeaders headers = multipartHeaders();
+        List<Result> results = run("POST /api/user/comments/create", requestNumber -> {
+            MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+            form.add("discussionId", discussionId);
+            form.add("title", "Load test comment " + requestNumber);
+            form.add("content", "Comment number " + requestNumber);
+            ResponseEntity<Map> response = restTemplate.postForEntity("/api/user/comments/create",
+                    new HttpEntity<>(form, headers), Map.class);
+            return response.getStatusCode().is2xxSuccessful() && Boolean.TRUE.equals(response.getBody().get("success"));
+        });
+
+        assertTrue(results.stream().allMatch(result -> result.requests() > 0));
+    }
+
+    private List<Result> run(String name, IntPredicate request) throws InterruptedException {
+        // short warm-up so that the first level doesn't pay for JIT and pool start-up
+        runLevel(Math.min(10, concurrencyLevels[0]), 2, request);
+
+        List<Result> results = new ArrayList<>();
+        for (int concurrency : concurrencyLevels) {
+            results.add(runLevel(concurrency, durationSeconds, request));
+        }
+
+        StringBuilder report = new StringBuilder()
+                .append("\n%s - %s threads\n".formatted(name, virtualThreads ? "virtual" : "platform"))
+                .append("%8s %10s %10s %10s %10s %8s %12s%n".formatted(
+                        "clients", "requests", "req/s", "p50 ms", "p99 ms", "errors", "db waiting"));
+        for (Result result : results) {
+            report.append("%8d %10d %10.1f %10.1f %10.1f %8d %12.0f%n".formatted(result.concurrency(),
+                    result.requests(), result.throughput(), result.p50Millis(), result.p99Millis(),
+                    result.errors(), result.peakPendingConnections()));
+        }
+        logger.info(report.toString());
+        return results;
+    }
+
+    private Result runLevel(int concurrency, int seconds, IntPredicate request) throws InterruptedException {
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger requestCounter = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        List<long[]> latencies = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        LongAccumulator peakPending = new LongAccumulator(Math::max, 0);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peakPending.accumulate((long) pendingConnections());
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long start = System.nanoTime();
+        sampler.start();
+        for (int i = 0; i < concurrency; i++) {
+            long[] clientLatencies = new long[1 << 16];
+            synchronized (latencies) {
+                latencies.add(clientLatencies);
+            }
+            clients.execute(() -> {
+                int count = 0;
+                while (running.get()) {
+                    long requestStart = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = request.test(requestCounter.incrementAndGet());
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    if (success) {
+                        if (count < clientLatencies.length - 1) {
+                            clientLatencies[count++] = System.nanoTime() - requestStart;
+                        }
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+                clientLatencies[clientLatencies.length - 1] = count;
+                done.countDown();
+            });
+        }
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        running.set(false);
+        done.await(60, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+        sampler.interrupt();
+
+        long[] all = latencies.stream()
+                .flatMapToLong(clientLatencies -> Arrays.stream(clientLatencies, 0,
+                        (int) clientLatencies[clientLatencies.length - 1]))
+                .sorted().toArray();
+
+        return new Result(concurrency, all.length, all.length / (elapsed / 1e9),
+                percentileMillis(all, 0.50), percentileMillis(all, 0.99), errors.get(), peakPending.get());
+    }
+
+    private double pendingConnections() {
+        return Search.in(meterRegistry).name("hikaricp.connections.pending").gauges().stream()
+                .mapToDouble(gauge -> gauge.value()).sum();
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private HttpHeaders multipartHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        headers.setBearerAuth(accessToken);
+        return headers;
+    }
+
+    private record Result(int concurrency, int requests, double throughput, double p50Millis, double p99Millis,
+                          int errors, double peakPendingConnections) {}
+}
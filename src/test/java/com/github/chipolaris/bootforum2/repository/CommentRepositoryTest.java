@@ -120,6 +120,51 @@ public class CommentRepositoryTest {
         assertThat(commentorMap).containsEntry("user2", 1);
     }
 
+    @Test
+    void testCountPerDiscussionAndCommentor() {
+        // given
+        createAndPersistComment(discussion1, "user1", "Comment A", LocalDateTime.now());
+        createAndPersistComment(discussion1, "user1", "Comment B", LocalDateTime.now());
+        createAndPersistComment(discussion1, "user2", "Comment C", LocalDateTime.now());
+        createAndPersistComment(discussion2, "user1", "Comment D", LocalDateTime.now());
+        Long fromId = Math.min(discussion1.getId(), discussion2.getId());
+        Long toId = Math.max(discussion1.getId(), discussion2.getId());
+
+        // when
+        List<Object[]> perDiscussion = commentRepository.countPerDiscussion(fromId, toId);
+        List<Object[]> perCommentor = commentRepository.countPerDiscussionAndCommentor(fromId, toId);
+        List<Object[]> outOfRange = commentRepository.countPerDiscussion(toId + 1, toId + 1000);
+
+        // then
+        assertThat(perDiscussion.stream().collect(Collectors.toMap(r -> (Long) r[0], r -> (Long) r[1])))
+                .containsEntry(discussion1.getId(), 3L)
+                .containsEntry(discussion2.getId(), 1L);
+        assertThat(perCommentor.stream()
+                .filter(r -> discussion1.getId().equals(r[0]))
+                .collect(Collectors.toMap(r -> (String) r[1], r -> (Long) r[2])))
+                .containsEntry("user1", 2L)
+                .containsEntry("user2", 1L)
+                .hasSize(2);
+        assertThat(outOfRange).isEmpty();
+    }
+
+    @Test
+    void testFindLatestPerDiscussion() {
+        // given
+        createAndPersistComment(discussion1, "user1", "Old Comment", LocalDateTime.now().minusDays(2));
+        Comment latestComment = createAndPersistComment(discussion1, "user2", "Latest Comment", LocalDateTime.now());
+        createAndPersistComment(discussion2, "user1", "Other Discussion", LocalDateTime.now().minusDays(1));
+
+        // when
+        List<Object[]> results = commentRepository.findLatestPerDiscussion(discussion1.getId(), discussion1.getId());
+
+        // then
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0)[0]).isEqualTo(discussion1.getId());
+        assertThat(results.get(0)[1]).isEqualTo(latestComment.getId());
+        assertThat(results.get(0)[2]).isEqualTo("user2");
+    }
+
     @Test
     void testFindRepliesToUserComments() {
         // given
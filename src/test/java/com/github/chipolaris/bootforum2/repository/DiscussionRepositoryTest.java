@@ -9,9 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -55,25 +53,6 @@ public class DiscussionRepositoryTest {
         entityManager.persist(tag2);
     }
 
-    @Test
-    void testFindByTagIdsWithTags() {
-        // given
-        Discussion d1 = createAndPersistDiscussion(forum1, "userA", "Java Discussion", Set.of(tag1));
-        Discussion d2 = createAndPersistDiscussion(forum1, "userB", "Spring Discussion", Set.of(tag2));
-        Discussion d3 = createAndPersistDiscussion(forum1, "userC", "Unrelated Discussion", Set.of());
-
-        Pageable pageable = PageRequest.of(0, 10);
-
-        // when
-        Page<Discussion> resultPage = discussionRepository.findByTagIdsWithTags(List.of(tag1.getId()), pageable);
-
-        // then
-        assertThat(resultPage.getContent()).hasSize(1);
-        assertThat(resultPage.getContent().get(0).getId()).isEqualTo(d1.getId());
-        // Eager fetch assertion
-        assertThat(resultPage.getContent().get(0).getTags().iterator().next().getLabel()).isEqualTo("java");
-    }
-
     @Test
     void testFindByOrderByStatCommentCountDesc() {
         // given
@@ -2,13 +2,21 @@ package com.github.chipolaris.bootforum2.repository;
 
 import com.github.chipolaris.bootforum2.domain.Discussion;
 import com.github.chipolaris.bootforum2.domain.DiscussionStat;
+import com.github.chipolaris.bootforum2.domain.Forum;
+import com.github.chipolaris.bootforum2.domain.ForumGroup;
 import com.github.chipolaris.bootforum2.domain.Vote;
 import com.github.chipolaris.bootforum2.test.DataJpaTestWithApplicationMocks;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,6 +30,18 @@ public class DiscussionStatRepositoryTest {
     @Autowired
     private DiscussionStatRepository discussionStatRepository;
 
+    @Autowired
+    private DiscussionRepository discussionRepository;
+
+    @Autowired
+    private ForumRepository forumRepository;
+
+    @Autowired
+    private ForumGroupRepository forumGroupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private DiscussionStat discussionStat;
 
     @BeforeEach
@@ -104,6 +124,109 @@ public class DiscussionStatRepositoryTest {
         assertThat(result).isFalse();
     }
 
+    @Test
+    void whenAddCounts_thenCountersAreIncremented() {
+        // given
+        entityManager.flush();
+
+        // when
+        int updated = discussionStatRepository.addCounts(discussionStat.getId(), 1, 2, 3);
+        discussionStatRepository.addCounts(discussionStat.getId(), 1, 0, 0);
+        entityManager.clear();
+
+        // then
+        DiscussionStat reloaded = entityManager.find(DiscussionStat.class, discussionStat.getId());
+        assertThat(updated).isEqualTo(1);
+        assertThat(reloaded.getCommentCount()).isEqualTo(2);
+        assertThat(reloaded.getImageCount()).isEqualTo(2);
+        assertThat(reloaded.getAttachmentCount()).isEqualTo(3);
+    }
+
+    @Test
+    void whenAddParticipant_thenEntryIsCreatedThenIncremented() {
+        // given
+        entityManager.flush();
+
+        // when
+        discussionStatRepository.addParticipant(discussionStat.getId(), "user1", 1);
+        discussionStatRepository.addParticipant(discussionStat.getId(), "user1", 1);
+        discussionStatRepository.addParticipant(discussionStat.getId(), "user2", 1);
+        entityManager.clear();
+
+        // then
+        DiscussionStat reloaded = entityManager.find(DiscussionStat.class, discussionStat.getId());
+        assertThat(reloaded.getParticipants()).containsEntry("user1", 2).containsEntry("user2", 1);
+    }
+
+    @Test
+    void whenCommentStatsWritten_thenForumRegionIsKept() {
+        // given: a committed forum and discussion, the forum loaded into the second-level cache
+        // (the caches are only cleaned up on commit, hence the separate transactions)
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Discussion discussion = newTransaction.execute(status -> {
+            ForumGroup forumGroup = new ForumGroup();
+            forumGroup.setTitle("Cached Group");
+            forumGroupRepository.save(forumGroup);
+            Forum forum = Forum.newForum();
+            forum.setTitle("Cached Forum");
+            forum.setForumGroup(forumGroup);
+            forumRepository.save(forum);
+            Discussion newDiscussion = Discussion.newDiscussion();
+            newDiscussion.setTitle("Committed Discussion");
+            newDiscussion.setForum(forum);
+            return discussionRepository.save(newDiscussion);
+        });
+        Forum forum = discussion.getForum();
+        Long statId = discussion.getStat().getId();
+
+        try {
+            Cache cache = entityManager.getEntityManager().getEntityManagerFactory()
+                    .unwrap(SessionFactory.class).getCache();
+            entityManager.find(Forum.class, forum.getId());
+            assertThat(cache.containsEntity(Forum.class, forum.getId())).isTrue();
+
+            // when: the discussion stat writes of a comment creation
+            newTransaction.executeWithoutResult(status -> {
+                discussionStatRepository.addCounts(statId, 1, 0, 0);
+                discussionStatRepository.addParticipant(statId, "user1", 1);
+                discussionStatRepository.updateLastCommentIfNewer(statId, 1L, "user1",
+                        LocalDateTime.now(), "Title", "content");
+            });
+
+            // then
+            assertThat(cache.containsEntity(Forum.class, forum.getId())).isTrue();
+        }
+        finally {
+            newTransaction.executeWithoutResult(status -> {
+                discussionRepository.deleteById(discussion.getId());
+                forumRepository.deleteById(forum.getId());
+                forumGroupRepository.deleteById(forum.getForumGroup().getId());
+            });
+        }
+    }
+
+    @Test
+    void whenUpdateLastCommentIfNewer_thenOnlyNewerCommentWins() {
+        // given
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+
+        // when
+        int first = discussionStatRepository.updateLastCommentIfNewer(discussionStat.getId(), 2L, "user2",
+                now, "Title", "newer");
+        int second = discussionStatRepository.updateLastCommentIfNewer(discussionStat.getId(), 1L, "user1",
+                now.minusMinutes(1), "Title", "older");
+        entityManager.clear();
+
+        // then
+        DiscussionStat reloaded = entityManager.find(DiscussionStat.class, discussionStat.getId());
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(reloaded.getLastComment().getCommentId()).isEqualTo(2L);
+        assertThat(reloaded.getLastComment().getContentAbbr()).isEqualTo("newer");
+    }
+
     /**
      * Helper method to add a vote to a DiscussionStat.
      * The CascadeType.ALL on the 'votes' collection in DiscussionStat ensures the new Vote is persisted.
@@ -17,6 +17,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -131,4 +132,29 @@ public class UserStatRepositoryTest {
         // then
         assertThat(updatedRows).isEqualTo(0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenSetCountsIfVersion_thenOnlyCountsAreWrittenAndStaleVersionIsRejected() {
+        // given
+        List<Object[]> rows = userStatRepository.findCountsByUserIdRange(testUser.getId(), testUser.getId());
+        assertThat(rows).hasSize(1);
+        Long userStatId = (Long) rows.get(0)[1];
+        Integer version = (Integer) rows.get(0)[4];
+        userStatRepository.addReputationByUsername("testuser", 5);
+
+        // when
+        int updatedRows = userStatRepository.setCountsIfVersion(userStatId, version, 3, 7);
+        int staleRows = userStatRepository.setCountsIfVersion(userStatId, version, 4, 8);
+
+        // then
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(staleRows).isEqualTo(0);
+
+        entityManager.clear();
+
+        UserStat updatedStat = entityManager.find(UserStat.class, userStatId);
+        assertThat(updatedStat.getDiscussionCount()).isEqualTo(3);
+        assertThat(updatedStat.getCommentCount()).isEqualTo(7);
+        assertThat(updatedStat.getReputation()).isEqualTo(105);
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.chipolaris.bootforum2.rest;
+
+import com.github.chipolaris.bootforum2.dto.FileResourceDTO;
+import com.github.chipolaris.bootforum2.service.FileService;
+import com.github.chipolaris.bootforum2.service.ServiceResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FileControllerUnitTest {
+
+    private static final long FILE_ID = 1000L;
+    private static final String CONTENT_HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    private static final String ETAG = "\"" + CONTENT_HASH + "\"";
+
+    @Mock
+    private FileService fileService;
+
+    @TempDir
+    Path tempDir;
+
+    private FileController fileController;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileController = new FileController(fileService, 10);
+        file = Files.write(tempDir.resolve("file.txt"), "0123456789abcdefghij".getBytes());
+    }
+
+    private void givenFile(String contentHash) {
+        when(fileService.getFileResourceById(FILE_ID)).thenReturn(ServiceResponse.success("found",
+                new FileResourceDTO(new FileSystemResource(file), "file.txt", "text/plain", contentHash)));
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/public/files/" + FILE_ID);
+    }
+
+    @Test
+    void serveFile_shouldSendValidatorsAndImmutableCacheControl() {
+        // Arrange
+        givenFile(CONTENT_HASH);
+
+        // Act
+        ResponseEntity<?> response = fileController.serveFile(FILE_ID, request());
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getLastModified() > 0);
+        assertEquals("max-age=31536000, public, immutable", response.getHeaders().getCacheControl());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(20, response.getHeaders().getContentLength());
+        assertInstanceOf(InputStreamResource.class, response.getBody());
+    }
+
+    @Test
+    void serveFile_shouldAnswerMatchingIfNoneMatchWith304() {
+        // Arrange
+        givenFile(CONTENT_HASH);
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + ETAG);
+        request.setAttribute(FileController.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+
+        // Act
+        ResponseEntity<?> response = fileController.serveFile(FILE_ID, request);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertNull(request.getAttribute(FileController.SENDFILE_FILENAME_ATTR));
+    }
+
+    @Test
+    void serveFile_shouldServeSingleRangeAsRegion() {
+        // Arrange
+        givenFile(CONTENT_HASH);
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+
+        // Act
+        ResponseEntity<?> response = fileController.serveFile(FILE_ID, request);
+
+        // Assert
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        ResourceRegion region = assertInstanceOf(ResourceRegion.class, response.getBody());
+        assertEquals(5, region.getPosition());
+        assertEquals(5, region.getCount());
+    }
+
+    @Test
+    void serveFile_shouldIgnoreRangeWhenIfRangeDoesNotMatch() {
+        // Arrange
+        givenFile(CONTENT_HASH);
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        // Act
+        ResponseEntity<?> response = fileController.serveFile(FILE_ID, request);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(20, response.getHeaders().getContentLength());
+    }
+
+    @Test
+    void serveFile_shouldAnswerUnsatisfiableRangeWith416() {
+        // Arrange
+        givenFile(CONTENT_HASH);
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=50-");
+
+        // Act
+        ResponseEntity<?> response = fileController.serveFile(FILE_ID, request);
+
+        // Assert
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void serveFile_shouldHandRangeOverToContainerSendfile() {
+        // Arrange
+        givenFile(CONTENT_HASH);
+        MockHttpServletRequest request = request();
+        request.setAttribute(FileController.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=-12");
+
+        // Act
+        ResponseEntity<?> response = fileController.serveFile(FILE_ID, request);
+
+        // Assert
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(12, response.getHeaders().getContentLength());
+        assertEquals("bytes 8-19/20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(file.toFile().getAbsolutePath(), request.getAttribute(FileController.SENDFILE_FILENAME_ATTR));
+        assertEquals(8L, request.getAttribute(FileController.SENDFILE_START_ATTR));
+        assertEquals(20L, request.getAttribute(FileController.SENDFILE_END_ATTR));
+    }
+
+    @Test
+    void serveFile_shouldRevalidateFilesWithoutContentHash() {
+        // Arrange
+        givenFile(null);
+
+        // Act
+        ResponseEntity<?> response = fileController.serveFile(FILE_ID, request());
+
+        // Assert
+        assertTrue(response.getHeaders().getETag().startsWith("W/\"" + FILE_ID + "-20-"));
+        assertEquals("no-cache, public", response.getHeaders().getCacheControl());
+    }
+}
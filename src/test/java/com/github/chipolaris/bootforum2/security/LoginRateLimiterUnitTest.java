@@ -0,0 +1,40 @@
+package com.github.chipolaris.bootforum2.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterUnitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 3 attempts per IP address, 2 per username, refilled too slowly to matter in the test
+        loginRateLimiter = new LoginRateLimiter(meterRegistry, 3, 1, 2, 1, 30, 1000);
+    }
+
+    @Test
+    void tryAcquire_shouldLimitAttemptsPerUsernameAcrossAddresses() {
+        // Act & Assert
+        assertTrue(loginRateLimiter.tryAcquire("10.0.0.1", "alice"));
+        assertTrue(loginRateLimiter.tryAcquire("10.0.0.2", "Alice"));
+        assertFalse(loginRateLimiter.tryAcquire("10.0.0.3", "ALICE"));
+        assertEquals(1.0, meterRegistry.get("forum.login.rate.limited").tag("key", "username").counter().count());
+    }
+
+    @Test
+    void tryAcquire_shouldLimitAttemptsPerAddressAcrossUsernames() {
+        // Act & Assert
+        assertTrue(loginRateLimiter.tryAcquire("10.0.0.1", "alice"));
+        assertTrue(loginRateLimiter.tryAcquire("10.0.0.1", "bob"));
+        assertTrue(loginRateLimiter.tryAcquire("10.0.0.1", "carol"));
+        assertFalse(loginRateLimiter.tryAcquire("10.0.0.1", "dave"));
+        assertTrue(loginRateLimiter.tryAcquire("10.0.0.2", "dave"));
+        assertEquals(1.0, meterRegistry.get("forum.login.rate.limited").tag("key", "ip").counter().count());
+    }
+}
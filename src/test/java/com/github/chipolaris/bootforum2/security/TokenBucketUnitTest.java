@@ -0,0 +1,46 @@
+package com.github.chipolaris.bootforum2.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketUnitTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    @Test
+    void tryConsume_shouldPassABurstUpToCapacity() {
+        // Arrange
+        TokenBucket tokenBucket = new TokenBucket(3, 6, Duration.ofMinutes(1), 0);
+
+        // Act & Assert
+        assertTrue(tokenBucket.tryConsume(0));
+        assertTrue(tokenBucket.tryConsume(0));
+        assertTrue(tokenBucket.tryConsume(0));
+        assertFalse(tokenBucket.tryConsume(0));
+    }
+
+    @Test
+    void tryConsume_shouldPassAttemptsAtTheRefillRate() {
+        // Arrange: 6 tokens per minute, i.e. one every 10 seconds
+        TokenBucket tokenBucket = new TokenBucket(1, 6, Duration.ofMinutes(1), 0);
+        assertTrue(tokenBucket.tryConsume(0));
+
+        // Act & Assert
+        assertFalse(tokenBucket.tryConsume(MINUTE / 12));
+        assertTrue(tokenBucket.tryConsume(MINUTE / 6));
+        assertFalse(tokenBucket.tryConsume(MINUTE / 6));
+    }
+
+    @Test
+    void getTokens_shouldNotRefillBeyondCapacity() {
+        // Arrange
+        TokenBucket tokenBucket = new TokenBucket(2, 6, Duration.ofMinutes(1), 0);
+        tokenBucket.tryConsume(0);
+
+        // Act & Assert
+        assertEquals(2.0, tokenBucket.getTokens(10 * MINUTE));
+    }
+}
@@ -0,0 +1,152 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.repository.CommentRepository;
+import com.github.chipolaris.bootforum2.repository.DiscussionRepository;
+import com.github.chipolaris.bootforum2.repository.DiscussionStatRepository;
+import com.github.chipolaris.bootforum2.repository.ForumStatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CountProviderUnitTest {
+
+    @Mock
+    private ForumStatRepository forumStatRepository;
+
+    @Mock
+    private DiscussionStatRepository discussionStatRepository;
+
+    @Mock
+    private DiscussionRepository discussionRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    private CountProvider countProvider;
+
+    @BeforeEach
+    void setUp() {
+        countProvider = new CountProvider(forumStatRepository, discussionStatRepository,
+                discussionRepository, commentRepository, 60_000, 100);
+    }
+
+    // region stat backed counts
+
+    @Test
+    void discussionsInForum_fromForumStat_isApproximate() {
+        // Arrange
+        when(forumStatRepository.findDiscussionCountByForumId(1L)).thenReturn(Optional.of(42L));
+
+        // Act
+        CountProvider.TotalCount total = countProvider.discussionsInForum(1L, false);
+
+        // Assert
+        assertEquals(42L, total.value());
+        assertFalse(total.exact());
+        verify(discussionRepository, never()).countDiscussionsByForumId(anyLong());
+    }
+
+    @Test
+    void discussionsInForum_exactRequested_countsDiscussions() {
+        // Arrange
+        when(discussionRepository.countDiscussionsByForumId(1L)).thenReturn(43L);
+
+        // Act
+        CountProvider.TotalCount total = countProvider.discussionsInForum(1L, true);
+
+        // Assert
+        assertEquals(43L, total.value());
+        assertTrue(total.exact());
+        verifyNoInteractions(forumStatRepository);
+    }
+
+    @Test
+    void commentsInDiscussion_withoutStat_fallsBackToExactCount() {
+        // Arrange
+        when(discussionStatRepository.findCommentCountByDiscussionId(7L)).thenReturn(Optional.empty());
+        when(commentRepository.countByDiscussionId(7L)).thenReturn(3L);
+
+        // Act
+        CountProvider.TotalCount total = countProvider.commentsInDiscussion(7L, false);
+
+        // Assert
+        assertEquals(3L, total.value());
+        assertTrue(total.exact());
+    }
+
+    // endregion
+
+    // region cached counts
+
+    @Test
+    void discussionsWithTags_secondCallInAnyTagOrder_servedFromCache() {
+        // Arrange
+        when(discussionRepository.countByTagIds(List.of(1L, 2L))).thenReturn(5L);
+
+        // Act
+        CountProvider.TotalCount first = countProvider.discussionsWithTags(List.of(1L, 2L), false);
+        CountProvider.TotalCount second = countProvider.discussionsWithTags(List.of(2L, 1L), false);
+
+        // Assert
+        assertEquals(new CountProvider.TotalCount(5L, true), first);
+        assertEquals(new CountProvider.TotalCount(5L, false), second);
+        verify(discussionRepository, times(1)).countByTagIds(anyCollection());
+    }
+
+    @Test
+    void allDiscussions_sumOfForumStats_isApproximateAndCached() {
+        // Arrange
+        when(forumStatRepository.sumDiscussionCount()).thenReturn(100L);
+
+        // Act
+        CountProvider.TotalCount first = countProvider.allDiscussions(false);
+        CountProvider.TotalCount second = countProvider.allDiscussions(false);
+
+        // Assert
+        assertEquals(new CountProvider.TotalCount(100L, false), first);
+        assertEquals(first, second);
+        verify(forumStatRepository, times(1)).sumDiscussionCount();
+    }
+
+    // endregion
+
+    // region toPage
+
+    @Test
+    void toPage_lowStatTotalWithNextPage_totalCoversRowsSeen() {
+        // Arrange: page 2 of 10, stat lags behind at 12 discussions
+        List<String> content = List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+
+        // Act
+        Page<String> page = CountProvider.toPage(content, PageRequest.of(1, 10), true,
+                new CountProvider.TotalCount(12L, false));
+
+        // Assert
+        assertEquals(21L, page.getTotalElements());
+        assertTrue(page.hasNext());
+    }
+
+    @Test
+    void toPage_lastPage_totalIsRowsSeen() {
+        // Act
+        Page<String> page = CountProvider.toPage(List.of("a", "b"), PageRequest.of(2, 10), false,
+                new CountProvider.TotalCount(30L, false));
+
+        // Assert
+        assertEquals(22L, page.getTotalElements());
+        assertTrue(page.isLast());
+    }
+
+    // endregion
+}
@@ -59,6 +59,9 @@ class DiscussionServiceUnitTest {
     @Mock
     private ApplicationEventPublisher eventPublisher; // Added as it's a dependency
 
+    @Mock
+    private CountProvider countProvider;
+
     @InjectMocks
     private DiscussionService discussionService;
 
@@ -235,13 +238,13 @@ class DiscussionServiceUnitTest {
         List<Discussion> discussionsList = Collections.singletonList(testDiscussion);
         long totalElements = 1L;
 
-        when(dynamicDAO.count(any(QuerySpec.class))).thenReturn(totalElements);
+        when(countProvider.discussionsInForum(forumId, false)).thenReturn(new CountProvider.TotalCount(totalElements, false));
         //when(dynamicDAO.find(any(QuerySpec.class))).thenReturn(discussionsList);
         doReturn(discussionsList).when(dynamicDAO).find(any(QuerySpec.class));
         when(discussionMapper.toDiscussionDTO(eq(testDiscussion))).thenReturn(testDiscussionDTO);
 
         // Act
-        ServiceResponse<PageResponseDTO<DiscussionDTO>> response = discussionService.findPaginatedDiscussions(forumId, pageable);
+        ServiceResponse<PageResponseDTO<DiscussionDTO>> response = discussionService.findPaginatedDiscussions(forumId, pageable, false);
 
         // Assert
         assertNotNull(response);
@@ -254,6 +257,7 @@ class DiscussionServiceUnitTest {
         assertEquals(0, resultPage.number());
         assertEquals(10, resultPage.size());
         assertEquals(1, resultPage.totalPages()); // totalElements = 1, size = 10 -> 1 page
+        assertFalse(resultPage.totalExact()); // total from the ForumStat
 
         // Verify QuerySpec details
         ArgumentCaptor<QuerySpec> querySpecCaptor = ArgumentCaptor.forClass(QuerySpec.class);
@@ -261,7 +265,7 @@ class DiscussionServiceUnitTest {
         QuerySpec capturedQuerySpec = querySpecCaptor.getValue();
 
         assertEquals(0, capturedQuerySpec.getStartIndex());
-        assertEquals(10, capturedQuerySpec.getMaxResult());
+        assertEquals(11, capturedQuerySpec.getMaxResult()); // one extra row to detect a next page
         assertNotNull(capturedQuerySpec.getOrders());
         assertEquals(1, capturedQuerySpec.getOrders().size());
         assertEquals("createDate", capturedQuerySpec.getOrders().get(0).field());
@@ -275,12 +279,12 @@ class DiscussionServiceUnitTest {
         Pageable pageable = PageRequest.of(0, 10);
         long totalElements = 0L;
 
-        when(dynamicDAO.count(any(QuerySpec.class))).thenReturn(totalElements);
+        when(countProvider.discussionsInForum(forumId, false)).thenReturn(new CountProvider.TotalCount(totalElements, false));
         when(dynamicDAO.find(any(QuerySpec.class))).thenReturn(Collections.emptyList());
         // discussionMapper.toDiscussionDTO will not be called if list is empty
 
         // Act
-        ServiceResponse<PageResponseDTO<DiscussionDTO>> response = discussionService.findPaginatedDiscussions(forumId, pageable);
+        ServiceResponse<PageResponseDTO<DiscussionDTO>> response = discussionService.findPaginatedDiscussions(forumId, pageable, false);
 
         // Assert
         assertNotNull(response);
@@ -294,15 +298,15 @@ class DiscussionServiceUnitTest {
     }
 
     @Test
-    void findPaginatedDiscussions_dynamicDaoCountThrowsException_returnsFailure() {
+    void findPaginatedDiscussions_countProviderThrowsException_returnsFailure() {
         // Arrange
         long forumId = 1L;
         Pageable pageable = PageRequest.of(0, 10);
         String errorMessage = "Database connection error during count";
-        when(dynamicDAO.count(any(QuerySpec.class))).thenThrow(new RuntimeException(errorMessage));
+        when(countProvider.discussionsInForum(forumId, false)).thenThrow(new RuntimeException(errorMessage));
 
         // Act
-        ServiceResponse<PageResponseDTO<DiscussionDTO>> response = discussionService.findPaginatedDiscussions(forumId, pageable);
+        ServiceResponse<PageResponseDTO<DiscussionDTO>> response = discussionService.findPaginatedDiscussions(forumId, pageable, false);
 
         // Assert
         assertNotNull(response);
@@ -313,7 +317,7 @@ class DiscussionServiceUnitTest {
         String expectedMessage = String.format("An unexpected error occurred while fetching discussions: %d", forumId);
         assertTrue(response.getMessages().contains(expectedMessage));
 
-        verify(dynamicDAO).count(any(QuerySpec.class));
+        verify(countProvider).discussionsInForum(forumId, false);
         verify(dynamicDAO, never()).find(any(QuerySpec.class)); // find should not be called
         verify(discussionMapper, never()).toDiscussionDTO(any());
     }
@@ -326,11 +330,11 @@ class DiscussionServiceUnitTest {
         long totalElements = 5L; // Assume count succeeds
         String errorMessage = "Database connection error during find";
 
-        when(dynamicDAO.count(any(QuerySpec.class))).thenReturn(totalElements);
+        when(countProvider.discussionsInForum(forumId, false)).thenReturn(new CountProvider.TotalCount(totalElements, false));
         when(dynamicDAO.find(any(QuerySpec.class))).thenThrow(new RuntimeException(errorMessage));
 
         // Act
-        ServiceResponse<PageResponseDTO<DiscussionDTO>> response = discussionService.findPaginatedDiscussions(forumId, pageable);
+        ServiceResponse<PageResponseDTO<DiscussionDTO>> response = discussionService.findPaginatedDiscussions(forumId, pageable, false);
 
         // Assert
         assertNotNull(response);
@@ -341,7 +345,7 @@ class DiscussionServiceUnitTest {
         String expectedMessage = String.format("An unexpected error occurred while fetching discussions: %d", forumId);
         assertTrue(response.getMessages().contains(expectedMessage));
 
-        verify(dynamicDAO).count(any(QuerySpec.class));
+        verify(countProvider).discussionsInForum(forumId, false);
         verify(dynamicDAO).find(any(QuerySpec.class));
         verify(discussionMapper, never()).toDiscussionDTO(any());
     }
@@ -0,0 +1,124 @@
+package com.github.chipolaris.bootforum2.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DiscussionViewCounterUnitTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DiscussionViewCounter discussionViewCounter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        discussionViewCounter = new DiscussionViewCounter(jdbcTemplate, transactionManager, meterRegistry, 1000, 1000);
+    }
+
+    @Test
+    void recordView_shouldOnlyAccumulateInMemory() {
+        // Act
+        discussionViewCounter.recordView(1L);
+        discussionViewCounter.recordView(1L);
+
+        // Assert
+        assertEquals(2, discussionViewCounter.getPendingViews());
+        assertEquals(2.0, meterRegistry.get("forum.discussion.views.pending").gauge().value());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldWriteOneBatchedDeltaPerDiscussion() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            discussionViewCounter.recordView(1L);
+        }
+        discussionViewCounter.recordView(2L);
+
+        // Act
+        long flushed = discussionViewCounter.flush();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+
+        Map<Long, Long> deltas = captor.getValue().stream()
+                .collect(Collectors.toMap(args -> (Long) args[2], args -> (Long) args[0]));
+        assertEquals(Map.of(1L, 3L, 2L, 1L), deltas);
+        assertEquals(4, flushed);
+        assertEquals(0, discussionViewCounter.getPendingViews());
+        assertEquals(1, meterRegistry.get("forum.discussion.views.flush").timer().count());
+    }
+
+    @Test
+    void flush_whenNothingPending_shouldNotHitDatabase() {
+        // Act
+        long flushed = discussionViewCounter.flush();
+
+        // Assert
+        assertEquals(0, flushed);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void flush_whenBatchFails_shouldKeepViewsPendingForNextFlush() {
+        // Arrange
+        discussionViewCounter.recordView(1L);
+        discussionViewCounter.recordView(1L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[]{1});
+
+        // Act
+        long firstAttempt = discussionViewCounter.flush();
+        long secondAttempt = discussionViewCounter.flush();
+
+        // Assert
+        assertEquals(0, firstAttempt);
+        assertEquals(2, secondAttempt);
+        assertEquals(0, discussionViewCounter.getPendingViews());
+    }
+
+    @Test
+    void flushIfDue_whenThresholdReached_shouldFlushBeforeInterval() {
+        // Arrange
+        DiscussionViewCounter counter = new DiscussionViewCounter(jdbcTemplate, transactionManager,
+                meterRegistry, 60_000, 2);
+        counter.recordView(1L);
+        counter.flushIfDue();
+        verifyNoInteractions(jdbcTemplate);
+
+        // Act
+        counter.recordView(1L);
+        counter.flushIfDue();
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertEquals(0, counter.getPendingViews());
+    }
+}
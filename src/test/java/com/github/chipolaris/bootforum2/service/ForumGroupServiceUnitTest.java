@@ -4,11 +4,12 @@ import com.github.chipolaris.bootforum2.dao.DynamicDAO;
 import com.github.chipolaris.bootforum2.dao.FilterSpec;
 import com.github.chipolaris.bootforum2.dao.GenericDAO;
 import com.github.chipolaris.bootforum2.dao.QuerySpec;
+import com.github.chipolaris.bootforum2.domain.Forum;
 import com.github.chipolaris.bootforum2.domain.ForumGroup;
-import com.github.chipolaris.bootforum2.dto.ForumGroupCreateDTO;
-import com.github.chipolaris.bootforum2.dto.ForumGroupDTO;
-import com.github.chipolaris.bootforum2.dto.ForumGroupUpdateDTO;
+import com.github.chipolaris.bootforum2.dto.*;
 import com.github.chipolaris.bootforum2.mapper.ForumGroupMapper;
+import com.github.chipolaris.bootforum2.mapper.ForumStatMapper;
+import com.github.chipolaris.bootforum2.repository.ForumRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -16,8 +17,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,6 +43,15 @@ class ForumGroupServiceUnitTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private ForumRepository forumRepository;
+
+    @Mock
+    private ForumStatMapper forumStatMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ForumGroupService forumGroupService;
 
@@ -266,4 +280,104 @@ class ForumGroupServiceUnitTest {
         verify(forumGroupMapper).toForumGroupDTO(rootForumGroup);
     }
     // endregion
-}
\ No newline at end of file
+
+    // region forum tree snapshot Tests
+    private ForumTreeTableDTO mappedForumTree(ForumStatDTO stat) {
+        ForumDTO forum1 = new ForumDTO(10L, "Forum 1", "First forum", "icon", "#000", true, 2L, stat);
+        ForumDTO forum2 = new ForumDTO(20L, "Forum 2", "Second forum", "icon", "#000", true, 2L, stat);
+        ForumGroupDTO subGroup = new ForumGroupDTO(2L, "Sub Group", "icon", "#000", 1L,
+                new ArrayList<>(List.of(forum1, forum2)), new ArrayList<>());
+        return new ForumTreeTableDTO(new ArrayList<>(), new ArrayList<>(List.of(subGroup)));
+    }
+
+    @Test
+    void getForumTreeSnapshot_shouldBuildOnceAndServeFromMemory() {
+        // Arrange
+        ForumGroup rootForumGroup = new ForumGroup();
+        rootForumGroup.setId(1L);
+        when(dynamicDAO.findOptional(any(QuerySpec.class))).thenReturn(Optional.of(rootForumGroup));
+        when(forumGroupMapper.toForumTreeTableDTO(rootForumGroup)).thenReturn(mappedForumTree(null));
+
+        // Act
+        ServiceResponse<ForumGroupService.ForumTreeSnapshot> first = forumGroupService.getForumTreeSnapshot();
+        ServiceResponse<ForumGroupService.ForumTreeSnapshot> second = forumGroupService.getForumTreeSnapshot();
+
+        // Assert
+        assertEquals(ServiceResponse.AckCodeType.SUCCESS, first.getAckCode());
+        assertSame(first.getDataObject(), second.getDataObject());
+        assertEquals(2, first.getDataObject().forumTreeTable().forumGroups().get(0).forums().size());
+        assertThrows(UnsupportedOperationException.class,
+                () -> first.getDataObject().forumTreeTable().forumGroups().get(0).forums().clear());
+
+        verify(forumRepository, times(1)).findAllWithStat();
+        verify(dynamicDAO, times(1)).findOptional(any(QuerySpec.class));
+    }
+
+    @Test
+    void getForumTreeSnapshot_whenNoRootGroup_shouldReturnFailure() {
+        // Arrange
+        when(dynamicDAO.findOptional(any(QuerySpec.class))).thenReturn(Optional.empty());
+
+        // Act
+        ServiceResponse<ForumTreeTableDTO> response = forumGroupService.getForumTreeTable();
+
+        // Assert
+        assertEquals(ServiceResponse.AckCodeType.FAILURE, response.getAckCode());
+        assertTrue(response.getMessages().contains("No root forum group found"));
+        assertNull(response.getDataObject());
+    }
+
+    @Test
+    void refreshStaleForumStats_shouldReplaceOnlyStaleForumStatsAndBumpVersion() {
+        // Arrange
+        ForumGroup rootForumGroup = new ForumGroup();
+        rootForumGroup.setId(1L);
+        ForumStatDTO oldStat = new ForumStatDTO(100L, null, null, 0, 0);
+        ForumStatDTO newStat = new ForumStatDTO(100L, null, null, 5, 1);
+        when(dynamicDAO.findOptional(any(QuerySpec.class))).thenReturn(Optional.of(rootForumGroup));
+        when(forumGroupMapper.toForumTreeTableDTO(rootForumGroup)).thenReturn(mappedForumTree(oldStat));
+
+        Forum forum1 = Forum.newForum();
+        forum1.setId(10L);
+        when(forumRepository.findWithStatByIdIn(Set.of(10L))).thenReturn(List.of(forum1));
+        when(forumStatMapper.toDTO(forum1.getStat())).thenReturn(newStat);
+
+        ForumGroupService.ForumTreeSnapshot before = forumGroupService.getForumTreeSnapshot().getDataObject();
+
+        // Act
+        forumGroupService.markForumStatsStale(Set.of(10L));
+        forumGroupService.refreshStaleForumStats();
+        forumGroupService.refreshStaleForumStats(); // nothing stale any more
+
+        // Assert
+        ForumGroupService.ForumTreeSnapshot after = forumGroupService.getForumTreeSnapshot().getDataObject();
+        List<ForumDTO> forums = after.forumTreeTable().forumGroups().get(0).forums();
+        assertEquals(newStat, forums.get(0).stat());
+        assertEquals(oldStat, forums.get(1).stat());
+        assertEquals(before.version() + 1, after.version());
+        assertNotEquals(before.etag(), after.etag());
+
+        verify(forumRepository, times(1)).findWithStatByIdIn(any());
+        verify(dynamicDAO, times(1)).findOptional(any(QuerySpec.class)); // no full rebuild
+    }
+
+    @Test
+    void invalidateForumTree_shouldRebuildOnNextRead() {
+        // Arrange
+        ForumGroup rootForumGroup = new ForumGroup();
+        rootForumGroup.setId(1L);
+        when(dynamicDAO.findOptional(any(QuerySpec.class))).thenReturn(Optional.of(rootForumGroup));
+        when(forumGroupMapper.toForumTreeTableDTO(rootForumGroup)).thenReturn(mappedForumTree(null));
+        ForumGroupService.ForumTreeSnapshot before = forumGroupService.getForumTreeSnapshot().getDataObject();
+
+        // Act
+        forumGroupService.invalidateForumTree();
+        ForumGroupService.ForumTreeSnapshot after = forumGroupService.getForumTreeSnapshot().getDataObject();
+
+        // Assert
+        assertNotSame(before, after);
+        assertNotEquals(before.etag(), after.etag());
+        verify(dynamicDAO, times(2)).findOptional(any(QuerySpec.class));
+    }
+    // endregion
+}
@@ -0,0 +1,101 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.config.ForumDefaultConfig;
+import com.github.chipolaris.bootforum2.domain.ForumSetting;
+import com.github.chipolaris.bootforum2.dto.SettingDTO;
+import com.github.chipolaris.bootforum2.repository.ForumSettingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ForumSettingServiceUnitTest {
+
+    @Mock
+    private ForumSettingRepository forumSettingRepository;
+
+    @Mock
+    private ForumDefaultConfig forumDefaultConfig;
+
+    @InjectMocks
+    private ForumSettingService forumSettingService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(forumDefaultConfig.getContent()).thenReturn(Map.of(
+                "posts", Map.of("minLength", 10, "maxLength", 20000)));
+        lenient().when(forumDefaultConfig.getImages()).thenReturn(Map.of(
+                "enabled", true, "allowedTypes", List.of("png", "jpg")));
+    }
+
+    private static ForumSetting forumSetting(String category, String key, String value, String type) {
+        ForumSetting forumSetting = ForumSetting.newInstance(category, key);
+        forumSetting.setValue(value);
+        forumSetting.setValueType(type);
+        return forumSetting;
+    }
+
+    @Test
+    void getSettingValue_shouldMergeTypedDatabaseValuesOverDefaultsWithOneLoad() {
+        // Arrange: values saved from the defaults are typed by class name, e.g. "integer"
+        when(forumSettingRepository.findAll()).thenReturn(List.of(
+                forumSetting("content", "posts.minLength", "5", "integer"),
+                forumSetting("images", "allowedTypes", "[\"gif\"]", "list")));
+
+        // Act & Assert
+        assertEquals(5, forumSettingService.getSettingValue("content", "posts.minLength").getDataObject());
+        assertEquals(20000, forumSettingService.getSettingValue("content", "posts.maxLength").getDataObject());
+        assertEquals(List.of("gif"), forumSettingService.getSettingValue("images", "allowedTypes").getDataObject());
+        assertEquals(Map.of("minLength", 5, "maxLength", 20000),
+                forumSettingService.getSettingValue("content", "posts").getDataObject());
+        assertTrue(forumSettingService.getSettingValue("content", "missing").isFailure());
+
+        verify(forumSettingRepository, times(1)).findAll();
+        verify(forumSettingRepository, never()).findByCategoryAndKeyName(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getSnapshot_shouldBeImmutable() {
+        // Arrange
+        when(forumSettingRepository.findAll()).thenReturn(List.of());
+
+        // Act
+        Object allowedTypes = forumSettingService.getSnapshot().get("images", "allowedTypes");
+
+        // Assert
+        assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) allowedTypes).add("exe"));
+    }
+
+    @Test
+    void saveOrUpdate_shouldReplaceSnapshotWithNewVersion() {
+        // Arrange
+        when(forumSettingRepository.findAll())
+                .thenReturn(List.of())
+                .thenReturn(List.of(forumSetting("content", "posts.minLength", "50", "number")));
+        when(forumSettingRepository.findByCategoryAndKeyName("content", "posts.minLength")).thenReturn(Optional.empty());
+        ForumSettingsSnapshot before = forumSettingService.getSnapshot();
+
+        // Act
+        ServiceResponse<Void> response = forumSettingService.saveOrUpdate(Map.of("content",
+                List.of(new SettingDTO("posts.minLength", "Posts / min Length", "number", 50, List.of()))));
+
+        // Assert
+        assertTrue(response.isSuccess());
+        ForumSettingsSnapshot after = forumSettingService.getSnapshot();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(10, before.get("content", "posts.minLength"));
+        assertEquals(50, after.get("content", "posts.minLength"));
+    }
+}
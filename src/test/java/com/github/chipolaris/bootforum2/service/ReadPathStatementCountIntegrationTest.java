@@ -0,0 +1,209 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.domain.*;
+import com.github.chipolaris.bootforum2.dto.CommentDTO;
+import com.github.chipolaris.bootforum2.dto.CursorPageDTO;
+import com.github.chipolaris.bootforum2.dto.DiscussionDTO;
+import com.github.chipolaris.bootforum2.dto.DiscussionSummaryDTO;
+import com.github.chipolaris.bootforum2.dto.PageResponseDTO;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement budgets of the discussion and comment read paths (the services behind the list and detail
+ * endpoints), measured with Hibernate {@link Statistics}.
+ *
+ * Every entity on a page has eager collections and associations, so a missing fetch plan shows up as
+ * statements growing with the page size. The budgets below don't depend on the page size (pages of
+ * {@value #PAGE_SIZE} are read): if one of these tests fails, a read path went back to N+1 loading.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ReadPathStatementCountIntegrationTest {
+
+    private static final int PAGE_SIZE = 25;
+
+    @Autowired
+    private DiscussionService discussionService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    private Forum forum;
+    private Discussion discussion;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        ForumGroup forumGroup = new ForumGroup();
+        forumGroup.setTitle("Statement Count Group");
+        entityManager.persist(forumGroup);
+
+        forum = Forum.newForum();
+        forum.setTitle("Statement Count Forum");
+        forum.setForumGroup(forumGroup);
+        entityManager.persist(forum);
+
+        List<Tag> tags = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Tag tag = new Tag();
+            tag.setLabel("tag-" + i);
+            entityManager.persist(tag);
+            tags.add(tag);
+        }
+
+        for (int i = 0; i < PAGE_SIZE + 5; i++) {
+            Discussion newDiscussion = Discussion.newDiscussion();
+            newDiscussion.setTitle("Discussion " + i);
+            newDiscussion.setContent("Content of discussion " + i);
+            newDiscussion.setCreateBy("user" + i);
+            newDiscussion.setForum(forum);
+            newDiscussion.setTags(Set.of(tags.get(i % 3), tags.get((i + 1) % 3)));
+            newDiscussion.setAttachments(List.of(newFileInfo("attachment-" + i)));
+            newDiscussion.setImages(List.of(newFileInfo("image-" + i)));
+            entityManager.persist(newDiscussion);
+            discussion = newDiscussion;
+        }
+        forum.getStat().setDiscussionCount(PAGE_SIZE + 5);
+
+        // each comment replies to the previous one: eager replyTo would load the whole chain
+        Comment previous = null;
+        LocalDateTime firstCommentDate = LocalDateTime.now().minusHours(1);
+        for (int i = 0; i < PAGE_SIZE + 5; i++) {
+            Comment comment = new Comment();
+            comment.setDiscussion(discussion);
+            comment.setTitle("Comment " + i);
+            comment.setContent("Content of comment " + i);
+            comment.setCreateBy("user" + i);
+            comment.setCreateDate(firstCommentDate.plusSeconds(i));
+            comment.setReplyTo(previous);
+            comment.setAttachments(List.of(newFileInfo("comment-attachment-" + i)));
+            comment.setImages(List.of(newFileInfo("comment-image-" + i)));
+            comment.setCommentVote(new CommentVote());
+            entityManager.persist(comment);
+            previous = comment;
+        }
+        discussion.getStat().setCommentCount(PAGE_SIZE + 5);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void discussionSummariesForForum_statementsIndependentOfPageSize() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createDate"));
+
+        // stat count, summary projection, tags of the page
+        ServiceResponse<PageResponseDTO<DiscussionSummaryDTO>> response = assertStatementCount(3,
+                () -> discussionService.findPaginatedDiscussionSummariesForForum(forum.getId(), pageable, false));
+
+        assertTrue(response.isSuccess());
+        assertEquals(PAGE_SIZE, response.getDataObject().content().size());
+        assertEquals(2, response.getDataObject().content().get(0).tags().size());
+    }
+
+    @Test
+    void discussionSummariesAfterCursor_statementsIndependentOfPageSize() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createDate"));
+
+        // keyset ids, page by ids (with stat), tags batch, forum
+        ServiceResponse<CursorPageDTO<DiscussionSummaryDTO>> response = assertStatementCount(4,
+                () -> discussionService.findDiscussionSummariesAfter(forum.getId(), "", pageable, false, false));
+
+        assertTrue(response.isSuccess());
+        assertEquals(PAGE_SIZE, response.getDataObject().content().size());
+    }
+
+    @Test
+    void paginatedDiscussions_statementsIndependentOfPageSize() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createDate"));
+
+        // stat count, page (with stat), tags, attachments, images and participants batches, forum
+        ServiceResponse<PageResponseDTO<DiscussionDTO>> response = assertStatementCount(7,
+                () -> discussionService.findPaginatedDiscussions(forum.getId(), pageable, false));
+
+        assertTrue(response.isSuccess());
+        assertEquals(PAGE_SIZE, response.getDataObject().content().size());
+    }
+
+    @Test
+    void discussionDetail_loadsInFewStatements() {
+        // discussion (with stat and tags), participants, attachments, images, forum
+        ServiceResponse<DiscussionDTO> response = assertStatementCount(5,
+                () -> discussionService.getDiscussion(discussion.getId()));
+
+        assertTrue(response.isSuccess());
+        assertEquals(1, response.getDataObject().attachments().size());
+    }
+
+    @Test
+    void commentPage_statementsIndependentOfPageSize() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.ASC, "createDate"));
+
+        // stat count, page (with vote summaries), attachments, images and votes batches
+        ServiceResponse<PageResponseDTO<CommentDTO>> response = assertStatementCount(5,
+                () -> commentService.findPaginatedComments(discussion.getId(), pageable, false));
+
+        assertTrue(response.isSuccess());
+        List<CommentDTO> comments = response.getDataObject().content();
+        assertEquals(PAGE_SIZE, comments.size());
+        assertEquals(comments.get(0).id(), comments.get(1).replyToId());
+    }
+
+    @Test
+    void commentsAfterCursor_statementsIndependentOfPageSize() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.ASC, "createDate"));
+
+        // keyset ids, page by ids (with vote summaries), attachments, images and votes batches
+        ServiceResponse<CursorPageDTO<CommentDTO>> response = assertStatementCount(5,
+                () -> commentService.findCommentsAfter(discussion.getId(), "", pageable, false, false));
+
+        assertTrue(response.isSuccess());
+        assertEquals(PAGE_SIZE, response.getDataObject().content().size());
+    }
+
+    private <T> T assertStatementCount(long maxStatements, Supplier<T> readPath) {
+        statistics.clear();
+
+        T result = readPath.get();
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= maxStatements,
+                "Expected at most %d statements, but %d were prepared".formatted(maxStatements, statements));
+        return result;
+    }
+
+    private FileInfo newFileInfo(String name) {
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setOriginalFilename(name + ".png");
+        fileInfo.setMimeType("image/png");
+        fileInfo.setPath("/test/" + name + ".png");
+        fileInfo.setFileSize(1024L);
+        return fileInfo;
+    }
+}
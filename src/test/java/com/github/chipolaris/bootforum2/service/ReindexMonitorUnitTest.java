@@ -0,0 +1,52 @@
+package com.github.chipolaris.bootforum2.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReindexMonitorUnitTest {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    @Test
+    void indexed_shouldIncludeDocumentsOfTheResumedRun() {
+        // Arrange
+        ReindexMonitor monitor = new ReindexMonitor(1000, 400, nanoClock::get);
+
+        // Act
+        monitor.documentsAdded(50);
+        monitor.documentsAdded(25);
+
+        // Assert
+        assertEquals(75, monitor.getDocumentsAdded());
+        assertEquals(475, monitor.getIndexed());
+    }
+
+    @Test
+    void rateAndEta_shouldBeComputedFromTheDocumentsOfThisRun() {
+        // Arrange
+        ReindexMonitor monitor = new ReindexMonitor(1000, 400, nanoClock::get);
+
+        // Act
+        monitor.documentsAdded(200);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        // Assert: 200 documents in 2 seconds, 400 documents left
+        assertEquals(100.0, monitor.getDocumentsPerSecond(), 0.001);
+        assertEquals(4L, monitor.getEtaSeconds());
+    }
+
+    @Test
+    void eta_shouldBeUnknownBeforeTheFirstDocuments() {
+        // Arrange
+        ReindexMonitor monitor = new ReindexMonitor(1000, 0, nanoClock::get);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // Act & Assert
+        assertEquals(0.0, monitor.getDocumentsPerSecond());
+        assertNull(monitor.getEtaSeconds());
+    }
+}
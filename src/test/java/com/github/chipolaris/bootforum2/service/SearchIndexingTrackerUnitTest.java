@@ -0,0 +1,114 @@
+package com.github.chipolaris.bootforum2.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.search.engine.backend.work.execution.DocumentCommitStrategy;
+import org.hibernate.search.engine.backend.work.execution.DocumentRefreshStrategy;
+import org.hibernate.search.mapper.pojo.work.IndexingPlanSynchronizationStrategyConfigurationContext;
+import org.hibernate.search.mapper.pojo.work.SearchIndexingPlanExecutionReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexingTrackerUnitTest {
+
+    @Mock
+    private IndexingPlanSynchronizationStrategyConfigurationContext context;
+
+    @Mock
+    private SearchIndexingPlanExecutionReport report;
+
+    private SearchIndexingTracker searchIndexingTracker;
+
+    private Consumer<CompletableFuture<SearchIndexingPlanExecutionReport>> indexingFutureHandler;
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void setUp() {
+        searchIndexingTracker = new SearchIndexingTracker(true, 100);
+        searchIndexingTracker.apply(context);
+
+        ArgumentCaptor<Consumer> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(context).indexingFutureHandler(captor.capture());
+        indexingFutureHandler = captor.getValue();
+    }
+
+    @Test
+    void apply_inAsyncMode_shouldNeitherCommitNorRefresh() {
+        // Assert
+        verify(context).documentCommitStrategy(DocumentCommitStrategy.NONE);
+        verify(context).documentRefreshStrategy(DocumentRefreshStrategy.NONE);
+    }
+
+    @Test
+    void tokens_shouldBeIndexedOnceTheirPlanAndEarlierOnesAreExecuted() {
+        // Arrange
+        when(report.throwable()).thenReturn(Optional.empty());
+        CompletableFuture<SearchIndexingPlanExecutionReport> first = new CompletableFuture<>();
+        CompletableFuture<SearchIndexingPlanExecutionReport> second = new CompletableFuture<>();
+
+        // Act
+        indexingFutureHandler.accept(first);
+        indexingFutureHandler.accept(second);
+        long secondToken = searchIndexingTracker.getLastToken();
+        second.complete(report);
+
+        // Assert: the first plan is still pending, so the second token isn't indexed yet
+        assertEquals(2, secondToken);
+        assertFalse(searchIndexingTracker.isIndexed(secondToken));
+        assertEquals(1, searchIndexingTracker.getPendingCount());
+
+        // Act
+        first.complete(report);
+
+        // Assert
+        assertTrue(searchIndexingTracker.isIndexed(secondToken));
+        assertEquals(0, searchIndexingTracker.getIndexingLagMillis());
+    }
+
+    @Test
+    void awaitIndexed_shouldTimeOutWhilePlanIsPending() {
+        // Arrange
+        indexingFutureHandler.accept(new CompletableFuture<>());
+
+        // Act & Assert
+        assertFalse(searchIndexingTracker.awaitIndexed(searchIndexingTracker.getLastToken()));
+    }
+
+    @Test
+    void awaitIndexed_shouldReturnWhenPlanIsExecuted() {
+        // Arrange
+        when(report.throwable()).thenReturn(Optional.empty());
+        CompletableFuture<SearchIndexingPlanExecutionReport> future = new CompletableFuture<>();
+        indexingFutureHandler.accept(future);
+        CompletableFuture.delayedExecutor(20, java.util.concurrent.TimeUnit.MILLISECONDS)
+                .execute(() -> future.complete(report));
+
+        // Act & Assert
+        assertTrue(searchIndexingTracker.awaitIndexed(searchIndexingTracker.getLastToken()));
+    }
+
+    @Test
+    void bindTo_shouldPublishLagAndPendingGauges() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        indexingFutureHandler.accept(new CompletableFuture<>());
+
+        // Act
+        searchIndexingTracker.bindTo(meterRegistry);
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("forum.search.indexing.pending").gauge().value());
+        assertNotNull(meterRegistry.get("forum.search.indexing.lag").timeGauge());
+    }
+}
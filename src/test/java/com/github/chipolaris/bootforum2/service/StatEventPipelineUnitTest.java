@@ -0,0 +1,182 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.event.ForumStatChangedEvent;
+import com.github.chipolaris.bootforum2.repository.DiscussionStatRepository;
+import com.github.chipolaris.bootforum2.repository.ForumStatRepository;
+import com.github.chipolaris.bootforum2.repository.UserStatRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatEventPipelineUnitTest {
+
+    @Mock
+    private DiscussionStatRepository discussionStatRepository;
+
+    @Mock
+    private ForumStatRepository forumStatRepository;
+
+    @Mock
+    private UserStatRepository userStatRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private StatEventPipeline newPipeline(boolean enabled) {
+        return new StatEventPipeline(discussionStatRepository, forumStatRepository, userStatRepository,
+                transactionManager, eventPublisher, new SimpleAsyncTaskExecutor("stat-pipeline-"), meterRegistry,
+                enabled, 1, 100, 300, 1000, 100, 3, 10);
+    }
+
+    @Test
+    void merge_shouldSumCountersAndKeepNewestInfos() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        StatUpdate first = StatUpdate.ofLogin("user1", now.minusMinutes(5));
+        StatUpdate second = StatUpdate.ofLogin("user1", now);
+        StatUpdate reputation = StatUpdate.ofReputation("user1", 3);
+
+        // Act
+        first.merge(second);
+        first.merge(reputation);
+
+        // Assert
+        assertEquals(now, first.getLastLogin());
+        assertEquals(3, first.getReputation());
+        assertEquals(3, first.getMergedCount());
+    }
+
+    @Test
+    void merge_whenDifferentRows_shouldFail() {
+        assertThrows(IllegalArgumentException.class,
+                () -> StatUpdate.ofProfileViewed("user1").merge(StatUpdate.ofProfileViewed("user2")));
+    }
+
+    @Test
+    void submit_shouldCoalesceUpdatesOfSameRowIntoOneWrite() {
+        // Arrange
+        StatEventPipeline pipeline = newPipeline(true);
+        pipeline.start();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit(StatUpdate.ofProfileViewed("user1"));
+        }
+        pipeline.submit(StatUpdate.ofReputation("user2", 1));
+        pipeline.stop();
+
+        // Assert
+        verify(userStatRepository).addProfileViewedByUsername("user1", 5L);
+        verify(userStatRepository).addReputationByUsername("user2", 1L);
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(3.0, pipeline.getCoalescingRatio());
+        assertEquals(0, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void submit_whenWriteFails_shouldWriteBatchAgainAfterBackoff() {
+        // Arrange
+        doThrow(new TransactionSystemException("Database unavailable")).doNothing()
+                .when(transactionManager).commit(any());
+        StatEventPipeline pipeline = newPipeline(true);
+        pipeline.start();
+
+        // Act
+        pipeline.submit(StatUpdate.ofProfileViewed("user1"));
+        pipeline.submit(StatUpdate.ofProfileViewed("user1"));
+        pipeline.stop();
+
+        // Assert
+        verify(userStatRepository, times(2)).addProfileViewedByUsername("user1", 2L);
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(0, meterRegistry.counter("forum.stats.pipeline.updates.failed").count());
+    }
+
+    @Test
+    void submit_whenWriteKeepsFailing_shouldDropOnlyAfterMaxAttempts() {
+        // Arrange
+        doThrow(new TransactionSystemException("Database unavailable")).when(transactionManager).commit(any());
+        StatEventPipeline pipeline = newPipeline(false);
+        pipeline.start();
+
+        // Act
+        pipeline.submit(StatUpdate.ofProfileViewed("user1"));
+
+        // Assert
+        verify(transactionManager, times(3)).commit(any());
+        assertEquals(1, meterRegistry.counter("forum.stats.pipeline.updates.failed").count());
+    }
+
+    @Test
+    void submit_whenStopped_shouldWriteUpdateDirectly() {
+        // Arrange
+        StatEventPipeline pipeline = newPipeline(true);
+        pipeline.start();
+        pipeline.stop();
+
+        // Act
+        pipeline.submit(StatUpdate.ofProfileViewed("user1"));
+
+        // Assert
+        verify(userStatRepository).addProfileViewedByUsername("user1", 1L);
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(0, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void submit_whenDisabled_shouldWriteEachUpdateDirectly() {
+        // Arrange
+        StatEventPipeline pipeline = newPipeline(false);
+        pipeline.start();
+
+        // Act
+        pipeline.submit(StatUpdate.ofProfileViewed("user1"));
+        pipeline.submit(StatUpdate.ofProfileViewed("user1"));
+
+        // Assert
+        verify(userStatRepository, times(2)).addProfileViewedByUsername("user1", 1L);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void submit_whenForumStatWritten_shouldPublishForumStatChangedEvent() {
+        // Arrange
+        StatEventPipeline pipeline = newPipeline(false);
+        pipeline.start();
+
+        // Act
+        pipeline.submit(StatUpdate.forForum(7L));
+        pipeline.submit(StatUpdate.ofProfileViewed("user1"));
+
+        // Assert
+        ArgumentCaptor<ForumStatChangedEvent> eventCaptor = ArgumentCaptor.forClass(ForumStatChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertEquals(Set.of(7L), eventCaptor.getValue().getForumIds());
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.domain.RevokedToken;
+import com.github.chipolaris.bootforum2.enumeration.RevocationReason;
+import com.github.chipolaris.bootforum2.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceUnitTest {
+
+    private static final long JWT_EXPIRATION_MS = 3600000;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, transactionManager,
+                JWT_EXPIRATION_MS, 100, 0.01);
+    }
+
+    @Test
+    void revokeToken_shouldPersistAndDenyTheTokenOnly() {
+        // Arrange
+        Date expiration = new Date(System.currentTimeMillis() + JWT_EXPIRATION_MS);
+        Date issuedAt = new Date();
+
+        // Act
+        tokenRevocationService.revokeToken("jti-1", "alice", expiration, RevocationReason.LOGOUT);
+
+        // Assert
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        assertEquals("jti-1", captor.getValue().getTokenId());
+        assertEquals(RevocationReason.LOGOUT, captor.getValue().getReason());
+
+        assertTrue(tokenRevocationService.isRevoked("jti-1", "alice", issuedAt));
+        assertFalse(tokenRevocationService.isRevoked("jti-2", "alice", issuedAt));
+    }
+
+    @Test
+    void revokeUserTokens_shouldDenyTokensIssuedBeforeOnly() {
+        // Arrange
+        Date issuedBefore = new Date(System.currentTimeMillis() - 5000);
+
+        // Act
+        tokenRevocationService.revokeUserTokens("alice", RevocationReason.PASSWORD_CHANGE);
+
+        // Assert
+        assertTrue(tokenRevocationService.isRevoked("jti-1", "alice", issuedBefore));
+        assertFalse(tokenRevocationService.isRevoked("jti-2", "alice", new Date(System.currentTimeMillis() + 1000)));
+        assertFalse(tokenRevocationService.isRevoked("jti-3", "bob", issuedBefore));
+    }
+
+    @Test
+    void refresh_shouldLoadEntriesOfOtherInstancesAndEvictExpiredOnes() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        tokenRevocationService.revokeToken("expired", "alice",
+                Date.from(now.minusMinutes(1).atZone(ZoneId.systemDefault()).toInstant()), RevocationReason.LOGOUT);
+        RevokedToken loaded = RevokedToken.newRevokedToken("jti-remote", "bob", now.plusMinutes(30),
+                RevocationReason.LOGOUT);
+        when(revokedTokenRepository.deleteExpired(any(LocalDateTime.class))).thenReturn(1);
+        when(revokedTokenRepository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of(loaded));
+
+        // Act
+        tokenRevocationService.refresh();
+
+        // Assert
+        assertTrue(tokenRevocationService.isRevoked("jti-remote", "bob", new Date()));
+        assertFalse(tokenRevocationService.isRevoked("expired", "alice", new Date()));
+        assertEquals(1, tokenRevocationService.getRevokedTokenCount());
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.domain.Comment;
+import com.github.chipolaris.bootforum2.domain.Discussion;
+import com.github.chipolaris.bootforum2.dto.admin.TrendingTermDTO;
+import com.github.chipolaris.bootforum2.repository.CommentRepository;
+import com.github.chipolaris.bootforum2.repository.DiscussionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingTermsServiceUnitTest {
+
+    @Mock
+    private DiscussionRepository discussionRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TrendingTermsService trendingTermsService;
+
+    @BeforeEach
+    void setUp() {
+        trendingTermsService = new TrendingTermsService(discussionRepository, commentRepository, transactionManager,
+                new SimpleAsyncTaskExecutor(), 7, 1000, List.of("forum"));
+    }
+
+    @Test
+    void extractTerms_shouldSkipMarkupNumbersShortWordsAndStopwords() {
+        // Act
+        Set<String> terms = trendingTermsService.extractTerms(
+                "<p>The Spring forum &amp; the Hibernate forum, since 2024</p> <b>spring</b>");
+
+        // Assert
+        assertEquals(Set.of("spring", "hibernate", "since"), terms);
+    }
+
+    @Test
+    void getTrendingTerms_shouldMergeBackfilledAndLiveDays() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        when(discussionRepository.streamTextCreatedBefore(any())).thenReturn(Stream.of(
+                new Object[] { now.minusDays(2), "Spring Boot upgrade", "Upgrading spring" },
+                // older than the retention, only in the all-time totals
+                new Object[] { now.minusDays(30), "Lucene indexing", "Lucene" }));
+        when(commentRepository.streamTextCreatedBefore(any())).thenReturn(Stream.<Object[]>of(
+                new Object[] { now.minusDays(1), "spring apache" }));
+        trendingTermsService.backfill();
+
+        Comment comment = new Comment();
+        comment.setCreateDate(LocalDateTime.now().plusSeconds(1));
+        comment.setContent("Lucene or spring?");
+        trendingTermsService.recordComment(comment);
+
+        // Act
+        ServiceResponse<List<TrendingTermDTO>> week = trendingTermsService.getTrendingTerms(2, "week", null, null);
+        ServiceResponse<List<TrendingTermDTO>> all = trendingTermsService.getTrendingTerms(2, "all", null, null);
+
+        // Assert
+        assertTrue(trendingTermsService.isReady());
+        assertEquals(List.of(new TrendingTermDTO("spring", 4, 1, 1, 2),
+                new TrendingTermDTO("apache", 1, 0, 0, 1)), week.getDataObject());
+        assertEquals(List.of(new TrendingTermDTO("spring", 4, 1, 1, 2),
+                new TrendingTermDTO("lucene", 3, 1, 1, 1)), all.getDataObject());
+    }
+
+    @Test
+    void recordDiscussion_shouldIgnoreDiscussionsCoveredByTheBackfill() {
+        // Arrange
+        when(discussionRepository.streamTextCreatedBefore(any())).thenReturn(Stream.empty());
+        when(commentRepository.streamTextCreatedBefore(any())).thenReturn(Stream.empty());
+        trendingTermsService.backfill();
+
+        Discussion discussion = Discussion.newDiscussion();
+        discussion.setCreateDate(LocalDateTime.now().minusMinutes(1));
+        discussion.setTitle("Counted by the backfill");
+
+        // Act
+        trendingTermsService.recordDiscussion(discussion);
+
+        // Assert
+        assertTrue(trendingTermsService.getTrendingTerms(10, "all", null, null).getDataObject().isEmpty());
+    }
+
+    @Test
+    void getTrendingTerms_customPeriod_shouldRequireOrderedDates() {
+        // Act
+        ServiceResponse<List<TrendingTermDTO>> response = trendingTermsService.getTrendingTerms(10, "custom",
+                LocalDate.now(), LocalDate.now().minusDays(1));
+
+        // Assert
+        assertTrue(response.isFailure());
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.chipolaris.bootforum2.service;
+
+import com.github.chipolaris.bootforum2.enumeration.AccountStatus;
+import com.github.chipolaris.bootforum2.enumeration.UserRole;
+import com.github.chipolaris.bootforum2.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalCacheUnitTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserPrincipalCache userPrincipalCache;
+
+    @BeforeEach
+    void setUp() {
+        userPrincipalCache = new UserPrincipalCache(userRepository, 60000, 100);
+    }
+
+    @Test
+    void getPrincipal_whenClaimsHold_shouldBuildPrincipalAndQueryOnce() {
+        // Arrange
+        when(userRepository.findAccountStatusAndRolesByUsername("alice")).thenReturn(List.of(
+                new Object[]{AccountStatus.ACTIVE, UserRole.USER},
+                new Object[]{AccountStatus.ACTIVE, UserRole.ADMIN}));
+
+        // Act
+        Optional<UserDetails> first = userPrincipalCache.getPrincipal("alice", Set.of("ROLE_USER", "ROLE_ADMIN"));
+        Optional<UserDetails> second = userPrincipalCache.getPrincipal("alice", Set.of("ROLE_USER", "ROLE_ADMIN"));
+
+        // Assert
+        assertTrue(first.isPresent());
+        assertEquals("alice", first.get().getUsername());
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), first.get().getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+        assertTrue(second.isPresent());
+        verify(userRepository, times(1)).findAccountStatusAndRolesByUsername("alice");
+    }
+
+    @Test
+    void getPrincipal_whenRolesChanged_shouldBeEmpty() {
+        // Arrange
+        when(userRepository.findAccountStatusAndRolesByUsername("alice")).thenReturn(List.<Object[]>of(
+                new Object[]{AccountStatus.ACTIVE, UserRole.USER}));
+
+        // Act & Assert
+        assertTrue(userPrincipalCache.getPrincipal("alice", Set.of("ROLE_USER", "ROLE_ADMIN")).isEmpty());
+    }
+
+    @Test
+    void getPrincipal_whenAccountNotActive_shouldBeEmpty() {
+        // Arrange
+        when(userRepository.findAccountStatusAndRolesByUsername("alice")).thenReturn(List.<Object[]>of(
+                new Object[]{AccountStatus.LOCKED, UserRole.USER}));
+
+        // Act & Assert
+        assertTrue(userPrincipalCache.getPrincipal("alice", Set.of("ROLE_USER")).isEmpty());
+    }
+
+    @Test
+    void getPrincipal_whenUserUnknown_shouldBeEmpty() {
+        // Arrange
+        when(userRepository.findAccountStatusAndRolesByUsername("ghost")).thenReturn(List.of());
+
+        // Act & Assert
+        assertTrue(userPrincipalCache.getPrincipal("ghost", Set.of("ROLE_USER")).isEmpty());
+    }
+
+    @Test
+    void invalidate_shouldReloadStateOnNextRequest() {
+        // Arrange
+        when(userRepository.findAccountStatusAndRolesByUsername("alice"))
+                .thenReturn(List.<Object[]>of(new Object[]{AccountStatus.ACTIVE, UserRole.USER}))
+                .thenReturn(List.<Object[]>of(new Object[]{AccountStatus.INACTIVE, UserRole.USER}));
+        assertTrue(userPrincipalCache.getPrincipal("alice", Set.of("ROLE_USER")).isPresent());
+
+        // Act
+        userPrincipalCache.invalidate("alice");
+
+        // Assert
+        assertTrue(userPrincipalCache.getPrincipal("alice", Set.of("ROLE_USER")).isEmpty());
+        verify(userRepository, times(2)).findAccountStatusAndRolesByUsername("alice");
+    }
+}